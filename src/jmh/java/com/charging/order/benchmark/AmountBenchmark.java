@@ -0,0 +1,161 @@
+package com.charging.order.benchmark;
+
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 金额与电量表示基准
+ * Amount Representation Benchmark
+ *
+ * 对比 BigDecimal 与定点数 Money / Energy 在热路径上的开销：结算退款（减法）、电表读数累加（加法）、
+ * 请求参数解析以及订单金额字段的 JSON 序列化。配合 GC profiler 的 gc.alloc.rate.norm 查看每次操作的分配字节数。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AmountBenchmark {
+
+    private static final int READINGS = 16;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BigDecimal prepaidDecimal;
+
+    private BigDecimal orderDecimal;
+
+    private BigDecimal[] readingDecimals;
+
+    private Money prepaidMoney;
+
+    private Money orderMoney;
+
+    private Energy[] readingEnergies;
+
+    private DecimalAmounts decimalAmounts;
+
+    private FixedPointAmounts fixedPointAmounts;
+
+    @Setup
+    public void setUp() {
+        prepaidDecimal = new BigDecimal("100.00");
+        orderDecimal = new BigDecimal("60.00");
+        prepaidMoney = Money.of(prepaidDecimal);
+        orderMoney = Money.of(orderDecimal);
+
+        readingDecimals = new BigDecimal[READINGS];
+        readingEnergies = new Energy[READINGS];
+        for (int i = 0; i < READINGS; i++) {
+            readingDecimals[i] = BigDecimal.valueOf(125 + i, 3);
+            readingEnergies[i] = Energy.ofWh(125 + i);
+        }
+
+        decimalAmounts = new DecimalAmounts();
+        decimalAmounts.setChargingAmount(new BigDecimal("50.5"));
+        decimalAmounts.setOrderAmount(orderDecimal);
+        decimalAmounts.setPrepaidAmount(prepaidDecimal);
+        decimalAmounts.setRefundAmount(prepaidDecimal.subtract(orderDecimal));
+
+        fixedPointAmounts = new FixedPointAmounts();
+        fixedPointAmounts.setChargingAmount(Energy.of("50.5"));
+        fixedPointAmounts.setOrderAmount(orderMoney);
+        fixedPointAmounts.setPrepaidAmount(prepaidMoney);
+        fixedPointAmounts.setRefundAmount(prepaidMoney.subtract(orderMoney));
+    }
+
+    @Benchmark
+    public BigDecimal settleRefundBigDecimal() {
+        return prepaidDecimal.subtract(orderDecimal);
+    }
+
+    @Benchmark
+    public Money settleRefundMoney() {
+        return prepaidMoney.subtract(orderMoney);
+    }
+
+    @Benchmark
+    public BigDecimal accumulateReadingsBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal reading : readingDecimals) {
+            total = total.add(reading);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Energy accumulateReadingsEnergy() {
+        Energy total = Energy.ZERO;
+        for (Energy reading : readingEnergies) {
+            total = total.add(reading);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimal() {
+        return new BigDecimal("60.00");
+    }
+
+    @Benchmark
+    public Money parseMoney() {
+        return Money.of("60.00");
+    }
+
+    @Benchmark
+    public byte[] serializeBigDecimalAmounts() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(decimalAmounts);
+    }
+
+    @Benchmark
+    public byte[] serializeFixedPointAmounts() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(fixedPointAmounts);
+    }
+
+    /**
+     * 原 ChargingOrder 的金额字段
+     */
+    @Data
+    public static class DecimalAmounts {
+
+        private BigDecimal chargingAmount;
+
+        private BigDecimal orderAmount;
+
+        private BigDecimal prepaidAmount;
+
+        private BigDecimal refundAmount;
+    }
+
+    /**
+     * 定点数表示的金额字段
+     */
+    @Data
+    public static class FixedPointAmounts {
+
+        private Energy chargingAmount;
+
+        private Money orderAmount;
+
+        private Money prepaidAmount;
+
+        private Money refundAmount;
+    }
+}
@@ -0,0 +1,84 @@
+package com.charging.order.benchmark;
+
+import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.config.StateMachineProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.statemachine.TransitionEngineType;
+import com.charging.order.domain.strategy.PaymentStrategyFactory;
+import com.charging.order.domain.strategy.PostPaidStrategy;
+import com.charging.order.domain.strategy.PrePaidStrategy;
+import com.charging.order.infrastructure.id.OrderIdGenerator;
+import com.charging.order.infrastructure.metrics.OrderMetrics;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * 基准测试公共装配
+ * Benchmark Fixtures
+ *
+ * 不启动 Spring 容器，直接手工装配服务。
+ * COLA 按 machineId 全局注册状态机，同一 JVM 内策略只能各构建一次，因此策略实例在此共享。
+ */
+final class BenchmarkFixtures {
+
+    static final PrePaidStrategy PRE_PAID_STRATEGY = new PrePaidStrategy();
+
+    static final PostPaidStrategy POST_PAID_STRATEGY = new PostPaidStrategy();
+
+    static final PaymentStrategyFactory STRATEGY_FACTORY = strategyFactory(TransitionEngineType.COLA);
+
+    static final Money PREPAID_AMOUNT = Money.of("100.00");
+
+    static final Energy CHARGING_AMOUNT = Energy.of("50.5");
+
+    static final Money ORDER_AMOUNT = Money.of("60.00");
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 创建两种支付类型都使用指定迁移引擎的策略工厂
+     */
+    static PaymentStrategyFactory strategyFactory(TransitionEngineType engineType) {
+        StateMachineProperties properties = new StateMachineProperties();
+        for (PaymentType paymentType : PaymentType.values()) {
+            properties.getEngines().put(paymentType, engineType);
+        }
+        return new PaymentStrategyFactory(Arrays.asList(PRE_PAID_STRATEGY, POST_PAID_STRATEGY), properties);
+    }
+
+    /**
+     * 创建一个只使用内存仓储的订单服务
+     */
+    static ChargingOrderService newOrderService(TransitionEngineType engineType, ChargingOrderRepository repository) {
+        return new ChargingOrderService(strategyFactory(engineType), repository, new OrderIdGenerator(0),
+                new OrderMetrics(new SimpleMeterRegistry()));
+    }
+
+    /**
+     * 直接构造处于指定状态的订单，绕过状态机，用于单步基准
+     */
+    static ChargingOrder order(PaymentType paymentType, OrderState state) {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId("bench-order");
+        order.setUserId("bench-user");
+        order.setChargingPileId("bench-pile");
+        order.setPaymentType(paymentType);
+        order.setState(state);
+        order.setChargingAmount(CHARGING_AMOUNT);
+        order.setOrderAmount(ORDER_AMOUNT);
+        if (paymentType == PaymentType.PRE_PAID) {
+            order.setPrepaidAmount(PREPAID_AMOUNT);
+        }
+        order.setCreateTime(LocalDateTime.now());
+        order.setUpdateTime(order.getCreateTime());
+        return order;
+    }
+}
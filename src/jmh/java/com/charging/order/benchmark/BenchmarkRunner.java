@@ -0,0 +1,67 @@
+package com.charging.order.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试入口
+ * Benchmark Runner
+ *
+ * 用法：mvn -Pbenchmarks test-compile exec:exec -Djmh.args="--threads=1,8 OrderLifecycle"
+ *
+ * 对每个线程数各跑一轮（默认 1 和 CPU 核数），同时挂载 GC profiler 统计分配速率，
+ * 结果以 JSON 写入 target/jmh/result-t{线程数}.json，便于版本之间对比回归。
+ * 除 --threads 外的参数原样交给 JMH 命令行解析。
+ */
+public final class BenchmarkRunner {
+
+    private static final String THREADS_ARG = "--threads=";
+
+    private static final String RESULT_DIR = "target/jmh";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = {1, Runtime.getRuntime().availableProcessors()};
+        List<String> jmhArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(THREADS_ARG)) {
+                threadCounts = parseThreadCounts(arg.substring(THREADS_ARG.length()));
+            } else {
+                jmhArgs.add(arg);
+            }
+        }
+
+        CommandLineOptions commandLine = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        new File(RESULT_DIR).mkdirs();
+
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(RESULT_DIR + "/result-t" + threads + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+    private static int[] parseThreadCounts(String value) {
+        String[] parts = value.split(",");
+        int[] counts = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            counts[i] = Integer.parseInt(parts[i].trim());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,42 @@
+package com.charging.order.benchmark;
+
+import com.charging.order.infrastructure.id.OrderIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单ID生成基准
+ * Order ID Benchmark
+ *
+ * 对比 UUID.randomUUID（经 SecureRandom）与 Snowflake 生成器；多线程运行时观察突发负载下的争用。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderIdBenchmark {
+
+    private final OrderIdGenerator generator = new OrderIdGenerator(1);
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String snowflake() {
+        return generator.nextIdString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.charging.order.benchmark;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单二级索引基准
+ * Order Index Benchmark
+ *
+ * 仓储中预置 size 个订单，每个用户 / 充电桩各有 20 个订单，其中 1 个处于 CHARGING，其余已关闭。
+ * 索引查询的耗时应与 size 无关（按用户、按桩 O(1) 定位 + O(k) 读取）；
+ * fullScanActiveByUser 是引入索引之前的全表扫描做法，作为对照。
+ * 10M 订单约需 8GB 堆，预置数据耗时较长。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+@State(Scope.Benchmark)
+public class OrderIndexBenchmark {
+
+    private static final int ORDERS_PER_KEY = 20;
+
+    private static final int RESTORE_BATCH = 100_000;
+
+    @Param({"100000", "10000000"})
+    public int size;
+
+    private ChargingOrderRepository orderRepository;
+
+    private int keys;
+
+    @Setup
+    public void setUp() {
+        orderRepository = new ChargingOrderRepository();
+        keys = size / ORDERS_PER_KEY;
+        List<ChargingOrder> batch = new ArrayList<>(RESTORE_BATCH);
+        for (int i = 0; i < size; i++) {
+            // 前 keys 个订单各属于不同的用户 / 桩，且处于充电中
+            ChargingOrder order = BenchmarkFixtures.order(PaymentType.PRE_PAID,
+                    i < keys ? OrderState.CHARGING : OrderState.CLOSED);
+            order.setOrderId("order-" + i);
+            order.setUserId("user-" + (i % keys));
+            order.setChargingPileId("pile-" + (i % keys));
+            batch.add(order);
+            if (batch.size() == RESTORE_BATCH) {
+                orderRepository.restore(batch);
+                batch.clear();
+            }
+        }
+        orderRepository.restore(batch);
+    }
+
+    @Benchmark
+    public List<ChargingOrder> activeOrdersByUser() {
+        return orderRepository.findActiveByUserId("user-" + randomKey());
+    }
+
+    @Benchmark
+    public List<ChargingOrder> activeOrdersOnPile() {
+        return orderRepository.findActiveByChargingPileId("pile-" + randomKey());
+    }
+
+    @Benchmark
+    public int countCharging() {
+        return orderRepository.countByState(OrderState.CHARGING);
+    }
+
+    @Benchmark
+    public List<ChargingOrder> firstPageCharging() {
+        return orderRepository.findByState(OrderState.CHARGING, 100);
+    }
+
+    @Benchmark
+    public List<ChargingOrder> fullScanActiveByUser() {
+        String userId = "user-" + randomKey();
+        List<ChargingOrder> orders = new ArrayList<>();
+        orderRepository.forEachCommitted(order -> {
+            if (userId.equals(order.getUserId()) && !order.getState().isTerminal()) {
+                orders.add(order);
+            }
+        });
+        return orders;
+    }
+
+    private int randomKey() {
+        return ThreadLocalRandom.current().nextInt(keys);
+    }
+}
@@ -0,0 +1,142 @@
+package com.charging.order.benchmark;
+
+import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.statemachine.TransitionEngineType;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单生命周期基准
+ * Order Lifecycle Benchmark
+ *
+ * 覆盖 ChargingOrderService 的每一步迁移以及两种支付模式的完整流程。
+ * 单步基准每次调用都会新建一个处于前置状态的订单，这部分开销在所有单步基准中一致。
+ * engine 参数对比 COLA 状态机与预编译迁移表两种引擎。
+ * createOrder 会写入仓储，涉及创建的基准在结束时删除订单，避免仓储无限增长。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderLifecycleBenchmark {
+
+    @Param({"COLA", "TABLE"})
+    public TransitionEngineType engine;
+
+    private ChargingOrderRepository orderRepository;
+
+    private ChargingOrderService orderService;
+
+    @Setup
+    public void setUp() {
+        orderRepository = new ChargingOrderRepository();
+        orderService = BenchmarkFixtures.newOrderService(engine, orderRepository);
+    }
+
+    @Benchmark
+    public ChargingOrder createOrder() {
+        ChargingOrder order = orderService.createOrder("bench-user", "bench-pile", PaymentType.PRE_PAID);
+        orderRepository.delete(order.getOrderId());
+        return order;
+    }
+
+    @Benchmark
+    public ChargingOrder pay() {
+        ChargingOrder order = BenchmarkFixtures.order(PaymentType.PRE_PAID, OrderState.CREATED);
+        return orderService.pay(order, BenchmarkFixtures.PREPAID_AMOUNT);
+    }
+
+    @Benchmark
+    public ChargingOrder authorize() {
+        ChargingOrder order = BenchmarkFixtures.order(PaymentType.POST_PAID, OrderState.CREATED);
+        return orderService.authorize(order);
+    }
+
+    @Benchmark
+    public ChargingOrder startCharging() {
+        ChargingOrder order = BenchmarkFixtures.order(PaymentType.PRE_PAID, OrderState.PAID);
+        return orderService.startCharging(order);
+    }
+
+    @Benchmark
+    public ChargingOrder finishCharging() {
+        ChargingOrder order = BenchmarkFixtures.order(PaymentType.PRE_PAID, OrderState.CHARGING);
+        return orderService.finishCharging(order,
+                BenchmarkFixtures.CHARGING_AMOUNT, BenchmarkFixtures.ORDER_AMOUNT);
+    }
+
+    @Benchmark
+    public ChargingOrder settle() {
+        ChargingOrder order = BenchmarkFixtures.order(PaymentType.PRE_PAID, OrderState.COMPLETED);
+        return orderService.settle(order);
+    }
+
+    @Benchmark
+    public ChargingOrder deduct() {
+        ChargingOrder order = BenchmarkFixtures.order(PaymentType.POST_PAID, OrderState.COMPLETED);
+        return orderService.deduct(order);
+    }
+
+    /**
+     * 先付后充完整流程：创建 -> 支付 -> 充电 -> 结束 -> 结算
+     */
+    @Benchmark
+    public ChargingOrder prePaidLifecycle() {
+        ChargingOrder order = orderService.createOrder("bench-user", "bench-pile", PaymentType.PRE_PAID);
+        order = orderService.pay(order, BenchmarkFixtures.PREPAID_AMOUNT);
+        order = orderService.startCharging(order);
+        order = orderService.finishCharging(order,
+                BenchmarkFixtures.CHARGING_AMOUNT, BenchmarkFixtures.ORDER_AMOUNT);
+        order = orderService.settle(order);
+        orderRepository.delete(order.getOrderId());
+        return order;
+    }
+
+    /**
+     * 后付费完整流程：创建 -> 授权 -> 充电 -> 结束 -> 扣款
+     */
+    @Benchmark
+    public ChargingOrder postPaidLifecycle() {
+        ChargingOrder order = orderService.createOrder("bench-user", "bench-pile", PaymentType.POST_PAID);
+        order = orderService.authorize(order);
+        order = orderService.startCharging(order);
+        order = orderService.finishCharging(order,
+                BenchmarkFixtures.CHARGING_AMOUNT, BenchmarkFixtures.ORDER_AMOUNT);
+        order = orderService.deduct(order);
+        orderRepository.delete(order.getOrderId());
+        return order;
+    }
+
+    /**
+     * 经仓储乐观并发控制的先付后充流程：每一步都是 读取快照 -> 副本迁移 -> 比较并替换
+     */
+    @Benchmark
+    public ChargingOrder prePaidLifecycleWithCompareAndSet() {
+        String orderId = orderService.createOrder("bench-user", "bench-pile", PaymentType.PRE_PAID).getOrderId();
+        orderService.updateOrder(orderId, null,
+                order -> orderService.pay(order, BenchmarkFixtures.PREPAID_AMOUNT));
+        orderService.updateOrder(orderId, null, orderService::startCharging);
+        orderService.updateOrder(orderId, null, order -> orderService.finishCharging(order,
+                BenchmarkFixtures.CHARGING_AMOUNT, BenchmarkFixtures.ORDER_AMOUNT));
+        ChargingOrder order = orderService.updateOrder(orderId, null, orderService::settle);
+        orderRepository.delete(orderId);
+        return order;
+    }
+}
@@ -0,0 +1,108 @@
+package com.charging.order.benchmark;
+
+import com.charging.order.infrastructure.occupancy.PileOccupancyTable;
+import com.charging.order.infrastructure.occupancy.PileOccupiedException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 充电桩占用基准
+ * Pile Occupancy Benchmark
+ *
+ * 多线程在 piles 个充电桩上随机"占用 + 释放"（一次开始充电与结束充电）。
+ * 每桩 CAS 槽位的吞吐随线程数增长；同样的操作改用一把全局锁保护的 HashMap 时，所有线程在锁上排队。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class PileOccupancyBenchmark {
+
+    @Param({"100000"})
+    public int piles;
+
+    private String[] pileIds;
+
+    private PileOccupancyTable table;
+
+    private final Map<String, String> lockedOccupancy = new HashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicInteger threadIndex = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        pileIds = new String[piles];
+        for (int i = 0; i < piles; i++) {
+            pileIds[i] = "pile-" + i;
+        }
+        table = new PileOccupancyTable(null);
+        // 预先创建全部槽位，测量稳态下的占用与释放
+        for (String pileId : pileIds) {
+            table.claim(pileId, "warmup");
+            table.release(pileId, "warmup");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+
+        String orderId;
+
+        @Setup
+        public void setUp(PileOccupancyBenchmark benchmark) {
+            orderId = "order-" + benchmark.threadIndex.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public boolean casSlots(Caller caller) {
+        String pileId = pileIds[ThreadLocalRandom.current().nextInt(piles)];
+        try {
+            table.claim(pileId, caller.orderId);
+        } catch (PileOccupiedException e) {
+            return false;
+        }
+        return table.release(pileId, caller.orderId);
+    }
+
+    @Benchmark
+    public boolean globalLock(Caller caller) {
+        String pileId = pileIds[ThreadLocalRandom.current().nextInt(piles)];
+        lock.lock();
+        try {
+            if (lockedOccupancy.putIfAbsent(pileId, caller.orderId) != null) {
+                return false;
+            }
+        } finally {
+            lock.unlock();
+        }
+        lock.lock();
+        try {
+            return lockedOccupancy.remove(pileId, caller.orderId);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.charging.order.benchmark;
+
+import com.charging.order.app.exception.OrderVersionConflictException;
+import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.app.service.ShardedOrderExecutor;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.statemachine.TransitionEngineType;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * 分片单写执行器基准
+ * Sharded Executor Benchmark
+ *
+ * 多线程对 orders 个订单随机写入（与电表读数相同的非状态机写入），对比三种执行方式：
+ * direct    - 请求线程直接调用 updateOrder，热点订单上版本比较冲突、重试，重试用完时失败（计入吞吐但返回 false）
+ * sharded   - 提交到订单所属分片并等待结果
+ * pipelined - 每次提交 PIPELINE 笔再统一等待，调用方不为每笔迁移等待一次分片线程
+ * 用 -t 改变调用线程数、-p shards= 改变分片数观察随核数的扩展。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ShardedExecutorBenchmark {
+
+    private static final int PIPELINE = 16;
+
+    private static final UnaryOperator<ChargingOrder> ADD_READING = order -> {
+        order.setChargingAmount(order.getChargingAmount().add(Energy.ofWh(1)));
+        return order;
+    };
+
+    @Param({"16", "100000"})
+    public int orders;
+
+    @Param({"8"})
+    public int shards;
+
+    private String[] orderIds;
+
+    private ChargingOrderService orderService;
+
+    private ShardedOrderExecutor executor;
+
+    @Setup
+    public void setUp() {
+        orderService = BenchmarkFixtures.newOrderService(TransitionEngineType.TABLE, new ChargingOrderRepository());
+        orderIds = new String[orders];
+        for (int i = 0; i < orders; i++) {
+            orderIds[i] = orderService.createOrder("bench-user", "bench-pile-" + i, PaymentType.POST_PAID).getOrderId();
+        }
+        executor = new ShardedOrderExecutor(orderService, shards, 65_536, 256);
+        executor.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public boolean direct() {
+        try {
+            orderService.updateOrder(randomOrder(), null, ADD_READING);
+            return true;
+        } catch (OrderVersionConflictException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public ChargingOrder sharded() {
+        return executor.submit(randomOrder(), null, ADD_READING).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE)
+    public ChargingOrder pipelined() {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<ChargingOrder>[] futures = new CompletableFuture[PIPELINE];
+        for (int i = 0; i < PIPELINE; i++) {
+            futures[i] = executor.submit(randomOrder(), null, ADD_READING);
+        }
+        ChargingOrder last = null;
+        for (CompletableFuture<ChargingOrder> future : futures) {
+            last = future.join();
+        }
+        return last;
+    }
+
+    private String randomOrder() {
+        return orderIds[ThreadLocalRandom.current().nextInt(orders)];
+    }
+}
@@ -0,0 +1,101 @@
+package com.charging.order.benchmark;
+
+import com.charging.order.infrastructure.bloom.BloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 注册吞吐基准
+ * Signup Benchmark
+ *
+ * 以带固定往返延迟的内存表代替 sys_user，按 UserServiceImpl.register 的流程对比：
+ * 不用过滤器时每次注册两次往返（count + insert）；用过滤器时新用户名只需一次 insert，
+ * 只有误判（约 falsePositiveRate）才多一次 count。建议以 --threads=8 等多线程运行，模拟注册高峰。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class SignupBenchmark {
+
+    @Param({"1000000"})
+    public int existingUsers;
+
+    /**
+     * 模拟的数据库往返耗时（微秒）
+     */
+    @Param({"0", "200"})
+    public int roundTripMicros;
+
+    private final ConcurrentHashMap<String, Boolean> table = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextUser = new AtomicLong();
+
+    private BloomFilter filter;
+
+    @Setup
+    public void setUp() {
+        filter = new BloomFilter(existingUsers * 4L, 0.01);
+        for (int i = 0; i < existingUsers; i++) {
+            String username = "existing-" + i;
+            table.put(username, Boolean.TRUE);
+            filter.put(username);
+        }
+    }
+
+    @Benchmark
+    public boolean registerWithoutFilter() {
+        return register(nextUsername(), false);
+    }
+
+    @Benchmark
+    public boolean registerWithFilter() {
+        return register(nextUsername(), true);
+    }
+
+    @Benchmark
+    public boolean mightContain() {
+        return filter.mightContain(nextUsername());
+    }
+
+    private boolean register(String username, boolean useFilter) {
+        if (!useFilter || filter.mightContain(username)) {
+            roundTrip();
+            if (table.containsKey(username)) {
+                return false;
+            }
+        }
+        roundTrip();
+        boolean inserted = table.putIfAbsent(username, Boolean.TRUE) == null;
+        if (useFilter) {
+            filter.put(username);
+        }
+        return inserted;
+    }
+
+    private String nextUsername() {
+        return "user-" + nextUser.getAndIncrement();
+    }
+
+    private void roundTrip() {
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.charging.order.benchmark;
+
+import com.alibaba.cola.statemachine.StateMachine;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.statemachine.OrderTransitionEngine;
+import com.charging.order.domain.statemachine.TransitionTableEngine;
+import com.charging.order.domain.strategy.PaymentStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 策略与状态机基准
+ * Strategy and State Machine Benchmark
+ *
+ * 单独度量策略查找、COLA fireEvent 与预编译迁移表的分发开销，不经过 ChargingOrderService。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StateMachineBenchmark {
+
+    private StateMachine<OrderState, OrderEvent, ChargingOrder> prePaidMachine;
+
+    private StateMachine<OrderState, OrderEvent, ChargingOrder> postPaidMachine;
+
+    private OrderTransitionEngine prePaidTable;
+
+    private OrderTransitionEngine postPaidTable;
+
+    private ChargingOrder prePaidOrder;
+
+    private ChargingOrder postPaidOrder;
+
+    @Setup
+    public void setUp() {
+        prePaidMachine = BenchmarkFixtures.PRE_PAID_STRATEGY.buildStateMachine();
+        postPaidMachine = BenchmarkFixtures.POST_PAID_STRATEGY.buildStateMachine();
+        prePaidTable = TransitionTableEngine.compile(BenchmarkFixtures.PRE_PAID_STRATEGY);
+        postPaidTable = TransitionTableEngine.compile(BenchmarkFixtures.POST_PAID_STRATEGY);
+        prePaidOrder = BenchmarkFixtures.order(PaymentType.PRE_PAID, OrderState.CREATED);
+        postPaidOrder = BenchmarkFixtures.order(PaymentType.POST_PAID, OrderState.CREATED);
+    }
+
+    @Benchmark
+    public PaymentStrategy getStrategy() {
+        return BenchmarkFixtures.STRATEGY_FACTORY.getStrategy(PaymentType.PRE_PAID);
+    }
+
+    @Benchmark
+    public OrderState prePaidFireEvent() {
+        return prePaidMachine.fireEvent(OrderState.CREATED, OrderEvent.PAY, prePaidOrder);
+    }
+
+    @Benchmark
+    public OrderState postPaidFireEvent() {
+        return postPaidMachine.fireEvent(OrderState.CREATED, OrderEvent.AUTHORIZE, postPaidOrder);
+    }
+
+    /**
+     * 未定义的迁移（状态机找不到 transition，原样返回源状态）
+     */
+    @Benchmark
+    public OrderState prePaidRejectedEvent() {
+        return prePaidMachine.fireEvent(OrderState.CREATED, OrderEvent.SETTLE, prePaidOrder);
+    }
+
+    @Benchmark
+    public OrderState prePaidTableFireEvent() {
+        return prePaidTable.fireEvent(OrderState.CREATED, OrderEvent.PAY, prePaidOrder);
+    }
+
+    @Benchmark
+    public OrderState postPaidTableFireEvent() {
+        return postPaidTable.fireEvent(OrderState.CREATED, OrderEvent.AUTHORIZE, postPaidOrder);
+    }
+
+    @Benchmark
+    public OrderState prePaidTableRejectedEvent() {
+        return prePaidTable.fireEvent(OrderState.CREATED, OrderEvent.SETTLE, prePaidOrder);
+    }
+}
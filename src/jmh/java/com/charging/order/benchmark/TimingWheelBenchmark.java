@@ -0,0 +1,73 @@
+package com.charging.order.benchmark;
+
+import com.charging.order.infrastructure.timer.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单超时定时器基准
+ * Timing Wheel Benchmark
+ *
+ * 在已有 pending 个等待中定时器的前提下，测量一次"挂定时器 + 取消"（即一次状态迁移的重新计时）的代价。
+ * 时间轮的插入与取消与定时器总数无关；ScheduledThreadPoolExecutor 基于堆，随 pending 增长为 O(log n)。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class TimingWheelBenchmark {
+
+    private static final Runnable NOOP = () -> {
+    };
+
+    @Param({"1000", "1000000"})
+    public int pending;
+
+    private HierarchicalTimingWheel wheel;
+
+    private ScheduledThreadPoolExecutor executor;
+
+    @Setup
+    public void setUp() {
+        wheel = new HierarchicalTimingWheel(100, TimeUnit.MILLISECONDS, 512, 4, "bench-wheel");
+        wheel.start();
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        for (int i = 0; i < pending; i++) {
+            long delaySeconds = 600 + i % 3600;
+            wheel.schedule(NOOP, delaySeconds, TimeUnit.SECONDS);
+            executor.schedule(NOOP, delaySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        wheel.stop();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean timingWheelRearm() {
+        return wheel.schedule(NOOP, 15, TimeUnit.MINUTES).cancel();
+    }
+
+    @Benchmark
+    public boolean scheduledExecutorRearm() {
+        return executor.schedule(NOOP, 15, TimeUnit.MINUTES).cancel(false);
+    }
+}
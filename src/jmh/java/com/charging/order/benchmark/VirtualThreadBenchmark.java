@@ -0,0 +1,81 @@
+package com.charging.order.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 平台线程池与虚拟线程在 I/O 密集负载下的对比
+ * Virtual Thread Benchmark
+ *
+ * 每次操作提交 requests 个"请求"，每个请求做 ioMillis 的阻塞等待（模拟一次 MySQL / Redis 往返），
+ * 等全部完成。PLATFORM 使用与 Tomcat 默认相同的 200 线程池，VIRTUAL 每请求一个虚拟线程。
+ * VIRTUAL 需要在 JDK 21 上运行（-Pjava21）；更低版本的 JDK 上该参数组合在 setup 时失败。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public String mode;
+
+    @Param({"2000"})
+    public int requests;
+
+    @Param({"10"})
+    public int ioMillis;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        executor = "VIRTUAL".equals(mode)
+                ? (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null)
+                : Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 一批请求全部完成的吞吐（批次 / 秒）；请求吞吐 = 批次吞吐 x requests
+     */
+    @Benchmark
+    public void ioBoundBatch() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(ioMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
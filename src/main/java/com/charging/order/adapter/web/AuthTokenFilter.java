@@ -0,0 +1,66 @@
+package com.charging.order.adapter.web;
+
+import com.charging.order.infrastructure.auth.SessionTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 订单接口令牌校验
+ * Auth Token Filter
+ *
+ * 要求 Authorization: Bearer <令牌>，本地校验签名、过期时间与吊销集合，不访问数据库或 Redis。
+ * 通过后把用户ID放在请求属性 {@link #USER_ID_ATTRIBUTE} 中；否则返回 401。
+ */
+@RequiredArgsConstructor
+public class AuthTokenFilter extends OncePerRequestFilter {
+
+    public static final String USER_ID_ATTRIBUTE = "charging.auth.userId";
+
+    static final String UNAUTHORIZED = "UNAUTHORIZED";
+
+    private static final String BEARER = "Bearer ";
+
+    private final SessionTokenService tokenService;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            reject(response, "Missing bearer token");
+            return;
+        }
+        long userId = tokenService.verify(header.subSequence(BEARER.length(), header.length()));
+        if (userId == SessionTokenService.INVALID) {
+            reject(response, "Invalid or expired token");
+            return;
+        }
+        request.setAttribute(USER_ID_ATTRIBUTE, userId);
+        chain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(UNAUTHORIZED, message));
+    }
+}
@@ -0,0 +1,166 @@
+package com.charging.order.adapter.web;
+
+import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.app.service.ShardedOrderExecutor;
+import com.charging.order.app.service.TransitionCommand;
+import com.charging.order.domain.model.ChargingOrder;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 充电订单批量接口
+ * Charging Order Batch Controller
+ *
+ * 供站点网关一次提交多笔迁移。请求体是迁移指令数组，逐条解析、逐条执行、逐条写出结果，
+ * 请求和响应都不会整体驻留内存；单条失败只体现在该条结果中，不影响其余条目。
+ *
+ * 请求：[{"orderId": "...", "event": "PAY", "prepaidAmount": 100.00, "version": 1}, ...]
+ * 响应：{"results": [{"index": 0, "orderId": "...", "success": true, "order": {...}},
+ *                   {"index": 1, "orderId": "...", "success": false, "error": {"code": "...", "message": "..."}}],
+ *        "succeeded": 1, "failed": 1}
+ * 响应开始写出后遇到 JSON 语法错误时，停止处理并在末尾附加 "error"，已处理的条目仍然有效。
+ * 启用分片执行器时每条指令都提交到订单所属分片执行，与单笔接口的写入串行化方式一致。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/orders/batch")
+@RequiredArgsConstructor
+public class ChargingOrderBatchController {
+
+    private final ChargingOrderService chargingOrderService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectProvider<ShardedOrderExecutor> shardedExecutor;
+
+    /**
+     * 批量迁移
+     */
+    @PostMapping(value = "/transitions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void transitions(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(request.getInputStream())) {
+            JsonToken first;
+            try {
+                first = parser.nextToken();
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed request body: " + e.getOriginalMessage());
+            }
+            if (first != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Request body must be a JSON array of transitions");
+            }
+
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("results");
+
+                int index = 0;
+                int failed = 0;
+                String syntaxError = null;
+                try {
+                    for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                        if (token == null) {
+                            throw new IllegalArgumentException("Unexpected end of request body");
+                        }
+                        // 单条指令读成树：字段错误只影响本条，解析器始终停在元素边界上
+                        JsonNode item = parser.readValueAsTree();
+                        if (!writeResult(generator, index++, item)) {
+                            failed++;
+                        }
+                    }
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    syntaxError = e.getMessage();
+                    log.debug("Batch request aborted after {} items: {}", index, syntaxError);
+                }
+
+                generator.writeEndArray();
+                generator.writeNumberField("succeeded", index - failed);
+                generator.writeNumberField("failed", failed);
+                if (syntaxError != null) {
+                    writeError(generator, ChargingOrderExceptionHandler.BAD_REQUEST, syntaxError);
+                }
+                generator.writeEndObject();
+            }
+        }
+    }
+
+    /**
+     * 执行一条指令并写出结果
+     *
+     * @return true 如果执行成功
+     */
+    private boolean writeResult(JsonGenerator generator, int index, JsonNode item) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        JsonNode orderId = item.get("orderId");
+        if (orderId != null && orderId.isTextual()) {
+            generator.writeStringField("orderId", orderId.asText());
+        }
+
+        boolean success;
+        try {
+            TransitionCommand command = objectMapper.treeToValue(item, TransitionCommand.class);
+            ChargingOrder order = execute(command);
+            generator.writeBooleanField("success", true);
+            generator.writeObjectField("order", order);
+            success = true;
+        } catch (JsonProcessingException e) {
+            generator.writeBooleanField("success", false);
+            writeError(generator, ChargingOrderExceptionHandler.BAD_REQUEST, e.getOriginalMessage());
+            success = false;
+        } catch (RuntimeException e) {
+            String code = ChargingOrderExceptionHandler.errorCode(e);
+            if (ChargingOrderExceptionHandler.INTERNAL_ERROR.equals(code)) {
+                log.error("Batch transition {} failed", index, e);
+            }
+            generator.writeBooleanField("success", false);
+            writeError(generator, code, e.getMessage());
+            success = false;
+        }
+        generator.writeEndObject();
+        return success;
+    }
+
+    /**
+     * 执行指令：启用分片执行器时提交到订单所属分片并等待结果，否则在请求线程上直接执行
+     */
+    private ChargingOrder execute(TransitionCommand command) {
+        ShardedOrderExecutor executor = shardedExecutor.getIfAvailable();
+        if (executor == null) {
+            return chargingOrderService.execute(command);
+        }
+        try {
+            return executor.submit(command).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void writeError(JsonGenerator generator, String code, String message) throws IOException {
+        generator.writeObjectFieldStart("error");
+        generator.writeStringField("code", code);
+        generator.writeStringField("message", message);
+        generator.writeEndObject();
+    }
+}
@@ -1,18 +1,34 @@
 package com.charging.order.adapter.web;
 
 import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.app.service.MeterReadingService;
+import com.charging.order.app.service.OrderQueryService;
+import com.charging.order.app.service.ShardedOrderExecutor;
 import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderState;
 import com.charging.order.domain.model.PaymentType;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.function.UnaryOperator;
 
 /**
  * 充电订单控制器
  * Charging Order Controller
+ * 
+ * 订单状态以服务端仓储为准，迁移接口只需要 orderId 和本次迁移的参数。
+ * 可选的 version 参数用于严格的乐观并发控制：版本不一致直接返回 409，不做重试。
+ * 各接口的 http.server.requests 额外发布直方图桶，可在 Prometheus 中按接口计算分位数。
+ * 启用 charging.sharded-executor 时，迁移在订单所属的分片线程上执行，请求线程等待结果。
  */
+@Timed(value = "http.server.requests", histogram = true)
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
@@ -20,6 +36,12 @@ public class ChargingOrderController {
 
     private final ChargingOrderService chargingOrderService;
 
+    private final OrderQueryService orderQueryService;
+
+    private final MeterReadingService meterReadingService;
+
+    private final ObjectProvider<ShardedOrderExecutor> shardedExecutor;
+
     /**
      * 创建订单
      */
@@ -28,22 +50,62 @@ public class ChargingOrderController {
             @RequestParam String userId,
             @RequestParam String chargingPileId,
             @RequestParam PaymentType paymentType) {
-
-        System.out.println("Pro日志】收到下单请求，用户ID: \" + userId");
-
         ChargingOrder order = chargingOrderService.createOrder(userId, chargingPileId, paymentType);
         return ResponseEntity.ok(order);
     }
 
+    /**
+     * 查询订单（经两级缓存）
+     */
+    @GetMapping("/{orderId}")
+    public ResponseEntity<ChargingOrder> getOrder(@PathVariable String orderId) {
+        return ResponseEntity.ok(orderQueryService.getOrder(orderId));
+    }
+
+    /**
+     * 查询未终结订单：按用户或按充电桩（二者必须且只能指定一个）
+     */
+    @GetMapping("/active")
+    public ResponseEntity<List<ChargingOrder>> getActiveOrders(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String chargingPileId) {
+        if ((userId == null) == (chargingPileId == null)) {
+            throw new IllegalArgumentException("Exactly one of userId and chargingPileId is required");
+        }
+        List<ChargingOrder> orders = userId != null
+                ? orderQueryService.getActiveOrdersByUser(userId)
+                : orderQueryService.getActiveOrdersOnPile(chargingPileId);
+        return ResponseEntity.ok(orders);
+    }
+
+    /**
+     * 查询处于指定状态的订单
+     */
+    @GetMapping("/states/{state}")
+    public ResponseEntity<List<ChargingOrder>> getOrdersByState(
+            @PathVariable OrderState state,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(orderQueryService.getOrdersByState(state, limit));
+    }
+
+    /**
+     * 处于指定状态的订单数
+     */
+    @GetMapping("/states/{state}/count")
+    public ResponseEntity<Integer> countOrdersByState(@PathVariable OrderState state) {
+        return ResponseEntity.ok(orderQueryService.countOrdersByState(state));
+    }
+
     /**
      * 支付（先付模式）
      */
     @PostMapping("/{orderId}/pay")
     public ResponseEntity<ChargingOrder> pay(
             @PathVariable String orderId,
-            @RequestBody ChargingOrder order,
-            @RequestParam BigDecimal prepaidAmount) {
-        ChargingOrder updatedOrder = chargingOrderService.pay(order, prepaidAmount);
+            @RequestParam Money prepaidAmount,
+            @RequestParam(required = false) Long version) {
+        ChargingOrder updatedOrder = updateOrder(orderId, version,
+                order -> chargingOrderService.pay(order, prepaidAmount));
         return ResponseEntity.ok(updatedOrder);
     }
 
@@ -53,8 +115,9 @@ public class ChargingOrderController {
     @PostMapping("/{orderId}/authorize")
     public ResponseEntity<ChargingOrder> authorize(
             @PathVariable String orderId,
-            @RequestBody ChargingOrder order) {
-        ChargingOrder updatedOrder = chargingOrderService.authorize(order);
+            @RequestParam(required = false) Long version) {
+        ChargingOrder updatedOrder = updateOrder(orderId, version,
+                chargingOrderService::authorize);
         return ResponseEntity.ok(updatedOrder);
     }
 
@@ -64,21 +127,35 @@ public class ChargingOrderController {
     @PostMapping("/{orderId}/start")
     public ResponseEntity<ChargingOrder> startCharging(
             @PathVariable String orderId,
-            @RequestBody ChargingOrder order) {
-        ChargingOrder updatedOrder = chargingOrderService.startCharging(order);
+            @RequestParam(required = false) Long version) {
+        ChargingOrder updatedOrder = updateOrder(orderId, version,
+                chargingOrderService::startCharging);
         return ResponseEntity.ok(updatedOrder);
     }
 
+    /**
+     * 上报电表读数（充电中）
+     * 读数在内存中合并后按固定间隔写入，接口立即返回 202
+     */
+    @PostMapping("/{orderId}/meter-readings")
+    public ResponseEntity<Void> reportMeterReading(
+            @PathVariable String orderId,
+            @RequestParam Energy chargingAmount) {
+        meterReadingService.submit(orderId, chargingAmount);
+        return ResponseEntity.accepted().build();
+    }
+
     /**
      * 完成充电
      */
     @PostMapping("/{orderId}/finish")
     public ResponseEntity<ChargingOrder> finishCharging(
             @PathVariable String orderId,
-            @RequestBody ChargingOrder order,
-            @RequestParam BigDecimal chargingAmount,
-            @RequestParam BigDecimal orderAmount) {
-        ChargingOrder updatedOrder = chargingOrderService.finishCharging(order, chargingAmount, orderAmount);
+            @RequestParam Energy chargingAmount,
+            @RequestParam Money orderAmount,
+            @RequestParam(required = false) Long version) {
+        ChargingOrder updatedOrder = updateOrder(orderId, version,
+                order -> chargingOrderService.finishCharging(order, chargingAmount, orderAmount));
         return ResponseEntity.ok(updatedOrder);
     }
 
@@ -88,8 +165,9 @@ public class ChargingOrderController {
     @PostMapping("/{orderId}/settle")
     public ResponseEntity<ChargingOrder> settle(
             @PathVariable String orderId,
-            @RequestBody ChargingOrder order) {
-        ChargingOrder updatedOrder = chargingOrderService.settle(order);
+            @RequestParam(required = false) Long version) {
+        ChargingOrder updatedOrder = updateOrder(orderId, version,
+                chargingOrderService::settle);
         return ResponseEntity.ok(updatedOrder);
     }
 
@@ -99,8 +177,9 @@ public class ChargingOrderController {
     @PostMapping("/{orderId}/deduct")
     public ResponseEntity<ChargingOrder> deduct(
             @PathVariable String orderId,
-            @RequestBody ChargingOrder order) {
-        ChargingOrder updatedOrder = chargingOrderService.deduct(order);
+            @RequestParam(required = false) Long version) {
+        ChargingOrder updatedOrder = updateOrder(orderId, version,
+                chargingOrderService::deduct);
         return ResponseEntity.ok(updatedOrder);
     }
 
@@ -110,8 +189,27 @@ public class ChargingOrderController {
     @PostMapping("/{orderId}/cancel")
     public ResponseEntity<ChargingOrder> cancelOrder(
             @PathVariable String orderId,
-            @RequestBody ChargingOrder order) {
-        ChargingOrder updatedOrder = chargingOrderService.cancelOrder(order);
+            @RequestParam(required = false) Long version) {
+        ChargingOrder updatedOrder = updateOrder(orderId, version,
+                chargingOrderService::cancelOrder);
         return ResponseEntity.ok(updatedOrder);
     }
+
+    /**
+     * 执行迁移：启用分片执行器时提交到订单所属分片并等待结果，否则在请求线程上直接执行
+     */
+    private ChargingOrder updateOrder(String orderId, Long version, UnaryOperator<ChargingOrder> transition) {
+        ShardedOrderExecutor executor = shardedExecutor.getIfAvailable();
+        if (executor == null) {
+            return chargingOrderService.updateOrder(orderId, version, transition);
+        }
+        try {
+            return executor.submit(orderId, version, transition).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,106 @@
+package com.charging.order.adapter.web;
+
+import com.charging.order.app.exception.OrderNotFoundException;
+import com.charging.order.app.exception.OrderVersionConflictException;
+import com.charging.order.infrastructure.occupancy.PileOccupiedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 订单接口异常处理
+ * Charging Order Exception Handler
+ *
+ * 订单不存在 -> 404；版本冲突、非法迁移与充电桩被占用 -> 409；参数错误 -> 400；执行队列已满 -> 503
+ */
+@Slf4j
+@RestControllerAdvice(assignableTypes = {ChargingOrderController.class, ChargingOrderBatchController.class,
+        OrderHistoryController.class, PileOccupancyController.class})
+public class ChargingOrderExceptionHandler {
+
+    static final String ORDER_NOT_FOUND = "ORDER_NOT_FOUND";
+
+    static final String VERSION_CONFLICT = "VERSION_CONFLICT";
+
+    static final String INVALID_TRANSITION = "INVALID_TRANSITION";
+
+    static final String PILE_OCCUPIED = "PILE_OCCUPIED";
+
+    static final String BAD_REQUEST = "BAD_REQUEST";
+
+    static final String SERVICE_BUSY = "SERVICE_BUSY";
+
+    static final String INTERNAL_ERROR = "INTERNAL_ERROR";
+
+    @ExceptionHandler(OrderNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleNotFound(OrderNotFoundException e) {
+        return error(HttpStatus.NOT_FOUND, ORDER_NOT_FOUND, e);
+    }
+
+    @ExceptionHandler(OrderVersionConflictException.class)
+    public ResponseEntity<ErrorResponse> handleVersionConflict(OrderVersionConflictException e) {
+        return error(HttpStatus.CONFLICT, VERSION_CONFLICT, e);
+    }
+
+    @ExceptionHandler(PileOccupiedException.class)
+    public ResponseEntity<ErrorResponse> handlePileOccupied(PileOccupiedException e) {
+        return error(HttpStatus.CONFLICT, PILE_OCCUPIED, e);
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidTransition(IllegalStateException e) {
+        return error(HttpStatus.CONFLICT, INVALID_TRANSITION, e);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequest(IllegalArgumentException e) {
+        return error(HttpStatus.BAD_REQUEST, BAD_REQUEST, e);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejected(RejectedExecutionException e) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, SERVICE_BUSY, e);
+    }
+
+    /**
+     * 错误是否只反映请求执行那一刻的竞争（版本冲突、充电桩被占用、队列已满），稍后重试可能成功
+     * 这类响应不能作为幂等结果回放
+     */
+    static boolean isTransient(String code) {
+        return VERSION_CONFLICT.equals(code) || PILE_OCCUPIED.equals(code) || SERVICE_BUSY.equals(code);
+    }
+
+    /**
+     * 与上面各处理方法一致的错误码（批量接口逐条返回错误时使用）
+     */
+    static String errorCode(RuntimeException e) {
+        if (e instanceof OrderNotFoundException) {
+            return ORDER_NOT_FOUND;
+        }
+        if (e instanceof OrderVersionConflictException) {
+            return VERSION_CONFLICT;
+        }
+        if (e instanceof PileOccupiedException) {
+            return PILE_OCCUPIED;
+        }
+        if (e instanceof IllegalStateException) {
+            return INVALID_TRANSITION;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return BAD_REQUEST;
+        }
+        if (e instanceof RejectedExecutionException) {
+            return SERVICE_BUSY;
+        }
+        return INTERNAL_ERROR;
+    }
+
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, String code, RuntimeException e) {
+        log.debug("Order request rejected with {}: {}", status, e.getMessage());
+        return ResponseEntity.status(status).body(new ErrorResponse(code, e.getMessage()));
+    }
+}
@@ -0,0 +1,23 @@
+package com.charging.order.adapter.web;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 错误响应
+ * Error Response
+ */
+@Data
+@AllArgsConstructor
+public class ErrorResponse {
+
+    /**
+     * 错误码
+     */
+    private String code;
+
+    /**
+     * 错误信息
+     */
+    private String message;
+}
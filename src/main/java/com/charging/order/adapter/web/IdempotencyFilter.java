@@ -0,0 +1,211 @@
+package com.charging.order.adapter.web;
+
+import com.charging.order.config.IdempotencyProperties;
+import com.charging.order.infrastructure.cache.IdempotencyStore;
+import com.charging.order.infrastructure.cache.IdempotentResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 订单写接口幂等键
+ * Idempotency Filter
+ *
+ * 带 Idempotency-Key 请求头的 POST 请求：第一次执行并缓存确定的响应（2xx 与确定的 4xx），
+ * 重复请求直接回放缓存的响应并带上 Idempotent-Replayed: true，不再经过状态机与支付；
+ * 原请求仍在执行时，重复请求等待其结果（最长 waitTimeout，超时返回 409）。
+ * 原请求 5xx、抛出异常或得到可重试的错误（408、429，以及版本冲突、充电桩被占用等竞争导致的 409）时放弃缓存，
+ * 等待者与之后的重试重新执行。
+ *
+ * 键按用户（启用令牌校验时）、URI 隔离；同一个键携带不同的请求参数返回 422。
+ * 批量接口的请求体逐条流式处理，不参与幂等。
+ */
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final String IDEMPOTENCY_IN_PROGRESS = "IDEMPOTENCY_IN_PROGRESS";
+
+    static final String IDEMPOTENCY_KEY_REUSED = "IDEMPOTENCY_KEY_REUSED";
+
+    private static final String BATCH_PATH = "/api/orders/batch/";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * 原请求放弃后重新认领的次数上限
+     */
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final IdempotencyStore store;
+
+    private final IdempotencyProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || request.getRequestURI().startsWith(request.getContextPath() + BATCH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, ChargingOrderExceptionHandler.BAD_REQUEST,
+                    "Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        String key = cacheKey(request, idempotencyKey);
+        String fingerprint = fingerprint(request);
+
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            CompletableFuture<IdempotentResponse> claim = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> existing = store.claim(key, claim);
+            if (existing == null) {
+                execute(key, claim, fingerprint, request, response, chain);
+                return;
+            }
+            IdempotentResponse original;
+            try {
+                original = existing.get(properties.getWaitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                break;
+            }
+            if (original == null) {
+                // 原请求失败并放弃了键，重新认领
+                continue;
+            }
+            if (!original.getFingerprint().equals(fingerprint)) {
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, IDEMPOTENCY_KEY_REUSED,
+                        "Idempotency-Key was already used with a different request");
+                return;
+            }
+            replay(original, response);
+            return;
+        }
+        reject(response, HttpStatus.CONFLICT, IDEMPOTENCY_IN_PROGRESS,
+                "A request with this Idempotency-Key is still in progress");
+    }
+
+    private void execute(String key, CompletableFuture<IdempotentResponse> claim, String fingerprint,
+                         HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(request, wrapper);
+            int status = wrapper.getStatus();
+            if (isDeterministic(status, wrapper) && wrapper.getContentSize() <= properties.getMaxResponseBytes()) {
+                store.complete(key, claim, new IdempotentResponse(fingerprint, status,
+                        wrapper.getContentType(), wrapper.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.abandon(key, claim);
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    /**
+     * 响应是否与执行时机无关，重试应当得到同样的结果
+     */
+    private boolean isDeterministic(int status, ContentCachingResponseWrapper wrapper) {
+        if (status >= 200 && status < 300) {
+            return true;
+        }
+        if (status < 400 || status >= 500 || status == HttpStatus.REQUEST_TIMEOUT.value()
+                || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return false;
+        }
+        if (status != HttpStatus.CONFLICT.value()) {
+            return true;
+        }
+        // 409 既可能是确定的非法迁移，也可能是并发竞争；读不出错误码时按可重试处理
+        try {
+            JsonNode code = objectMapper.readTree(wrapper.getContentAsByteArray()).get("code");
+            return code != null && code.isTextual() && !ChargingOrderExceptionHandler.isTransient(code.asText());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void replay(IdempotentResponse original, HttpServletResponse response) throws IOException {
+        response.setStatus(original.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (original.getContentType() != null) {
+            response.setContentType(original.getContentType());
+        }
+        byte[] body = original.getBody();
+        if (body != null && body.length > 0) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String code, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(code, message));
+    }
+
+    private static String cacheKey(HttpServletRequest request, String idempotencyKey) {
+        Object userId = request.getAttribute(AuthTokenFilter.USER_ID_ATTRIBUTE);
+        return (userId == null ? "" : userId) + ":" + request.getRequestURI() + ":" + idempotencyKey;
+    }
+
+    /**
+     * 请求参数（查询串与表单）的摘要，用来识别同一个键被用于不同的请求
+     */
+    private static String fingerprint(HttpServletRequest request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            digest.update(parameter.getKey().getBytes(StandardCharsets.UTF_8));
+            for (String value : parameter.getValue()) {
+                digest.update((byte) '=');
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '&');
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+}
@@ -0,0 +1,62 @@
+package com.charging.order.adapter.web;
+
+import com.charging.order.app.service.OrderHistoryService;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.infrastructure.persistence.OrderHistoryPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * 订单历史控制器
+ * Order History Controller
+ *
+ * 按用户、充电桩分页查询订单历史（按创建时间倒序）。
+ * 响应中的 nextCursor 原样作为下一次请求的 cursor 参数；为 null 表示没有更多订单。
+ * 数据来自 charging_order 表，仅在启用 charging.persistence.jdbc 时提供。
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "charging.persistence.jdbc", name = "enabled", havingValue = "true")
+public class OrderHistoryController {
+
+    private final OrderHistoryService orderHistoryService;
+
+    /**
+     * 用户的订单历史
+     */
+    @GetMapping("/users/{userId}/orders")
+    public ResponseEntity<OrderHistoryPage> getUserOrders(
+            @PathVariable String userId,
+            @RequestParam(required = false) Set<OrderState> state,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(orderHistoryService.getUserOrders(userId, state, createdFrom, createdTo, cursor, limit));
+    }
+
+    /**
+     * 充电桩的订单历史
+     */
+    @GetMapping("/piles/{pileId}/orders")
+    public ResponseEntity<OrderHistoryPage> getPileOrders(
+            @PathVariable String pileId,
+            @RequestParam(required = false) Set<OrderState> state,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(orderHistoryService.getPileOrders(pileId, state, createdFrom, createdTo, cursor, limit));
+    }
+}
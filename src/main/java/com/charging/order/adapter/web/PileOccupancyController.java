@@ -0,0 +1,50 @@
+package com.charging.order.adapter.web;
+
+import com.charging.order.infrastructure.occupancy.PileOccupancy;
+import com.charging.order.infrastructure.occupancy.PileOccupancySummary;
+import com.charging.order.infrastructure.occupancy.PileOccupancyTable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 充电桩占用控制器
+ * Pile Occupancy Controller
+ *
+ * 直接读取内存中的占用槽位，不访问仓储或数据库。
+ */
+@RestController
+@RequestMapping("/api/piles")
+@RequiredArgsConstructor
+public class PileOccupancyController {
+
+    /**
+     * 汇总接口最多列出的充电桩数
+     */
+    private static final int MAX_LIMIT = 1000;
+
+    private final PileOccupancyTable occupancyTable;
+
+    /**
+     * 充电桩的占用情况
+     */
+    @GetMapping("/{pileId}/occupancy")
+    public ResponseEntity<PileOccupancy> getOccupancy(@PathVariable String pileId) {
+        return ResponseEntity.ok(occupancyTable.get(pileId));
+    }
+
+    /**
+     * 被占用的充电桩（limit 最大 1000）
+     */
+    @GetMapping("/occupancy")
+    public ResponseEntity<PileOccupancySummary> getOccupied(@RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+        return ResponseEntity.ok(occupancyTable.summary(limit));
+    }
+}
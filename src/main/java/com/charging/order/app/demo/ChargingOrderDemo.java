@@ -2,18 +2,19 @@ package com.charging.order.app.demo;
 
 import com.charging.order.app.service.ChargingOrderService;
 import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
 import com.charging.order.domain.model.PaymentType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-
 /**
  * 充电订单使用示例
  * Charging Order Usage Demo
  * 
  * 展示如何使用双支付策略状态机处理订单流程
+ * 多桩多用户并发运行同样的流程并统计延迟，见 {@link com.charging.order.app.demo.loadgen.LoadGenerator}
  */
 @Slf4j
 @Component
@@ -38,7 +39,7 @@ public class ChargingOrderDemo {
         log.info("Step 1: 创建订单 - 订单ID: {}, 状态: {}", order.getOrderId(), order.getState());
 
         // 2. 用户支付100元
-        order = chargingOrderService.pay(order, new BigDecimal("100.00"));
+        order = chargingOrderService.pay(order, Money.of("100.00"));
         log.info("Step 2: 支付完成 - 预付金额: {}, 状态: {}", order.getPrepaidAmount(), order.getState());
 
         // 3. 开始充电
@@ -47,8 +48,8 @@ public class ChargingOrderDemo {
 
         // 4. 充电完成（充了50.5度电，花费60元）
         order = chargingOrderService.finishCharging(order,
-                new BigDecimal("50.5"),
-                new BigDecimal("60.00"));
+                Energy.of("50.5"),
+                Money.of("60.00"));
         log.info("Step 4: 充电完成 - 充电量: {} kWh, 实际费用: {}, 状态: {}",
                 order.getChargingAmount(), order.getOrderAmount(), order.getState());
 
@@ -84,8 +85,8 @@ public class ChargingOrderDemo {
 
         // 4. 充电完成（充了45.8度电，花费55元）
         order = chargingOrderService.finishCharging(order,
-                new BigDecimal("45.8"),
-                new BigDecimal("55.00"));
+                Energy.of("45.8"),
+                Money.of("55.00"));
         log.info("Step 4: 充电完成 - 充电量: {} kWh, 订单金额: {}, 状态: {}",
                 order.getChargingAmount(), order.getOrderAmount(), order.getState());
 
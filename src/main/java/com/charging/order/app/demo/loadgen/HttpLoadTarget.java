@@ -0,0 +1,93 @@
+package com.charging.order.app.demo.loadgen;
+
+import com.charging.order.app.service.TransitionCommand;
+import com.charging.order.domain.model.PaymentType;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * HTTP 压测：调用被测实例的单条迁移接口
+ * HTTP Load Target
+ */
+class HttpLoadTarget implements LoadTarget {
+
+    private final String baseUrl;
+
+    private final HttpEntity<Void> request;
+
+    private final RestTemplate restTemplate;
+
+    HttpLoadTarget(String baseUrl, String authToken) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        HttpHeaders headers = new HttpHeaders();
+        if (authToken != null) {
+            headers.setBearerAuth(authToken);
+        }
+        this.request = new HttpEntity<>(headers);
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(5_000);
+        requestFactory.setReadTimeout(30_000);
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @Override
+    public String createOrder(String userId, String chargingPileId, PaymentType paymentType) {
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/api/orders")
+                .queryParam("userId", userId)
+                .queryParam("chargingPileId", chargingPileId)
+                .queryParam("paymentType", paymentType)
+                .toUriString();
+        JsonNode order = restTemplate.postForObject(url, request, JsonNode.class);
+        if (order == null || !order.hasNonNull("orderId")) {
+            throw new IllegalStateException("Create order returned no orderId");
+        }
+        return order.get("orderId").asText();
+    }
+
+    @Override
+    public void execute(TransitionCommand command) {
+        UriComponentsBuilder url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/api/orders/" + command.getOrderId());
+        switch (command.getEvent()) {
+            case PAY:
+                url.path("/pay").queryParam("prepaidAmount", command.getPrepaidAmount());
+                break;
+            case AUTHORIZE:
+                url.path("/authorize");
+                break;
+            case START_CHARGING:
+                url.path("/start");
+                break;
+            case FINISH_CHARGING:
+                url.path("/finish")
+                        .queryParam("chargingAmount", command.getChargingAmount())
+                        .queryParam("orderAmount", command.getOrderAmount());
+                break;
+            case SETTLE:
+                url.path("/settle");
+                break;
+            case DEDUCT:
+                url.path("/deduct");
+                break;
+            case CANCEL_ORDER:
+                url.path("/cancel");
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported event " + command.getEvent());
+        }
+        try {
+            restTemplate.postForEntity(url.toUriString(), request, Void.class);
+        } catch (HttpClientErrorException e) {
+            // 409 INVALID_TRANSITION 与进程内的 IllegalStateException 对应
+            if (e.getStatusCode() == HttpStatus.CONFLICT && e.getResponseBodyAsString().contains("INVALID_TRANSITION")) {
+                throw new IllegalStateException(e.getResponseBodyAsString());
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.charging.order.app.demo.loadgen;
+
+import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.app.service.TransitionCommand;
+import com.charging.order.domain.model.PaymentType;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 进程内压测：直接调用 ChargingOrderService
+ * In-Process Load Target
+ */
+@RequiredArgsConstructor
+class InProcessLoadTarget implements LoadTarget {
+
+    private final ChargingOrderService chargingOrderService;
+
+    @Override
+    public String createOrder(String userId, String chargingPileId, PaymentType paymentType) {
+        return chargingOrderService.createOrder(userId, chargingPileId, paymentType).getOrderId();
+    }
+
+    @Override
+    public void execute(TransitionCommand command) {
+        chargingOrderService.execute(command);
+    }
+}
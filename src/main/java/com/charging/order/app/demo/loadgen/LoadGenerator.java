@@ -0,0 +1,274 @@
+package com.charging.order.app.demo.loadgen;
+
+import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.app.service.TransitionCommand;
+import com.charging.order.config.LoadGeneratorProperties;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.PaymentType;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合成负载生成器
+ * Synthetic Load Generator
+ *
+ * 在 ChargingOrderDemo 单笔流程的基础上，模拟 N 个充电桩、M 个用户并发运行先付 / 后付混合的完整生命周期，
+ * 用于容量规划。每个桩一个线程，依次执行会话：
+ * - 正常会话：创建 -> 支付 / 授权 -> 开始充电 -> 完成充电 -> 结算 / 扣款
+ * - 取消会话（cancelRatio）：创建 -> 取消
+ * - 失败会话（failureRatio）：创建 -> 开始充电（预期被拒绝）-> 取消
+ * 每次调用的延迟记入 HdrHistogram，结束时按操作输出吞吐与 p50 / p99 / p999。
+ *
+ * 设置 charging.loadgen.enabled=true 后在启动完成时运行一次；压测对象由 charging.loadgen.mode 指定。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "charging.loadgen", name = "enabled", havingValue = "true")
+public class LoadGenerator {
+
+    private static final OrderEvent[] EVENTS = OrderEvent.values();
+
+    /**
+     * 操作序号：各事件按枚举序号，CREATE 排在最后
+     */
+    private static final int CREATE = EVENTS.length;
+
+    private static final Money PREPAID_AMOUNT = Money.of("100.00");
+
+    /**
+     * 模拟电价：每 kWh 1.50 元，最多充 60 kWh，不超过预付金额
+     */
+    private static final long PRICE_FEN_PER_KWH = 150;
+
+    private static final long MAX_CHARGING_WH = 60_000;
+
+    private final LoadGeneratorProperties properties;
+
+    private final LoadTarget target;
+
+    private final Recorder[] latencies = new Recorder[EVENTS.length + 1];
+
+    private final LongAdder[] rejected = new LongAdder[EVENTS.length + 1];
+
+    private final LongAdder[] errors = new LongAdder[EVENTS.length + 1];
+
+    private final LongAdder completedSessions = new LongAdder();
+
+    private final LongAdder cancelledSessions = new LongAdder();
+
+    private final LongAdder failedSessions = new LongAdder();
+
+    private final LongAdder erroredSessions = new LongAdder();
+
+    @Autowired
+    public LoadGenerator(LoadGeneratorProperties properties, ChargingOrderService chargingOrderService) {
+        this(properties, properties.getMode() == LoadGeneratorProperties.Mode.HTTP
+                ? new HttpLoadTarget(properties.getBaseUrl(), properties.getAuthToken())
+                : new InProcessLoadTarget(chargingOrderService));
+    }
+
+    LoadGenerator(LoadGeneratorProperties properties, LoadTarget target) {
+        if (properties.getPiles() <= 0 || properties.getUsers() <= 0) {
+            throw new IllegalArgumentException("charging.loadgen.piles and users must be positive");
+        }
+        this.properties = properties;
+        this.target = target;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new Recorder(3);
+            rejected[i] = new LongAdder();
+            errors[i] = new LongAdder();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(() -> {
+            try {
+                log.info("\n{}", run().format());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "load-generator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 运行 duration 后返回结果；同一实例只应运行一次
+     */
+    public LoadReport run() throws InterruptedException {
+        log.info("Load generator starting: mode={}, piles={}, users={}, duration={}",
+                properties.getMode(), properties.getPiles(), properties.getUsers(), properties.getDuration());
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService piles = Executors.newFixedThreadPool(properties.getPiles(), runnable -> {
+            Thread thread = new Thread(runnable, "loadgen-pile-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        long deadline = start + properties.getDuration().toNanos();
+        for (int i = 0; i < properties.getPiles(); i++) {
+            String pileId = "loadgen-pile-" + i;
+            piles.execute(() -> runPile(pileId, deadline));
+        }
+        piles.shutdown();
+        // 在途会话最多再等一个完整会话的时间
+        long grace = properties.getThinkTime().toMillis() * 8 + properties.getChargingTime().toMillis() * 2 + 30_000;
+        if (!piles.awaitTermination(properties.getDuration().toMillis() + grace, TimeUnit.MILLISECONDS)) {
+            piles.shutdownNow();
+        }
+        return report(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void runPile(String pileId, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            String userId = "loadgen-user-" + random.nextInt(properties.getUsers());
+            PaymentType paymentType = random.nextDouble() < properties.getPrePaidRatio()
+                    ? PaymentType.PRE_PAID : PaymentType.POST_PAID;
+            try {
+                runSession(userId, pileId, paymentType, random);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                erroredSessions.increment();
+                log.debug("Load session on {} failed: {}", pileId, e.getMessage());
+            }
+        }
+    }
+
+    private void runSession(String userId, String pileId, PaymentType paymentType, ThreadLocalRandom random)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        String orderId;
+        try {
+            orderId = target.createOrder(userId, pileId, paymentType);
+        } catch (RuntimeException e) {
+            errors[CREATE].increment();
+            throw e;
+        } finally {
+            latencies[CREATE].recordValue(System.nanoTime() - start);
+        }
+        think(properties.getThinkTime(), random);
+
+        double outcome = random.nextDouble();
+        if (outcome < properties.getFailureRatio()) {
+            // 未支付 / 授权就开始充电，状态机应当拒绝
+            if (fire(command(orderId, OrderEvent.START_CHARGING))) {
+                throw new IllegalStateException("Order " + orderId + " started charging before payment");
+            }
+            think(properties.getThinkTime(), random);
+            fireExpectingSuccess(command(orderId, OrderEvent.CANCEL_ORDER));
+            failedSessions.increment();
+            return;
+        }
+        if (outcome < properties.getFailureRatio() + properties.getCancelRatio()) {
+            fireExpectingSuccess(command(orderId, OrderEvent.CANCEL_ORDER));
+            cancelledSessions.increment();
+            return;
+        }
+
+        boolean prePaid = paymentType == PaymentType.PRE_PAID;
+        TransitionCommand payment = command(orderId, prePaid ? OrderEvent.PAY : OrderEvent.AUTHORIZE);
+        if (prePaid) {
+            payment.setPrepaidAmount(PREPAID_AMOUNT);
+        }
+        fireExpectingSuccess(payment);
+        think(properties.getThinkTime(), random);
+
+        fireExpectingSuccess(command(orderId, OrderEvent.START_CHARGING));
+        think(properties.getChargingTime(), random);
+
+        long wh = 1_000 + random.nextLong(MAX_CHARGING_WH - 1_000);
+        TransitionCommand finish = command(orderId, OrderEvent.FINISH_CHARGING);
+        finish.setChargingAmount(Energy.ofWh(wh));
+        finish.setOrderAmount(Money.ofFen(wh * PRICE_FEN_PER_KWH / 1_000));
+        fireExpectingSuccess(finish);
+        think(properties.getThinkTime(), random);
+
+        fireExpectingSuccess(command(orderId, prePaid ? OrderEvent.SETTLE : OrderEvent.DEDUCT));
+        completedSessions.increment();
+    }
+
+    private void fireExpectingSuccess(TransitionCommand command) {
+        if (!fire(command)) {
+            throw new IllegalStateException("Event " + command.getEvent() + " was rejected for order "
+                    + command.getOrderId());
+        }
+    }
+
+    /**
+     * 执行一次迁移并记录延迟
+     *
+     * @return false 如果状态机拒绝了该事件
+     */
+    private boolean fire(TransitionCommand command) {
+        int operation = command.getEvent().ordinal();
+        long start = System.nanoTime();
+        try {
+            target.execute(command);
+            return true;
+        } catch (IllegalStateException e) {
+            rejected[operation].increment();
+            return false;
+        } catch (RuntimeException e) {
+            errors[operation].increment();
+            throw e;
+        } finally {
+            latencies[operation].recordValue(System.nanoTime() - start);
+        }
+    }
+
+    private static TransitionCommand command(String orderId, OrderEvent event) {
+        TransitionCommand command = new TransitionCommand();
+        command.setOrderId(orderId);
+        command.setEvent(event);
+        return command;
+    }
+
+    private static void think(Duration mean, ThreadLocalRandom random) throws InterruptedException {
+        long millis = mean.toMillis();
+        if (millis > 0) {
+            Thread.sleep(millis / 2 + random.nextLong(millis + 1));
+        }
+    }
+
+    private LoadReport report(Duration elapsed) {
+        List<LoadReport.OperationStats> operations = new ArrayList<>();
+        for (int i = 0; i < latencies.length; i++) {
+            Histogram histogram = latencies[i].getIntervalHistogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            operations.add(new LoadReport.OperationStats(
+                    i == CREATE ? "CREATE" : EVENTS[i].name(),
+                    histogram.getTotalCount(),
+                    rejected[i].sum(),
+                    errors[i].sum(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0));
+        }
+        return new LoadReport(elapsed, completedSessions.sum(), cancelledSessions.sum(), failedSessions.sum(),
+                erroredSessions.sum(), operations);
+    }
+}
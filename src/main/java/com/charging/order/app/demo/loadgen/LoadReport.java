@@ -0,0 +1,90 @@
+package com.charging.order.app.demo.loadgen;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 负载生成结果
+ * Load Report
+ */
+@Data
+@AllArgsConstructor
+public class LoadReport {
+
+    private Duration elapsed;
+
+    private long completedSessions;
+
+    private long cancelledSessions;
+
+    private long failedSessions;
+
+    /**
+     * 因意外错误中断的会话
+     */
+    private long erroredSessions;
+
+    /**
+     * 各操作（CREATE 与各事件）的统计，只含实际执行过的操作
+     */
+    private List<OperationStats> operations;
+
+    /**
+     * 按操作名查找统计
+     */
+    public OperationStats operation(String name) {
+        for (OperationStats stats : operations) {
+            if (stats.getName().equals(name)) {
+                return stats;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 表格形式的报告
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        double seconds = elapsed.toMillis() / 1000.0;
+        report.append(String.format("Load generator ran %.1f s: sessions completed=%d cancelled=%d failed=%d errored=%d"
+                        + " (%.1f sessions/s)%n", seconds, completedSessions, cancelledSessions, failedSessions,
+                erroredSessions, (completedSessions + cancelledSessions + failedSessions) / seconds));
+        report.append(String.format("%-16s %10s %10s %8s %8s %10s %10s %10s %10s%n",
+                "operation", "count", "ops/s", "rejected", "errors", "p50(us)", "p99(us)", "p999(us)", "max(us)"));
+        for (OperationStats stats : operations) {
+            report.append(String.format("%-16s %10d %10.1f %8d %8d %10.1f %10.1f %10.1f %10.1f%n",
+                    stats.getName(), stats.getCount(), stats.getCount() / seconds, stats.getRejected(),
+                    stats.getErrors(), stats.getP50Micros(), stats.getP99Micros(), stats.getP999Micros(),
+                    stats.getMaxMicros()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * 单个操作的统计；延迟包括被拒绝与出错的调用
+     */
+    @Data
+    @AllArgsConstructor
+    public static class OperationStats {
+
+        private String name;
+
+        private long count;
+
+        private long rejected;
+
+        private long errors;
+
+        private double p50Micros;
+
+        private double p99Micros;
+
+        private double p999Micros;
+
+        private double maxMicros;
+    }
+}
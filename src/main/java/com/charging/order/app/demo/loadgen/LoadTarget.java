@@ -0,0 +1,25 @@
+package com.charging.order.app.demo.loadgen;
+
+import com.charging.order.app.service.TransitionCommand;
+import com.charging.order.domain.model.PaymentType;
+
+/**
+ * 负载生成器的压测对象
+ * Load Target
+ *
+ * 被拒绝的迁移（状态不接受该事件）抛出 IllegalStateException，其余失败抛出其他运行时异常。
+ */
+interface LoadTarget {
+
+    /**
+     * 创建订单
+     *
+     * @return 订单ID
+     */
+    String createOrder(String userId, String chargingPileId, PaymentType paymentType);
+
+    /**
+     * 执行一次迁移
+     */
+    void execute(TransitionCommand command);
+}
@@ -0,0 +1,14 @@
+package com.charging.order.app.exception;
+
+/**
+ * 订单不存在异常
+ * Order Not Found Exception
+ */
+public class OrderNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OrderNotFoundException(String orderId) {
+        super("Order not found: " + orderId);
+    }
+}
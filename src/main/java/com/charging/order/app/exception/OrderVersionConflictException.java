@@ -0,0 +1,17 @@
+package com.charging.order.app.exception;
+
+/**
+ * 订单版本冲突异常
+ * Order Version Conflict Exception
+ *
+ * 订单在读取之后被其他请求修改，且重试次数已用完（或调用方指定了期望版本）
+ */
+public class OrderVersionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OrderVersionConflictException(String orderId, long expectedVersion) {
+        super(String.format("Order %s was modified concurrently, expected version %d",
+                orderId, expectedVersion));
+    }
+}
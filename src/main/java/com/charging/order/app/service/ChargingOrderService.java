@@ -1,19 +1,25 @@
 package com.charging.order.app.service;
 
-import com.alibaba.cola.statemachine.StateMachine;
+import com.charging.order.app.exception.OrderNotFoundException;
+import com.charging.order.app.exception.OrderVersionConflictException;
 import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
 import com.charging.order.domain.model.OrderEvent;
 import com.charging.order.domain.model.OrderState;
 import com.charging.order.domain.model.PaymentType;
-import com.charging.order.domain.strategy.PaymentStrategy;
+import com.charging.order.domain.outbox.IntentRecorder;
+import com.charging.order.domain.statemachine.OrderTransitionEngine;
 import com.charging.order.domain.strategy.PaymentStrategyFactory;
+import com.charging.order.infrastructure.id.OrderIdGenerator;
+import com.charging.order.infrastructure.metrics.OrderMetrics;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.function.UnaryOperator;
 
 /**
  * 充电订单服务
@@ -26,8 +32,24 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ChargingOrderService {
 
+    /**
+     * 版本冲突时的最大尝试次数
+     */
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
     private final PaymentStrategyFactory strategyFactory;
 
+    private final ChargingOrderRepository orderRepository;
+
+    private final OrderIdGenerator orderIdGenerator;
+
+    private final OrderMetrics orderMetrics;
+
+    /**
+     * updateOrder 执行迁移期间，记录当前线程最近触发的事件，随比较并替换一起交给仓储监听器（事件日志）
+     */
+    private final ThreadLocal<OrderEvent[]> firedEvent = new ThreadLocal<>();
+
     /**
      * 创建订单
      * Create Order
@@ -39,20 +61,190 @@ public class ChargingOrderService {
      */
     public ChargingOrder createOrder(String userId, String chargingPileId, PaymentType paymentType) {
         ChargingOrder order = new ChargingOrder();
-        order.setOrderId(UUID.randomUUID().toString());
+        order.setOrderId(orderIdGenerator.nextIdString());
         order.setUserId(userId);
         order.setChargingPileId(chargingPileId);
         order.setPaymentType(paymentType);
         order.setState(OrderState.CREATED);
-        order.setChargingAmount(BigDecimal.ZERO);
-        order.setOrderAmount(BigDecimal.ZERO);
+        order.setChargingAmount(Energy.ZERO);
+        order.setOrderAmount(Money.ZERO);
         order.setCreateTime(LocalDateTime.now());
         order.setUpdateTime(LocalDateTime.now());
 
+        // 仓储保存副本，调用方后续对返回对象的修改不会影响已存储的快照
+        orderRepository.save(order.copy());
+
         log.info("Created {} order: {}", paymentType, order.getOrderId());
         return order;
     }
 
+    /**
+     * 查询订单
+     * Get Order
+     * 
+     * @param orderId 订单ID
+     * @return 仓储中的订单快照（只读）
+     * @throws OrderNotFoundException 如果订单不存在
+     */
+    public ChargingOrder getOrder(String orderId) {
+        ChargingOrder order = orderRepository.findById(orderId);
+        if (order == null) {
+            throw new OrderNotFoundException(orderId);
+        }
+        return order;
+    }
+
+    /**
+     * 对仓储中的订单执行迁移（乐观并发控制）
+     * Update order with optimistic compare-and-set
+     * 
+     * 读取当前快照 -> 在副本上执行迁移 -> 按版本号比较并替换。
+     * 迁移中状态机动作记录的外部副作用（发件箱意图）与订单写入一起提交，写入失败时丢弃。
+     * 未指定期望版本时，版本冲突会重新读取并重试；指定了期望版本则只尝试一次。
+     * transition 返回 null 表示无需写入，直接返回当前快照。
+     * 与 createOrder 一致，返回的是副本，调用方修改返回对象不会改动已提交的订单。
+     * 
+     * @param orderId         订单ID
+     * @param expectedVersion 期望版本号，可为空
+     * @param transition      作用在订单副本上的迁移，例如 order -> pay(order, amount)
+     * @return 写入成功后的订单
+     * @throws OrderNotFoundException         如果订单不存在
+     * @throws OrderVersionConflictException 如果版本不匹配或重试次数用完
+     */
+    public ChargingOrder updateOrder(String orderId, Long expectedVersion, UnaryOperator<ChargingOrder> transition) {
+        int maxAttempts = expectedVersion == null ? MAX_UPDATE_ATTEMPTS : 1;
+
+        try {
+            for (int attempt = 1; ; attempt++) {
+                ChargingOrder current = getOrder(orderId);
+                long version = current.getVersion();
+                if (expectedVersion != null && expectedVersion != version) {
+                    throw new OrderVersionConflictException(orderId, expectedVersion);
+                }
+
+                OrderEvent[] event = new OrderEvent[1];
+                ChargingOrder updated;
+                firedEvent.set(event);
+                // 状态机动作记录的外部副作用只在本次比较并替换成功时随写入提交
+                IntentRecorder.begin();
+                try {
+                    updated = transition.apply(current.copy());
+                } finally {
+                    firedEvent.remove();
+                }
+                if (updated == null) {
+                    return current.copy();
+                }
+                if (orderRepository.compareAndSet(updated, version, event[0])) {
+                    return updated.copy();
+                }
+
+                if (attempt >= maxAttempts) {
+                    throw new OrderVersionConflictException(orderId, version);
+                }
+                log.debug("Order {} version {} changed concurrently, retrying ({}/{})",
+                        orderId, version, attempt, maxAttempts);
+            }
+        } finally {
+            IntentRecorder.end();
+        }
+    }
+
+    /**
+     * 按指令执行一次迁移
+     * Execute a transition command
+     *
+     * @param command 迁移指令
+     * @return 写入成功后的订单
+     * @throws IllegalArgumentException      如果指令缺少必需参数
+     * @throws OrderNotFoundException         如果订单不存在
+     * @throws OrderVersionConflictException 如果版本不匹配或重试次数用完
+     * @throws IllegalStateException          如果当前状态不接受该事件
+     */
+    public ChargingOrder execute(TransitionCommand command) {
+        String orderId = requireParameter(command.getOrderId(), "orderId");
+        OrderEvent event = requireParameter(command.getEvent(), "event");
+        Long version = command.getVersion();
+
+        switch (event) {
+            case PAY:
+                Money prepaidAmount = requireParameter(command.getPrepaidAmount(), "prepaidAmount");
+                return updateOrder(orderId, version, order -> pay(order, prepaidAmount));
+            case FINISH_CHARGING:
+                Energy chargingAmount = requireParameter(command.getChargingAmount(), "chargingAmount");
+                Money orderAmount = requireParameter(command.getOrderAmount(), "orderAmount");
+                return updateOrder(orderId, version, order -> finishCharging(order, chargingAmount, orderAmount));
+            default:
+                return updateOrder(orderId, version, parameterlessTransition(event));
+        }
+    }
+
+    /**
+     * 超时迁移
+     * Expire an order
+     *
+     * 只在订单仍处于 expectedState 时触发事件，订单已经迁移到其他状态时直接返回当前快照。
+     *
+     * @param orderId       订单ID
+     * @param expectedState 超时计时开始时订单所处的状态
+     * @param event         超时触发的事件（不需要参数的事件）
+     * @return 最新的订单
+     * @throws IllegalArgumentException 如果事件需要参数
+     * @throws OrderNotFoundException   如果订单不存在
+     * @throws IllegalStateException    如果当前状态不接受该事件
+     */
+    public ChargingOrder expireOrder(String orderId, OrderState expectedState, OrderEvent event) {
+        UnaryOperator<ChargingOrder> transition = parameterlessTransition(event);
+        return updateOrder(orderId, null,
+                order -> order.getState() == expectedState ? transition.apply(order) : null);
+    }
+
+    /**
+     * 不需要参数的事件对应的迁移
+     *
+     * @throws IllegalArgumentException 如果事件需要参数（PAY、FINISH_CHARGING）
+     */
+    public UnaryOperator<ChargingOrder> parameterlessTransition(OrderEvent event) {
+        switch (event) {
+            case AUTHORIZE:
+                return this::authorize;
+            case START_CHARGING:
+                return this::startCharging;
+            case SETTLE:
+                return this::settle;
+            case DEDUCT:
+                return this::deduct;
+            case CANCEL_ORDER:
+                return this::cancelOrder;
+            default:
+                throw new IllegalArgumentException("Event " + event + " requires parameters");
+        }
+    }
+
+    /**
+     * 更新充电中订单的电表读数
+     * Record a meter reading
+     *
+     * 只在订单处于 CHARGING 且读数大于当前充电量时写入，不触发状态机；
+     * 其他情况（乱序的旧读数、已结束充电）直接返回当前快照。
+     *
+     * @param orderId        订单ID
+     * @param chargingAmount 累计充电量 (kWh)
+     * @return 最新的订单
+     * @throws OrderNotFoundException 如果订单不存在
+     */
+    public ChargingOrder recordMeterReading(String orderId, Energy chargingAmount) {
+        return updateOrder(orderId, null, order -> {
+            if (order.getState() != OrderState.CHARGING
+                    || (order.getChargingAmount() != null && chargingAmount.compareTo(order.getChargingAmount()) <= 0)) {
+                return null;
+            }
+            order.setChargingAmount(chargingAmount);
+            order.setUpdateTime(LocalDateTime.now());
+            return order;
+        });
+    }
+
     // ==================== PrePaid 模式专用方法 ====================
 
     /**
@@ -63,7 +255,7 @@ public class ChargingOrderService {
      * @param prepaidAmount 预付金额
      * @return 更新后的订单
      */
-    public ChargingOrder pay(ChargingOrder order, BigDecimal prepaidAmount) {
+    public ChargingOrder pay(ChargingOrder order, Money prepaidAmount) {
         validatePaymentType(order, PaymentType.PRE_PAID);
 
         order.setPrepaidAmount(prepaidAmount);
@@ -85,8 +277,10 @@ public class ChargingOrderService {
     public ChargingOrder settle(ChargingOrder order) {
         validatePaymentType(order, PaymentType.PRE_PAID);
 
-        // 计算退款金额 = 预付金额 - 实际订单金额
-        BigDecimal refund = order.getPrepaidAmount().subtract(order.getOrderAmount());
+        // 计算退款金额 = 预付金额 - 实际订单金额；尚未支付的订单没有预付金额，由状态机拒绝本次迁移
+        Money prepaidAmount = order.getPrepaidAmount();
+        Money refund = prepaidAmount == null || order.getOrderAmount() == null
+                ? null : prepaidAmount.subtract(order.getOrderAmount());
         order.setRefundAmount(refund);
 
         OrderState newState = fireEvent(order, OrderEvent.SETTLE);
@@ -165,7 +359,7 @@ public class ChargingOrderService {
      * @param orderAmount    订单金额
      * @return 更新后的订单
      */
-    public ChargingOrder finishCharging(ChargingOrder order, BigDecimal chargingAmount, BigDecimal orderAmount) {
+    public ChargingOrder finishCharging(ChargingOrder order, Energy chargingAmount, Money orderAmount) {
         order.setChargingAmount(chargingAmount);
         order.setOrderAmount(orderAmount);
 
@@ -203,23 +397,51 @@ public class ChargingOrderService {
      * @param order 订单
      * @param event 事件
      * @return 新状态
+     * @throws IllegalStateException 如果当前状态不接受该事件
      */
     private OrderState fireEvent(ChargingOrder order, OrderEvent event) {
-        // 1. 获取对应的策略
-        PaymentStrategy strategy = strategyFactory.getStrategy(order.getPaymentType());
+        long start = System.nanoTime();
+        try {
+            return doFireEvent(order, event);
+        } catch (RuntimeException e) {
+            orderMetrics.recordRejected(order.getPaymentType(), event);
+            throw e;
+        } finally {
+            orderMetrics.recordTransition(order.getPaymentType(), event, System.nanoTime() - start);
+        }
+    }
 
-        // 2. 构建状态机（每次都重新构建，确保状态机的独立性）
-        StateMachine<OrderState, OrderEvent, ChargingOrder> stateMachine = strategy.buildStateMachine();
+    private OrderState doFireEvent(ChargingOrder order, OrderEvent event) {
+        // 1. 获取对应策略的迁移引擎（COLA 状态机或预编译迁移表，启动时已构建）
+        OrderTransitionEngine engine = strategyFactory.getEngine(order.getPaymentType());
 
-        // 3. 触发事件
-        OrderState newState = stateMachine.fireEvent(order.getState(), event, order);
+        // 2. 触发事件
+        OrderState newState = engine.fireEvent(order.getState(), event, order);
 
         log.debug("State machine [{}] fired event {} for order {}: {} -> {}",
-                strategy.getMachineId(), event, order.getOrderId(), order.getState(), newState);
+                engine.getMachineId(), event, order.getOrderId(), order.getState(), newState);
+
+        // 所有迁移都是外部迁移，状态不变说明没有匹配的迁移或条件不满足
+        if (newState == order.getState()) {
+            throw new IllegalStateException(
+                    String.format("Order %s cannot handle event %s in state %s",
+                            order.getOrderId(), event, order.getState()));
+        }
 
+        OrderEvent[] fired = firedEvent.get();
+        if (fired != null) {
+            fired[0] = event;
+        }
         return newState;
     }
 
+    private static <T> T requireParameter(T value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
     /**
      * 验证支付类型
      * Validate payment type
@@ -230,6 +452,7 @@ public class ChargingOrderService {
      */
     private void validatePaymentType(ChargingOrder order, PaymentType expectedType) {
         if (order.getPaymentType() != expectedType) {
+            orderMetrics.recordPaymentTypeMismatch(expectedType);
             throw new IllegalStateException(
                     String.format("Order %s is %s mode, cannot perform %s mode operation",
                             order.getOrderId(), order.getPaymentType(), expectedType));
@@ -0,0 +1,124 @@
+package com.charging.order.app.service;
+
+import com.charging.order.app.exception.OrderNotFoundException;
+import com.charging.order.app.exception.OrderVersionConflictException;
+import com.charging.order.config.MeterReadingProperties;
+import com.charging.order.domain.model.Energy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 电表读数上报服务
+ * Meter Reading Service
+ *
+ * 充电桩在 CHARGING 期间高频上报累计充电量。上报只在内存中按订单合并（保留最大读数），
+ * 后台线程按 flushInterval 把每个订单的最新读数写入仓储一次，不经过状态机。
+ */
+@Slf4j
+@Service
+public class MeterReadingService {
+
+    private final ChargingOrderService chargingOrderService;
+
+    private final MeterReadingProperties properties;
+
+    /**
+     * 待写读数：orderId -> 当前间隔内的最大读数
+     */
+    private final Map<String, Energy> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    public MeterReadingService(ChargingOrderService chargingOrderService, MeterReadingProperties properties) {
+        this.chargingOrderService = chargingOrderService;
+        this.properties = properties;
+    }
+
+    /**
+     * 启动后台写入线程
+     */
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "meter-reading-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 上报读数（只合并，不写仓储）
+     *
+     * @param orderId        订单ID
+     * @param chargingAmount 累计充电量 (kWh)
+     * @throws IllegalArgumentException 如果读数为负
+     */
+    public void submit(String orderId, Energy chargingAmount) {
+        if (chargingAmount.signum() < 0) {
+            throw new IllegalArgumentException("Meter reading must not be negative: " + chargingAmount);
+        }
+        pending.merge(orderId, chargingAmount, Energy::max);
+    }
+
+    /**
+     * 把当前合并的读数写入仓储
+     *
+     * @return 本次处理的订单数
+     */
+    public int flush() {
+        int flushed = 0;
+        for (Map.Entry<String, Energy> entry : pending.entrySet()) {
+            String orderId = entry.getKey();
+            Energy reading = entry.getValue();
+            // 写入期间到达的更大读数留到下一个间隔
+            pending.remove(orderId, reading);
+            try {
+                chargingOrderService.recordMeterReading(orderId, reading);
+            } catch (OrderNotFoundException e) {
+                log.debug("Dropped meter reading for unknown order {}", orderId);
+            } catch (OrderVersionConflictException e) {
+                // 订单正在被频繁迁移，读数放回下一个间隔
+                pending.merge(orderId, reading, Energy::max);
+            }
+            flushed++;
+        }
+        return flushed;
+    }
+
+    /**
+     * 待写读数的订单数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 停止后台线程并写入剩余读数
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(properties.getFlushInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+        }
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush meter readings", e);
+        }
+    }
+}
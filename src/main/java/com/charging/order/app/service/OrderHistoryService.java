@@ -0,0 +1,72 @@
+package com.charging.order.app.service;
+
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.infrastructure.persistence.OrderHistoryCursor;
+import com.charging.order.infrastructure.persistence.OrderHistoryPage;
+import com.charging.order.infrastructure.persistence.OrderHistoryQuery;
+import com.charging.order.infrastructure.persistence.jdbc.JdbcOrderHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 订单历史查询服务
+ * Order History Service
+ *
+ * 按用户或充电桩分页查询已持久化的订单，需要启用 charging.persistence.jdbc
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "charging.persistence.jdbc", name = "enabled", havingValue = "true")
+public class OrderHistoryService {
+
+    /**
+     * 每页最多订单数
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final JdbcOrderHistoryRepository historyRepository;
+
+    /**
+     * 查询用户的订单历史
+     */
+    public OrderHistoryPage getUserOrders(String userId, Set<OrderState> states, LocalDateTime createdFrom,
+                                          LocalDateTime createdTo, String cursor, int limit) {
+        return findPage(OrderHistoryQuery.Owner.USER, userId, states, createdFrom, createdTo, cursor, limit);
+    }
+
+    /**
+     * 查询充电桩的订单历史
+     */
+    public OrderHistoryPage getPileOrders(String chargingPileId, Set<OrderState> states, LocalDateTime createdFrom,
+                                          LocalDateTime createdTo, String cursor, int limit) {
+        return findPage(OrderHistoryQuery.Owner.PILE, chargingPileId, states, createdFrom, createdTo, cursor, limit);
+    }
+
+    /**
+     * @throws IllegalArgumentException 如果 limit 超出范围、时间范围为空或游标无效
+     */
+    private OrderHistoryPage findPage(OrderHistoryQuery.Owner owner, String ownerId, Set<OrderState> states,
+                                      LocalDateTime createdFrom, LocalDateTime createdTo, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE + ": " + limit);
+        }
+        if (createdFrom != null && createdTo != null && !createdFrom.isBefore(createdTo)) {
+            throw new IllegalArgumentException("createdFrom must be before createdTo");
+        }
+
+        OrderHistoryQuery query = new OrderHistoryQuery();
+        query.setOwner(owner);
+        query.setOwnerId(ownerId);
+        query.setStates(states == null || states.isEmpty() ? null : EnumSet.copyOf(states));
+        query.setCreatedFrom(createdFrom);
+        query.setCreatedTo(createdTo);
+        query.setAfter(cursor == null || cursor.isEmpty() ? null : OrderHistoryCursor.decode(cursor));
+        query.setLimit(limit);
+        return historyRepository.findPage(query);
+    }
+}
@@ -0,0 +1,82 @@
+package com.charging.order.app.service;
+
+import com.charging.order.app.exception.OrderNotFoundException;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.infrastructure.cache.OrderCache;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 订单查询服务
+ * Order Query Service
+ *
+ * 充电桩轮询等只读查询走两级缓存，不直接访问仓储；
+ * 迁移前的读取仍由 ChargingOrderService 直接从仓储获取最新版本；
+ * 按用户、充电桩、状态的查询走仓储的二级索引
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderQueryService {
+
+    /**
+     * 按状态查询单次最多返回的订单数
+     */
+    public static final int MAX_STATE_QUERY_LIMIT = 1_000;
+
+    private final OrderCache orderCache;
+
+    private final ChargingOrderRepository orderRepository;
+
+    /**
+     * 查询订单
+     *
+     * @param orderId 订单ID
+     * @return 订单快照（只读）
+     * @throws OrderNotFoundException 如果订单不存在
+     */
+    public ChargingOrder getOrder(String orderId) {
+        ChargingOrder order = orderCache.get(orderId, orderRepository::findById);
+        if (order == null) {
+            throw new OrderNotFoundException(orderId);
+        }
+        return order;
+    }
+
+    /**
+     * 查询用户的未终结订单
+     */
+    public List<ChargingOrder> getActiveOrdersByUser(String userId) {
+        return orderRepository.findActiveByUserId(userId);
+    }
+
+    /**
+     * 查询充电桩上的未终结订单
+     */
+    public List<ChargingOrder> getActiveOrdersOnPile(String chargingPileId) {
+        return orderRepository.findActiveByChargingPileId(chargingPileId);
+    }
+
+    /**
+     * 查询处于指定状态的订单
+     *
+     * @param limit 最多返回的订单数（1 ~ MAX_STATE_QUERY_LIMIT）
+     * @throws IllegalArgumentException 如果 limit 超出范围
+     */
+    public List<ChargingOrder> getOrdersByState(OrderState state, int limit) {
+        if (limit < 1 || limit > MAX_STATE_QUERY_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_STATE_QUERY_LIMIT + ": " + limit);
+        }
+        return orderRepository.findByState(state, limit);
+    }
+
+    /**
+     * 处于指定状态的订单数
+     */
+    public int countOrdersByState(OrderState state) {
+        return orderRepository.countByState(state);
+    }
+}
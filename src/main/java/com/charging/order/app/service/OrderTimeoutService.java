@@ -0,0 +1,264 @@
+package com.charging.order.app.service;
+
+import com.charging.order.app.exception.OrderNotFoundException;
+import com.charging.order.app.exception.OrderVersionConflictException;
+import com.charging.order.config.OrderTimeoutProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import com.charging.order.infrastructure.persistence.OrderChangeListener;
+import com.charging.order.infrastructure.timer.HierarchicalTimingWheel;
+import com.charging.order.infrastructure.timer.Timeout;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 订单超时服务
+ * Order Timeout Service
+ *
+ * 订单进入配置了超时规则的状态时，在分层时间轮上为它挂一个定时器；每次状态迁移取消旧定时器并按新状态重新计时。
+ * 定时器到期后经 ChargingOrderService 以正常的状态机迁移触发配置的事件（默认 CANCEL_ORDER），
+ * 订单已离开该状态时不做任何事。
+ * 作为仓储监听器在订单的临界区内重新计时，同一订单的定时器与提交顺序一致；
+ * 启动时为内存中已有（例如从日志恢复）的订单按其最后更新时间补挂定时器，此后不做任何周期性扫描。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "charging.timeout", name = "enabled", havingValue = "true")
+public class OrderTimeoutService implements OrderChangeListener {
+
+    /**
+     * 版本冲突（订单正被频繁写入）时，超时迁移的重试间隔
+     */
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+
+    private final OrderTimeoutProperties properties;
+
+    /**
+     * 仓储构造时会收集监听器，服务与仓储都在首次使用时才解析，避免循环依赖
+     */
+    private final ObjectProvider<ChargingOrderService> chargingOrderService;
+
+    private final ObjectProvider<ChargingOrderRepository> orderRepository;
+
+    private final HierarchicalTimingWheel wheel;
+
+    /**
+     * orderId -> 当前有效的定时器
+     */
+    private final Map<String, ArmedTimeout> timers = new ConcurrentHashMap<>();
+
+    private final LongAdder firedCount = new LongAdder();
+
+    private ExecutorService workers;
+
+    public OrderTimeoutService(OrderTimeoutProperties properties,
+                               ObjectProvider<ChargingOrderService> chargingOrderService,
+                               ObjectProvider<ChargingOrderRepository> orderRepository) {
+        properties.getRules().forEach(OrderTimeoutService::validateRule);
+        this.properties = properties;
+        this.chargingOrderService = chargingOrderService;
+        this.orderRepository = orderRepository;
+        this.wheel = new HierarchicalTimingWheel(properties.getTick().toNanos(), TimeUnit.NANOSECONDS,
+                properties.getWheelSize(), properties.getWheelLevels(), "order-timeout-wheel");
+    }
+
+    /**
+     * 启动时间轮与执行超时迁移的线程
+     */
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(properties.getWorkerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "order-timeout-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        wheel.start();
+    }
+
+    /**
+     * 为启动前已在内存中的订单补挂定时器（从最后更新时间起算）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void armExistingOrders() {
+        int[] armed = new int[1];
+        LocalDateTime now = LocalDateTime.now();
+        orderRepository.getObject().forEachCommitted(order -> {
+            Duration elapsed = order.getUpdateTime() == null ? Duration.ZERO : Duration.between(order.getUpdateTime(), now);
+            if (arm(order, elapsed)) {
+                armed[0]++;
+            }
+        });
+        log.info("Order timeouts armed for {} existing orders", armed[0]);
+    }
+
+    @Override
+    public void onSaved(ChargingOrder order) {
+        arm(order, Duration.ZERO);
+    }
+
+    @Override
+    public void onUpdated(ChargingOrder previous, ChargingOrder updated, OrderEvent event) {
+        // 状态不变的写入（例如电表读数）不重新计时
+        if (previous.getState() != updated.getState()) {
+            arm(updated, Duration.ZERO);
+        }
+    }
+
+    @Override
+    public void onDeleted(String orderId) {
+        ArmedTimeout armed = timers.remove(orderId);
+        if (armed != null) {
+            armed.timeout.cancel();
+        }
+    }
+
+    /**
+     * 等待中的定时器数
+     */
+    public long getPendingCount() {
+        return wheel.getPendingCount();
+    }
+
+    /**
+     * 已到期并提交超时迁移的定时器数
+     */
+    public long getFiredCount() {
+        return firedCount.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        wheel.stop();
+        if (workers != null) {
+            workers.shutdown();
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 按订单当前状态重新计时；状态没有超时规则时只取消旧定时器
+     *
+     * @param elapsed 订单已在该状态停留的时间
+     * @return true 如果挂上了新定时器
+     */
+    private boolean arm(ChargingOrder order, Duration elapsed) {
+        String orderId = order.getOrderId();
+        long version = order.getVersion();
+        OrderTimeoutProperties.Rule rule = order.getState() == null ? null : properties.getRules().get(order.getState());
+        if (rule == null) {
+            timers.computeIfPresent(orderId, (id, current) -> {
+                if (current.version >= version) {
+                    return current;
+                }
+                current.timeout.cancel();
+                return null;
+            });
+            return false;
+        }
+
+        long delayMillis = Math.max(0, rule.getTimeout().minus(elapsed).toMillis());
+        boolean[] armed = new boolean[1];
+        timers.compute(orderId, (id, current) -> {
+            // 版本号更新的定时器已经存在（启动补挂与迁移并发时）
+            if (current != null && current.version >= version) {
+                return current;
+            }
+            if (current != null) {
+                current.timeout.cancel();
+            }
+            ArmedTimeout next = new ArmedTimeout(version, order.getState(), rule.getEvent());
+            next.timeout = wheel.schedule(() -> submit(id, next), delayMillis, TimeUnit.MILLISECONDS);
+            armed[0] = true;
+            return next;
+        });
+        return armed[0];
+    }
+
+    /**
+     * 在时间轮线程上调用，只提交任务
+     */
+    private void submit(String orderId, ArmedTimeout armed) {
+        firedCount.increment();
+        try {
+            workers.execute(() -> expire(orderId, armed));
+        } catch (RejectedExecutionException e) {
+            log.debug("Order timeout for {} skipped during shutdown", orderId);
+        }
+    }
+
+    private void expire(String orderId, ArmedTimeout armed) {
+        timers.remove(orderId, armed);
+        try {
+            ChargingOrder order = chargingOrderService.getObject().expireOrder(orderId, armed.state, armed.event);
+            if (order.getState() != armed.state) {
+                log.info("Order {} timed out in {}, fired {} -> {}", orderId, armed.state, armed.event, order.getState());
+            }
+        } catch (OrderNotFoundException e) {
+            log.debug("Order {} deleted before its timeout", orderId);
+        } catch (OrderVersionConflictException e) {
+            rearm(orderId, armed);
+        } catch (IllegalStateException e) {
+            log.warn("Timeout event {} rejected for order {} in {}: {}", armed.event, orderId, armed.state, e.getMessage());
+        }
+    }
+
+    private void rearm(String orderId, ArmedTimeout expired) {
+        timers.computeIfAbsent(orderId, id -> {
+            ArmedTimeout retry = new ArmedTimeout(expired.version, expired.state, expired.event);
+            retry.timeout = wheel.schedule(() -> submit(id, retry), RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            return retry;
+        });
+    }
+
+    private static void validateRule(OrderState state, OrderTimeoutProperties.Rule rule) {
+        if (state.isTerminal()) {
+            throw new IllegalArgumentException("Timeout rule on terminal state " + state);
+        }
+        if (rule.getTimeout() == null || rule.getTimeout().isNegative() || rule.getTimeout().isZero()) {
+            throw new IllegalArgumentException("Timeout rule for " + state + " needs a positive timeout");
+        }
+        if (rule.getEvent() == OrderEvent.PAY || rule.getEvent() == OrderEvent.FINISH_CHARGING) {
+            throw new IllegalArgumentException("Timeout event " + rule.getEvent() + " for " + state + " requires parameters");
+        }
+    }
+
+    /**
+     * 某个订单版本上挂的定时器
+     */
+    private static final class ArmedTimeout {
+
+        private final long version;
+
+        private final OrderState state;
+
+        private final OrderEvent event;
+
+        private Timeout timeout;
+
+        private ArmedTimeout(long version, OrderState state, OrderEvent event) {
+            this.version = version;
+            this.state = state;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.charging.order.app.service;
+
+import com.charging.order.app.exception.OrderNotFoundException;
+import com.charging.order.app.exception.OrderVersionConflictException;
+import com.charging.order.config.SettlementProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.outbox.IntentRecorder;
+import com.charging.order.domain.outbox.IntentType;
+import com.charging.order.domain.outbox.OutboxIntent;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import com.charging.order.infrastructure.settlement.SettlementGateway;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 批量结算引擎
+ * Settlement Engine
+ *
+ * 每隔 interval，或待结算（COMPLETED）订单数达到 trigger-threshold 时，取出一轮订单按支付类型分组，
+ * 以每批至多 batch-size 条调用结算网关：先付订单批量退还差价，后付订单批量扣款；
+ * 网关受理的订单再经现有状态机（SETTLE / DEDUCT）逐个关单，网关拒绝的订单保持 COMPLETED 留到下一轮。
+ *
+ * 条目的幂等键与发件箱相同（orderId:类型，不带版本号），关单按结算时读到的版本号比较并替换：
+ * 期间经接口单笔结算的订单产生同一个幂等键，由渠道去重；引擎关单时丢弃状态机动作记录的退款 / 扣款意图，
+ * 发件箱不会再投递一次。网关受理后关单失败的订单保持 COMPLETED，即使期间有其他写入改变了版本号，
+ * 下一轮仍以同一幂等键重新提交。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "charging.settlement", name = "enabled", havingValue = "true")
+public class SettlementEngine implements MeterBinder {
+
+    private final SettlementProperties properties;
+
+    private final ChargingOrderService chargingOrderService;
+
+    private final ChargingOrderRepository orderRepository;
+
+    private final SettlementGateway gateway;
+
+    private final LongAdder refunded = new LongAdder();
+
+    private final LongAdder deducted = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder skipped = new LongAdder();
+
+    private volatile SettlementReport lastReport;
+
+    private volatile long lastRunNanos;
+
+    private ScheduledExecutorService scheduler;
+
+    public SettlementEngine(SettlementProperties properties, ChargingOrderService chargingOrderService,
+                            ChargingOrderRepository orderRepository, SettlementGateway gateway) {
+        if (properties.getBatchSize() < 1 || properties.getMaxOrdersPerRun() < 1 || properties.getTriggerThreshold() < 1) {
+            throw new IllegalArgumentException(
+                    "charging.settlement.batch-size, max-orders-per-run and trigger-threshold must be positive");
+        }
+        this.properties = properties;
+        this.chargingOrderService = chargingOrderService;
+        this.orderRepository = orderRepository;
+        this.gateway = gateway;
+    }
+
+    /**
+     * 启动定期检查
+     */
+    @PostConstruct
+    public void start() {
+        lastRunNanos = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-settlement");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkMillis = properties.getCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::check, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 执行一轮结算
+     */
+    public synchronized SettlementReport runOnce() {
+        long start = System.nanoTime();
+        lastRunNanos = start;
+        SettlementReport report = new SettlementReport();
+        report.setStartTime(LocalDateTime.now());
+
+        Map<PaymentType, List<ChargingOrder>> byType = new EnumMap<>(PaymentType.class);
+        for (ChargingOrder order : orderRepository.findByState(OrderState.COMPLETED, properties.getMaxOrdersPerRun())) {
+            byType.computeIfAbsent(order.getPaymentType(), type -> new ArrayList<>()).add(order);
+        }
+        for (Map.Entry<PaymentType, List<ChargingOrder>> entry : byType.entrySet()) {
+            List<ChargingOrder> orders = entry.getValue();
+            for (int from = 0; from < orders.size(); from += properties.getBatchSize()) {
+                int to = Math.min(orders.size(), from + properties.getBatchSize());
+                settleBatch(entry.getKey(), orders.subList(from, to), report);
+            }
+        }
+
+        report.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        refunded.add(report.getRefunded());
+        deducted.add(report.getDeducted());
+        failed.add(report.getFailed());
+        skipped.add(report.getSkipped());
+        lastReport = report;
+        if (report.getSettled() + report.getFailed() + report.getSkipped() > 0) {
+            log.info("Settlement run closed {} orders in {} ms ({} orders/s): refunded {}, deducted {}, "
+                            + "failed {}, skipped {}, gateway calls {}",
+                    report.getSettled(), report.getDurationMillis(), String.format("%.1f", report.getThroughput()),
+                    report.getRefunded(), report.getDeducted(), report.getFailed(), report.getSkipped(),
+                    report.getGatewayCalls());
+        }
+        return report;
+    }
+
+    /**
+     * 最近一轮结算的结果，尚未结算过时为 null
+     */
+    public SettlementReport getLastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("charging.settlement.orders", refunded, LongAdder::sum)
+                .description("Orders handled by bulk settlement runs")
+                .tag("result", "refunded")
+                .register(registry);
+        FunctionCounter.builder("charging.settlement.orders", deducted, LongAdder::sum)
+                .tag("result", "deducted")
+                .register(registry);
+        FunctionCounter.builder("charging.settlement.orders", failed, LongAdder::sum)
+                .tag("result", "failed")
+                .register(registry);
+        FunctionCounter.builder("charging.settlement.orders", skipped, LongAdder::sum)
+                .tag("result", "skipped")
+                .register(registry);
+        Gauge.builder("charging.settlement.throughput", this,
+                        engine -> engine.lastReport == null ? 0 : engine.lastReport.getThroughput())
+                .description("Orders closed per second in the last settlement run")
+                .register(registry);
+    }
+
+    /**
+     * 在调度线程上执行：到了 interval，或待结算订单达到阈值时开始一轮
+     */
+    private void check() {
+        try {
+            boolean due = System.nanoTime() - lastRunNanos >= properties.getInterval().toNanos();
+            if (due || orderRepository.countByState(OrderState.COMPLETED) >= properties.getTriggerThreshold()) {
+                runOnce();
+            }
+        } catch (RuntimeException e) {
+            // 异常不能抛出调度线程，否则之后的检查都不会再执行
+            log.error("Settlement run failed", e);
+        }
+    }
+
+    private void settleBatch(PaymentType paymentType, List<ChargingOrder> orders, SettlementReport report) {
+        IntentType type = paymentType == PaymentType.PRE_PAID ? IntentType.REFUND : IntentType.DEDUCT;
+        List<OutboxIntent> items = new ArrayList<>(orders.size());
+        Map<OutboxIntent, ChargingOrder> orderOf = new IdentityHashMap<>();
+        for (ChargingOrder order : orders) {
+            Money amount = amountOf(order);
+            if (amount == null || amount.signum() < 0) {
+                log.warn("Order {} cannot be settled in bulk: prepaid {}, order amount {}",
+                        order.getOrderId(), order.getPrepaidAmount(), order.getOrderAmount());
+                report.setFailed(report.getFailed() + 1);
+            } else if (amount.signum() == 0) {
+                // 没有差价可退，不调用网关
+                close(order, type, report);
+            } else {
+                OutboxIntent item = OutboxIntent.of(type, order, amount).committed(order.getVersion() + 1);
+                items.add(item);
+                orderOf.put(item, order);
+            }
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+
+        Set<OutboxIntent> rejected = submit(type, items, report);
+        for (OutboxIntent item : items) {
+            if (rejected.contains(item)) {
+                report.setFailed(report.getFailed() + 1);
+            } else {
+                close(orderOf.get(item), type, report);
+            }
+        }
+    }
+
+    private Set<OutboxIntent> submit(IntentType type, List<OutboxIntent> items, SettlementReport report) {
+        Set<OutboxIntent> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+        report.setGatewayCalls(report.getGatewayCalls() + 1);
+        try {
+            List<OutboxIntent> result = type == IntentType.REFUND
+                    ? gateway.refund(Collections.unmodifiableList(items))
+                    : gateway.deduct(Collections.unmodifiableList(items));
+            if (result != null) {
+                rejected.addAll(result);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Settlement gateway failed a {} batch of {} orders: {}", type, items.size(), e.getMessage());
+            rejected.addAll(items);
+        }
+        return rejected;
+    }
+
+    /**
+     * 网关已受理，经状态机关单
+     */
+    private void close(ChargingOrder order, IntentType type, SettlementReport report) {
+        try {
+            chargingOrderService.updateOrder(order.getOrderId(), order.getVersion(), current -> {
+                ChargingOrder closed = type == IntentType.REFUND
+                        ? chargingOrderService.settle(current)
+                        : chargingOrderService.deduct(current);
+                // 本轮已经退款 / 扣款，不再经发件箱投递
+                IntentRecorder.discard(type);
+                return closed;
+            });
+        } catch (OrderVersionConflictException | OrderNotFoundException e) {
+            log.debug("Order {} changed during settlement: {}", order.getOrderId(), e.getMessage());
+            report.setSkipped(report.getSkipped() + 1);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Order {} was {} by the gateway but could not be closed: {}",
+                    order.getOrderId(), type == IntentType.REFUND ? "refunded" : "charged", e.getMessage());
+            report.setFailed(report.getFailed() + 1);
+            return;
+        }
+        if (type == IntentType.REFUND) {
+            report.setRefunded(report.getRefunded() + 1);
+        } else {
+            report.setDeducted(report.getDeducted() + 1);
+        }
+    }
+
+    /**
+     * 与 ChargingOrderService.settle / deduct 相同的金额：先付退预付与订单金额的差价，后付扣订单金额
+     */
+    private static Money amountOf(ChargingOrder order) {
+        if (order.getPaymentType() == PaymentType.PRE_PAID) {
+            if (order.getPrepaidAmount() == null || order.getOrderAmount() == null) {
+                return null;
+            }
+            return order.getPrepaidAmount().subtract(order.getOrderAmount());
+        }
+        return order.getOrderAmount();
+    }
+}
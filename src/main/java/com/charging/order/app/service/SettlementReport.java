@@ -0,0 +1,56 @@
+package com.charging.order.app.service;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一轮批量结算的结果
+ * Settlement Report
+ */
+@Data
+public class SettlementReport {
+
+    private LocalDateTime startTime;
+
+    private long durationMillis;
+
+    /**
+     * 退款后关单的先付订单数
+     */
+    private int refunded;
+
+    /**
+     * 扣款后关单的后付订单数
+     */
+    private int deducted;
+
+    /**
+     * 结算失败、保持 COMPLETED 留到下一轮的订单数
+     */
+    private int failed;
+
+    /**
+     * 本轮处理期间已被其他写入方结算或改动、本轮没有关单的订单数
+     */
+    private int skipped;
+
+    /**
+     * 调用结算网关的次数
+     */
+    private int gatewayCalls;
+
+    /**
+     * 本轮关单的订单数
+     */
+    public int getSettled() {
+        return refunded + deducted;
+    }
+
+    /**
+     * 关单吞吐（订单/秒）
+     */
+    public double getThroughput() {
+        return getSettled() * 1000.0 / Math.max(1, durationMillis);
+    }
+}
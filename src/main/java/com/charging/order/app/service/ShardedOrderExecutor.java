@@ -0,0 +1,263 @@
+package com.charging.order.app.service;
+
+import com.charging.order.config.ShardedExecutorProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.infrastructure.concurrent.MpscRingBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 分片单写订单执行器
+ * Sharded Single-Writer Order Executor
+ *
+ * 按 orderId 的哈希把迁移分配到 N 个分片，每个分片由一个线程从有界无锁 MPSC 队列中依次取出执行，
+ * 同一订单的迁移只在它所属的分片线程上串行执行，按提交顺序生效；调用方拿到 CompletableFuture。
+ * 分片线程是该订单唯一的写入方时，仓储的版本比较总是一次成功，不会出现冲突重试；
+ * 其他写入方（超时、电表读数合并等）仍经版本比较与分片线程正确并发。
+ *
+ * 队列满时 future 立即以 RejectedExecutionException 失败（反压），从不阻塞调用方。
+ * future 在分片线程上完成：依赖它的回调应使用 *Async 变体，不能在分片线程上阻塞。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "charging.sharded-executor", name = "enabled", havingValue = "true")
+public class ShardedOrderExecutor {
+
+    private final ChargingOrderService chargingOrderService;
+
+    private final Shard[] shards;
+
+    private final int mask;
+
+    private final int batchSize;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile boolean running;
+
+    @Autowired
+    public ShardedOrderExecutor(ChargingOrderService chargingOrderService, ShardedExecutorProperties properties) {
+        this(chargingOrderService, properties.getShards() > 0
+                        ? properties.getShards() : Runtime.getRuntime().availableProcessors(),
+                properties.getQueueCapacity(), properties.getBatchSize());
+    }
+
+    /**
+     * @param shardCount    分片数，向上取整为 2 的幂
+     * @param queueCapacity 每个分片的队列容量
+     * @param batchSize     分片线程单批最多执行的迁移数
+     */
+    public ShardedOrderExecutor(ChargingOrderService chargingOrderService, int shardCount, int queueCapacity,
+                                int batchSize) {
+        if (shardCount < 1 || shardCount > (1 << 16)) {
+            throw new IllegalArgumentException("Invalid shard count: " + shardCount);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        int size = shardCount == 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        this.chargingOrderService = chargingOrderService;
+        this.shards = new Shard[size];
+        this.mask = size - 1;
+        this.batchSize = batchSize;
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+    }
+
+    /**
+     * 启动分片线程
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+        log.info("Sharded order executor started with {} shards", shards.length);
+    }
+
+    /**
+     * 在订单所属分片上执行 {@link ChargingOrderService#updateOrder}
+     *
+     * @return 写入成功后的订单；失败时以服务抛出的异常（或队列满时的 RejectedExecutionException）完成
+     */
+    public CompletableFuture<ChargingOrder> submit(String orderId, Long expectedVersion,
+                                                  UnaryOperator<ChargingOrder> transition) {
+        return submit(orderId, () -> chargingOrderService.updateOrder(orderId, expectedVersion, transition));
+    }
+
+    /**
+     * 在订单所属分片上执行 {@link ChargingOrderService#execute}
+     */
+    public CompletableFuture<ChargingOrder> submit(TransitionCommand command) {
+        if (command.getOrderId() == null) {
+            CompletableFuture<ChargingOrder> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalArgumentException("Missing parameter: orderId"));
+            return failed;
+        }
+        return submit(command.getOrderId(), () -> chargingOrderService.execute(command));
+    }
+
+    /**
+     * 分片数
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * 各分片队列中等待执行的迁移数之和（近似值）
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (Shard shard : shards) {
+            pending += shard.queue.size();
+        }
+        return pending;
+    }
+
+    /**
+     * 已执行的迁移数（含失败）
+     */
+    public long getExecutedCount() {
+        long executed = 0;
+        for (Shard shard : shards) {
+            executed += shard.executed.sum();
+        }
+        return executed;
+    }
+
+    /**
+     * 因队列满或已停止被拒绝的提交数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 停止接收新的迁移，等待分片线程执行完已入队的迁移
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            shard.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        // 与停止并发入队、未被分片线程取走的迁移
+        for (Shard shard : shards) {
+            Task task;
+            while ((task = shard.queue.poll()) != null) {
+                task.future.completeExceptionally(new RejectedExecutionException("Order executor is shut down"));
+            }
+        }
+    }
+
+    int shardOf(String orderId) {
+        int h = orderId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private CompletableFuture<ChargingOrder> submit(String orderId, Supplier<ChargingOrder> action) {
+        Task task = new Task(action);
+        Shard shard = shards[shardOf(orderId)];
+        if (!running) {
+            return reject(task, "Order executor is not running");
+        }
+        if (!shard.queue.offer(task)) {
+            return reject(task, "Order shard " + shard.index + " queue is full");
+        }
+        if (shard.sleeping) {
+            LockSupport.unpark(shard.thread);
+        }
+        return task.future;
+    }
+
+    private CompletableFuture<ChargingOrder> reject(Task task, String message) {
+        rejected.increment();
+        task.future.completeExceptionally(new RejectedExecutionException(message));
+        return task.future;
+    }
+
+    /**
+     * 一笔待执行的迁移
+     */
+    private static final class Task {
+
+        private final Supplier<ChargingOrder> action;
+
+        private final CompletableFuture<ChargingOrder> future = new CompletableFuture<>();
+
+        private Task(Supplier<ChargingOrder> action) {
+            this.action = action;
+        }
+
+        private void run() {
+            try {
+                future.complete(action.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 一个分片：队列 + 唯一的消费线程
+     */
+    private final class Shard {
+
+        private final int index;
+
+        private final MpscRingBuffer<Task> queue;
+
+        private final Thread thread;
+
+        private final LongAdder executed = new LongAdder();
+
+        /**
+         * 分片线程即将或已经 park；生产者入队后看到 true 时 unpark
+         */
+        private volatile boolean sleeping;
+
+        private Shard(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new MpscRingBuffer<>(queueCapacity);
+            this.thread = new Thread(this::runLoop, "order-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void runLoop() {
+            while (true) {
+                int drained = queue.drain(Task::run, batchSize);
+                if (drained > 0) {
+                    executed.add(drained);
+                    continue;
+                }
+                if (!running) {
+                    return;
+                }
+                // 先声明将要 park，再检查队列：与生产者的"先入队、再检查 sleeping"配对，不会错过唤醒
+                sleeping = true;
+                if (queue.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                sleeping = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.charging.order.app.service;
+
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderEvent;
+import lombok.Data;
+
+/**
+ * 订单迁移指令
+ * Transition Command
+ *
+ * 一次迁移所需的全部参数，供批量接口等按事件分派到 ChargingOrderService
+ */
+@Data
+public class TransitionCommand {
+
+    /**
+     * 订单ID
+     */
+    private String orderId;
+
+    /**
+     * 触发的事件
+     */
+    private OrderEvent event;
+
+    /**
+     * 期望版本号，可为空（为空时版本冲突自动重试）
+     */
+    private Long version;
+
+    /**
+     * 预付金额（PAY）
+     */
+    private Money prepaidAmount;
+
+    /**
+     * 充电量 kWh（FINISH_CHARGING）
+     */
+    private Energy chargingAmount;
+
+    /**
+     * 订单金额（FINISH_CHARGING）
+     */
+    private Money orderAmount;
+}
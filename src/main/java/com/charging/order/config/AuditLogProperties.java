@@ -0,0 +1,32 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订单迁移审计日志配置
+ * Transition Audit Log Properties
+ *
+ * 流水日志的采样率（charging.audit.chatter-sample-rate）由 logback-spring.xml 直接读取。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.audit")
+public class AuditLogProperties {
+
+    /**
+     * 是否记录迁移审计日志
+     */
+    private boolean enabled = true;
+
+    /**
+     * 环形队列容量（向上取整为 2 的幂）；写出线程跟不上时新记录被丢弃并计数
+     */
+    private int bufferSize = 65_536;
+
+    /**
+     * 写出线程单批最多写出的记录数
+     */
+    private int batchSize = 1_024;
+}
@@ -0,0 +1,34 @@
+package com.charging.order.config;
+
+import com.charging.order.adapter.web.AuthTokenFilter;
+import com.charging.order.infrastructure.auth.SessionTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 订单接口令牌校验过滤器注册
+ * Auth Token Filter Config
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "charging.auth", name = "enabled", havingValue = "true")
+public class AuthTokenFilterConfig {
+
+    /**
+     * 过滤器顺序：排在框架的编码、指标过滤器之后，幂等键过滤器之前
+     */
+    public static final int ORDER = 0;
+
+    @Bean
+    public FilterRegistrationBean<AuthTokenFilter> authTokenFilter(SessionTokenService tokenService,
+                                                                  ObjectMapper objectMapper) {
+        FilterRegistrationBean<AuthTokenFilter> registration =
+                new FilterRegistrationBean<>(new AuthTokenFilter(tokenService, objectMapper));
+        registration.addUrlPatterns("/api/orders", "/api/orders/*");
+        registration.setName("authTokenFilter");
+        registration.setOrder(ORDER);
+        return registration;
+    }
+}
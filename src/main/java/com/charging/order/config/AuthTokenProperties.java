@@ -0,0 +1,42 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 登录令牌配置
+ * Auth Token Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.auth")
+public class AuthTokenProperties {
+
+    /**
+     * 是否签发令牌并校验订单接口（/api/orders/**）
+     */
+    private boolean enabled = false;
+
+    /**
+     * HMAC-SHA256 密钥，至少 32 字节；所有实例必须相同，更换后已签发的令牌全部失效
+     */
+    private String secret;
+
+    /**
+     * 令牌有效期
+     */
+    private Duration ttl = Duration.ofHours(2);
+
+    /**
+     * 是否通过 Redis 在实例间同步吊销的令牌
+     */
+    private boolean redisEnabled = false;
+
+    /**
+     * 清理已过期吊销记录的间隔
+     */
+    private Duration purgeInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,37 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 登录凭据缓存配置
+ * Credential Cache Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.cache.credential")
+public class CredentialCacheProperties {
+
+    /**
+     * 本地近端缓存的最大用户数
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * 凭据的缓存存活时间；经服务以外的途径修改 sys_user 时，最迟在这段时间后生效
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * 是否启用 Redis 二级缓存
+     */
+    private boolean redisEnabled = false;
+
+    /**
+     * 启用 Redis 时近端缓存的最长存活时间（其他节点的失效只会反映到 Redis）
+     */
+    private Duration nearCacheMaxTtl = Duration.ofSeconds(5);
+}
@@ -0,0 +1,32 @@
+package com.charging.order.config;
+
+import com.charging.order.adapter.web.IdempotencyFilter;
+import com.charging.order.infrastructure.cache.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 订单写接口幂等键过滤器注册
+ * Idempotency Filter Config
+ *
+ * 排在令牌校验之后，幂等键按已认证的用户隔离。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "charging.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store,
+                                                                      IdempotencyProperties properties,
+                                                                      ObjectMapper objectMapper) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(store, properties, objectMapper));
+        registration.addUrlPatterns("/api/orders", "/api/orders/*");
+        registration.setName("idempotencyFilter");
+        registration.setOrder(AuthTokenFilterConfig.ORDER + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,53 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 幂等键配置
+ * Idempotency Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * 是否处理 Idempotency-Key 请求头；不带该请求头的请求不受影响
+     */
+    private boolean enabled = true;
+
+    /**
+     * 本地缓存的最大响应数
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * 已完成响应的保留时间，应长于网关的最长重试窗口
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * 重复请求等待进行中的原请求的最长时间，超时返回 409
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Redis 中进行中标记的存活时间，应不短于请求的最长执行时间（不会短于 waitTimeout）；
+     * 原实例崩溃时，其他实例最迟在该时间后可以重新执行
+     */
+    private Duration pendingTtl = Duration.ofMinutes(1);
+
+    /**
+     * 超过该大小的响应不缓存
+     */
+    private int maxResponseBytes = 64 * 1024;
+
+    /**
+     * 是否经 Redis 在实例间共享已完成的响应与进行中标记
+     */
+    private boolean redisEnabled = false;
+}
@@ -0,0 +1,32 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 订单 JDBC 持久化配置
+ * JDBC Persistence Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.persistence.jdbc")
+public class JdbcPersistenceProperties {
+
+    /**
+     * 是否启用 charging_order 表的写后持久化
+     */
+    private boolean enabled = false;
+
+    /**
+     * 刷盘间隔
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /**
+     * 每条多行 upsert 语句包含的最大订单数；待刷订单达到该数量时立即触发刷盘
+     */
+    private int batchSize = 500;
+}
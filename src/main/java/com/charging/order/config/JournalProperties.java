@@ -0,0 +1,43 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 订单事件日志配置
+ * Order Journal Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.journal")
+public class JournalProperties {
+
+    /**
+     * 是否启用内存映射的订单事件日志（启动时据此重建仓储）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 日志段与快照所在目录
+     */
+    private String directory = "data/journal";
+
+    /**
+     * 单个日志段文件大小，写满后滚动到新段
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * 把映射页刷到磁盘的间隔；进程崩溃不丢数据，操作系统崩溃最多丢失该间隔内的记录
+     */
+    private Duration forceInterval = Duration.ofSeconds(1);
+
+    /**
+     * 快照间隔；快照完成后删除更早的日志段，重放时间与该间隔内的写入量成正比
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+}
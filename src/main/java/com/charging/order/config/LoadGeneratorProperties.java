@@ -0,0 +1,85 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 合成负载生成器配置
+ * Load Generator Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.loadgen")
+public class LoadGeneratorProperties {
+
+    /**
+     * 是否在启动完成后运行负载生成器
+     */
+    private boolean enabled = false;
+
+    /**
+     * 压测对象：IN_PROCESS 直接调用 ChargingOrderService，HTTP 调用 baseUrl 上的订单接口
+     */
+    private Mode mode = Mode.IN_PROCESS;
+
+    /**
+     * HTTP 模式下被测实例的地址
+     */
+    private String baseUrl = "http://localhost:8080";
+
+    /**
+     * HTTP 模式下携带的令牌（启用 charging.auth 时需要）
+     */
+    private String authToken;
+
+    /**
+     * 模拟的充电桩数；每个桩一个线程，依次执行充电会话
+     */
+    private int piles = 100;
+
+    /**
+     * 模拟的用户数；每个会话随机选择一个用户
+     */
+    private int users = 1000;
+
+    /**
+     * 运行时长
+     */
+    private Duration duration = Duration.ofMinutes(1);
+
+    /**
+     * 先付订单的比例，其余为后付订单
+     */
+    private double prePaidRatio = 0.5;
+
+    /**
+     * 创建后直接取消的会话比例
+     */
+    private double cancelRatio = 0.05;
+
+    /**
+     * 失败会话的比例：先发送当前状态不接受的事件（预期被拒绝），再取消订单
+     */
+    private double failureRatio = 0.01;
+
+    /**
+     * 相邻两步之间的思考时间（在 0.5 ~ 1.5 倍之间随机）
+     */
+    private Duration thinkTime = Duration.ZERO;
+
+    /**
+     * 开始充电到完成充电之间的时间（在 0.5 ~ 1.5 倍之间随机）
+     */
+    private Duration chargingTime = Duration.ZERO;
+
+    /**
+     * 压测对象
+     */
+    public enum Mode {
+        IN_PROCESS,
+        HTTP
+    }
+}
@@ -0,0 +1,22 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 电表读数上报配置
+ * Meter Reading Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.meter")
+public class MeterReadingProperties {
+
+    /**
+     * 合并后的读数写入仓储的间隔；同一订单在一个间隔内最多写入一次
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+}
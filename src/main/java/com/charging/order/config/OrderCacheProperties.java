@@ -0,0 +1,50 @@
+package com.charging.order.config;
+
+import com.charging.order.domain.model.OrderState;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 订单读缓存配置
+ * Order Cache Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.cache.order")
+public class OrderCacheProperties {
+
+    /**
+     * 本地近端缓存的最大订单数
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * 是否启用 Redis 二级缓存
+     */
+    private boolean redisEnabled = false;
+
+    /**
+     * 启用 Redis 时近端缓存的最长存活时间（其他节点的写入只会反映到 Redis）
+     */
+    private Duration nearCacheMaxTtl = Duration.ofSeconds(2);
+
+    /**
+     * 各状态订单的缓存存活时间；未配置的状态不缓存（终态 CLOSED/CANCELLED 总是被驱逐）
+     */
+    private Map<OrderState, Duration> ttl = defaultTtl();
+
+    private static Map<OrderState, Duration> defaultTtl() {
+        Map<OrderState, Duration> ttl = new EnumMap<>(OrderState.class);
+        ttl.put(OrderState.CREATED, Duration.ofMinutes(5));
+        ttl.put(OrderState.PAID, Duration.ofMinutes(5));
+        ttl.put(OrderState.AUTHORIZED, Duration.ofMinutes(5));
+        ttl.put(OrderState.CHARGING, Duration.ofSeconds(30));
+        ttl.put(OrderState.COMPLETED, Duration.ofMinutes(5));
+        return ttl;
+    }
+}
@@ -0,0 +1,20 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订单ID生成配置
+ * Order ID Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.order-id")
+public class OrderIdProperties {
+
+    /**
+     * 节点号（0 ~ 1023），同时运行的每个实例必须不同
+     */
+    private int nodeId = 0;
+}
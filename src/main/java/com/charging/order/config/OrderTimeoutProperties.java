@@ -0,0 +1,68 @@
+package com.charging.order.config;
+
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 订单超时配置
+ * Order Timeout Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.timeout")
+public class OrderTimeoutProperties {
+
+    /**
+     * 是否启用订单超时
+     */
+    private boolean enabled = false;
+
+    /**
+     * 时间轮精度
+     */
+    private Duration tick = Duration.ofMillis(100);
+
+    /**
+     * 时间轮每层槽数（2 的幂）
+     */
+    private int wheelSize = 512;
+
+    /**
+     * 时间轮层数；默认 100ms x 512^4，覆盖远超任何订单超时的跨度
+     */
+    private int wheelLevels = 4;
+
+    /**
+     * 执行超时迁移的线程数
+     */
+    private int workerThreads = 2;
+
+    /**
+     * 各状态的超时规则；未配置的状态不超时
+     */
+    private Map<OrderState, Rule> rules = new EnumMap<>(OrderState.class);
+
+    /**
+     * 超时规则
+     */
+    @Data
+    public static class Rule {
+
+        /**
+         * 订单进入该状态后多久超时
+         */
+        private Duration timeout;
+
+        /**
+         * 超时时触发的事件（只能是不需要参数的事件）
+         */
+        private OrderEvent event = OrderEvent.CANCEL_ORDER;
+    }
+}
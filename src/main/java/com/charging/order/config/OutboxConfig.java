@@ -0,0 +1,25 @@
+package com.charging.order.config;
+
+import com.charging.order.infrastructure.outbox.OutboxSink;
+import com.charging.order.infrastructure.outbox.StubGateway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 发件箱投递端注册
+ * Outbox Config
+ *
+ * 没有声明任何 {@link OutboxSink} 时注册本地桩网关处理全部意图类型。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "charging.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public StubGateway stubGateway(OutboxProperties properties) {
+        return new StubGateway(properties.getStub().getLatency(), properties.getStub().getFailureRate());
+    }
+}
@@ -0,0 +1,66 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 发件箱配置
+ * Outbox Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.outbox")
+public class OutboxProperties {
+
+    /**
+     * 是否投递状态机动作记录的外部副作用；关闭时意图被丢弃
+     */
+    private boolean enabled = true;
+
+    /**
+     * 投递线程数；同一订单的意图总在同一个线程上按提交顺序投递
+     */
+    private int lanes = 2;
+
+    /**
+     * 单次调用投递端的最大意图数
+     */
+    private int batchSize = 100;
+
+    /**
+     * 最多尝试次数，用完后记录错误并跳过（同一订单之后的意图继续投递）
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * 首次重试的等待时间，之后每次翻倍
+     */
+    private Duration initialBackoff = Duration.ofMillis(200);
+
+    /**
+     * 重试等待时间上限
+     */
+    private Duration maxBackoff = Duration.ofMinutes(1);
+
+    /**
+     * 没有配置其他投递端时使用的本地桩网关
+     */
+    private Stub stub = new Stub();
+
+    @Data
+    public static class Stub {
+
+        /**
+         * 每次批量调用的模拟耗时
+         */
+        private Duration latency = Duration.ZERO;
+
+        /**
+         * 每个意图的模拟失败率（0 ~ 1）
+         */
+        private double failureRate = 0;
+    }
+}
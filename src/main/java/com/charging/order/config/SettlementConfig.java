@@ -0,0 +1,25 @@
+package com.charging.order.config;
+
+import com.charging.order.infrastructure.settlement.FakeSettlementGateway;
+import com.charging.order.infrastructure.settlement.SettlementGateway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 批量结算网关注册
+ * Settlement Config
+ *
+ * 没有声明 {@link SettlementGateway} 时注册本地模拟网关。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "charging.settlement", name = "enabled", havingValue = "true")
+public class SettlementConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(SettlementGateway.class)
+    public FakeSettlementGateway fakeSettlementGateway(SettlementProperties properties) {
+        return new FakeSettlementGateway(properties.getFake().getLatency(), properties.getFake().getFailureRate());
+    }
+}
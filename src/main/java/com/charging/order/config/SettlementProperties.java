@@ -0,0 +1,66 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 批量结算配置
+ * Settlement Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.settlement")
+public class SettlementProperties {
+
+    /**
+     * 是否定期批量结算 COMPLETED 订单（先付退差价、后付扣款）并关单
+     */
+    private boolean enabled = false;
+
+    /**
+     * 两轮结算的最长间隔
+     */
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * 检查待结算订单数的间隔；达到 trigger-threshold 时不等 interval 提前结算
+     */
+    private Duration checkInterval = Duration.ofSeconds(1);
+
+    /**
+     * 待结算（COMPLETED）订单数达到该值时立即开始一轮结算
+     */
+    private int triggerThreshold = 1000;
+
+    /**
+     * 单次调用结算网关的最大条目数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 每轮最多结算的订单数，余下的留到下一轮
+     */
+    private int maxOrdersPerRun = 10_000;
+
+    /**
+     * 没有配置其他结算网关时使用的本地模拟网关
+     */
+    private Fake fake = new Fake();
+
+    @Data
+    public static class Fake {
+
+        /**
+         * 每次批量调用的模拟耗时
+         */
+        private Duration latency = Duration.ZERO;
+
+        /**
+         * 每个条目的模拟失败率（0 ~ 1）
+         */
+        private double failureRate = 0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分片单写执行器配置
+ * Sharded Executor Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.sharded-executor")
+public class ShardedExecutorProperties {
+
+    /**
+     * 是否让订单接口的迁移经分片执行器执行；关闭时请求线程直接调用服务
+     */
+    private boolean enabled = false;
+
+    /**
+     * 分片数（向上取整为 2 的幂），0 表示取 CPU 核数
+     */
+    private int shards = 0;
+
+    /**
+     * 每个分片的队列容量（向上取整为 2 的幂）；队列满时提交立即失败，不阻塞调用方
+     */
+    private int queueCapacity = 4_096;
+
+    /**
+     * 分片线程单批最多执行的迁移数
+     */
+    private int batchSize = 256;
+}
@@ -0,0 +1,34 @@
+package com.charging.order.config;
+
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.statemachine.TransitionEngineType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 状态机配置
+ * State Machine Properties
+ *
+ * charging.state-machine.engines.PRE_PAID=TABLE 按支付类型选择迁移引擎，未配置的使用 COLA
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.state-machine")
+public class StateMachineProperties {
+
+    /**
+     * 每种支付类型使用的迁移引擎
+     */
+    private Map<PaymentType, TransitionEngineType> engines = new EnumMap<>(PaymentType.class);
+
+    /**
+     * 获取指定支付类型的迁移引擎类型
+     */
+    public TransitionEngineType getEngine(PaymentType paymentType) {
+        return engines.getOrDefault(paymentType, TransitionEngineType.COLA);
+    }
+}
@@ -0,0 +1,40 @@
+package com.charging.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户名布隆过滤器配置
+ * Username Filter Properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "charging.user.username-filter")
+public class UsernameFilterProperties {
+
+    /**
+     * 是否启用；关闭时注册总是先查询用户名是否存在
+     */
+    private boolean enabled = true;
+
+    /**
+     * 预计用户数，超出后误判率上升
+     */
+    private long expectedUsers = 10_000_000;
+
+    /**
+     * 目标误判率（判定"可能存在"而实际不存在的比例，此时退回数据库查询）
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * 是否把位数组放在 Redis 位图中，由所有实例共享
+     */
+    private boolean redisEnabled = false;
+
+    /**
+     * 启动时从 sys_user 加载用户名的每批行数
+     */
+    private int loadBatchSize = 10_000;
+}
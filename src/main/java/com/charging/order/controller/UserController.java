@@ -2,10 +2,15 @@ package com.charging.order.controller;
 
 
 import com.charging.order.entity.SysUser;
+import com.charging.order.infrastructure.auth.SessionToken;
+import com.charging.order.infrastructure.auth.SessionTokenService;
 import com.charging.order.service.IUserService;
-import org.apache.catalina.User;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -15,19 +20,45 @@ import javax.annotation.Resource;
 @RequestMapping("/user")
 public class UserController {
 
+    private static final String BEARER = "Bearer ";
+
     @Resource
     private IUserService userService;
 
+    /** 未启用 charging.auth 时不存在 */
+    @Autowired
+    private ObjectProvider<SessionTokenService> tokenService;
+
     @PostMapping("/login")
     public String login(@RequestBody SysUser user){
 
-        boolean success = userService.login(user.getUsername(),user.getPassword());
+        Long userId = userService.authenticate(user.getUsername(),user.getPassword());
 
-        if(success){
-            return "登陆成功！Token：暂时假装有一个Token";
-        }else{
+        if(userId == null){
             return "登陆失败，账号或者密码错误！";
         }
+        SessionTokenService tokens = tokenService.getIfAvailable();
+        if(tokens == null){
+            return "登陆成功！Token：暂时假装有一个Token";
+        }
+        SessionToken token = tokens.issue(userId);
+        return "登陆成功！Token：" + token.getToken();
+    }
+
+    /**
+     * 退出登录：吊销当前令牌
+     */
+    @PostMapping("/logout")
+    public String logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization){
+        SessionTokenService tokens = tokenService.getIfAvailable();
+        if(tokens == null || authorization == null
+                || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())){
+            return "退出失败，未携带有效的Token！";
+        }
+        if(tokens.revoke(authorization.substring(BEARER.length()))){
+            return "退出成功！";
+        }
+        return "退出失败，未携带有效的Token！";
     }
 
     @PostMapping("/register")
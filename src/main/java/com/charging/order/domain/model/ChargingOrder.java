@@ -1,7 +1,6 @@
 package com.charging.order.domain.model;
 
 import lombok.Data;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -34,12 +33,12 @@ public class ChargingOrder {
     /**
      * 充电量 (kWh)
      */
-    private BigDecimal chargingAmount;
+    private Energy chargingAmount;
 
     /**
      * 订单金额
      */
-    private BigDecimal orderAmount;
+    private Money orderAmount;
 
     /**
      * 支付类型
@@ -49,17 +48,17 @@ public class ChargingOrder {
     /**
      * 预付金额（先付模式）
      */
-    private BigDecimal prepaidAmount;
+    private Money prepaidAmount;
 
     /**
      * 实际扣款金额（后付模式）
      */
-    private BigDecimal actualAmount;
+    private Money actualAmount;
 
     /**
      * 退款金额（先付模式）
      */
-    private BigDecimal refundAmount;
+    private Money refundAmount;
 
     /**
      * 创建时间
@@ -70,4 +69,33 @@ public class ChargingOrder {
      * 更新时间
      */
     private LocalDateTime updateTime;
+
+    /**
+     * 版本号（乐观并发控制，每次成功写入仓储时加一）
+     */
+    private long version;
+
+    /**
+     * 复制订单
+     * 仓储中的快照不可原地修改，迁移总是在副本上进行
+     *
+     * @return 字段完全相同的新订单
+     */
+    public ChargingOrder copy() {
+        ChargingOrder copy = new ChargingOrder();
+        copy.setOrderId(orderId);
+        copy.setUserId(userId);
+        copy.setChargingPileId(chargingPileId);
+        copy.setState(state);
+        copy.setChargingAmount(chargingAmount);
+        copy.setOrderAmount(orderAmount);
+        copy.setPaymentType(paymentType);
+        copy.setPrepaidAmount(prepaidAmount);
+        copy.setActualAmount(actualAmount);
+        copy.setRefundAmount(refundAmount);
+        copy.setCreateTime(createTime);
+        copy.setUpdateTime(updateTime);
+        copy.setVersion(version);
+        return copy;
+    }
 }
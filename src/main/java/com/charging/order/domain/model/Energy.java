@@ -0,0 +1,110 @@
+package com.charging.order.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * 电量（定点数）
+ * Energy
+ *
+ * 以 long 存储的 Wh（即 kWh 的三位小数），不可变；加法精确并在溢出时抛出 ArithmeticException。
+ * JSON 中与原 BigDecimal 字段一致，读写为以 kWh 为单位的十进制数（如 50.5）。
+ */
+public final class Energy implements Comparable<Energy> {
+
+    /**
+     * kWh 的小数位数
+     */
+    public static final int SCALE = 3;
+
+    public static final Energy ZERO = new Energy(0);
+
+    private final long wh;
+
+    private Energy(long wh) {
+        this.wh = wh;
+    }
+
+    /**
+     * 以 Wh 构造
+     */
+    public static Energy ofWh(long wh) {
+        return wh == 0 ? ZERO : new Energy(wh);
+    }
+
+    /**
+     * 由十进制 kWh 构造
+     *
+     * @throws IllegalArgumentException 如果小数超过三位或超出 long 范围
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Energy of(BigDecimal kwh) {
+        try {
+            return ofWh(kwh.setScale(SCALE).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not a valid amount of energy: " + kwh, e);
+        }
+    }
+
+    /**
+     * 由十进制 kWh 字符串构造，例如 "50.5"
+     *
+     * @throws IllegalArgumentException 如果格式不正确、小数超过三位或超出 long 范围
+     */
+    public static Energy of(String kwh) {
+        return of(new BigDecimal(kwh));
+    }
+
+    /**
+     * 两者中较大的一个
+     */
+    public static Energy max(Energy a, Energy b) {
+        return a.wh >= b.wh ? a : b;
+    }
+
+    /**
+     * Wh
+     */
+    public long getWh() {
+        return wh;
+    }
+
+    public Energy add(Energy other) {
+        return ofWh(Math.addExact(wh, other.wh));
+    }
+
+    public int signum() {
+        return Long.signum(wh);
+    }
+
+    /**
+     * kWh，去掉末尾多余的 0（50500 Wh -> 50.5）
+     */
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        BigDecimal kwh = BigDecimal.valueOf(wh, SCALE).stripTrailingZeros();
+        return kwh.scale() < 0 ? kwh.setScale(0) : kwh;
+    }
+
+    @Override
+    public int compareTo(Energy other) {
+        return Long.compare(wh, other.wh);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Energy && wh == ((Energy) o).wh);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(wh);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,118 @@
+package com.charging.order.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * 金额（定点数）
+ * Money
+ *
+ * 以 long 存储的分（两位小数），不可变；加减法精确并在溢出时抛出 ArithmeticException。
+ * JSON 中与原 BigDecimal 字段一致，读写为十进制数（如 60.00），也接受字符串形式的十进制数。
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * 小数位数
+     */
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final long FEN_PER_YUAN = 100;
+
+    private final long fen;
+
+    private Money(long fen) {
+        this.fen = fen;
+    }
+
+    /**
+     * 以分构造
+     */
+    public static Money ofFen(long fen) {
+        return fen == 0 ? ZERO : new Money(fen);
+    }
+
+    /**
+     * 由十进制金额构造
+     *
+     * @throws IllegalArgumentException 如果小数超过两位或超出 long 范围
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofFen(amount.setScale(SCALE).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not a valid amount of money: " + amount, e);
+        }
+    }
+
+    /**
+     * 由十进制字符串构造，例如 "60.00"、"100"
+     *
+     * @throws IllegalArgumentException 如果格式不正确、小数超过两位或超出 long 范围
+     */
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    /**
+     * 分
+     */
+    public long getFen() {
+        return fen;
+    }
+
+    public Money add(Money other) {
+        return ofFen(Math.addExact(fen, other.fen));
+    }
+
+    public Money subtract(Money other) {
+        return ofFen(Math.subtractExact(fen, other.fen));
+    }
+
+    public int signum() {
+        return Long.signum(fen);
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(fen, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(fen, other.fen);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money && fen == ((Money) o).fen);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fen);
+    }
+
+    @Override
+    public String toString() {
+        if (fen == Long.MIN_VALUE) {
+            return toBigDecimal().toPlainString();
+        }
+        long abs = Math.abs(fen);
+        long cents = abs % FEN_PER_YUAN;
+        StringBuilder text = new StringBuilder(24);
+        if (fen < 0) {
+            text.append('-');
+        }
+        text.append(abs / FEN_PER_YUAN).append('.');
+        if (cents < 10) {
+            text.append('0');
+        }
+        return text.append(cents).toString();
+    }
+}
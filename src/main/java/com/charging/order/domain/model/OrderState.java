@@ -38,5 +38,12 @@ public enum OrderState {
     /**
      * 已关闭
      */
-    CLOSED
+    CLOSED;
+
+    /**
+     * 是否为终态（不再发生任何迁移）
+     */
+    public boolean isTerminal() {
+        return this == CANCELLED || this == CLOSED;
+    }
 }
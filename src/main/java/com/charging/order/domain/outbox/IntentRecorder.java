@@ -0,0 +1,69 @@
+package com.charging.order.domain.outbox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 当前迁移的意图暂存
+ * Intent Recorder
+ *
+ * ChargingOrderService.updateOrder 在每次尝试迁移前开始暂存，状态机动作把意图记录到当前线程；
+ * 比较并替换成功时，仓储监听器（发件箱）在同一线程、同一临界区内取走暂存的意图，
+ * 写入失败或被拒绝的迁移记录的意图随下一次尝试清空，不会被投递。
+ * 不经 updateOrder 直接调用迁移方法时没有暂存，记录的意图被忽略。
+ */
+public final class IntentRecorder {
+
+    private static final ThreadLocal<List<OutboxIntent>> STAGED = new ThreadLocal<>();
+
+    private IntentRecorder() {
+    }
+
+    /**
+     * 开始暂存（每次尝试迁移前调用，清空上一次尝试的意图）
+     */
+    public static void begin() {
+        List<OutboxIntent> staged = STAGED.get();
+        if (staged == null) {
+            STAGED.set(new ArrayList<>(2));
+        } else {
+            staged.clear();
+        }
+    }
+
+    /**
+     * 结束暂存
+     */
+    public static void end() {
+        STAGED.remove();
+    }
+
+    /**
+     * 记录一个意图（状态机动作中调用）
+     */
+    public static void record(OutboxIntent intent) {
+        List<OutboxIntent> staged = STAGED.get();
+        if (staged != null) {
+            staged.add(intent);
+        }
+    }
+
+    /**
+     * 丢弃已暂存的某类意图（调用方已经自行完成了该副作用，例如批量结算已经退款）
+     */
+    public static void discard(IntentType type) {
+        List<OutboxIntent> staged = STAGED.get();
+        if (staged != null) {
+            staged.removeIf(intent -> intent.getType() == type);
+        }
+    }
+
+    /**
+     * 当前线程暂存的意图，没有时返回空列表
+     */
+    public static List<OutboxIntent> staged() {
+        List<OutboxIntent> staged = STAGED.get();
+        return staged == null ? Collections.emptyList() : staged;
+    }
+}
@@ -0,0 +1,33 @@
+package com.charging.order.domain.outbox;
+
+/**
+ * 外部副作用类型
+ * Outbox Intent Type
+ */
+public enum IntentType {
+
+    /**
+     * 扣预付款（先付模式 PAY）
+     */
+    CAPTURE_PREPAYMENT,
+
+    /**
+     * 后付授权（后付模式 AUTHORIZE）
+     */
+    AUTHORIZE_PAYMENT,
+
+    /**
+     * 通知充电桩开始供电（START_CHARGING）
+     */
+    START_PILE,
+
+    /**
+     * 原路退还差价（先付模式 SETTLE）
+     */
+    REFUND,
+
+    /**
+     * 按订单金额扣款（后付模式 DEDUCT）
+     */
+    DEDUCT
+}
@@ -0,0 +1,74 @@
+package com.charging.order.domain.outbox;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.PaymentType;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 待投递的外部副作用
+ * Outbox Intent
+ *
+ * 状态机动作只记录意图，不直接调用支付网关或充电桩；意图随订单写入一起提交，由后台投递。
+ * 幂等键 = orderId:类型:提交后的版本号，外部系统据此去重，重试不会重复扣款或退款。
+ * 退款与扣款每笔订单只有一次（关单迁移），幂等键不带版本号，只取 orderId:类型，
+ * 由哪条路径、在订单的哪个版本上提交都不会改变。
+ */
+@Getter
+@ToString
+public final class OutboxIntent {
+
+    private final String orderId;
+
+    private final IntentType type;
+
+    private final PaymentType paymentType;
+
+    private final String chargingPileId;
+
+    /**
+     * 涉及的金额，没有金额的意图（授权、启动充电桩）为 null
+     */
+    private final Money amount;
+
+    /**
+     * 订单提交后的版本号，记录时为 -1
+     */
+    private final long orderVersion;
+
+    private OutboxIntent(String orderId, IntentType type, PaymentType paymentType, String chargingPileId,
+                         Money amount, long orderVersion) {
+        this.orderId = orderId;
+        this.type = type;
+        this.paymentType = paymentType;
+        this.chargingPileId = chargingPileId;
+        this.amount = amount;
+        this.orderVersion = orderVersion;
+    }
+
+    /**
+     * 在状态机动作中创建意图
+     */
+    public static OutboxIntent of(IntentType type, ChargingOrder order, Money amount) {
+        return new OutboxIntent(order.getOrderId(), type, order.getPaymentType(), order.getChargingPileId(),
+                amount, -1);
+    }
+
+    /**
+     * 绑定提交后的订单版本号
+     */
+    public OutboxIntent committed(long orderVersion) {
+        return new OutboxIntent(orderId, type, paymentType, chargingPileId, amount, orderVersion);
+    }
+
+    /**
+     * 外部调用的幂等键
+     */
+    public String getIdempotencyKey() {
+        if (type == IntentType.REFUND || type == IntentType.DEDUCT) {
+            return orderId + ':' + type;
+        }
+        return orderId + ':' + type + ':' + orderVersion;
+    }
+}
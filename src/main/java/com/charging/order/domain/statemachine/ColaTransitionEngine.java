@@ -0,0 +1,57 @@
+package com.charging.order.domain.statemachine;
+
+import com.alibaba.cola.statemachine.StateMachine;
+import com.alibaba.cola.statemachine.builder.StateMachineBuilder;
+import com.alibaba.cola.statemachine.builder.StateMachineBuilderFactory;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+
+import java.util.List;
+
+/**
+ * 基于 COLA 状态机的迁移引擎
+ * COLA-backed Transition Engine
+ */
+public final class ColaTransitionEngine implements OrderTransitionEngine {
+
+    private final StateMachine<OrderState, OrderEvent, ChargingOrder> stateMachine;
+
+    public ColaTransitionEngine(StateMachine<OrderState, OrderEvent, ChargingOrder> stateMachine) {
+        this.stateMachine = stateMachine;
+    }
+
+    @Override
+    public OrderState fireEvent(OrderState source, OrderEvent event, ChargingOrder order) {
+        return stateMachine.fireEvent(source, event, order);
+    }
+
+    @Override
+    public String getMachineId() {
+        return stateMachine.getMachineId();
+    }
+
+    /**
+     * 按迁移定义构建 COLA 状态机
+     * 注意：COLA 按 machineId 全局注册，同一个 ID 只能构建一次
+     *
+     * @param machineId   状态机ID
+     * @param transitions 迁移定义
+     * @return 构建好的状态机
+     */
+    public static StateMachine<OrderState, OrderEvent, ChargingOrder> buildStateMachine(
+            String machineId, List<TransitionDefinition> transitions) {
+        StateMachineBuilder<OrderState, OrderEvent, ChargingOrder> builder = StateMachineBuilderFactory.create();
+
+        for (TransitionDefinition transition : transitions) {
+            builder.externalTransition()
+                    .from(transition.getFrom())
+                    .to(transition.getTo())
+                    .on(transition.getEvent())
+                    .when(transition.getCondition())
+                    .perform(transition.getAction());
+        }
+
+        return builder.build(machineId);
+    }
+}
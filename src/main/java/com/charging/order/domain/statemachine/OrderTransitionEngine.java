@@ -0,0 +1,31 @@
+package com.charging.order.domain.statemachine;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+
+/**
+ * 订单迁移引擎
+ * Order Transition Engine
+ *
+ * 与 COLA StateMachine#fireEvent 语义一致：找不到迁移或条件不满足时原样返回源状态
+ */
+public interface OrderTransitionEngine {
+
+    /**
+     * 触发事件
+     *
+     * @param source 当前状态
+     * @param event  事件
+     * @param order  订单（作为条件与动作的上下文）
+     * @return 迁移后的状态
+     */
+    OrderState fireEvent(OrderState source, OrderEvent event, ChargingOrder order);
+
+    /**
+     * 获取状态机ID
+     *
+     * @return 状态机唯一标识
+     */
+    String getMachineId();
+}
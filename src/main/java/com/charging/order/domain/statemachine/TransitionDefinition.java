@@ -0,0 +1,46 @@
+package com.charging.order.domain.statemachine;
+
+import com.alibaba.cola.statemachine.Action;
+import com.alibaba.cola.statemachine.Condition;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 状态迁移定义
+ * Transition Definition
+ *
+ * 策略只声明一次迁移（源状态、目标状态、事件、条件、动作），
+ * 再分别编译为 COLA 状态机或稠密迁移表
+ */
+@Getter
+@RequiredArgsConstructor
+public final class TransitionDefinition {
+
+    /**
+     * 源状态
+     */
+    private final OrderState from;
+
+    /**
+     * 目标状态
+     */
+    private final OrderState to;
+
+    /**
+     * 触发事件
+     */
+    private final OrderEvent event;
+
+    /**
+     * 迁移条件
+     */
+    private final Condition<ChargingOrder> condition;
+
+    /**
+     * 迁移动作
+     */
+    private final Action<OrderState, OrderEvent, ChargingOrder> action;
+}
@@ -0,0 +1,17 @@
+package com.charging.order.domain.statemachine;
+
+/**
+ * 迁移引擎类型
+ * Transition Engine Type
+ */
+public enum TransitionEngineType {
+    /**
+     * COLA 状态机
+     */
+    COLA,
+
+    /**
+     * 预编译的状态×事件迁移表
+     */
+    TABLE
+}
@@ -0,0 +1,109 @@
+package com.charging.order.domain.statemachine;
+
+import com.alibaba.cola.statemachine.Action;
+import com.alibaba.cola.statemachine.Condition;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.strategy.PaymentStrategy;
+
+import java.util.List;
+
+/**
+ * 预编译迁移表引擎
+ * Precompiled Transition Table Engine
+ *
+ * 把策略的迁移定义编译成 OrderState × OrderEvent 的稠密数组，
+ * 触发事件只做一次下标计算，条件与动作在编译期已解析，分发过程不分配对象
+ */
+public final class TransitionTableEngine implements OrderTransitionEngine {
+
+    private static final int EVENT_COUNT = OrderEvent.values().length;
+
+    private static final int SLOT_COUNT = OrderState.values().length * EVENT_COUNT;
+
+    private final String machineId;
+
+    private final OrderState[] targets;
+
+    private final Condition<ChargingOrder>[] conditions;
+
+    private final Action<OrderState, OrderEvent, ChargingOrder>[] actions;
+
+    @SuppressWarnings("unchecked")
+    private TransitionTableEngine(String machineId) {
+        this.machineId = machineId;
+        this.targets = new OrderState[SLOT_COUNT];
+        this.conditions = (Condition<ChargingOrder>[]) new Condition[SLOT_COUNT];
+        this.actions = (Action<OrderState, OrderEvent, ChargingOrder>[]) new Action[SLOT_COUNT];
+    }
+
+    /**
+     * 编译策略的迁移定义
+     *
+     * @param strategy 支付策略
+     * @return 迁移表引擎
+     */
+    public static TransitionTableEngine compile(PaymentStrategy strategy) {
+        return compile(strategy.getMachineId(), strategy.getTransitions());
+    }
+
+    /**
+     * 编译迁移定义
+     *
+     * @param machineId   状态机ID
+     * @param transitions 迁移定义
+     * @return 迁移表引擎
+     * @throws IllegalArgumentException 如果同一 (状态, 事件) 定义了多条迁移
+     */
+    public static TransitionTableEngine compile(String machineId, List<TransitionDefinition> transitions) {
+        TransitionTableEngine engine = new TransitionTableEngine(machineId);
+
+        for (TransitionDefinition transition : transitions) {
+            int slot = slot(transition.getFrom(), transition.getEvent());
+            if (engine.targets[slot] != null) {
+                throw new IllegalArgumentException(String.format(
+                        "State machine [%s] defines more than one transition for %s on %s",
+                        machineId, transition.getFrom(), transition.getEvent()));
+            }
+            engine.targets[slot] = transition.getTo();
+            engine.conditions[slot] = transition.getCondition();
+            engine.actions[slot] = transition.getAction();
+        }
+
+        return engine;
+    }
+
+    @Override
+    public OrderState fireEvent(OrderState source, OrderEvent event, ChargingOrder order) {
+        if (source == null) {
+            return null;
+        }
+
+        int slot = slot(source, event);
+        OrderState target = targets[slot];
+        if (target == null) {
+            return source;
+        }
+
+        Condition<ChargingOrder> condition = conditions[slot];
+        if (condition != null && !condition.isSatisfied(order)) {
+            return source;
+        }
+
+        Action<OrderState, OrderEvent, ChargingOrder> action = actions[slot];
+        if (action != null) {
+            action.execute(source, target, event, order);
+        }
+        return target;
+    }
+
+    @Override
+    public String getMachineId() {
+        return machineId;
+    }
+
+    private static int slot(OrderState state, OrderEvent event) {
+        return state.ordinal() * EVENT_COUNT + event.ordinal();
+    }
+}
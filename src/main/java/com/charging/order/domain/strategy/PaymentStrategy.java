@@ -5,6 +5,9 @@ import com.charging.order.domain.model.ChargingOrder;
 import com.charging.order.domain.model.OrderEvent;
 import com.charging.order.domain.model.OrderState;
 import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.statemachine.TransitionDefinition;
+
+import java.util.List;
 
 /**
  * 支付策略接口
@@ -22,6 +25,14 @@ public interface PaymentStrategy {
      */
     StateMachine<OrderState, OrderEvent, ChargingOrder> buildStateMachine();
 
+    /**
+     * 获取迁移定义
+     * Get transition definitions
+     * 
+     * @return 该策略的全部状态迁移，供 COLA 状态机和迁移表共同编译
+     */
+    List<TransitionDefinition> getTransitions();
+
     /**
      * 获取状态机ID
      * Get State Machine ID
@@ -1,6 +1,12 @@
 package com.charging.order.domain.strategy;
 
+import com.charging.order.config.StateMachineProperties;
 import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.statemachine.ColaTransitionEngine;
+import com.charging.order.domain.statemachine.OrderTransitionEngine;
+import com.charging.order.domain.statemachine.TransitionEngineType;
+import com.charging.order.domain.statemachine.TransitionTableEngine;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.EnumMap;
@@ -13,24 +19,34 @@ import java.util.Map;
  * 
  * 根据支付类型返回对应的支付策略实例
  * 使用 Spring 依赖注入自动管理所有策略实例
+ * 同时按配置为每种策略准备迁移引擎（COLA 状态机或预编译迁移表）
  */
+@Slf4j
 @Component
 public class PaymentStrategyFactory {
 
     private final Map<PaymentType, PaymentStrategy> strategyMap;
 
+    private final Map<PaymentType, OrderTransitionEngine> engineMap;
+
     /**
      * 构造函数注入所有策略实例
      * Spring 会自动注入所有 PaymentStrategy 类型的 Bean
      * 
      * @param strategies 所有支付策略实例列表
+     * @param properties 状态机配置
      */
-    public PaymentStrategyFactory(List<PaymentStrategy> strategies) {
+    public PaymentStrategyFactory(List<PaymentStrategy> strategies, StateMachineProperties properties) {
         this.strategyMap = new EnumMap<>(PaymentType.class);
+        this.engineMap = new EnumMap<>(PaymentType.class);
 
-        // 将策略按照支付类型分类存储
+        // 将策略按照支付类型分类存储，并构建对应的迁移引擎
         for (PaymentStrategy strategy : strategies) {
             strategyMap.put(strategy.getPaymentType(), strategy);
+
+            TransitionEngineType engineType = properties.getEngine(strategy.getPaymentType());
+            engineMap.put(strategy.getPaymentType(), createEngine(strategy, engineType));
+            log.info("Payment strategy [{}] uses {} transition engine", strategy.getMachineId(), engineType);
         }
     }
 
@@ -53,6 +69,25 @@ public class PaymentStrategyFactory {
         return strategy;
     }
 
+    /**
+     * 根据支付类型获取对应的迁移引擎
+     * Get transition engine by payment type
+     * 
+     * @param paymentType 支付类型
+     * @return 对应的迁移引擎
+     * @throws IllegalArgumentException 如果支付类型不支持
+     */
+    public OrderTransitionEngine getEngine(PaymentType paymentType) {
+        OrderTransitionEngine engine = engineMap.get(paymentType);
+
+        if (engine == null) {
+            throw new IllegalArgumentException(
+                    "Unsupported payment type: " + paymentType);
+        }
+
+        return engine;
+    }
+
     /**
      * 检查是否支持指定的支付类型
      * Check if payment type is supported
@@ -63,4 +98,11 @@ public class PaymentStrategyFactory {
     public boolean isSupported(PaymentType paymentType) {
         return strategyMap.containsKey(paymentType);
     }
+
+    private static OrderTransitionEngine createEngine(PaymentStrategy strategy, TransitionEngineType engineType) {
+        if (engineType == TransitionEngineType.TABLE) {
+            return TransitionTableEngine.compile(strategy);
+        }
+        return new ColaTransitionEngine(strategy.buildStateMachine());
+    }
 }
@@ -1,15 +1,23 @@
 package com.charging.order.domain.strategy;
 
 import com.alibaba.cola.statemachine.StateMachine;
-import com.alibaba.cola.statemachine.builder.StateMachineBuilder;
-import com.alibaba.cola.statemachine.builder.StateMachineBuilderFactory;
 import com.charging.order.domain.model.ChargingOrder;
 import com.charging.order.domain.model.OrderEvent;
 import com.charging.order.domain.model.OrderState;
 import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.outbox.IntentRecorder;
+import com.charging.order.domain.outbox.IntentType;
+import com.charging.order.domain.outbox.OutboxIntent;
+import com.charging.order.domain.statemachine.ColaTransitionEngine;
+import com.charging.order.domain.statemachine.TransitionDefinition;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * 后付费策略 / 微信支付分策略 (PostPaid Strategy)
  * 
@@ -31,69 +39,68 @@ public class PostPaidStrategy implements PaymentStrategy {
     /**
      * 状态机实例（单例，懒加载）
      */
-    private StateMachine<OrderState, OrderEvent, ChargingOrder> stateMachine;
+    private volatile StateMachine<OrderState, OrderEvent, ChargingOrder> stateMachine;
+
+    /**
+     * 构建锁；不用 synchronized，避免在 Java 21 虚拟线程上构建时占住载体线程
+     */
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    /**
+     * 迁移定义（COLA 状态机与迁移表共用同一份定义）
+     */
+    private final List<TransitionDefinition> transitions = Collections.unmodifiableList(Arrays.asList(
+            // 1. CREATED -> AUTHORIZED (授权)
+            new TransitionDefinition(OrderState.CREATED, OrderState.AUTHORIZED, OrderEvent.AUTHORIZE,
+                    checkAuthorizationCondition(), doAuthorizeAction()),
+
+            // 2. AUTHORIZED -> CHARGING (开始充电)
+            new TransitionDefinition(OrderState.AUTHORIZED, OrderState.CHARGING, OrderEvent.START_CHARGING,
+                    checkCondition(), doStartChargingAction()),
+
+            // 3. CHARGING -> COMPLETED (完成充电)
+            new TransitionDefinition(OrderState.CHARGING, OrderState.COMPLETED, OrderEvent.FINISH_CHARGING,
+                    checkCondition(), doFinishChargingAction()),
+
+            // 4. COMPLETED -> CLOSED (扣款)
+            new TransitionDefinition(OrderState.COMPLETED, OrderState.CLOSED, OrderEvent.DEDUCT,
+                    checkCondition(), doDeductAction()),
+
+            // 5. CREATED -> CANCELLED (取消订单 - 未授权时可取消)
+            new TransitionDefinition(OrderState.CREATED, OrderState.CANCELLED, OrderEvent.CANCEL_ORDER,
+                    checkCondition(), doCancelAction())
+    ));
 
     @Override
     public StateMachine<OrderState, OrderEvent, ChargingOrder> buildStateMachine() {
-        // 使用双重检查锁定实现懒加载单例，避免重复构建
-        if (stateMachine == null) {
-            synchronized (this) {
-                if (stateMachine == null) {
-                    stateMachine = createStateMachine();
+        // 双重检查锁定实现懒加载单例，避免重复构建（COLA 按 machineId 全局注册，重复构建会失败）
+        StateMachine<OrderState, OrderEvent, ChargingOrder> machine = stateMachine;
+        if (machine == null) {
+            buildLock.lock();
+            try {
+                machine = stateMachine;
+                if (machine == null) {
+                    machine = createStateMachine();
+                    stateMachine = machine;
                     log.info("PostPaid state machine [{}] initialized", MACHINE_ID);
                 }
+            } finally {
+                buildLock.unlock();
             }
         }
-        return stateMachine;
+        return machine;
     }
 
     /**
      * 创建状态机（私有方法，仅初始化时调用一次）
      */
     private StateMachine<OrderState, OrderEvent, ChargingOrder> createStateMachine() {
-        StateMachineBuilder<OrderState, OrderEvent, ChargingOrder> builder = StateMachineBuilderFactory.create();
-
-        // 1. CREATED -> AUTHORIZED (授权)
-        builder.externalTransition()
-                .from(OrderState.CREATED)
-                .to(OrderState.AUTHORIZED)
-                .on(OrderEvent.AUTHORIZE)
-                .when(checkAuthorizationCondition())
-                .perform(doAuthorizeAction());
-
-        // 2. AUTHORIZED -> CHARGING (开始充电)
-        builder.externalTransition()
-                .from(OrderState.AUTHORIZED)
-                .to(OrderState.CHARGING)
-                .on(OrderEvent.START_CHARGING)
-                .when(checkCondition())
-                .perform(doStartChargingAction());
-
-        // 3. CHARGING -> COMPLETED (完成充电)
-        builder.externalTransition()
-                .from(OrderState.CHARGING)
-                .to(OrderState.COMPLETED)
-                .on(OrderEvent.FINISH_CHARGING)
-                .when(checkCondition())
-                .perform(doFinishChargingAction());
-
-        // 4. COMPLETED -> CLOSED (扣款)
-        builder.externalTransition()
-                .from(OrderState.COMPLETED)
-                .to(OrderState.CLOSED)
-                .on(OrderEvent.DEDUCT)
-                .when(checkCondition())
-                .perform(doDeductAction());
-
-        // 5. CREATED -> CANCELLED (取消订单 - 未授权时可取消)
-        builder.externalTransition()
-                .from(OrderState.CREATED)
-                .to(OrderState.CANCELLED)
-                .on(OrderEvent.CANCEL_ORDER)
-                .when(checkCondition())
-                .perform(doCancelAction());
-
-        return builder.build(MACHINE_ID);
+        return ColaTransitionEngine.buildStateMachine(MACHINE_ID, transitions);
+    }
+
+    @Override
+    public List<TransitionDefinition> getTransitions() {
+        return transitions;
     }
 
     @Override
@@ -134,7 +141,8 @@ public class PostPaidStrategy implements PaymentStrategy {
         return (from, to, event, order) -> {
             log.info("[PostPaid] Order [{}] authorization completed: {} -> {} on event {}",
                     order.getOrderId(), from, to, event);
-            // 这里可以添加实际的授权逻辑：调用微信支付分API、锁定信用额度等
+            // 授权经发件箱在迁移提交后异步投递（调用支付分 API、锁定信用额度）
+            IntentRecorder.record(OutboxIntent.of(IntentType.AUTHORIZE_PAYMENT, order, null));
         };
     }
 
@@ -145,7 +153,7 @@ public class PostPaidStrategy implements PaymentStrategy {
         return (from, to, event, order) -> {
             log.info("[PostPaid] Order [{}] charging started: {} -> {} on event {}",
                     order.getOrderId(), from, to, event);
-            // 这里可以添加实际的充电逻辑：通知充电桩、开始计量等
+            IntentRecorder.record(OutboxIntent.of(IntentType.START_PILE, order, null));
         };
     }
 
@@ -167,7 +175,7 @@ public class PostPaidStrategy implements PaymentStrategy {
         return (from, to, event, order) -> {
             log.info("[PostPaid] Order [{}] deduction completed: {} -> {} on event {}. Amount: {}",
                     order.getOrderId(), from, to, event, order.getActualAmount());
-            // 这里可以添加实际的扣款逻辑：调用扣款API、释放授权、记录账单等
+            IntentRecorder.record(OutboxIntent.of(IntentType.DEDUCT, order, order.getActualAmount()));
         };
     }
 
@@ -1,15 +1,23 @@
 package com.charging.order.domain.strategy;
 
 import com.alibaba.cola.statemachine.StateMachine;
-import com.alibaba.cola.statemachine.builder.StateMachineBuilder;
-import com.alibaba.cola.statemachine.builder.StateMachineBuilderFactory;
 import com.charging.order.domain.model.ChargingOrder;
 import com.charging.order.domain.model.OrderEvent;
 import com.charging.order.domain.model.OrderState;
 import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.outbox.IntentRecorder;
+import com.charging.order.domain.outbox.IntentType;
+import com.charging.order.domain.outbox.OutboxIntent;
+import com.charging.order.domain.statemachine.ColaTransitionEngine;
+import com.charging.order.domain.statemachine.TransitionDefinition;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * 先付后充策略 (PrePaid Strategy)
  * 
@@ -31,69 +39,68 @@ public class PrePaidStrategy implements PaymentStrategy {
     /**
      * 状态机实例（单例，懒加载）
      */
-    private StateMachine<OrderState, OrderEvent, ChargingOrder> stateMachine;
+    private volatile StateMachine<OrderState, OrderEvent, ChargingOrder> stateMachine;
+
+    /**
+     * 构建锁；不用 synchronized，避免在 Java 21 虚拟线程上构建时占住载体线程
+     */
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    /**
+     * 迁移定义（COLA 状态机与迁移表共用同一份定义）
+     */
+    private final List<TransitionDefinition> transitions = Collections.unmodifiableList(Arrays.asList(
+            // 1. CREATED -> PAID (支付)
+            new TransitionDefinition(OrderState.CREATED, OrderState.PAID, OrderEvent.PAY,
+                    checkPaymentCondition(), doPayAction()),
+
+            // 2. PAID -> CHARGING (开始充电)
+            new TransitionDefinition(OrderState.PAID, OrderState.CHARGING, OrderEvent.START_CHARGING,
+                    checkCondition(), doStartChargingAction()),
+
+            // 3. CHARGING -> COMPLETED (完成充电)
+            new TransitionDefinition(OrderState.CHARGING, OrderState.COMPLETED, OrderEvent.FINISH_CHARGING,
+                    checkCondition(), doFinishChargingAction()),
+
+            // 4. COMPLETED -> CLOSED (结算退款)
+            new TransitionDefinition(OrderState.COMPLETED, OrderState.CLOSED, OrderEvent.SETTLE,
+                    checkCondition(), doSettleAction()),
+
+            // 5. CREATED -> CANCELLED (取消订单 - 未支付时可取消)
+            new TransitionDefinition(OrderState.CREATED, OrderState.CANCELLED, OrderEvent.CANCEL_ORDER,
+                    checkCondition(), doCancelAction())
+    ));
 
     @Override
     public StateMachine<OrderState, OrderEvent, ChargingOrder> buildStateMachine() {
-        // 使用双重检查锁定实现懒加载单例，避免重复构建
-        if (stateMachine == null) {
-            synchronized (this) {
-                if (stateMachine == null) {
-                    stateMachine = createStateMachine();
+        // 双重检查锁定实现懒加载单例，避免重复构建（COLA 按 machineId 全局注册，重复构建会失败）
+        StateMachine<OrderState, OrderEvent, ChargingOrder> machine = stateMachine;
+        if (machine == null) {
+            buildLock.lock();
+            try {
+                machine = stateMachine;
+                if (machine == null) {
+                    machine = createStateMachine();
+                    stateMachine = machine;
                     log.info("PrePaid state machine [{}] initialized", MACHINE_ID);
                 }
+            } finally {
+                buildLock.unlock();
             }
         }
-        return stateMachine;
+        return machine;
     }
 
     /**
      * 创建状态机（私有方法，仅初始化时调用一次）
      */
     private StateMachine<OrderState, OrderEvent, ChargingOrder> createStateMachine() {
-        StateMachineBuilder<OrderState, OrderEvent, ChargingOrder> builder = StateMachineBuilderFactory.create();
-
-        // 1. CREATED -> PAID (支付)
-        builder.externalTransition()
-                .from(OrderState.CREATED)
-                .to(OrderState.PAID)
-                .on(OrderEvent.PAY)
-                .when(checkPaymentCondition())
-                .perform(doPayAction());
-
-        // 2. PAID -> CHARGING (开始充电)
-        builder.externalTransition()
-                .from(OrderState.PAID)
-                .to(OrderState.CHARGING)
-                .on(OrderEvent.START_CHARGING)
-                .when(checkCondition())
-                .perform(doStartChargingAction());
-
-        // 3. CHARGING -> COMPLETED (完成充电)
-        builder.externalTransition()
-                .from(OrderState.CHARGING)
-                .to(OrderState.COMPLETED)
-                .on(OrderEvent.FINISH_CHARGING)
-                .when(checkCondition())
-                .perform(doFinishChargingAction());
-
-        // 4. COMPLETED -> CLOSED (结算退款)
-        builder.externalTransition()
-                .from(OrderState.COMPLETED)
-                .to(OrderState.CLOSED)
-                .on(OrderEvent.SETTLE)
-                .when(checkCondition())
-                .perform(doSettleAction());
-
-        // 5. CREATED -> CANCELLED (取消订单 - 未支付时可取消)
-        builder.externalTransition()
-                .from(OrderState.CREATED)
-                .to(OrderState.CANCELLED)
-                .on(OrderEvent.CANCEL_ORDER)
-                .when(checkCondition())
-                .perform(doCancelAction());
-
-        return builder.build(MACHINE_ID);
+        return ColaTransitionEngine.buildStateMachine(MACHINE_ID, transitions);
+    }
+
+    @Override
+    public List<TransitionDefinition> getTransitions() {
+        return transitions;
     }
 
     @Override
@@ -134,7 +141,8 @@ public class PrePaidStrategy implements PaymentStrategy {
         return (from, to, event, order) -> {
             log.info("[PrePaid] Order [{}] payment completed: {} -> {} on event {}",
                     order.getOrderId(), from, to, event);
-            // 这里可以添加实际的支付逻辑：调用支付网关、扣款、记录流水等
+            // 扣款经发件箱在迁移提交后异步投递到支付网关
+            IntentRecorder.record(OutboxIntent.of(IntentType.CAPTURE_PREPAYMENT, order, order.getPrepaidAmount()));
         };
     }
 
@@ -145,7 +153,7 @@ public class PrePaidStrategy implements PaymentStrategy {
         return (from, to, event, order) -> {
             log.info("[PrePaid] Order [{}] charging started: {} -> {} on event {}",
                     order.getOrderId(), from, to, event);
-            // 这里可以添加实际的充电逻辑：通知充电桩、开始计量等
+            IntentRecorder.record(OutboxIntent.of(IntentType.START_PILE, order, null));
         };
     }
 
@@ -167,7 +175,7 @@ public class PrePaidStrategy implements PaymentStrategy {
         return (from, to, event, order) -> {
             log.info("[PrePaid] Order [{}] settlement completed: {} -> {} on event {}. Refund: {}",
                     order.getOrderId(), from, to, event, order.getRefundAmount());
-            // 这里可以添加实际的结算逻辑：计算退款、原路退回、记录账单等
+            IntentRecorder.record(OutboxIntent.of(IntentType.REFUND, order, order.getRefundAmount()));
         };
     }
 
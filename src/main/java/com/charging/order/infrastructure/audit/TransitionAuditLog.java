@@ -0,0 +1,217 @@
+package com.charging.order.infrastructure.audit;
+
+import com.charging.order.config.AuditLogProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.infrastructure.concurrent.MpscRingBuffer;
+import com.charging.order.infrastructure.persistence.OrderChangeListener;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 订单迁移审计日志
+ * Transition Audit Log
+ *
+ * 作为仓储监听器，把每次创建、迁移、删除转换成结构化记录放入有界无锁环形队列，
+ * 由单独的写出线程批量写到 AUDIT 日志（logback-spring.xml 中的独立文件）。
+ * 请求线程只做一次 CAS 入队，从不等待 I/O；队列满时丢弃新记录并计数，不反压请求。
+ * 普通的电表读数写入（非迁移）不记录。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "charging.audit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TransitionAuditLog implements OrderChangeListener {
+
+    /**
+     * 审计日志使用的 logger 名称
+     */
+    public static final String AUDIT_LOGGER = "AUDIT";
+
+    private static final Logger AUDIT = LoggerFactory.getLogger(AUDIT_LOGGER);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long DROP_REPORT_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final AuditLogProperties properties;
+
+    private final MpscRingBuffer<TransitionAuditRecord> buffer;
+
+    private final LongAdder published = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 只有写出线程更新
+     */
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong highWaterMark = new AtomicLong();
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public TransitionAuditLog(AuditLogProperties properties) {
+        this.properties = properties;
+        this.buffer = new MpscRingBuffer<>(properties.getBufferSize());
+    }
+
+    /**
+     * 启动写出线程
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "transition-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void onSaved(ChargingOrder order) {
+        if (order.getVersion() == 0) {
+            publish(TransitionAuditRecord.created(order));
+        }
+    }
+
+    @Override
+    public void onUpdated(ChargingOrder previous, ChargingOrder updated, OrderEvent event) {
+        if (event != null) {
+            publish(TransitionAuditRecord.transition(previous, updated, event));
+        }
+    }
+
+    @Override
+    public void onDeleted(String orderId) {
+        publish(TransitionAuditRecord.deleted(orderId));
+    }
+
+    /**
+     * 已入队的记录数
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * 因队列满被丢弃的记录数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 已写出的记录数
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * 队列中等待写出的记录数（近似值）
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    /**
+     * 写出线程观察到的最大积压，接近容量说明写出跟不上
+     */
+    public long getHighWaterMark() {
+        return highWaterMark.get();
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 写出队列中现有的记录（仅写出线程或写出线程停止后调用）
+     *
+     * @return 写出的记录数
+     */
+    int drain() {
+        int pending = buffer.size();
+        if (pending > highWaterMark.get()) {
+            highWaterMark.lazySet(pending);
+        }
+        int total = 0;
+        StringBuilder line = new StringBuilder(192);
+        int drained;
+        do {
+            drained = buffer.drain(record -> {
+                line.setLength(0);
+                record.appendTo(line);
+                AUDIT.info(line.toString());
+            }, properties.getBatchSize());
+            total += drained;
+        } while (drained == properties.getBatchSize());
+        if (total > 0) {
+            written.addAndGet(total);
+        }
+        return total;
+    }
+
+    /**
+     * 停止写出线程并写出剩余记录
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        if (writer == null || !writer.isAlive()) {
+            drain();
+        }
+        long droppedCount = getDroppedCount();
+        if (droppedCount > 0) {
+            log.warn("Transition audit log dropped {} of {} records", droppedCount, droppedCount + getPublishedCount());
+        }
+    }
+
+    private void publish(TransitionAuditRecord record) {
+        if (buffer.offer(record)) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private void writeLoop() {
+        long reportedDrops = 0;
+        long lastReport = System.currentTimeMillis();
+        while (running) {
+            try {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastReport >= DROP_REPORT_INTERVAL_MILLIS) {
+                    long droppedCount = getDroppedCount();
+                    if (droppedCount > reportedDrops) {
+                        log.warn("Transition audit buffer full, dropped {} records in the last {} s",
+                                droppedCount - reportedDrops, (now - lastReport) / 1000);
+                        reportedDrops = droppedCount;
+                    }
+                    lastReport = now;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to write transition audit records", e);
+            }
+        }
+        drain();
+    }
+}
@@ -0,0 +1,124 @@
+package com.charging.order.infrastructure.audit;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+
+/**
+ * 订单迁移审计记录
+ * Transition Audit Record
+ *
+ * 入队时从快照中取出字段，写出线程格式化时不再访问订单对象。
+ */
+final class TransitionAuditRecord {
+
+    /**
+     * 记录类型：CREATE、TRANSITION、DELETE
+     */
+    enum Kind {
+        CREATE, TRANSITION, DELETE
+    }
+
+    private final long timestamp;
+
+    private final Kind kind;
+
+    private final String orderId;
+
+    private final PaymentType paymentType;
+
+    private final OrderEvent event;
+
+    private final OrderState from;
+
+    private final OrderState to;
+
+    private final long version;
+
+    private final Energy chargingAmount;
+
+    private final Money orderAmount;
+
+    private final Money prepaidAmount;
+
+    private final Money actualAmount;
+
+    private final Money refundAmount;
+
+    private TransitionAuditRecord(Kind kind, String orderId, ChargingOrder previous, ChargingOrder current,
+                                  OrderEvent event) {
+        this.timestamp = System.currentTimeMillis();
+        this.kind = kind;
+        this.orderId = orderId;
+        this.event = event;
+        this.from = previous == null ? null : previous.getState();
+        if (current == null) {
+            this.paymentType = null;
+            this.to = null;
+            this.version = -1;
+            this.chargingAmount = null;
+            this.orderAmount = null;
+            this.prepaidAmount = null;
+            this.actualAmount = null;
+            this.refundAmount = null;
+        } else {
+            this.paymentType = current.getPaymentType();
+            this.to = current.getState();
+            this.version = current.getVersion();
+            this.chargingAmount = current.getChargingAmount();
+            this.orderAmount = current.getOrderAmount();
+            this.prepaidAmount = current.getPrepaidAmount();
+            this.actualAmount = current.getActualAmount();
+            this.refundAmount = current.getRefundAmount();
+        }
+    }
+
+    static TransitionAuditRecord created(ChargingOrder order) {
+        return new TransitionAuditRecord(Kind.CREATE, order.getOrderId(), null, order, null);
+    }
+
+    static TransitionAuditRecord transition(ChargingOrder previous, ChargingOrder updated, OrderEvent event) {
+        return new TransitionAuditRecord(Kind.TRANSITION, updated.getOrderId(), previous, updated, event);
+    }
+
+    static TransitionAuditRecord deleted(String orderId) {
+        return new TransitionAuditRecord(Kind.DELETE, orderId, null, null, null);
+    }
+
+    /**
+     * 按 key=value 格式写出，空字段省略
+     */
+    void appendTo(StringBuilder builder) {
+        builder.append("ts=").append(timestamp)
+                .append(" kind=").append(kind)
+                .append(" orderId=").append(orderId);
+        append(builder, "type", paymentType);
+        append(builder, "event", event);
+        append(builder, "from", from);
+        append(builder, "to", to);
+        if (version >= 0) {
+            builder.append(" version=").append(version);
+        }
+        append(builder, "chargingKwh", chargingAmount);
+        append(builder, "orderAmount", orderAmount);
+        append(builder, "prepaidAmount", prepaidAmount);
+        append(builder, "actualAmount", actualAmount);
+        append(builder, "refundAmount", refundAmount);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(160);
+        appendTo(builder);
+        return builder.toString();
+    }
+
+    private static void append(StringBuilder builder, String key, Object value) {
+        if (value != null) {
+            builder.append(' ').append(key).append('=').append(value);
+        }
+    }
+}
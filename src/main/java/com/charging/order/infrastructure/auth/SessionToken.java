@@ -0,0 +1,30 @@
+package com.charging.order.infrastructure.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 已签发的登录令牌
+ * Session Token
+ */
+@Data
+@AllArgsConstructor
+public class SessionToken {
+
+    /**
+     * 紧凑令牌字符串（Authorization: Bearer 之后的部分）
+     */
+    private String token;
+
+    /**
+     * 令牌ID，吊销时使用
+     */
+    private long tokenId;
+
+    private long userId;
+
+    /**
+     * 过期时间（epoch 秒）
+     */
+    private long expiresAt;
+}
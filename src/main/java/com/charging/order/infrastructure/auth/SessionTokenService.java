@@ -0,0 +1,270 @@
+package com.charging.order.infrastructure.auth;
+
+import com.charging.order.config.AuthTokenProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Arrays;
+
+/**
+ * 无状态登录令牌的签发与校验
+ * Session Token Service
+ *
+ * 令牌 = base64url(版本 | 令牌ID | 用户ID | 签发时间 | 过期时间 | HMAC-SHA256)，定长 87 个字符，无填充。
+ * 校验只做本地计算，不访问数据库或 Redis：解码到线程本地缓冲区，复用线程本地的 Mac，
+ * 用定长比较核对签名，再检查过期时间和吊销集合。
+ */
+@Component
+@ConditionalOnProperty(prefix = "charging.auth", name = "enabled", havingValue = "true")
+public class SessionTokenService {
+
+    /**
+     * 校验失败时 {@link #verify(CharSequence)} 的返回值
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    static final int TOKEN_LENGTH = 87;
+
+    private static final byte VERSION = 1;
+
+    private static final int PAYLOAD_LENGTH = 1 + 8 + 8 + 8 + 8;
+
+    private static final int MAC_LENGTH = 32;
+
+    private static final int DECODED_LENGTH = PAYLOAD_LENGTH + MAC_LENGTH;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final char[] ENCODE = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ENCODE.length; i++) {
+            DECODE[ENCODE[i]] = (byte) i;
+        }
+    }
+
+    private final SecretKeySpec key;
+
+    private final long ttlSeconds;
+
+    private final TokenRevocationList revocationList;
+
+    private final Clock clock;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final ThreadLocal<Scratch> scratch;
+
+    @Autowired
+    public SessionTokenService(AuthTokenProperties properties, TokenRevocationList revocationList) {
+        this(properties, revocationList, Clock.systemUTC());
+    }
+
+    SessionTokenService(AuthTokenProperties properties, TokenRevocationList revocationList, Clock clock) {
+        if (properties.getSecret() == null
+                || properties.getSecret().getBytes(StandardCharsets.UTF_8).length < MAC_LENGTH) {
+            throw new IllegalArgumentException("charging.auth.secret must be at least 32 bytes");
+        }
+        if (properties.getTtl().getSeconds() <= 0) {
+            throw new IllegalArgumentException("charging.auth.ttl must be at least one second");
+        }
+        this.key = new SecretKeySpec(properties.getSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttlSeconds = properties.getTtl().getSeconds();
+        this.revocationList = revocationList;
+        this.clock = clock;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(newMac()));
+    }
+
+    /**
+     * 为用户签发令牌
+     */
+    public SessionToken issue(long userId) {
+        long now = clock.millis() / 1000;
+        long tokenId = random.nextLong();
+        long expiresAt = now + ttlSeconds;
+
+        Scratch buffers = scratch.get();
+        byte[] bytes = buffers.decoded;
+        bytes[0] = VERSION;
+        putLong(bytes, 1, tokenId);
+        putLong(bytes, 9, userId);
+        putLong(bytes, 17, now);
+        putLong(bytes, 25, expiresAt);
+        sign(buffers);
+        System.arraycopy(buffers.mac, 0, bytes, PAYLOAD_LENGTH, MAC_LENGTH);
+        return new SessionToken(encode(bytes), tokenId, userId, expiresAt);
+    }
+
+    /**
+     * 校验令牌
+     *
+     * @return 用户ID；令牌格式错误、签名不符、已过期或已吊销时返回 {@link #INVALID}
+     */
+    public long verify(CharSequence token) {
+        Scratch buffers = scratch.get();
+        if (!decodeAndCheck(token, buffers)) {
+            return INVALID;
+        }
+        byte[] bytes = buffers.decoded;
+        if (getLong(bytes, 25) <= clock.millis() / 1000 || revocationList.isRevoked(getLong(bytes, 1))) {
+            return INVALID;
+        }
+        return getLong(bytes, 9);
+    }
+
+    /**
+     * 吊销令牌（例如退出登录）；签名不符的令牌被忽略
+     *
+     * @return true 如果令牌有效且已被吊销
+     */
+    public boolean revoke(CharSequence token) {
+        Scratch buffers = scratch.get();
+        if (!decodeAndCheck(token, buffers)) {
+            return false;
+        }
+        long expiresAt = getLong(buffers.decoded, 25);
+        if (expiresAt <= clock.millis() / 1000) {
+            return false;
+        }
+        revocationList.revoke(getLong(buffers.decoded, 1), expiresAt);
+        return true;
+    }
+
+    /**
+     * 解码并核对签名，结果留在 buffers.decoded 中
+     */
+    private boolean decodeAndCheck(CharSequence token, Scratch buffers) {
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            return false;
+        }
+        byte[] bytes = buffers.decoded;
+        if (!decode(token, bytes) || bytes[0] != VERSION) {
+            return false;
+        }
+        sign(buffers);
+        int diff = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            diff |= buffers.mac[i] ^ bytes[PAYLOAD_LENGTH + i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * 对 buffers.decoded 中的载荷计算 HMAC，写入 buffers.mac
+     */
+    private static void sign(Scratch buffers) {
+        try {
+            buffers.hmac.update(buffers.decoded, 0, PAYLOAD_LENGTH);
+            buffers.hmac.doFinal(buffers.mac, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        char[] chars = new char[TOKEN_LENGTH];
+        int out = 0;
+        int i = 0;
+        for (; i + 3 <= DECODED_LENGTH; i += 3) {
+            int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+            chars[out++] = ENCODE[bits >>> 18];
+            chars[out++] = ENCODE[bits >>> 12 & 0x3f];
+            chars[out++] = ENCODE[bits >>> 6 & 0x3f];
+            chars[out++] = ENCODE[bits & 0x3f];
+        }
+        // 65 = 21 x 3 + 2：末尾 2 字节编码为 3 个字符
+        int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8;
+        chars[out++] = ENCODE[bits >>> 18];
+        chars[out++] = ENCODE[bits >>> 12 & 0x3f];
+        chars[out] = ENCODE[bits >>> 6 & 0x3f];
+        return new String(chars);
+    }
+
+    private static boolean decode(CharSequence token, byte[] bytes) {
+        int out = 0;
+        int i = 0;
+        for (; i + 4 <= TOKEN_LENGTH; i += 4) {
+            int c0 = sextet(token.charAt(i));
+            int c1 = sextet(token.charAt(i + 1));
+            int c2 = sextet(token.charAt(i + 2));
+            int c3 = sextet(token.charAt(i + 3));
+            if ((c0 | c1 | c2 | c3) < 0) {
+                return false;
+            }
+            int bits = c0 << 18 | c1 << 12 | c2 << 6 | c3;
+            bytes[out++] = (byte) (bits >>> 16);
+            bytes[out++] = (byte) (bits >>> 8);
+            bytes[out++] = (byte) bits;
+        }
+        int c0 = sextet(token.charAt(i));
+        int c1 = sextet(token.charAt(i + 1));
+        int c2 = sextet(token.charAt(i + 2));
+        // 末字符的低 2 位不属于任何字节，必须为 0，否则同一令牌会有多种写法
+        if ((c0 | c1 | c2) < 0 || (c2 & 0x3) != 0) {
+            return false;
+        }
+        int bits = c0 << 18 | c1 << 12 | c2 << 6;
+        bytes[out++] = (byte) (bits >>> 16);
+        bytes[out] = (byte) (bits >>> 8);
+        return true;
+    }
+
+    /**
+     * 非法字符返回 -1
+     */
+    private static int sextet(char c) {
+        return c < 128 ? DECODE[c] : -1;
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long getLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | (bytes[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    /**
+     * 每个线程复用的 Mac 与缓冲区
+     */
+    private static final class Scratch {
+
+        private final Mac hmac;
+
+        private final byte[] decoded = new byte[DECODED_LENGTH];
+
+        private final byte[] mac = new byte[MAC_LENGTH];
+
+        private Scratch(Mac hmac) {
+            this.hmac = hmac;
+        }
+    }
+}
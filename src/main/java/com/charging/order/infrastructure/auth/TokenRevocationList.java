@@ -0,0 +1,177 @@
+package com.charging.order.infrastructure.auth;
+
+import com.charging.order.config.AuthTokenProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已吊销令牌集合
+ * Token Revocation List
+ *
+ * 本地保存 令牌ID -> 过期时间，校验时只查本地；令牌过期后记录随之清理，集合大小只取决于有效期内的吊销数。
+ * 启用 Redis 时吊销记录同时写入有序集合（分值为过期时间）并发布到频道：
+ * 运行中的实例经订阅实时收到，新启动的实例从有序集合加载尚未过期的记录。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "charging.auth", name = "enabled", havingValue = "true")
+public class TokenRevocationList {
+
+    private static final String REDIS_KEY = "charging:auth:revoked";
+
+    private static final String REDIS_CHANNEL = "charging:auth:revocations";
+
+    private final AuthTokenProperties properties;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final RedisConnectionFactory connectionFactory;
+
+    private final Clock clock;
+
+    private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService purger;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    public TokenRevocationList(AuthTokenProperties properties, ObjectProvider<StringRedisTemplate> redisTemplate,
+                               ObjectProvider<RedisConnectionFactory> connectionFactory) {
+        this(properties,
+                properties.isRedisEnabled() ? redisTemplate.getIfAvailable() : null,
+                properties.isRedisEnabled() ? connectionFactory.getIfAvailable() : null,
+                Clock.systemUTC());
+    }
+
+    TokenRevocationList(AuthTokenProperties properties, StringRedisTemplate redisTemplate,
+                        RedisConnectionFactory connectionFactory, Clock clock) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (redisTemplate != null && connectionFactory != null) {
+            subscribe();
+            loadFromRedis();
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getPurgeInterval().toMillis();
+        purger.scheduleWithFixedDelay(this::purgeExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    /**
+     * 吊销一个令牌
+     *
+     * @param tokenId   令牌ID
+     * @param expiresAt 令牌过期时间（epoch 秒），之后记录可以清理
+     */
+    public void revoke(long tokenId, long expiresAt) {
+        revoked.put(tokenId, expiresAt);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().add(REDIS_KEY, Long.toString(tokenId), expiresAt);
+            redisTemplate.convertAndSend(REDIS_CHANNEL, tokenId + ":" + expiresAt);
+        } catch (RuntimeException e) {
+            // 本实例已生效；其他实例在令牌过期前仍会接受它
+            log.warn("Failed to publish revoked token {}: {}", tokenId, e.getMessage());
+        }
+    }
+
+    public boolean isRevoked(long tokenId) {
+        return !revoked.isEmpty() && revoked.containsKey(tokenId);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    void purgeExpired() {
+        long now = clock.millis() / 1000;
+        for (Iterator<Long> it = revoked.values().iterator(); it.hasNext(); ) {
+            if (it.next() <= now) {
+                it.remove();
+            }
+        }
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.opsForZSet().removeRangeByScore(REDIS_KEY, Double.NEGATIVE_INFINITY, now);
+            } catch (RuntimeException e) {
+                log.warn("Failed to purge revoked tokens in Redis: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void subscribe() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = body.indexOf(':');
+            try {
+                revoked.put(Long.parseLong(body.substring(0, separator)), Long.parseLong(body.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                log.warn("Ignored malformed token revocation message: {}", body);
+            }
+        }, new ChannelTopic(REDIS_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    private void loadFromRedis() {
+        try {
+            Set<ZSetOperations.TypedTuple<String>> entries = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(REDIS_KEY, clock.millis() / 1000 + 1, Double.POSITIVE_INFINITY);
+            if (entries == null) {
+                return;
+            }
+            for (ZSetOperations.TypedTuple<String> entry : entries) {
+                if (entry.getValue() != null && entry.getScore() != null) {
+                    revoked.put(Long.parseLong(entry.getValue()), entry.getScore().longValue());
+                }
+            }
+            log.info("Loaded {} revoked tokens from Redis", entries.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to load revoked tokens from Redis: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.charging.order.infrastructure.bloom;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 并发布隆过滤器
+ * Concurrent Bloom Filter
+ *
+ * 位数组存放在 AtomicLongArray 中，置位用 CAS，读写都不加锁。
+ * 只会误判"可能存在"，不会漏判已加入的元素；元素不能删除。
+ * 第 i 个位置 = (h1 + i * h2) mod 位数（Kirsch–Mitzenmacher 双重哈希），
+ * 同一套位置也用于 Redis 位图，见 {@link #positions(String)}。
+ */
+public final class BloomFilter {
+
+    /**
+     * Redis 位图最多 2^32 位
+     */
+    static final long MAX_BITS = 1L << 32;
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        this(optimalBitCount(expectedInsertions, falsePositiveRate),
+                optimalHashCount(expectedInsertions, optimalBitCount(expectedInsertions, falsePositiveRate)));
+    }
+
+    BloomFilter(long bitCount, int hashCount) {
+        if (bitCount < 64 || bitCount > MAX_BITS || bitCount % 64 != 0) {
+            throw new IllegalArgumentException("bitCount must be a multiple of 64 in [64, 2^32]: " + bitCount);
+        }
+        if (hashCount < 1) {
+            throw new IllegalArgumentException("hashCount must be positive: " + hashCount);
+        }
+        this.words = new AtomicLongArray((int) (bitCount >>> 6));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * 加入元素
+     *
+     * @return true 如果至少置位了一位（元素此前一定不在集合中）
+     */
+    public boolean put(String value) {
+        boolean changed = false;
+        for (long position : positions(value)) {
+            changed |= setBit(position);
+        }
+        return changed;
+    }
+
+    /**
+     * @return false 表示元素一定不存在；true 表示可能存在
+     */
+    public boolean mightContain(String value) {
+        long[] hashes = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            long position = position(hashes, i);
+            if ((words.get((int) (position >>> 6)) & (1L << position)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 元素对应的 hashCount 个位下标
+     */
+    public long[] positions(String value) {
+        long[] hashes = hash(value);
+        long[] positions = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            positions[i] = position(hashes, i);
+        }
+        return positions;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 已置位的位数（近似值，并发写入时不精确）
+     */
+    public long getSetBitCount() {
+        long count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    private boolean setBit(long position) {
+        int index = (int) (position >>> 6);
+        long mask = 1L << position;
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+        return true;
+    }
+
+    private long position(long[] hashes, int i) {
+        return ((hashes[0] + i * hashes[1]) & Long.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * FNV-1a 64 位哈希，经两个不同种子的 fmix64 得到相互独立的 h1、h2
+     */
+    private static long[] hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        long h1 = fmix64(h);
+        long h2 = fmix64(h ^ 0x9e3779b97f4a7c15L) | 1;
+        return new long[]{h1, h2};
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    static long optimalBitCount(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long rounded = ((long) Math.ceil(bits) + 63) & ~63L;
+        return Math.max(64, Math.min(MAX_BITS, rounded));
+    }
+
+    static int optimalHashCount(long expectedInsertions, long bitCount) {
+        return Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+}
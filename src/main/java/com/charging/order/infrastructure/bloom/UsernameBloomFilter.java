@@ -0,0 +1,192 @@
+package com.charging.order.infrastructure.bloom;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.charging.order.config.UsernameFilterProperties;
+import com.charging.order.entity.SysUser;
+import com.charging.order.mapper.UserMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 已占用用户名的布隆过滤器
+ * Username Bloom Filter
+ *
+ * 注册时"一定不存在"的用户名可以跳过 count 查询直接插入；判定"可能存在"时仍查询数据库。
+ * 重复用户名以 sys_user 的唯一键为准，过滤器只是快速路径，误判或漏加都不会放过重复注册。
+ *
+ * 启动后在后台线程按主键分批加载 sys_user 的用户名，加载完成前总是回答"可能存在"。
+ * 启用 Redis 时位数组放在 Redis 位图中由各实例共享，已有实例加载过的位图不再重复加载；
+ * Redis 不可用时同样回答"可能存在"。
+ */
+@Slf4j
+@Component
+public class UsernameBloomFilter {
+
+    private static final String REDIS_KEY_PREFIX = "charging:user:username-filter:";
+
+    private final UsernameFilterProperties properties;
+
+    private final UserMapper userMapper;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final BloomFilter filter;
+
+    private final byte[] redisKey;
+
+    private final String redisReadyKey;
+
+    private volatile boolean ready;
+
+    public UsernameBloomFilter(UsernameFilterProperties properties, UserMapper userMapper,
+                               ObjectProvider<StringRedisTemplate> redisTemplate) {
+        this.properties = properties;
+        this.userMapper = userMapper;
+        this.redisTemplate = properties.isRedisEnabled() ? redisTemplate.getIfAvailable() : null;
+        this.filter = properties.isEnabled()
+                ? new BloomFilter(properties.getExpectedUsers(), properties.getFalsePositiveRate())
+                : null;
+        // 位图大小或哈希个数变化后使用新的键，旧位图按新参数解读会漏判
+        String key = filter == null ? REDIS_KEY_PREFIX
+                : REDIS_KEY_PREFIX + filter.getBitCount() + ":" + filter.getHashCount();
+        this.redisKey = key.getBytes(StandardCharsets.UTF_8);
+        this.redisReadyKey = key + ":ready";
+    }
+
+    /**
+     * @return false 表示用户名一定未被占用；true 表示可能已被占用
+     */
+    public boolean mightExist(String username) {
+        if (!ready) {
+            return true;
+        }
+        if (redisTemplate == null) {
+            return filter.mightContain(username);
+        }
+        try {
+            long[] positions = filter.positions(username);
+            List<Object> bits = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (long position : positions) {
+                    connection.stringCommands().getBit(redisKey, position);
+                }
+                return null;
+            });
+            for (Object bit : bits) {
+                if (!Boolean.TRUE.equals(bit)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to query username filter in Redis: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 记录一个已占用的用户名
+     */
+    public void add(String username) {
+        if (filter == null || username == null) {
+            return;
+        }
+        if (redisTemplate == null) {
+            filter.put(username);
+            return;
+        }
+        try {
+            long[] positions = filter.positions(username);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                setBits(connection, positions);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // 漏加只会让之后的重复注册走到唯一键上
+            log.warn("Failed to add username to filter in Redis: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (filter == null) {
+            return;
+        }
+        Thread loader = new Thread(this::loadUsernames, "username-filter-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void loadUsernames() {
+        long start = System.currentTimeMillis();
+        try {
+            if (redisTemplate != null && Boolean.TRUE.equals(redisTemplate.hasKey(redisReadyKey))) {
+                ready = true;
+                log.info("Username filter already loaded in Redis");
+                return;
+            }
+            long loaded = 0;
+            Long lastId = null;
+            while (true) {
+                List<SysUser> batch = userMapper.selectList(new LambdaQueryWrapper<SysUser>()
+                        .select(SysUser::getId, SysUser::getUsername)
+                        .gt(lastId != null, SysUser::getId, lastId)
+                        .orderByAsc(SysUser::getId)
+                        .last("LIMIT " + properties.getLoadBatchSize()));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                addAll(batch);
+                loaded += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            if (redisTemplate != null) {
+                redisTemplate.opsForValue().set(redisReadyKey, "1");
+            }
+            ready = true;
+            log.info("Username filter loaded {} usernames in {} ms ({} bits, {} hashes)",
+                    loaded, System.currentTimeMillis() - start, filter.getBitCount(), filter.getHashCount());
+        } catch (RuntimeException e) {
+            // 保持未就绪，注册继续走数据库查询
+            log.warn("Failed to load username filter, registration falls back to database lookups: {}",
+                    e.getMessage());
+        }
+    }
+
+    private void addAll(List<SysUser> users) {
+        if (redisTemplate == null) {
+            for (SysUser user : users) {
+                if (user.getUsername() != null) {
+                    filter.put(user.getUsername());
+                }
+            }
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (SysUser user : users) {
+                if (user.getUsername() != null) {
+                    setBits(connection, filter.positions(user.getUsername()));
+                }
+            }
+            return null;
+        });
+    }
+
+    private void setBits(RedisConnection connection, long[] positions) {
+        for (long position : positions) {
+            connection.stringCommands().setBit(redisKey, position, true);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.charging.order.infrastructure.cache;
+
+import com.charging.order.config.CredentialCacheProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 登录凭据缓存
+ * Credential Cache
+ *
+ * 按用户名缓存登录凭据：本地有界近端缓存（Caffeine）+ 可选的 Redis 二级缓存。
+ * 同一用户名的并发未命中只回源一次；不存在的用户不缓存，注册后立即可以登录。
+ * 注册、修改密码、启停账号时由用户服务显式调用 {@link #invalidate(String)}，
+ * 失效期间仍在回源的结果只交给已在等待的请求，不会写回缓存。
+ */
+@Slf4j
+@Component
+public class CredentialCache {
+
+    private static final String REDIS_KEY_PREFIX = "charging:credential:";
+
+    private final CredentialCacheProperties properties;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final AsyncCache<String, UserCredential> nearCache;
+
+    private final LongAdder redisHits = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder loadNanos = new LongAdder();
+
+    private final LongAdder lookups = new LongAdder();
+
+    private final LongAdder lookupNanos = new LongAdder();
+
+    public CredentialCache(CredentialCacheProperties properties, StringRedisTemplate redisTemplate,
+                           ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.redisTemplate = properties.isRedisEnabled() ? redisTemplate : null;
+        this.objectMapper = objectMapper;
+        Duration nearTtl = properties.getTtl();
+        if (this.redisTemplate != null && nearTtl.compareTo(properties.getNearCacheMaxTtl()) > 0) {
+            nearTtl = properties.getNearCacheMaxTtl();
+        }
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(nearTtl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    @Autowired
+    public CredentialCache(CredentialCacheProperties properties, ObjectProvider<StringRedisTemplate> redisTemplate,
+                           ObjectMapper objectMapper) {
+        this(properties, redisTemplate.getIfAvailable(), objectMapper);
+    }
+
+    /**
+     * 读取凭据：近端缓存 -> Redis -> loader
+     *
+     * @param username 用户名
+     * @param loader   回源加载，同一用户名同时只会调用一次
+     * @return 凭据，用户不存在时返回 null
+     */
+    public UserCredential get(String username, Function<String, UserCredential> loader) {
+        long start = System.nanoTime();
+        try {
+            return lookup(username, loader);
+        } finally {
+            lookups.increment();
+            lookupNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 失效一个用户的凭据（近端缓存与 Redis）
+     */
+    public void invalidate(String username) {
+        nearCache.synchronous().invalidate(username);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(REDIS_KEY_PREFIX + username);
+        } catch (RuntimeException e) {
+            // 删除失败时 Redis 中的旧凭据按 TTL 过期
+            log.warn("Failed to invalidate credential of {} in Redis: {}", username, e.getMessage());
+        }
+    }
+
+    /**
+     * 近端缓存统计（命中率等）
+     */
+    public CacheStats getStats() {
+        return nearCache.synchronous().stats();
+    }
+
+    /**
+     * 近端未命中后由 Redis 命中的次数
+     */
+    public long getRedisHitCount() {
+        return redisHits.sum();
+    }
+
+    /**
+     * 回源（数据库）次数
+     */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * 平均回源耗时（纳秒）
+     */
+    public double getAverageLoadNanos() {
+        long count = loads.sum();
+        return count == 0 ? 0 : (double) loadNanos.sum() / count;
+    }
+
+    /**
+     * 平均查询耗时（纳秒），包括命中与回源
+     */
+    public double getAverageLookupNanos() {
+        long count = lookups.sum();
+        return count == 0 ? 0 : (double) lookupNanos.sum() / count;
+    }
+
+    /**
+     * 近端缓存中的用户数（近似值）
+     */
+    public long getSize() {
+        return nearCache.synchronous().estimatedSize();
+    }
+
+    private UserCredential lookup(String username, Function<String, UserCredential> loader) {
+        CompletableFuture<UserCredential> cached = nearCache.getIfPresent(username);
+        if (cached != null) {
+            return join(cached);
+        }
+
+        CompletableFuture<UserCredential> loading = new CompletableFuture<>();
+        CompletableFuture<UserCredential> inFlight = nearCache.asMap().putIfAbsent(username, loading);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+
+        UserCredential credential;
+        try {
+            credential = loadThrough(username, loading, loader);
+        } catch (RuntimeException e) {
+            nearCache.asMap().remove(username, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+        if (credential == null) {
+            nearCache.asMap().remove(username, loading);
+        }
+        loading.complete(credential);
+        return credential;
+    }
+
+    private UserCredential loadThrough(String username, CompletableFuture<UserCredential> loading,
+                                       Function<String, UserCredential> loader) {
+        UserCredential cached = readRedis(username);
+        if (cached != null) {
+            redisHits.increment();
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        UserCredential credential = loader.apply(username);
+        loads.increment();
+        loadNanos.add(System.nanoTime() - start);
+
+        // 回源期间被失效过的结果不写回 Redis
+        if (credential != null && nearCache.asMap().get(username) == loading) {
+            writeRedis(username, credential);
+        }
+        return credential;
+    }
+
+    private UserCredential readRedis(String username) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + username);
+            return json == null ? null : objectMapper.readValue(json, UserCredential.class);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Redis 不可用时降级为直接回源
+            log.warn("Failed to read credential of {} from Redis: {}", username, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String username, UserCredential credential) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().setIfAbsent(REDIS_KEY_PREFIX + username,
+                    objectMapper.writeValueAsString(credential), properties.getTtl());
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to cache credential of {} in Redis: {}", username, e.getMessage());
+        }
+    }
+
+    private static UserCredential join(CompletableFuture<UserCredential> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
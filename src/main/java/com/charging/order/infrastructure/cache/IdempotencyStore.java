@@ -0,0 +1,170 @@
+package com.charging.order.infrastructure.cache;
+
+import com.charging.order.config.IdempotencyProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 幂等键存储
+ * Idempotency Store
+ *
+ * 幂等键 -> 响应 future。第一个请求以未完成的 future 认领键并执行，同一实例上的重复请求等待该 future，
+ * 完成后的重复请求直接得到缓存的响应。本地缓存有界并按写入时间过期。
+ *
+ * 启用 Redis 时，认领还需要在 Redis 中 SET NX 一个进行中标记（存活 pendingTtl，不短于 waitTimeout），
+ * 完成后覆盖为响应本身；其他实例的重复请求轮询 Redis 直到得到响应或等待超时。
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private static final String REDIS_KEY_PREFIX = "charging:idempotency:";
+
+    private static final String PENDING = "PENDING";
+
+    private static final long REDIS_POLL_INTERVAL_MILLIS = 20;
+
+    private final IdempotencyProperties properties;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, CompletableFuture<IdempotentResponse>> responses;
+
+    public IdempotencyStore(IdempotencyProperties properties, StringRedisTemplate redisTemplate,
+                            ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.redisTemplate = properties.isRedisEnabled() ? redisTemplate : null;
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    @Autowired
+    public IdempotencyStore(IdempotencyProperties properties, ObjectProvider<StringRedisTemplate> redisTemplate,
+                            ObjectMapper objectMapper) {
+        this(properties, redisTemplate.getIfAvailable(), objectMapper);
+    }
+
+    /**
+     * 以 claim 认领幂等键
+     *
+     * @return null 表示认领成功，调用方执行请求后必须调用 {@link #complete} 或 {@link #abandon}；
+     * 否则返回已有的 future：完成值为响应，为 null 表示原请求放弃（可以重新认领），
+     * 以 TimeoutException 失败表示其他实例上的原请求仍在进行
+     */
+    public CompletableFuture<IdempotentResponse> claim(String key, CompletableFuture<IdempotentResponse> claim) {
+        CompletableFuture<IdempotentResponse> existing = responses.asMap().putIfAbsent(key, claim);
+        if (existing != null) {
+            return existing;
+        }
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            Boolean claimed = redisTemplate.opsForValue()
+                    .setIfAbsent(REDIS_KEY_PREFIX + key, PENDING, pendingTtl());
+            if (Boolean.TRUE.equals(claimed)) {
+                return null;
+            }
+        } catch (RuntimeException e) {
+            // Redis 不可用时只在本实例内去重
+            log.warn("Failed to claim idempotency key in Redis: {}", e.getMessage());
+            return null;
+        }
+        // 其他实例已认领：本地等待者共享这里的轮询结果
+        awaitRemote(key, claim);
+        return claim;
+    }
+
+    /**
+     * 记录完成的响应并唤醒等待者
+     */
+    public void complete(String key, CompletableFuture<IdempotentResponse> claim, IdempotentResponse response) {
+        claim.complete(response);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + key, objectMapper.writeValueAsString(response),
+                    properties.getTtl());
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to store idempotent response in Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 放弃认领（原请求失败，允许重试重新执行）
+     */
+    public void abandon(String key, CompletableFuture<IdempotentResponse> claim) {
+        responses.asMap().remove(key, claim);
+        claim.complete(null);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(REDIS_KEY_PREFIX + key);
+        } catch (RuntimeException e) {
+            // 进行中标记在 pendingTtl 后过期
+            log.warn("Failed to release idempotency key in Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 本地缓存中的键数（近似值）
+     */
+    public long getSize() {
+        return responses.estimatedSize();
+    }
+
+    /**
+     * 进行中标记必须比原请求活得久，否则原请求还在执行时其他实例就能重新认领
+     */
+    private Duration pendingTtl() {
+        Duration pendingTtl = properties.getPendingTtl();
+        return pendingTtl.compareTo(properties.getWaitTimeout()) >= 0 ? pendingTtl : properties.getWaitTimeout();
+    }
+
+    private void awaitRemote(String key, CompletableFuture<IdempotentResponse> claim) {
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+        try {
+            while (true) {
+                String value = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + key);
+                if (value == null) {
+                    // 原请求已放弃或标记过期
+                    responses.asMap().remove(key, claim);
+                    claim.complete(null);
+                    return;
+                }
+                if (!PENDING.equals(value)) {
+                    claim.complete(objectMapper.readValue(value, IdempotentResponse.class));
+                    return;
+                }
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+                Thread.sleep(REDIS_POLL_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to read idempotent response from Redis: {}", e.getMessage());
+        }
+        responses.asMap().remove(key, claim);
+        claim.completeExceptionally(new TimeoutException("Request with this idempotency key is still in progress"));
+    }
+}
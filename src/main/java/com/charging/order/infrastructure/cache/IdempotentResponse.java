@@ -0,0 +1,26 @@
+package com.charging.order.infrastructure.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 幂等请求的已完成响应
+ * Idempotent Response
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotentResponse {
+
+    /**
+     * 原请求的指纹（方法、路径与参数），同一个键用于不同请求时拒绝重放
+     */
+    private String fingerprint;
+
+    private int status;
+
+    private String contentType;
+
+    private byte[] body;
+}
@@ -0,0 +1,264 @@
+package com.charging.order.infrastructure.cache;
+
+import com.charging.order.config.OrderCacheProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.infrastructure.persistence.OrderChangeListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 订单两级读缓存
+ * Two-Level Order Cache
+ *
+ * 本地有界近端缓存（Caffeine）+ 可选的 Redis 二级缓存，存活时间按订单状态配置。
+ * 同一 orderId 的并发未命中共享同一个加载中的 future，只有一个线程回源（single-flight），
+ * 回源在缓存锁之外执行，不会与仓储的写锁互相等待。
+ * 作为仓储监听器随订单变更刷新；进入终态（CLOSED、CANCELLED）的订单立即驱逐。
+ * Redis 写入在单独的线程上按提交顺序执行，不占用请求线程；回源结果只以 SET NX 写入，不会覆盖更新的快照。
+ */
+@Slf4j
+@Component
+public class OrderCache implements OrderChangeListener {
+
+    private static final String REDIS_KEY_PREFIX = "charging:order:";
+
+    private static final int REDIS_WRITE_QUEUE_CAPACITY = 10_000;
+
+    private final OrderCacheProperties properties;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final AsyncCache<String, ChargingOrder> nearCache;
+
+    private final ThreadPoolExecutor redisWriter;
+
+    public OrderCache(OrderCacheProperties properties, StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.redisTemplate = properties.isRedisEnabled() ? redisTemplate : null;
+        this.objectMapper = objectMapper;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new StateExpiry())
+                .recordStats()
+                .buildAsync();
+        this.redisWriter = this.redisTemplate == null ? null : new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REDIS_WRITE_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "order-cache-redis");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Autowired
+    public OrderCache(OrderCacheProperties properties, ObjectProvider<StringRedisTemplate> redisTemplate,
+                      ObjectMapper objectMapper) {
+        this(properties, redisTemplate.getIfAvailable(), objectMapper);
+    }
+
+    /**
+     * 读取订单：近端缓存 -> Redis -> loader
+     *
+     * @param orderId 订单ID
+     * @param loader  回源加载（例如仓储查询），同一 orderId 同时只会调用一次
+     * @return 订单，不存在时返回 null
+     */
+    public ChargingOrder get(String orderId, Function<String, ChargingOrder> loader) {
+        CompletableFuture<ChargingOrder> cached = nearCache.getIfPresent(orderId);
+        if (cached != null) {
+            return join(cached);
+        }
+
+        CompletableFuture<ChargingOrder> loading = new CompletableFuture<>();
+        CompletableFuture<ChargingOrder> inFlight = nearCache.asMap().putIfAbsent(orderId, loading);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+
+        ChargingOrder order;
+        try {
+            order = loadThrough(orderId, loader);
+        } catch (RuntimeException e) {
+            nearCache.asMap().remove(orderId, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+        // 等待中的线程共享本次结果；不存在或已终结的订单不留在缓存中
+        if (order == null || !isCacheable(order.getState())) {
+            nearCache.asMap().remove(orderId, loading);
+        }
+        loading.complete(order);
+        return order;
+    }
+
+    @Override
+    public void onSaved(ChargingOrder order) {
+        if (!isCacheable(order.getState())) {
+            evict(order.getOrderId());
+            return;
+        }
+        nearCache.put(order.getOrderId(), CompletableFuture.completedFuture(order));
+        writeRedisAsync(order.getOrderId(), order, false);
+    }
+
+    @Override
+    public void onDeleted(String orderId) {
+        evict(orderId);
+    }
+
+    /**
+     * 近端缓存统计（命中率等）
+     */
+    public CacheStats getStats() {
+        return nearCache.synchronous().stats();
+    }
+
+    /**
+     * 近端缓存中的订单数（近似值）
+     */
+    public long getSize() {
+        return nearCache.synchronous().estimatedSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (redisWriter != null) {
+            redisWriter.shutdown();
+        }
+    }
+
+    private void evict(String orderId) {
+        nearCache.synchronous().invalidate(orderId);
+        writeRedisAsync(orderId, null, false);
+    }
+
+    private ChargingOrder loadThrough(String orderId, Function<String, ChargingOrder> loader) {
+        ChargingOrder cached = readRedis(orderId);
+        if (cached != null) {
+            return cached;
+        }
+
+        ChargingOrder order = loader.apply(orderId);
+        if (order != null && isCacheable(order.getState())) {
+            writeRedisAsync(orderId, order, true);
+        }
+        return order;
+    }
+
+    private ChargingOrder readRedis(String orderId) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + orderId);
+            return json == null ? null : objectMapper.readValue(json, ChargingOrder.class);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Redis 不可用时降级为直接回源
+            log.warn("Failed to read order {} from Redis: {}", orderId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 异步写入或删除 Redis 中的订单；order 为 null 表示删除，onlyIfAbsent 用于回源填充
+     */
+    private void writeRedisAsync(String orderId, ChargingOrder order, boolean onlyIfAbsent) {
+        if (redisWriter == null) {
+            return;
+        }
+        try {
+            redisWriter.execute(() -> writeRedis(orderId, order, onlyIfAbsent));
+        } catch (RejectedExecutionException e) {
+            // 队列满时放弃本次写入，Redis 中的旧值按状态 TTL 过期
+            log.warn("Redis write queue is full, skipped cache update for order {}", orderId);
+        }
+    }
+
+    private void writeRedis(String orderId, ChargingOrder order, boolean onlyIfAbsent) {
+        String key = REDIS_KEY_PREFIX + orderId;
+        try {
+            if (order == null) {
+                redisTemplate.delete(key);
+            } else if (onlyIfAbsent) {
+                redisTemplate.opsForValue().setIfAbsent(key, objectMapper.writeValueAsString(order), ttl(order.getState()));
+            } else {
+                redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(order), ttl(order.getState()));
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to update order {} in Redis: {}", orderId, e.getMessage());
+        }
+    }
+
+    private static ChargingOrder join(CompletableFuture<ChargingOrder> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isCacheable(OrderState state) {
+        return state != OrderState.CLOSED && state != OrderState.CANCELLED && !ttl(state).isZero();
+    }
+
+    private Duration ttl(OrderState state) {
+        Duration ttl = state == null ? null : properties.getTtl().get(state);
+        return ttl == null ? Duration.ZERO : ttl;
+    }
+
+    /**
+     * 近端缓存按订单状态决定存活时间
+     */
+    private final class StateExpiry implements Expiry<String, ChargingOrder> {
+
+        @Override
+        public long expireAfterCreate(String orderId, ChargingOrder order, long currentTime) {
+            return nearTtlNanos(order);
+        }
+
+        @Override
+        public long expireAfterUpdate(String orderId, ChargingOrder order, long currentTime, long currentDuration) {
+            return nearTtlNanos(order);
+        }
+
+        @Override
+        public long expireAfterRead(String orderId, ChargingOrder order, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long nearTtlNanos(ChargingOrder order) {
+            if (!isCacheable(order.getState())) {
+                return 0;
+            }
+            Duration ttl = ttl(order.getState());
+            if (redisTemplate != null && ttl.compareTo(properties.getNearCacheMaxTtl()) > 0) {
+                ttl = properties.getNearCacheMaxTtl();
+            }
+            return ttl.toNanos();
+        }
+    }
+}
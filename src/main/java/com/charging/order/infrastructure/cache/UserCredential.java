@@ -0,0 +1,65 @@
+package com.charging.order.infrastructure.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * 登录凭据
+ * User Credential
+ *
+ * 只含登录需要的字段。缓存中不保存密码原文，只保存以用户名加盐的 SHA-256 摘要，
+ * 比较时用定长比较，避免按耗时猜测前缀。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCredential {
+
+    private Long userId;
+
+    private String username;
+
+    private String passwordDigest;
+
+    /**
+     * 账号是否可以登录（sys_user.status 不为 0）
+     */
+    private boolean enabled;
+
+    public static UserCredential of(Long userId, String username, String password, Integer status) {
+        return new UserCredential(userId, username, digest(username, password),
+                status == null || status != 0);
+    }
+
+    /**
+     * 校验密码
+     */
+    public boolean matches(String password) {
+        if (passwordDigest == null || password == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                passwordDigest.getBytes(StandardCharsets.US_ASCII),
+                digest(username, password).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static String digest(String username, String password) {
+        if (password == null) {
+            return null;
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(username.getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) 0);
+            return Base64.getEncoder().encodeToString(sha256.digest(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.charging.order.infrastructure.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 有界无锁多生产者单消费者环形队列
+ * Bounded Lock-Free MPSC Ring Buffer
+ *
+ * 生产者 CAS 认领序号后发布元素，队列满时 offer 立即返回 false，从不阻塞；
+ * 只允许一个线程调用 poll/drain。容量向上取整为 2 的幂。
+ */
+public final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final int mask;
+
+    /**
+     * 下一个由生产者认领的序号
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个由消费者读取的序号（只有消费者写入）
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid ring buffer capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 入队（任意线程）
+     *
+     * @return false 如果队列已满
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head.get() > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.lazySet((int) sequence & mask, element);
+        return true;
+    }
+
+    /**
+     * 出队（仅消费者线程）
+     *
+     * @return 队首元素；队列为空或队首元素尚未发布时返回 null
+     */
+    public E poll() {
+        long sequence = head.get();
+        int index = (int) sequence & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head.lazySet(sequence + 1);
+        return element;
+    }
+
+    /**
+     * 批量出队（仅消费者线程）
+     *
+     * @param consumer 元素处理
+     * @param limit    最多处理的元素数
+     * @return 实际处理的元素数
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        int drained = 0;
+        E element;
+        while (drained < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * 当前元素数（近似值）
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
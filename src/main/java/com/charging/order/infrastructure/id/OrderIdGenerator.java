@@ -0,0 +1,145 @@
+package com.charging.order.infrastructure.id;
+
+import com.charging.order.config.OrderIdProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 订单ID生成器（Snowflake 布局）
+ * Order ID Generator
+ *
+ * 64 位ID：1 位符号（恒为 0）| 41 位毫秒时间戳（自 2024-01-01T00:00Z 起，约 69 年）| 10 位节点号 | 12 位序列号。
+ * 逻辑时钟（时间戳 + 序列号）打包在一个 AtomicLong 中以 CAS 推进，无锁且不依赖 SecureRandom。
+ * 逻辑时钟从不回退：系统时钟回拨时沿用上次的时间戳继续递增序列号，序列号用尽时借用下一毫秒，
+ * 因此同一进程内的ID严格递增、不会重复。
+ * 字符串形式为 13 位定长 Crockford Base32，字典序与数值顺序（即时间顺序）一致。
+ */
+@Component
+public class OrderIdGenerator {
+
+    /**
+     * 时间戳起点：2024-01-01T00:00:00Z
+     */
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    static final int NODE_BITS = 10;
+
+    static final int SEQUENCE_BITS = 12;
+
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int ENCODED_LENGTH = 13;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+
+    private final LongSupplier clock;
+
+    /**
+     * 逻辑时钟：(相对时间戳 << SEQUENCE_BITS) | 序列号
+     */
+    private final AtomicLong lastTick = new AtomicLong();
+
+    @Autowired
+    public OrderIdGenerator(OrderIdProperties properties) {
+        this(properties.getNodeId());
+    }
+
+    public OrderIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    OrderIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    /**
+     * 生成下一个ID
+     */
+    public long nextId() {
+        while (true) {
+            long last = lastTick.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                // 同一毫秒或时钟回拨：时间戳不动，序列号加一
+                next = last + 1;
+            } else {
+                // 序列号用尽：借用下一毫秒
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            }
+            if (lastTick.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return timestamp << (NODE_BITS + SEQUENCE_BITS) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * 生成下一个ID的字符串形式
+     */
+    public String nextIdString() {
+        return encode(nextId());
+    }
+
+    /**
+     * 编码为 13 位定长 Crockford Base32
+     */
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 解析 encode 生成的字符串
+     *
+     * @throws IllegalArgumentException 如果不是合法的ID字符串
+     */
+    public static long decode(String value) {
+        if (value.length() != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Invalid order id: " + value);
+        }
+        long id = 0;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            int digit = digit(value.charAt(i));
+            if (digit < 0 || i == 0 && digit > 15) {
+                throw new IllegalArgumentException("Invalid order id: " + value);
+            }
+            id = id << 5 | digit;
+        }
+        return id;
+    }
+
+    /**
+     * ID中的生成时间（毫秒时间戳）
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    private static int digit(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.charging.order.infrastructure.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * 内存映射缓冲区的显式释放
+ * Mapped Buffer Unmapping
+ *
+ * 映射默认要等缓冲区对象被回收才解除，长时间运行时退役的日志段会一直占着地址空间和文件句柄。
+ * JDK 9+ 通过 Unsafe.invokeCleaner 释放，JDK 8 通过 DirectBuffer 的 cleaner 释放；都不可用时留给 GC。
+ * 调用方必须保证释放后没有任何线程再访问该缓冲区，否则访问会使 JVM 崩溃。
+ */
+@Slf4j
+final class MappedBuffers {
+
+    private static final Unmapper UNMAPPER = resolve();
+
+    private MappedBuffers() {
+    }
+
+    /**
+     * 立即解除映射
+     */
+    static void unmap(MappedByteBuffer buffer) {
+        if (UNMAPPER == null) {
+            return;
+        }
+        try {
+            UNMAPPER.unmap(buffer);
+        } catch (Exception e) {
+            log.warn("Failed to unmap journal buffer, leaving it to GC: {}", e.toString());
+        }
+    }
+
+    private static Unmapper resolve() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            try {
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                return buffer -> invokeCleaner.invoke(unsafe, buffer);
+            } catch (NoSuchMethodException e) {
+                Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                return buffer -> {
+                    Object bufferCleaner = cleaner.invoke(buffer);
+                    if (bufferCleaner != null) {
+                        clean.invoke(bufferCleaner);
+                    }
+                };
+            }
+        } catch (Exception e) {
+            log.warn("Explicit unmapping unavailable, retired journal segments are released by GC: {}", e.toString());
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Unmapper {
+
+        void unmap(MappedByteBuffer buffer) throws Exception;
+    }
+}
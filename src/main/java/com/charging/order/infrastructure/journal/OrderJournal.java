@@ -0,0 +1,514 @@
+package com.charging.order.infrastructure.journal;
+
+import com.charging.order.config.JournalProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.infrastructure.persistence.OrderChangeListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * 内存映射的订单事件日志（只追加）
+ * Memory-Mapped Order Journal
+ *
+ * 作为仓储监听器，在订单提交的临界区内把创建、迁移、删除追加到内存映射的日志段（journal-N.seg）。
+ * 记录在追加锁之外按确切长度编码并计算校验和，锁内只做一次内存拷贝；超过 MAX_RECORD_SIZE 的记录以
+ * IllegalArgumentException 拒绝（接口返回 400），本次写入失败。
+ * 后台线程 order-journal-io 按 forceInterval 把映射页刷到磁盘，并在当前段写过一半时提前创建、映射下一段；
+ * 段写满时锁内只切换到备好的段，退役段由后台线程刷盘后显式解除映射。只有下一段还没备好时才在锁内同步创建。
+ * 每条记录的帧格式为 [长度][CRC32][内容]，长度为 0 表示段尾，校验失败视为写入被截断。
+ *
+ * 快照 snapshot-N.snap 包含滚动到第 N 段时仓储中的全部订单，重放时先加载最新快照，再按顺序重放第 N 段及之后的日志段。
+ * 每次启动都从一个新段开始追加，历史段只读。
+ * 排在充电桩占用表之后：被占用检查拒绝的迁移不会写入日志；已追加的写入被排在后面的监听器拒绝时，
+ * 在 {@link #onRolledBack} 中追加一条撤销记录，重放时恢复写入前的订单。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "charging.journal", name = "enabled", havingValue = "true")
+public class OrderJournal implements OrderChangeListener {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    /**
+     * 帧头：长度 + CRC32
+     */
+    private static final int FRAME_HEADER_SIZE = 8;
+
+    /**
+     * 单条记录内容的最大字节数
+     */
+    private static final int MAX_RECORD_SIZE = 4096;
+
+    /**
+     * 重放时每次映射的最大窗口
+     */
+    private static final int READ_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private final JournalProperties properties;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    /**
+     * 保证同一时刻只有一个线程在创建下一段；持有 appendLock 时可以再获取，反之不行
+     */
+    private final ReentrantLock prepareLock = new ReentrantLock();
+
+    /**
+     * 当前追加的段，只在 appendLock 内写入和切换
+     */
+    private volatile Segment segment;
+
+    /**
+     * 备好的下一段，只在 prepareLock 内创建
+     */
+    private volatile Segment prepared;
+
+    /**
+     * 是否已请求后台创建下一段，由 appendLock 保护
+     */
+    private boolean prepareRequested;
+
+    private ScheduledExecutorService background;
+
+    public OrderJournal(JournalProperties properties) {
+        this.properties = properties;
+        this.directory = Paths.get(properties.getDirectory());
+        long size = properties.getSegmentSize().toBytes();
+        if (size < MAX_RECORD_SIZE + FRAME_HEADER_SIZE || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid journal segment size: " + properties.getSegmentSize());
+        }
+        this.segmentSize = (int) size;
+    }
+
+    /**
+     * 打开一个新的日志段并启动后台刷盘线程
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        long lastIndex = -1;
+        for (long index : listIndexes(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            lastIndex = Math.max(lastIndex, index);
+        }
+        for (long index : listIndexes(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            lastIndex = Math.max(lastIndex, index);
+        }
+        segment = createSegment(lastIndex + 1);
+
+        background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-journal-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getForceInterval().toMillis();
+        background.scheduleWithFixedDelay(this::force, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Order journal opened at {}, appending to segment {}", directory.toAbsolutePath(), segment.index);
+    }
+
+    @Override
+    public void onSaved(ChargingOrder order) {
+        append(OrderJournalCodec.encodeFull(order));
+    }
+
+    @Override
+    public void onUpdated(ChargingOrder previous, ChargingOrder updated, OrderEvent event) {
+        if (event == null) {
+            onSaved(updated);
+            return;
+        }
+        append(OrderJournalCodec.encodeTransition(previous, updated, event));
+    }
+
+    @Override
+    public void onDeleted(String orderId) {
+        append(OrderJournalCodec.encodeDelete(orderId));
+    }
+
+    @Override
+    public void onRolledBack(ChargingOrder previous, ChargingOrder rejected) {
+        append(OrderJournalCodec.encodeRollback(previous, rejected));
+    }
+
+    /**
+     * 滚动到新的日志段
+     *
+     * @return 新段的序号；此后的所有记录都写入该段或更新的段
+     */
+    public long roll() throws IOException {
+        // 在追加锁之外备好新段，写入方只等一次引用切换
+        try {
+            prepareNext(segment.index);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        appendLock.lock();
+        try {
+            advance();
+            return segment.index;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 写入快照并删除被覆盖的日志段和旧快照
+     *
+     * @param index  快照对应的日志段序号（roll 的返回值），重放时从该段开始
+     * @param orders 滚动之后读取的全部订单
+     * @throws IllegalArgumentException 如果某个订单超过单条记录的上限；快照不生效，日志段保留
+     */
+    public void writeSnapshot(long index, Collection<ChargingOrder> orders) throws IOException {
+        Path target = directory.resolve(fileName(SNAPSHOT_PREFIX, index, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        CRC32 checksum = new CRC32();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (ChargingOrder order : orders) {
+                ByteBuffer payload = OrderJournalCodec.encodeFull(order);
+                checkSize(payload.remaining());
+                if (buffer.remaining() < FRAME_HEADER_SIZE + payload.remaining()) {
+                    writeFully(channel, buffer);
+                }
+                checksum.reset();
+                checksum.update(payload.array(), 0, payload.limit());
+                buffer.putInt(payload.remaining()).putInt((int) checksum.getValue()).put(payload);
+            }
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (long segment : listIndexes(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (segment < index) {
+                Files.deleteIfExists(directory.resolve(fileName(SEGMENT_PREFIX, segment, SEGMENT_SUFFIX)));
+            }
+        }
+        for (long snapshot : listIndexes(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (snapshot < index) {
+                Files.deleteIfExists(directory.resolve(fileName(SNAPSHOT_PREFIX, snapshot, SNAPSHOT_SUFFIX)));
+            }
+        }
+        log.info("Order journal snapshot {} written with {} orders", index, orders.size());
+    }
+
+    /**
+     * 从最新快照和其后的日志段重建订单
+     *
+     * @return orderId -> 订单
+     */
+    public Map<String, ChargingOrder> replay() throws IOException {
+        Map<String, ChargingOrder> orders = new HashMap<>();
+        long fromSegment = 0;
+        long records = 0;
+        List<Long> snapshots = listIndexes(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (!snapshots.isEmpty()) {
+            fromSegment = snapshots.get(snapshots.size() - 1);
+            records += readFile(directory.resolve(fileName(SNAPSHOT_PREFIX, fromSegment, SNAPSHOT_SUFFIX)), orders);
+        }
+        for (long index : listIndexes(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (index >= fromSegment) {
+                records += readFile(directory.resolve(fileName(SEGMENT_PREFIX, index, SEGMENT_SUFFIX)), orders);
+            }
+        }
+        log.info("Replayed {} journal records from segment {}: {} orders", records, fromSegment, orders.size());
+        return orders;
+    }
+
+    /**
+     * 停止后台线程并刷盘；备好但未使用的下一段被删除
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (background != null) {
+            background.shutdown();
+            background.awaitTermination(properties.getForceInterval().toMillis() * 2, TimeUnit.MILLISECONDS);
+        }
+        appendLock.lock();
+        try {
+            segment.buffer.force();
+            discardPrepared();
+        } finally {
+            appendLock.unlock();
+        }
+        log.info("Order journal closed at segment {}", segment.index);
+    }
+
+    /**
+     * 把当前段的映射页刷到磁盘
+     * 只在后台线程上执行，与退役段的解除映射串行，不会刷一个已解除映射的段
+     */
+    private void force() {
+        Segment current = segment;
+        try {
+            current.buffer.force();
+        } catch (RuntimeException e) {
+            log.error("Failed to force order journal segment {}", current.index, e);
+        }
+    }
+
+    /**
+     * 给编码好的记录加上帧头写入当前段，空间不足时先切换到下一段
+     */
+    private void append(ByteBuffer payload) {
+        int length = payload.remaining();
+        checkSize(length);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.array(), payload.arrayOffset() + payload.position(), length);
+        int crc = (int) checksum.getValue();
+
+        appendLock.lock();
+        try {
+            if (segment.buffer.remaining() < FRAME_HEADER_SIZE + length) {
+                advance();
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.putInt(length).putInt(crc).put(payload);
+            if (!prepareRequested && buffer.position() > segmentSize / 2) {
+                prepareRequested = true;
+                long current = segment.index;
+                runInBackground(() -> prepareQuietly(current));
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 切换到下一段，退役段交给后台线程刷盘并解除映射
+     * 调用方持有 appendLock；下一段还没备好时在锁内同步创建
+     */
+    private void advance() {
+        Segment next = prepared;
+        if (next == null) {
+            log.debug("Order journal segment {} full before the next one was prepared", segment.index);
+            prepareNext(segment.index);
+            next = prepared;
+        }
+        Segment retired = segment;
+        // 先切换当前段再清空 prepared：后台看到 prepared 为空时读到的一定是新的当前段
+        segment = next;
+        prepared = null;
+        prepareRequested = false;
+        if (!runInBackground(() -> retire(retired))) {
+            retired.buffer.force();
+        }
+    }
+
+    /**
+     * 创建并映射当前段之后的下一段；已经备好或当前段已不是 current 时直接返回
+     *
+     * @param current 发起请求时的当前段序号，排队中过期的请求不会多建一段
+     */
+    private void prepareNext(long current) {
+        prepareLock.lock();
+        try {
+            if (prepared == null && segment.index == current) {
+                prepared = createSegment(current + 1);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create order journal segment", e);
+        } finally {
+            prepareLock.unlock();
+        }
+    }
+
+    private void prepareQuietly(long current) {
+        try {
+            prepareNext(current);
+        } catch (RuntimeException e) {
+            log.error("Failed to prepare the next order journal segment", e);
+        }
+    }
+
+    /**
+     * 退役段已不再被追加，刷盘后解除映射
+     */
+    private void retire(Segment retired) {
+        try {
+            retired.buffer.force();
+        } catch (RuntimeException e) {
+            log.error("Failed to force retired order journal segment {}", retired.index, e);
+        }
+        MappedBuffers.unmap(retired.buffer);
+    }
+
+    private void discardPrepared() {
+        Segment unused = prepared;
+        if (unused == null) {
+            return;
+        }
+        prepared = null;
+        MappedBuffers.unmap(unused.buffer);
+        try {
+            Files.deleteIfExists(directory.resolve(fileName(SEGMENT_PREFIX, unused.index, SEGMENT_SUFFIX)));
+        } catch (IOException e) {
+            log.warn("Failed to delete unused journal segment {}: {}", unused.index, e.toString());
+        }
+    }
+
+    /**
+     * @return false 如果后台线程已经停止
+     */
+    private boolean runInBackground(Runnable task) {
+        try {
+            background.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 追加与快照共用的记录大小上限，与重放时识别截断记录的上限一致
+     */
+    private static void checkSize(int length) {
+        if (length > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException(
+                    "Order journal record too large: " + length + " bytes, limit " + MAX_RECORD_SIZE);
+        }
+    }
+
+    private Segment createSegment(long index) throws IOException {
+        Path path = directory.resolve(fileName(SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 映射在通道关闭后仍然有效；新文件以 0 填充，即段尾标记
+            return new Segment(index, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        }
+    }
+
+    private int readFile(Path file, Map<String, ChargingOrder> orders) throws IOException {
+        int records = 0;
+        int orphans = 0;
+        CRC32 checksum = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            long windowStart = 0;
+            MappedByteBuffer window = null;
+            while (position + FRAME_HEADER_SIZE <= size) {
+                if (window == null || position + FRAME_HEADER_SIZE > windowStart + window.limit()) {
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(READ_WINDOW_SIZE, size - position));
+                    windowStart = position;
+                }
+                int length = window.getInt((int) (position - windowStart));
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || length > MAX_RECORD_SIZE || position + FRAME_HEADER_SIZE + length > size) {
+                    log.warn("Truncated record at {} of {}, ignoring the rest of the file", position, file.getFileName());
+                    break;
+                }
+                if (position + FRAME_HEADER_SIZE + length > windowStart + window.limit()) {
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(READ_WINDOW_SIZE, size - position));
+                    windowStart = position;
+                }
+
+                int offset = (int) (position - windowStart);
+                ByteBuffer payload = window.duplicate();
+                payload.limit(offset + FRAME_HEADER_SIZE + length).position(offset + FRAME_HEADER_SIZE);
+                checksum.reset();
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != window.getInt(offset + 4)) {
+                    log.warn("Checksum mismatch at {} of {}, ignoring the rest of the file", position, file.getFileName());
+                    break;
+                }
+                if (!OrderJournalCodec.apply(payload, orders)) {
+                    orphans++;
+                }
+                records++;
+                position += FRAME_HEADER_SIZE + length;
+            }
+        }
+        if (orphans > 0) {
+            log.warn("{} transitions in {} refer to unknown orders", orphans, file.getFileName());
+        }
+        log.debug("Replayed {} records from {}", records, file.getFileName());
+        return records;
+    }
+
+    private List<Long> listIndexes(String prefix, String suffix) throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    indexes.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring unexpected journal file {}", name);
+                }
+            }
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+
+    private static String fileName(String prefix, long index, String suffix) {
+        return prefix + String.format("%016d", index) + suffix;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 日志段的序号与映射
+     */
+    private static final class Segment {
+
+        private final long index;
+
+        private final MappedByteBuffer buffer;
+
+        private Segment(long index, MappedByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.charging.order.infrastructure.journal;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * 订单日志记录编解码
+ * Order Journal Codec
+ *
+ * 记录类型：
+ * FULL       - 完整订单（创建、非迁移写入、快照）
+ * TRANSITION - 一次状态迁移：orderId、事件、源/目标状态、各项金额、版本号、更新时间
+ * DELETE     - 删除订单
+ * ROLLBACK   - 撤销一条已追加、但被排在日志之后的监听器拒绝的写入：被拒绝的版本号，以及写入前的完整订单（新订单没有）
+ *
+ * 枚举按序号编码，新增枚举值只能追加在末尾；金额与电量按分 / Wh 写成 long，Long.MIN_VALUE 表示 null。
+ * 编码前按内容算出记录的确切字节数，分配恰好容纳一条记录的缓冲区。
+ */
+final class OrderJournalCodec {
+
+    static final byte FULL = 1;
+
+    static final byte TRANSITION = 2;
+
+    static final byte DELETE = 3;
+
+    static final byte ROLLBACK = 4;
+
+    private static final long NULL_AMOUNT = Long.MIN_VALUE;
+
+    /**
+     * 电量 + 四项金额
+     */
+    private static final int AMOUNTS_SIZE = 5 * Long.BYTES;
+
+    private static final OrderState[] STATES = OrderState.values();
+
+    private static final OrderEvent[] EVENTS = OrderEvent.values();
+
+    private static final PaymentType[] PAYMENT_TYPES = PaymentType.values();
+
+    private OrderJournalCodec() {
+    }
+
+    /**
+     * 编码完整订单，返回已 flip、容量恰好等于记录长度的缓冲区
+     */
+    static ByteBuffer encodeFull(ChargingOrder order) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + sizeOf(order.getOrderId()) + sizeOfFullBody(order));
+        writeFull(buffer, order);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 编码一次被拒绝写入的撤销，返回已 flip 的缓冲区
+     *
+     * @param previous 写入前的订单，新订单为 null
+     * @param rejected 被拒绝的写入
+     */
+    static ByteBuffer encodeRollback(ChargingOrder previous, ChargingOrder rejected) {
+        int size = 1 + sizeOf(rejected.getOrderId()) + Long.BYTES + 1
+                + (previous == null ? 0 : sizeOfFullBody(previous));
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(ROLLBACK);
+        putString(buffer, rejected.getOrderId());
+        buffer.putLong(rejected.getVersion());
+        if (previous == null) {
+            buffer.put((byte) 0);
+        } else {
+            buffer.put((byte) 1);
+            writeFullBody(buffer, previous);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 编码一次状态迁移，返回已 flip 的缓冲区
+     */
+    static ByteBuffer encodeTransition(ChargingOrder previous, ChargingOrder updated, OrderEvent event) {
+        int size = 1 + sizeOf(updated.getOrderId()) + 3 + AMOUNTS_SIZE + Long.BYTES + sizeOf(updated.getUpdateTime());
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        writeTransition(buffer, previous, updated, event);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 编码删除，返回已 flip 的缓冲区
+     */
+    static ByteBuffer encodeDelete(String orderId) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + sizeOf(orderId));
+        writeDelete(buffer, orderId);
+        buffer.flip();
+        return buffer;
+    }
+
+    static void writeFull(ByteBuffer buffer, ChargingOrder order) {
+        buffer.put(FULL);
+        putString(buffer, order.getOrderId());
+        writeFullBody(buffer, order);
+    }
+
+    /**
+     * 订单ID之后的完整订单字段
+     */
+    private static void writeFullBody(ByteBuffer buffer, ChargingOrder order) {
+        putString(buffer, order.getUserId());
+        putString(buffer, order.getChargingPileId());
+        putEnum(buffer, order.getState());
+        putEnum(buffer, order.getPaymentType());
+        putAmounts(buffer, order);
+        buffer.putLong(order.getVersion());
+        putTime(buffer, order.getCreateTime());
+        putTime(buffer, order.getUpdateTime());
+    }
+
+    static void writeTransition(ByteBuffer buffer, ChargingOrder previous, ChargingOrder updated, OrderEvent event) {
+        buffer.put(TRANSITION);
+        putString(buffer, updated.getOrderId());
+        putEnum(buffer, event);
+        putEnum(buffer, previous.getState());
+        putEnum(buffer, updated.getState());
+        putAmounts(buffer, updated);
+        buffer.putLong(updated.getVersion());
+        putTime(buffer, updated.getUpdateTime());
+    }
+
+    static void writeDelete(ByteBuffer buffer, String orderId) {
+        buffer.put(DELETE);
+        putString(buffer, orderId);
+    }
+
+    /**
+     * 把一条记录应用到重放中的订单表
+     * 版本号不新于当前订单的记录被忽略，因此快照与其后的日志段可以有重叠
+     *
+     * @return false 如果迁移记录找不到对应订单
+     */
+    static boolean apply(ByteBuffer buffer, Map<String, ChargingOrder> orders) {
+        byte type = buffer.get();
+        String orderId = getString(buffer);
+        switch (type) {
+            case FULL:
+                orders.merge(orderId, readFullBody(buffer, orderId),
+                        (current, full) -> full.getVersion() >= current.getVersion() ? full : current);
+                return true;
+            case TRANSITION:
+                ChargingOrder current = orders.get(orderId);
+                if (current == null) {
+                    return false;
+                }
+                getEnum(buffer, EVENTS);
+                getEnum(buffer, STATES);
+                OrderState to = getEnum(buffer, STATES);
+                ChargingOrder updated = current.copy();
+                updated.setState(to);
+                getAmounts(buffer, updated);
+                updated.setVersion(buffer.getLong());
+                updated.setUpdateTime(getTime(buffer));
+                if (updated.getVersion() > current.getVersion()) {
+                    orders.put(orderId, updated);
+                }
+                return true;
+            case DELETE:
+                orders.remove(orderId);
+                return true;
+            case ROLLBACK:
+                long rejectedVersion = buffer.getLong();
+                ChargingOrder previous = buffer.get() == 0 ? null : readFullBody(buffer, orderId);
+                // 只撤销仍停在被拒绝版本上的订单；快照已覆盖时订单是写入前的版本，保持不变
+                ChargingOrder rejected = orders.get(orderId);
+                if (rejected != null && rejected.getVersion() == rejectedVersion) {
+                    if (previous == null) {
+                        orders.remove(orderId);
+                    } else {
+                        orders.put(orderId, previous);
+                    }
+                }
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown journal record type " + type);
+        }
+    }
+
+    private static ChargingOrder readFullBody(ByteBuffer buffer, String orderId) {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId(orderId);
+        order.setUserId(getString(buffer));
+        order.setChargingPileId(getString(buffer));
+        order.setState(getEnum(buffer, STATES));
+        order.setPaymentType(getEnum(buffer, PAYMENT_TYPES));
+        getAmounts(buffer, order);
+        order.setVersion(buffer.getLong());
+        order.setCreateTime(getTime(buffer));
+        order.setUpdateTime(getTime(buffer));
+        return order;
+    }
+
+    private static int sizeOfFullBody(ChargingOrder order) {
+        return sizeOf(order.getUserId()) + sizeOf(order.getChargingPileId()) + 2 + AMOUNTS_SIZE + Long.BYTES
+                + sizeOf(order.getCreateTime()) + sizeOf(order.getUpdateTime());
+    }
+
+    private static void putAmounts(ByteBuffer buffer, ChargingOrder order) {
+        buffer.putLong(order.getChargingAmount() == null ? NULL_AMOUNT : order.getChargingAmount().getWh());
+        putMoney(buffer, order.getOrderAmount());
+        putMoney(buffer, order.getPrepaidAmount());
+        putMoney(buffer, order.getActualAmount());
+        putMoney(buffer, order.getRefundAmount());
+    }
+
+    private static void getAmounts(ByteBuffer buffer, ChargingOrder order) {
+        long wh = buffer.getLong();
+        order.setChargingAmount(wh == NULL_AMOUNT ? null : Energy.ofWh(wh));
+        order.setOrderAmount(getMoney(buffer));
+        order.setPrepaidAmount(getMoney(buffer));
+        order.setActualAmount(getMoney(buffer));
+        order.setRefundAmount(getMoney(buffer));
+    }
+
+    private static int sizeOf(String value) {
+        if (value == null) {
+            return Short.BYTES;
+        }
+        // UTF-8 编码长度，不为计算长度再编码一次
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                // 孤立的代理字符实际编码为 1 字节的 '?'，这里按 3 字节计只会多分配
+                length += 3;
+            }
+        }
+        return Short.BYTES + length;
+    }
+
+    private static int sizeOf(LocalDateTime time) {
+        return time == null ? Long.BYTES : Long.BYTES + Integer.BYTES;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal string too long: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putEnum(ByteBuffer buffer, Enum<?> value) {
+        buffer.put(value == null ? -1 : (byte) value.ordinal());
+    }
+
+    private static <E extends Enum<E>> E getEnum(ByteBuffer buffer, E[] values) {
+        byte ordinal = buffer.get();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    private static void putMoney(ByteBuffer buffer, Money amount) {
+        buffer.putLong(amount == null ? NULL_AMOUNT : amount.getFen());
+    }
+
+    private static Money getMoney(ByteBuffer buffer) {
+        long fen = buffer.getLong();
+        return fen == NULL_AMOUNT ? null : Money.ofFen(fen);
+    }
+
+    private static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        if (time == null) {
+            buffer.putLong(Long.MIN_VALUE);
+            return;
+        }
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(time.getNano());
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buffer) {
+        long epochSecond = buffer.getLong();
+        if (epochSecond == Long.MIN_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(epochSecond, buffer.getInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,87 @@
+package com.charging.order.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 流水日志采样过滤器
+ * Sampling Turbo Filter
+ *
+ * 对配置的 logger 前缀下 INFO 及以下级别的日志按 1/rate 随机采样，在格式化消息之前决定，
+ * 被丢弃的日志不产生任何格式化或追加开销。WARN 及以上级别始终放行。
+ * 迁移的完整记录由审计日志负责，这里只削减逐事件的流水日志。
+ *
+ * logback-spring.xml 配置示例：
+ * <turboFilter class="com.charging.order.infrastructure.logging.SamplingTurboFilter">
+ *     <loggerPrefix>com.charging.order.domain.strategy</loggerPrefix>
+ *     <rate>100</rate>
+ * </turboFilter>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<String> loggerPrefixes = new ArrayList<>();
+
+    private final LongAdder suppressed = new LongAdder();
+
+    private int rate = 1;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (rate <= 1 || level == null || level.isGreaterOrEqual(Level.WARN) || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel()) || ThreadLocalRandom.current().nextInt(rate) == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.increment();
+        return FilterReply.DENY;
+    }
+
+    /**
+     * 被采样丢弃的日志条数
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    public void addLoggerPrefix(String loggerPrefix) {
+        loggerPrefixes.add(loggerPrefix.trim());
+    }
+
+    /**
+     * 采样率：每 rate 条保留 1 条，1 表示不采样
+     */
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("Sampling rate must be at least 1, got " + rate);
+            return;
+        }
+        super.start();
+    }
+
+    private boolean matches(String loggerName) {
+        for (int i = 0; i < loggerPrefixes.size(); i++) {
+            if (loggerName.startsWith(loggerPrefixes.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.charging.order.infrastructure.metrics;
+
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.PaymentType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单迁移指标
+ * Order Metrics
+ *
+ * 所有计时器与计数器在构造时按 支付类型 x 事件 预先注册，记录时按枚举序号取数组元素，
+ * 热路径上不拼接标签、不查找注册表、不分配对象。
+ *
+ * charging.order.transition                 - 计时器，每次触发状态机事件（event, payment_type）
+ * charging.order.transition.rejected        - 计数器，状态机拒绝或执行出错的迁移（event, payment_type）
+ * charging.order.payment.type.mismatch      - 计数器，操作与订单支付类型不符（expected）
+ */
+@Component
+public class OrderMetrics {
+
+    private static final PaymentType[] PAYMENT_TYPES = PaymentType.values();
+
+    private static final OrderEvent[] EVENTS = OrderEvent.values();
+
+    private final Timer[][] transitionTimers = new Timer[PAYMENT_TYPES.length][EVENTS.length];
+
+    private final Counter[][] rejectedTransitions = new Counter[PAYMENT_TYPES.length][EVENTS.length];
+
+    private final Counter[] paymentTypeMismatches = new Counter[PAYMENT_TYPES.length];
+
+    public OrderMetrics(MeterRegistry registry) {
+        for (PaymentType paymentType : PAYMENT_TYPES) {
+            for (OrderEvent event : EVENTS) {
+                transitionTimers[paymentType.ordinal()][event.ordinal()] = Timer.builder("charging.order.transition")
+                        .description("State machine event handling time")
+                        .tag("event", event.name())
+                        .tag("payment_type", paymentType.name())
+                        .publishPercentileHistogram()
+                        .register(registry);
+                rejectedTransitions[paymentType.ordinal()][event.ordinal()] =
+                        Counter.builder("charging.order.transition.rejected")
+                                .description("Transitions rejected by the state machine or failed while firing")
+                                .tag("event", event.name())
+                                .tag("payment_type", paymentType.name())
+                                .register(registry);
+            }
+            paymentTypeMismatches[paymentType.ordinal()] = Counter.builder("charging.order.payment.type.mismatch")
+                    .description("Operations attempted on an order of the other payment type")
+                    .tag("expected", paymentType.name())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 记录一次状态机事件的耗时
+     */
+    public void recordTransition(PaymentType paymentType, OrderEvent event, long nanos) {
+        if (paymentType != null) {
+            transitionTimers[paymentType.ordinal()][event.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 记录一次被拒绝或出错的迁移
+     */
+    public void recordRejected(PaymentType paymentType, OrderEvent event) {
+        if (paymentType != null) {
+            rejectedTransitions[paymentType.ordinal()][event.ordinal()].increment();
+        }
+    }
+
+    /**
+     * 记录一次支付类型校验失败
+     */
+    public void recordPaymentTypeMismatch(PaymentType expectedType) {
+        paymentTypeMismatches[expectedType.ordinal()].increment();
+    }
+}
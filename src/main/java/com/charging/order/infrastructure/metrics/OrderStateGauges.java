@@ -0,0 +1,50 @@
+package com.charging.order.infrastructure.metrics;
+
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * 各状态订单数
+ * Order State Gauges
+ *
+ * charging.order.orders（state）：抓取时读取仓储状态索引的大小，不扫描订单。
+ * 仓储在抓取时才解析：MeterBinder 随 MeterRegistry 初始化，直接注入仓储会经
+ * 订单缓存 -> Redis -> Lettuce 指标再依赖 MeterRegistry，形成循环依赖。
+ */
+@Component
+public class OrderStateGauges implements MeterBinder {
+
+    private final Supplier<ChargingOrderRepository> orderRepository;
+
+    public OrderStateGauges(ChargingOrderRepository orderRepository) {
+        this.orderRepository = () -> orderRepository;
+    }
+
+    @Autowired
+    public OrderStateGauges(ObjectProvider<ChargingOrderRepository> orderRepository) {
+        this.orderRepository = orderRepository::getIfAvailable;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (OrderState state : OrderState.values()) {
+            Gauge.builder("charging.order.orders", this, gauges -> gauges.count(state))
+                    .description("Orders currently in each state")
+                    .tag("state", state.name())
+                    .register(registry);
+        }
+    }
+
+    private double count(OrderState state) {
+        ChargingOrderRepository repository = orderRepository.get();
+        return repository == null ? Double.NaN : repository.countByState(state);
+    }
+}
@@ -0,0 +1,36 @@
+package com.charging.order.infrastructure.occupancy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 充电桩占用情况
+ * Pile Occupancy
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PileOccupancy {
+
+    /**
+     * 充电桩ID
+     */
+    private String chargingPileId;
+
+    /**
+     * 占用该充电桩的订单ID，空闲时为 null
+     */
+    private String orderId;
+
+    /**
+     * 开始占用的时间，空闲时为 null
+     */
+    private LocalDateTime since;
+
+    public boolean isOccupied() {
+        return orderId != null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.charging.order.infrastructure.occupancy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 充电桩占用汇总
+ * Pile Occupancy Summary
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PileOccupancySummary {
+
+    /**
+     * 被占用的充电桩数
+     */
+    private long occupiedCount;
+
+    /**
+     * 出现过的充电桩数（占用表中的槽位数）
+     */
+    private long trackedCount;
+
+    /**
+     * 被占用的充电桩（最多 limit 个）
+     */
+    private List<PileOccupancy> occupied;
+}
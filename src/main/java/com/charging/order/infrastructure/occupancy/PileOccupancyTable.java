@@ -0,0 +1,242 @@
+package com.charging.order.infrastructure.occupancy;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import com.charging.order.infrastructure.persistence.OrderChangeListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 充电桩占用表
+ * Pile Occupancy Table
+ *
+ * 每个充电桩一个槽位（AtomicReference），订单进入 CHARGING 时以 CAS 从空闲占用槽位，离开 CHARGING 时以 CAS 释放；
+ * 不同充电桩之间没有共享锁，同一充电桩上并发的开始充电只有一个 CAS 成功。
+ *
+ * 作为排在最前面的仓储监听器在订单提交的临界区内执行：槽位已被其他订单占用时抛出 {@link PileOccupiedException}，
+ * 本次写入失败，仓储与其后的监听器（日志、缓存等）都看不到这次迁移。
+ * 占用之后若排在后面的监听器拒绝了写入，仓储回调 {@link #onRolledBack}，槽位恢复到写入前的状态。
+ * 槽位在充电桩第一次出现时创建，此后不删除（槽位数以充电桩数为上限）。
+ * 不经写入进入内存的订单（从日志恢复、内存未命中时回源加载）在 {@link #onLoaded} 中按其状态占用或释放，
+ * 与内存中其他订单冲突时只记录告警、不拒绝加载；启动时再按内存中已有的 CHARGING 订单重建一次占用。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PileOccupancyTable implements OrderChangeListener {
+
+    /**
+     * chargingPileId -> 当前占用者，null 表示空闲
+     */
+    private final ConcurrentHashMap<String, AtomicReference<Occupant>> slots = new ConcurrentHashMap<>();
+
+    private final LongAdder occupiedCount = new LongAdder();
+
+    /**
+     * 仓储构造时会收集监听器，启动重建时才解析仓储，避免循环依赖
+     */
+    private final ObjectProvider<ChargingOrderRepository> orderRepository;
+
+    public PileOccupancyTable(ObjectProvider<ChargingOrderRepository> orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * 按内存中已有的 CHARGING 订单重建占用
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int[] claimed = new int[1];
+        orderRepository.getObject().forEachCommitted(order -> {
+            if (order.getState() != OrderState.CHARGING || order.getChargingPileId() == null) {
+                return;
+            }
+            try {
+                claim(order.getChargingPileId(), order.getOrderId());
+                claimed[0]++;
+            } catch (PileOccupiedException e) {
+                log.warn("Restored order {} is CHARGING on an occupied pile: {}", order.getOrderId(), e.getMessage());
+            }
+        });
+        log.info("Pile occupancy rebuilt for {} charging orders", claimed[0]);
+    }
+
+    /**
+     * 占用充电桩；已被同一订单占用时直接返回
+     *
+     * @throws PileOccupiedException 如果充电桩被其他订单占用
+     */
+    public void claim(String chargingPileId, String orderId) {
+        AtomicReference<Occupant> slot = slot(chargingPileId);
+        Occupant claimed = null;
+        while (true) {
+            Occupant current = slot.get();
+            if (current != null) {
+                if (current.orderId.equals(orderId)) {
+                    return;
+                }
+                throw new PileOccupiedException(chargingPileId, current.orderId);
+            }
+            if (claimed == null) {
+                claimed = new Occupant(orderId, LocalDateTime.now());
+            }
+            if (slot.compareAndSet(null, claimed)) {
+                occupiedCount.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 释放充电桩；只有占用者是 orderId 时才释放
+     *
+     * @return true 如果释放了占用
+     */
+    public boolean release(String chargingPileId, String orderId) {
+        AtomicReference<Occupant> slot = slots.get(chargingPileId);
+        if (slot == null) {
+            return false;
+        }
+        while (true) {
+            Occupant current = slot.get();
+            if (current == null || !current.orderId.equals(orderId)) {
+                return false;
+            }
+            if (slot.compareAndSet(current, null)) {
+                occupiedCount.decrement();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 充电桩的当前占用情况
+     */
+    public PileOccupancy get(String chargingPileId) {
+        AtomicReference<Occupant> slot = slots.get(chargingPileId);
+        Occupant current = slot == null ? null : slot.get();
+        return current == null
+                ? new PileOccupancy(chargingPileId, null, null)
+                : new PileOccupancy(chargingPileId, current.orderId, current.since);
+    }
+
+    /**
+     * 占用汇总
+     *
+     * @param limit 最多列出的被占用充电桩数
+     */
+    public PileOccupancySummary summary(int limit) {
+        List<PileOccupancy> occupied = new ArrayList<>(Math.min(limit, 1024));
+        for (Map.Entry<String, AtomicReference<Occupant>> entry : slots.entrySet()) {
+            if (occupied.size() >= limit) {
+                break;
+            }
+            Occupant current = entry.getValue().get();
+            if (current != null) {
+                occupied.add(new PileOccupancy(entry.getKey(), current.orderId, current.since));
+            }
+        }
+        return new PileOccupancySummary(getOccupiedCount(), slots.size(), occupied);
+    }
+
+    /**
+     * 被占用的充电桩数
+     */
+    public long getOccupiedCount() {
+        return occupiedCount.sum();
+    }
+
+    @Override
+    public void onSaved(ChargingOrder order) {
+        if (order.getChargingPileId() == null) {
+            return;
+        }
+        if (order.getState() == OrderState.CHARGING) {
+            claim(order.getChargingPileId(), order.getOrderId());
+        } else {
+            release(order.getChargingPileId(), order.getOrderId());
+        }
+    }
+
+    @Override
+    public void onUpdated(ChargingOrder previous, ChargingOrder updated, OrderEvent event) {
+        // 只关心进入、离开 CHARGING 的迁移；电表读数等状态不变的写入不访问槽位
+        boolean wasCharging = previous.getState() == OrderState.CHARGING;
+        boolean charging = updated.getState() == OrderState.CHARGING;
+        if (wasCharging != charging) {
+            onSaved(updated);
+        }
+    }
+
+    @Override
+    public void onRolledBack(ChargingOrder previous, ChargingOrder rejected) {
+        boolean wasCharging = previous != null && previous.getState() == OrderState.CHARGING;
+        boolean charging = rejected.getState() == OrderState.CHARGING;
+        if (wasCharging == charging) {
+            return;
+        }
+        if (charging) {
+            if (rejected.getChargingPileId() != null) {
+                release(rejected.getChargingPileId(), rejected.getOrderId());
+            }
+        } else {
+            onLoaded(previous);
+        }
+    }
+
+    @Override
+    public void onLoaded(ChargingOrder order) {
+        try {
+            onSaved(order);
+        } catch (PileOccupiedException e) {
+            log.warn("Loaded order {} is CHARGING on an occupied pile: {}", order.getOrderId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onDeleted(String orderId) {
+        // 删除只有订单ID，逐个槽位查找（删除订单是罕见的管理操作）
+        for (Map.Entry<String, AtomicReference<Occupant>> entry : slots.entrySet()) {
+            Occupant current = entry.getValue().get();
+            if (current != null && current.orderId.equals(orderId)) {
+                release(entry.getKey(), orderId);
+                return;
+            }
+        }
+    }
+
+    private AtomicReference<Occupant> slot(String chargingPileId) {
+        AtomicReference<Occupant> slot = slots.get(chargingPileId);
+        return slot != null ? slot : slots.computeIfAbsent(chargingPileId, id -> new AtomicReference<>());
+    }
+
+    /**
+     * 槽位中的不可变占用记录，CAS 按引用比较
+     */
+    private static final class Occupant {
+
+        private final String orderId;
+
+        private final LocalDateTime since;
+
+        private Occupant(String orderId, LocalDateTime since) {
+            this.orderId = orderId;
+            this.since = since;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.charging.order.infrastructure.occupancy;
+
+/**
+ * 充电桩已被占用异常
+ * Pile Occupied Exception
+ *
+ * 另一笔订单正在该充电桩上充电，本次开始充电被拒绝
+ */
+public class PileOccupiedException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PileOccupiedException(String chargingPileId, String occupantOrderId) {
+        super(String.format("Charging pile %s is occupied by order %s", chargingPileId, occupantOrderId));
+    }
+}
@@ -0,0 +1,415 @@
+package com.charging.order.infrastructure.outbox;
+
+import com.charging.order.config.OutboxProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.outbox.IntentRecorder;
+import com.charging.order.domain.outbox.IntentType;
+import com.charging.order.domain.outbox.OutboxIntent;
+import com.charging.order.infrastructure.persistence.OrderChangeListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 订单发件箱
+ * Order Outbox
+ *
+ * 状态机动作把外部副作用（扣款、授权、启动充电桩、退款、扣费）记录为意图，
+ * 作为仓储监听器在订单比较并替换成功的临界区内取走当前线程暂存的意图并入队：迁移写入与意图同时生效，
+ * 写入失败、版本冲突重试或被前面的监听器（占用表、日志）拒绝时意图不会出现。
+ * 排在可能拒绝写入的监听器之后，其后的监听器不得抛出异常。
+ *
+ * 投递：意图按 orderId 哈希到固定的投递线程（lane），同一订单的意图在一个线程上严格按提交顺序投递，
+ * 前一个意图成功（或用完重试次数）之前不会投递下一个；不同订单的意图按投递端分组批量调用。
+ * 失败的意图按指数退避重试，不阻塞其他订单；用完重试次数后记录错误并计为死信。
+ *
+ * 入队用无界队列，监听器从不抛异常、不会因为投递积压而让订单写入失败。
+ * 意图只保存在内存中：进程退出时尚未投递的意图会丢失（停止时记录数量），外部系统以幂等键去重。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(prefix = "charging.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OrderOutbox implements OrderChangeListener, MeterBinder {
+
+    private static final long MAX_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<IntentType, OutboxSink> sinks = new EnumMap<>(IntentType.class);
+
+    private final Lane[] lanes;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    private final LongAdder recorded = new LongAdder();
+
+    private final LongAdder delivered = new LongAdder();
+
+    private final LongAdder retried = new LongAdder();
+
+    private final LongAdder deadLettered = new LongAdder();
+
+    private volatile boolean running;
+
+    public OrderOutbox(OutboxProperties properties, List<OutboxSink> sinks) {
+        if (properties.getLanes() < 1 || properties.getBatchSize() < 1 || properties.getMaxAttempts() < 1) {
+            throw new IllegalArgumentException("charging.outbox.lanes, batch-size and max-attempts must be positive");
+        }
+        for (OutboxSink sink : sinks) {
+            for (IntentType type : sink.getTypes()) {
+                OutboxSink existing = this.sinks.put(type, sink);
+                if (existing != null) {
+                    throw new IllegalStateException("Outbox intent type " + type + " has two sinks: "
+                            + existing.getClass().getSimpleName() + " and " + sink.getClass().getSimpleName());
+                }
+            }
+        }
+        for (IntentType type : IntentType.values()) {
+            if (!this.sinks.containsKey(type)) {
+                throw new IllegalStateException("No outbox sink handles intent type " + type);
+            }
+        }
+        this.batchSize = properties.getBatchSize();
+        this.maxAttempts = properties.getMaxAttempts();
+        this.initialBackoffNanos = properties.getInitialBackoff().toNanos();
+        this.maxBackoffNanos = properties.getMaxBackoff().toNanos();
+        this.lanes = new Lane[properties.getLanes()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i);
+        }
+    }
+
+    /**
+     * 启动投递线程
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+    }
+
+    @Override
+    public void onSaved(ChargingOrder order) {
+        // 创建订单不产生外部副作用
+    }
+
+    @Override
+    public void onUpdated(ChargingOrder previous, ChargingOrder updated, OrderEvent event) {
+        List<OutboxIntent> staged = IntentRecorder.staged();
+        if (staged.isEmpty()) {
+            return;
+        }
+        Lane lane = lanes[laneOf(updated.getOrderId())];
+        for (OutboxIntent intent : staged) {
+            lane.inbox.offer(intent.committed(updated.getVersion()));
+        }
+        recorded.add(staged.size());
+        // 已提交，防止同一次暂存被后续写入重复取走
+        staged.clear();
+        lane.wakeUp();
+    }
+
+    @Override
+    public void onDeleted(String orderId) {
+        // 已入队的意图照常投递
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("charging.outbox.intents", recorded, LongAdder::sum)
+                .description("Outbox intents by outcome")
+                .tag("result", "recorded")
+                .register(registry);
+        FunctionCounter.builder("charging.outbox.intents", delivered, LongAdder::sum)
+                .tag("result", "delivered")
+                .register(registry);
+        FunctionCounter.builder("charging.outbox.intents", deadLettered, LongAdder::sum)
+                .tag("result", "dead_lettered")
+                .register(registry);
+        FunctionCounter.builder("charging.outbox.retries", retried, LongAdder::sum)
+                .description("Failed outbox deliveries scheduled for retry")
+                .register(registry);
+        Gauge.builder("charging.outbox.pending", this, OrderOutbox::getPendingCount)
+                .description("Outbox intents recorded but not yet delivered or dead-lettered")
+                .register(registry);
+    }
+
+    /**
+     * 已记录的意图数
+     */
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /**
+     * 已成功投递的意图数
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * 失败后安排重试的次数
+     */
+    public long getRetriedCount() {
+        return retried.sum();
+    }
+
+    /**
+     * 用完重试次数被放弃的意图数
+     */
+    public long getDeadLetteredCount() {
+        return deadLettered.sum();
+    }
+
+    /**
+     * 尚未投递完成的意图数（近似值）
+     */
+    public long getPendingCount() {
+        return recorded.sum() - delivered.sum() - deadLettered.sum();
+    }
+
+    /**
+     * 停止投递线程：先投递已到期的意图，等待重试的意图不再重试
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Lane lane : lanes) {
+            LockSupport.unpark(lane.thread);
+        }
+        for (Lane lane : lanes) {
+            lane.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        long pending = getPendingCount();
+        if (pending > 0) {
+            log.error("Outbox stopped with {} undelivered intents", pending);
+        }
+    }
+
+    int laneOf(String orderId) {
+        int h = orderId.hashCode();
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    long backoffNanos(int attempts) {
+        int shift = Math.min(attempts - 1, 30);
+        long backoff = initialBackoffNanos << shift;
+        return backoff < 0 || backoff > maxBackoffNanos ? maxBackoffNanos : backoff;
+    }
+
+    /**
+     * 一个订单尚未投递的意图；只由所属投递线程访问
+     */
+    private static final class OrderQueue {
+
+        private final String orderId;
+
+        private final ArrayDeque<OutboxIntent> intents = new ArrayDeque<>(2);
+
+        /**
+         * 队首意图已失败的次数
+         */
+        private int attempts;
+
+        /**
+         * 队首意图下次可以投递的时间（System.nanoTime）
+         */
+        private long dueAt;
+
+        private OrderQueue(String orderId) {
+            this.orderId = orderId;
+        }
+    }
+
+    /**
+     * 一个投递线程：入队的意图先进入无界收件队列，再由线程整理到按订单的队列中
+     */
+    private final class Lane {
+
+        private final ConcurrentLinkedQueue<OutboxIntent> inbox = new ConcurrentLinkedQueue<>();
+
+        private final Thread thread;
+
+        /**
+         * 投递线程即将或已经 park；入队后看到 true 时 unpark
+         */
+        private volatile boolean sleeping;
+
+        private final Map<String, OrderQueue> orders = new HashMap<>();
+
+        /**
+         * 队首意图可以立即投递的订单
+         */
+        private final ArrayDeque<OrderQueue> ready = new ArrayDeque<>();
+
+        /**
+         * 队首意图等待重试的订单，按到期时间排序
+         */
+        private final PriorityQueue<OrderQueue> backoff =
+                new PriorityQueue<>(Comparator.comparingLong((OrderQueue queue) -> queue.dueAt));
+
+        private Lane(int index) {
+            this.thread = new Thread(this::runLoop, "order-outbox-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void wakeUp() {
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void runLoop() {
+            while (running) {
+                try {
+                    drainInbox();
+                    promoteDue(System.nanoTime());
+                    if (!ready.isEmpty()) {
+                        dispatchReady();
+                        continue;
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Outbox lane {} failed", thread.getName(), e);
+                }
+                // 先声明将要 park，再检查收件队列：与入队方的"先入队、再检查 sleeping"配对，不会错过唤醒
+                sleeping = true;
+                if (inbox.isEmpty() && running) {
+                    OrderQueue next = backoff.peek();
+                    LockSupport.parkNanos(this, next == null ? MAX_PARK_NANOS
+                            : Math.min(MAX_PARK_NANOS, next.dueAt - System.nanoTime()));
+                }
+                sleeping = false;
+            }
+            // 停止时投递已到期的意图
+            drainInbox();
+            while (!ready.isEmpty()) {
+                dispatchReady();
+            }
+        }
+
+        private void drainInbox() {
+            OutboxIntent intent;
+            while ((intent = inbox.poll()) != null) {
+                OrderQueue queue = orders.get(intent.getOrderId());
+                if (queue == null) {
+                    queue = new OrderQueue(intent.getOrderId());
+                    orders.put(intent.getOrderId(), queue);
+                    ready.add(queue);
+                }
+                queue.intents.add(intent);
+            }
+        }
+
+        private void promoteDue(long now) {
+            OrderQueue queue;
+            while ((queue = backoff.peek()) != null && queue.dueAt - now <= 0) {
+                ready.add(backoff.poll());
+            }
+        }
+
+        /**
+         * 取最多 batchSize 个订单的队首意图，按投递端分组批量投递
+         */
+        private void dispatchReady() {
+            Map<OutboxSink, List<OrderQueue>> groups = new LinkedHashMap<>();
+            for (int i = 0; i < batchSize && !ready.isEmpty(); i++) {
+                OrderQueue queue = ready.poll();
+                groups.computeIfAbsent(sinks.get(queue.intents.peek().getType()), sink -> new ArrayList<>())
+                        .add(queue);
+            }
+            for (Map.Entry<OutboxSink, List<OrderQueue>> group : groups.entrySet()) {
+                List<OrderQueue> queues = group.getValue();
+                List<OutboxIntent> batch = new ArrayList<>(queues.size());
+                for (OrderQueue queue : queues) {
+                    batch.add(queue.intents.peek());
+                }
+                Set<OutboxIntent> failed = dispatch(group.getKey(), batch);
+                long now = System.nanoTime();
+                for (OrderQueue queue : queues) {
+                    if (failed.contains(queue.intents.peek())) {
+                        onFailure(queue, now);
+                    } else {
+                        delivered.increment();
+                        advance(queue);
+                    }
+                }
+            }
+        }
+
+        private Set<OutboxIntent> dispatch(OutboxSink sink, List<OutboxIntent> batch) {
+            Set<OutboxIntent> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+            try {
+                List<OutboxIntent> rejected = sink.dispatch(Collections.unmodifiableList(batch));
+                if (rejected != null) {
+                    failed.addAll(rejected);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Outbox sink {} failed a batch of {} intents: {}",
+                        sink.getClass().getSimpleName(), batch.size(), e.getMessage());
+                failed.addAll(batch);
+            }
+            return failed;
+        }
+
+        private void onFailure(OrderQueue queue, long now) {
+            queue.attempts++;
+            if (queue.attempts >= maxAttempts) {
+                deadLettered.increment();
+                log.error("Outbox intent {} dead-lettered after {} attempts: {}",
+                        queue.intents.peek().getIdempotencyKey(), queue.attempts, queue.intents.peek());
+                advance(queue);
+                return;
+            }
+            retried.increment();
+            queue.dueAt = now + backoffNanos(queue.attempts);
+            backoff.add(queue);
+        }
+
+        /**
+         * 队首意图已处理完，下一个意图立即可投递
+         */
+        private void advance(OrderQueue queue) {
+            queue.intents.poll();
+            queue.attempts = 0;
+            if (queue.intents.isEmpty()) {
+                orders.remove(queue.orderId);
+            } else {
+                ready.add(queue);
+            }
+        }
+    }
+}
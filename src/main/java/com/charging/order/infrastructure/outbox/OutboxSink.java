@@ -0,0 +1,31 @@
+package com.charging.order.infrastructure.outbox;
+
+import com.charging.order.domain.outbox.IntentType;
+import com.charging.order.domain.outbox.OutboxIntent;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 发件箱投递端
+ * Outbox Sink
+ *
+ * 对接支付网关、充电桩平台等外部系统。每个意图类型恰好由一个投递端处理。
+ * 投递在发件箱线程上执行，可以是阻塞调用；外部系统应以 {@link OutboxIntent#getIdempotencyKey()} 去重，
+ * 超时等结果不明的情况按失败返回，重试不会产生重复的扣款或退款。
+ */
+public interface OutboxSink {
+
+    /**
+     * 处理的意图类型
+     */
+    Set<IntentType> getTypes();
+
+    /**
+     * 批量投递
+     *
+     * @param intents 同一类型组内的意图，每个订单至多一个
+     * @return 投递失败、需要重试的意图（其余视为成功）；抛出异常表示整批失败
+     */
+    List<OutboxIntent> dispatch(List<OutboxIntent> intents);
+}
@@ -0,0 +1,96 @@
+package com.charging.order.infrastructure.outbox;
+
+import com.charging.order.domain.outbox.IntentType;
+import com.charging.order.domain.outbox.OutboxIntent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地桩网关
+ * Stub Gateway
+ *
+ * 没有配置真实投递端时处理全部意图类型：每批模拟一次外部调用耗时，按失败率随机让意图失败，只计数不调用任何外部系统。
+ * 用于本地运行、测试与压测。
+ */
+@Slf4j
+public class StubGateway implements OutboxSink {
+
+    private final Duration latency;
+
+    private final double failureRate;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder delivered = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    public StubGateway(Duration latency, double failureRate) {
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("failureRate must be between 0 and 1: " + failureRate);
+        }
+        this.latency = latency;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public Set<IntentType> getTypes() {
+        return Collections.unmodifiableSet(EnumSet.allOf(IntentType.class));
+    }
+
+    @Override
+    public List<OutboxIntent> dispatch(List<OutboxIntent> intents) {
+        calls.increment();
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return intents;
+            }
+        }
+        List<OutboxIntent> rejected = Collections.emptyList();
+        for (OutboxIntent intent : intents) {
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                if (rejected.isEmpty()) {
+                    rejected = new ArrayList<>();
+                }
+                rejected.add(intent);
+            } else {
+                log.debug("Stub gateway accepted {} {}", intent.getType(), intent.getIdempotencyKey());
+            }
+        }
+        delivered.add(intents.size() - rejected.size());
+        failed.add(rejected.size());
+        return rejected;
+    }
+
+    /**
+     * 批量调用次数
+     */
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * 成功投递的意图数
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * 模拟失败的意图数
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+}
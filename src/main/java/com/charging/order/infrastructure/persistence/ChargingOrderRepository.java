@@ -1,48 +1,263 @@
 package com.charging.order.infrastructure.persistence;
 
 import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * 充电订单仓储实现（内存版本）
  * Charging Order Repository (In-Memory Implementation)
- * 
- * 注：这是一个简单的内存实现，生产环境应该使用数据库
+ *
+ * 内存是订单的权威副本，所有读写都在内存中完成；
+ * 持久化等通过 OrderChangeListener 异步进行，未命中时可由 OrderLoader 回源加载。
+ * 按用户、充电桩（仅未终结订单）和状态维护二级索引，索引只覆盖内存中的订单。
  */
 @Repository
 public class ChargingOrderRepository {
 
     private final Map<String, ChargingOrder> orderStore = new ConcurrentHashMap<>();
 
+    private final OrderIndex index = new OrderIndex();
+
+    private final List<OrderChangeListener> listeners;
+
+    private final OrderLoader loader;
+
+    /**
+     * 纯内存仓储（无监听器、无回源）
+     */
+    public ChargingOrderRepository() {
+        this(Collections.emptyList(), null);
+    }
+
+    public ChargingOrderRepository(List<OrderChangeListener> listeners, OrderLoader loader) {
+        this.listeners = listeners;
+        this.loader = loader;
+    }
+
+    @Autowired
+    public ChargingOrderRepository(ObjectProvider<OrderChangeListener> listeners,
+                                   ObjectProvider<OrderLoader> loader) {
+        this(listeners.orderedStream().collect(Collectors.toList()), loader.getIfAvailable());
+    }
+
     /**
      * 保存订单
      */
     public ChargingOrder save(ChargingOrder order) {
-        orderStore.put(order.getOrderId(), order);
+        orderStore.compute(order.getOrderId(), (orderId, current) -> {
+            notifyChanged(current, order, null, true);
+            index.update(current, order);
+            return order;
+        });
         return order;
     }
 
+    /**
+     * 比较并替换订单（乐观并发控制）
+     * 仅当仓储中订单的版本号等于 expectedVersion 时写入，写入后版本号加一
+     *
+     * @param updated         迁移后的订单副本
+     * @param expectedVersion 读取快照时的版本号
+     * @return true 如果写入成功；false 如果订单不存在或已被其他请求修改
+     */
+    public boolean compareAndSet(ChargingOrder updated, long expectedVersion) {
+        return compareAndSet(updated, expectedVersion, null);
+    }
+
+    /**
+     * 比较并替换订单，并把触发本次写入的状态机事件交给监听器
+     *
+     * @param updated         迁移后的订单副本
+     * @param expectedVersion 读取快照时的版本号
+     * @param event           状态机事件，非迁移写入时为 null
+     * @return true 如果写入成功；false 如果订单不存在或已被其他请求修改
+     */
+    public boolean compareAndSet(ChargingOrder updated, long expectedVersion, OrderEvent event) {
+        boolean[] replaced = new boolean[1];
+        orderStore.computeIfPresent(updated.getOrderId(), (orderId, current) -> {
+            if (current.getVersion() != expectedVersion) {
+                return current;
+            }
+            updated.setVersion(expectedVersion + 1);
+            notifyChanged(current, updated, event, false);
+            index.update(current, updated);
+            replaced[0] = true;
+            return updated;
+        });
+        return replaced[0];
+    }
+
     /**
      * 根据ID查询订单
+     * 内存未命中时回源加载，加载结果放入内存，只回调监听器的 onLoaded
      */
     public ChargingOrder findById(String orderId) {
-        return orderStore.get(orderId);
+        ChargingOrder order = orderStore.get(orderId);
+        if (order != null || loader == null) {
+            return order;
+        }
+
+        ChargingOrder loaded = loader.load(orderId);
+        if (loaded == null) {
+            return null;
+        }
+        return orderStore.computeIfAbsent(orderId, id -> {
+            notifyLoaded(loaded);
+            index.update(null, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * 查询用户的未终结订单（CANCELLED、CLOSED 之外）
+     * 按索引取 k 个订单，与仓储总量无关
+     */
+    public List<ChargingOrder> findActiveByUserId(String userId) {
+        return resolve(index.activeByUser(userId),
+                order -> userId.equals(order.getUserId()) && !order.getState().isTerminal(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 查询充电桩上的未终结订单（正常情况下至多一个）
+     */
+    public List<ChargingOrder> findActiveByChargingPileId(String chargingPileId) {
+        return resolve(index.activeByPile(chargingPileId),
+                order -> chargingPileId.equals(order.getChargingPileId()) && !order.getState().isTerminal(),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * 查询处于指定状态的订单
+     *
+     * @param limit 最多返回的订单数
+     */
+    public List<ChargingOrder> findByState(OrderState state, int limit) {
+        return resolve(index.byState(state), order -> order.getState() == state, limit);
+    }
+
+    /**
+     * 处于指定状态的订单数（近似值，O(1)）
+     */
+    public int countByState(OrderState state) {
+        return index.byState(state).size();
     }
 
     /**
      * 删除订单
      */
     public void delete(String orderId) {
-        orderStore.remove(orderId);
+        orderStore.computeIfPresent(orderId, (id, current) -> {
+            for (OrderChangeListener listener : listeners) {
+                listener.onDeleted(id);
+            }
+            index.update(current, null);
+            return null;
+        });
+    }
+
+    /**
+     * 逐个回调仓储中的订单（用于快照）
+     * 每个订单在其临界区内读取，回调时看到的是已完成通知的最新版本；回调本身在临界区之外执行
+     */
+    public void forEachCommitted(Consumer<ChargingOrder> action) {
+        ChargingOrder[] committed = new ChargingOrder[1];
+        for (String orderId : orderStore.keySet()) {
+            committed[0] = null;
+            orderStore.computeIfPresent(orderId, (id, current) -> {
+                committed[0] = current;
+                return current;
+            });
+            if (committed[0] != null) {
+                action.accept(committed[0]);
+            }
+        }
+    }
+
+    /**
+     * 恢复订单（启动时从日志重建），不触发变更监听，只回调监听器的 onLoaded
+     * 已存在更新版本的订单保持不变
+     */
+    public void restore(Collection<ChargingOrder> orders) {
+        for (ChargingOrder order : orders) {
+            orderStore.compute(order.getOrderId(), (orderId, current) -> {
+                if (current != null && order.getVersion() <= current.getVersion()) {
+                    return current;
+                }
+                notifyLoaded(order);
+                index.update(current, order);
+                return order;
+            });
+        }
     }
 
     /**
      * 检查订单是否存在
      */
     public boolean exists(String orderId) {
-        return orderStore.containsKey(orderId);
+        return findById(orderId) != null;
+    }
+
+    /**
+     * 按索引中的 orderId 读取当前订单，并丢弃索引尚未反映最新写入的条目
+     */
+    private List<ChargingOrder> resolve(Set<String> orderIds, Predicate<ChargingOrder> stillMatches, int limit) {
+        List<ChargingOrder> orders = new ArrayList<>(Math.min(orderIds.size(), limit));
+        for (String orderId : orderIds) {
+            if (orders.size() >= limit) {
+                break;
+            }
+            ChargingOrder order = orderStore.get(orderId);
+            if (order != null && stillMatches.test(order)) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * 按顺序通知监听器；某个监听器抛出异常时，让此前已完成回调的监听器撤销后再抛出，写入随之失败
+     */
+    private void notifyChanged(ChargingOrder previous, ChargingOrder updated, OrderEvent event, boolean saved) {
+        int notified = 0;
+        try {
+            for (OrderChangeListener listener : listeners) {
+                if (saved) {
+                    listener.onSaved(updated);
+                } else {
+                    listener.onUpdated(previous, updated, event);
+                }
+                notified++;
+            }
+        } catch (RuntimeException e) {
+            for (int i = notified - 1; i >= 0; i--) {
+                try {
+                    listeners.get(i).onRolledBack(previous, updated);
+                } catch (RuntimeException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void notifyLoaded(ChargingOrder order) {
+        for (OrderChangeListener listener : listeners) {
+            listener.onLoaded(order);
+        }
     }
 }
@@ -0,0 +1,60 @@
+package com.charging.order.infrastructure.persistence;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+
+/**
+ * 订单变更监听器
+ * Order Change Listener
+ *
+ * 仓储在单个订单的临界区内回调监听器，同一订单的变更按提交顺序到达。
+ * 回调发生在请求线程上，实现必须是非阻塞的（例如只入队或写入内存映射文件，不做网络/磁盘同步 I/O）。
+ * 回调抛出异常会使本次写入失败，仓储中的订单保持不变；此前已完成回调的监听器会收到 {@link #onRolledBack}。
+ */
+public interface OrderChangeListener {
+
+    /**
+     * 订单已保存
+     *
+     * @param order 仓储中的最新快照
+     */
+    void onSaved(ChargingOrder order);
+
+    /**
+     * 订单已按版本号比较并替换
+     * 默认按普通保存处理
+     *
+     * @param previous 替换前的快照
+     * @param updated  替换后的快照
+     * @param event    本次写入触发的状态机事件，非迁移写入时为 null
+     */
+    default void onUpdated(ChargingOrder previous, ChargingOrder updated, OrderEvent event) {
+        onSaved(updated);
+    }
+
+    /**
+     * 写入被排在后面的监听器拒绝，撤销本监听器对这次写入已经产生的效果
+     * 只回调已成功处理 onSaved / onUpdated 的监听器，按与通知相反的顺序；默认不做任何事
+     *
+     * @param previous 写入前的快照，新订单为 null
+     * @param rejected 未能写入的快照
+     */
+    default void onRolledBack(ChargingOrder previous, ChargingOrder rejected) {
+    }
+
+    /**
+     * 订单未经写入进入内存（回源加载或启动恢复），默认不做任何事
+     * 不是一次变更，持久化类监听器不应再次写出；回调不得抛出异常
+     *
+     * @param order 进入内存的快照
+     */
+    default void onLoaded(ChargingOrder order) {
+    }
+
+    /**
+     * 订单已删除
+     *
+     * @param orderId 订单ID
+     */
+    void onDeleted(String orderId);
+}
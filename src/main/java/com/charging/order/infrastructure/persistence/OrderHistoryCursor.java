@@ -0,0 +1,63 @@
+package com.charging.order.infrastructure.persistence;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 订单历史分页游标
+ * Order History Cursor
+ *
+ * 页内最后一个订单的 (createTime, orderId)，对调用方编码为不透明的 URL 安全字符串。
+ */
+@Getter
+@EqualsAndHashCode
+public final class OrderHistoryCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createTime;
+
+    private final String orderId;
+
+    public OrderHistoryCursor(LocalDateTime createTime, String orderId) {
+        this.createTime = createTime;
+        this.orderId = orderId;
+    }
+
+    /**
+     * 编码为游标字符串
+     */
+    public String encode() {
+        String raw = createTime.toString() + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @throws IllegalArgumentException 如果游标不是由 encode 生成的
+     */
+    public static OrderHistoryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new OrderHistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
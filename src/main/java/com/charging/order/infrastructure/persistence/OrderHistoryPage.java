@@ -0,0 +1,26 @@
+package com.charging.order.infrastructure.persistence;
+
+import com.charging.order.domain.model.ChargingOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 订单历史分页结果
+ * Order History Page
+ */
+@Data
+@AllArgsConstructor
+public class OrderHistoryPage {
+
+    /**
+     * 本页订单，按 (createTime, orderId) 倒序
+     */
+    private List<ChargingOrder> orders;
+
+    /**
+     * 下一页游标；没有更多订单时为 null
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,56 @@
+package com.charging.order.infrastructure.persistence;
+
+import com.charging.order.domain.model.OrderState;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * 订单历史查询条件
+ * Order History Query
+ *
+ * 按用户或充电桩查询订单，结果按 (createTime, orderId) 倒序，以游标定位下一页。
+ */
+@Data
+public class OrderHistoryQuery {
+
+    /**
+     * 按谁查询
+     */
+    public enum Owner {
+        USER, PILE
+    }
+
+    private Owner owner;
+
+    /**
+     * 用户ID或充电桩ID
+     */
+    private String ownerId;
+
+    /**
+     * 状态过滤，为空表示不过滤
+     */
+    private Set<OrderState> states;
+
+    /**
+     * 创建时间下限（含），可为空
+     */
+    private LocalDateTime createdFrom;
+
+    /**
+     * 创建时间上限（不含），可为空
+     */
+    private LocalDateTime createdTo;
+
+    /**
+     * 上一页最后一个订单的位置，为空表示第一页
+     */
+    private OrderHistoryCursor after;
+
+    /**
+     * 每页订单数
+     */
+    private int limit;
+}
@@ -0,0 +1,109 @@
+package com.charging.order.infrastructure.persistence;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderState;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 订单二级索引
+ * Order Secondary Index
+ *
+ * userId、chargingPileId -> 未终结订单的 orderId 集合；OrderState -> 该状态全部订单的 orderId 集合。
+ * 由仓储在单个订单的临界区内维护，同一订单的索引变更与存储写入按相同顺序发生。
+ * 索引与存储之间只保证最终一致，查询方需按存储中的当前订单再次校验键值。
+ */
+final class OrderIndex {
+
+    private final Map<String, Set<String>> activeByUser = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<String>> activeByPile = new ConcurrentHashMap<>();
+
+    /**
+     * 状态数固定，集合预先创建且从不移除，高频迁移不会争用外层映射
+     */
+    private final Map<OrderState, Set<String>> byState = new EnumMap<>(OrderState.class);
+
+    OrderIndex() {
+        for (OrderState state : OrderState.values()) {
+            byState.put(state, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * 把订单从旧快照的索引位置移到新快照的索引位置
+     *
+     * @param previous 旧快照，新增时为 null
+     * @param current  新快照，删除时为 null
+     */
+    void update(ChargingOrder previous, ChargingOrder current) {
+        String orderId = current != null ? current.getOrderId() : previous.getOrderId();
+
+        OrderState oldState = previous == null ? null : previous.getState();
+        OrderState newState = current == null ? null : current.getState();
+        if (oldState != newState) {
+            if (newState != null) {
+                byState.get(newState).add(orderId);
+            }
+            if (oldState != null) {
+                byState.get(oldState).remove(orderId);
+            }
+        }
+
+        boolean wasActive = isActive(previous);
+        boolean isActive = isActive(current);
+        move(activeByUser, orderId,
+                wasActive ? previous.getUserId() : null, isActive ? current.getUserId() : null);
+        move(activeByPile, orderId,
+                wasActive ? previous.getChargingPileId() : null, isActive ? current.getChargingPileId() : null);
+    }
+
+    Set<String> activeByUser(String userId) {
+        return lookup(activeByUser, userId);
+    }
+
+    Set<String> activeByPile(String chargingPileId) {
+        return lookup(activeByPile, chargingPileId);
+    }
+
+    Set<String> byState(OrderState state) {
+        return Collections.unmodifiableSet(byState.get(state));
+    }
+
+    private static boolean isActive(ChargingOrder order) {
+        return order != null && order.getState() != null && !order.getState().isTerminal();
+    }
+
+    /**
+     * 先加入新键再移出旧键；集合的创建和清理都在外层映射的 compute 中完成，
+     * 不会把 orderId 加入一个刚被移除的空集合
+     */
+    private static void move(Map<String, Set<String>> index, String orderId, String oldKey, String newKey) {
+        if (Objects.equals(oldKey, newKey)) {
+            return;
+        }
+        if (newKey != null) {
+            index.compute(newKey, (key, orderIds) -> {
+                Set<String> result = orderIds != null ? orderIds : ConcurrentHashMap.newKeySet();
+                result.add(orderId);
+                return result;
+            });
+        }
+        if (oldKey != null) {
+            index.computeIfPresent(oldKey, (key, orderIds) -> {
+                orderIds.remove(orderId);
+                return orderIds.isEmpty() ? null : orderIds;
+            });
+        }
+    }
+
+    private static Set<String> lookup(Map<String, Set<String>> index, String key) {
+        Set<String> orderIds = index.get(key);
+        return orderIds == null ? Collections.emptySet() : Collections.unmodifiableSet(orderIds);
+    }
+}
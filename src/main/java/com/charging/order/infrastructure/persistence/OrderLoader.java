@@ -0,0 +1,20 @@
+package com.charging.order.infrastructure.persistence;
+
+import com.charging.order.domain.model.ChargingOrder;
+
+/**
+ * 订单加载器
+ * Order Loader
+ *
+ * 内存仓储未命中时的回源，例如重启后从数据库加载历史订单
+ */
+public interface OrderLoader {
+
+    /**
+     * 加载订单
+     *
+     * @param orderId 订单ID
+     * @return 订单，不存在时返回 null
+     */
+    ChargingOrder load(String orderId);
+}
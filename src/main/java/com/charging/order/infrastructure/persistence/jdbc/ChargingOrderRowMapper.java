@@ -0,0 +1,97 @@
+package com.charging.order.infrastructure.persistence.jdbc;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * charging_order 行映射
+ * Charging Order Row Mapper
+ */
+final class ChargingOrderRowMapper implements RowMapper<ChargingOrder> {
+
+    static final ChargingOrderRowMapper INSTANCE = new ChargingOrderRowMapper();
+
+    /**
+     * 与 mapRow 读取顺序一致的列清单
+     */
+    static final String COLUMNS = "order_id, user_id, charging_pile_id, state, payment_type, "
+            + "charging_amount, order_amount, prepaid_amount, actual_amount, refund_amount, "
+            + "version, create_time, update_time";
+
+    static final int COLUMN_COUNT = 13;
+
+    private ChargingOrderRowMapper() {
+    }
+
+    @Override
+    public ChargingOrder mapRow(ResultSet rs, int rowNum) throws SQLException {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId(rs.getString("order_id"));
+        order.setUserId(rs.getString("user_id"));
+        order.setChargingPileId(rs.getString("charging_pile_id"));
+        order.setState(OrderState.valueOf(rs.getString("state")));
+        order.setPaymentType(PaymentType.valueOf(rs.getString("payment_type")));
+        order.setChargingAmount(toEnergy(rs.getBigDecimal("charging_amount")));
+        order.setOrderAmount(toMoney(rs.getBigDecimal("order_amount")));
+        order.setPrepaidAmount(toMoney(rs.getBigDecimal("prepaid_amount")));
+        order.setActualAmount(toMoney(rs.getBigDecimal("actual_amount")));
+        order.setRefundAmount(toMoney(rs.getBigDecimal("refund_amount")));
+        order.setVersion(rs.getLong("version"));
+        order.setCreateTime(toLocalDateTime(rs.getTimestamp("create_time")));
+        order.setUpdateTime(toLocalDateTime(rs.getTimestamp("update_time")));
+        return order;
+    }
+
+    /**
+     * 按 COLUMNS 的顺序把订单展开为 SQL 参数，写入 args[offset, offset + COLUMN_COUNT)
+     */
+    static void bind(ChargingOrder order, Object[] args, int offset) {
+        args[offset] = order.getOrderId();
+        args[offset + 1] = order.getUserId();
+        args[offset + 2] = order.getChargingPileId();
+        args[offset + 3] = order.getState().name();
+        args[offset + 4] = order.getPaymentType().name();
+        args[offset + 5] = toDecimal(order.getChargingAmount());
+        args[offset + 6] = toDecimal(order.getOrderAmount());
+        args[offset + 7] = toDecimal(order.getPrepaidAmount());
+        args[offset + 8] = toDecimal(order.getActualAmount());
+        args[offset + 9] = toDecimal(order.getRefundAmount());
+        args[offset + 10] = order.getVersion();
+        args[offset + 11] = toTimestamp(order.getCreateTime());
+        args[offset + 12] = toTimestamp(order.getUpdateTime());
+    }
+
+    private static Money toMoney(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
+
+    private static Energy toEnergy(BigDecimal kwh) {
+        return kwh == null ? null : Energy.of(kwh);
+    }
+
+    private static BigDecimal toDecimal(Money amount) {
+        return amount == null ? null : amount.toBigDecimal();
+    }
+
+    private static BigDecimal toDecimal(Energy kwh) {
+        return kwh == null ? null : kwh.toBigDecimal();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+}
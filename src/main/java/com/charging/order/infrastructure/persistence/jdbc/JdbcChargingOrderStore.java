@@ -0,0 +1,264 @@
+package com.charging.order.infrastructure.persistence.jdbc;
+
+import com.charging.order.config.JdbcPersistenceProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.infrastructure.persistence.OrderChangeListener;
+import com.charging.order.infrastructure.persistence.OrderLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 订单 JDBC 写后持久化（Write-Behind）
+ * JDBC Write-Behind Order Store
+ *
+ * 迁移在内存中提交后立即返回，变更只进入待写队列（按订单合并，只保留最新快照）；
+ * 后台线程按固定间隔或待写数量达到 batchSize 时，以多行 upsert 成组提交到 charging_order 表。
+ * 关闭时排空全部待写订单。内存未命中时从数据库回源加载。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "charging.persistence.jdbc", name = "enabled", havingValue = "true")
+public class JdbcChargingOrderStore implements OrderChangeListener, OrderLoader {
+
+    private static final String UPSERT_PREFIX =
+            "INSERT INTO charging_order (" + ChargingOrderRowMapper.COLUMNS + ") VALUES ";
+
+    private static final String UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE "
+            + "state = VALUES(state), "
+            + "charging_amount = VALUES(charging_amount), "
+            + "order_amount = VALUES(order_amount), "
+            + "prepaid_amount = VALUES(prepaid_amount), "
+            + "actual_amount = VALUES(actual_amount), "
+            + "refund_amount = VALUES(refund_amount), "
+            + "version = VALUES(version), "
+            + "update_time = VALUES(update_time)";
+
+    private static final String SELECT_BY_ID =
+            "SELECT " + ChargingOrderRowMapper.COLUMNS + " FROM charging_order WHERE order_id = ?";
+
+    /**
+     * 关闭时排空待写订单的最大尝试次数
+     */
+    private static final int MAX_DRAIN_ATTEMPTS = 5;
+
+    /**
+     * 删除标记
+     */
+    private static final ChargingOrder TOMBSTONE = new ChargingOrder();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcPersistenceProperties properties;
+
+    /**
+     * 待写订单：orderId -> 最新快照（或删除标记）
+     */
+    private final Map<String, ChargingOrder> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private ScheduledExecutorService flusher;
+
+    public JdbcChargingOrderStore(JdbcTemplate jdbcTemplate, JdbcPersistenceProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * 启动后台刷盘线程
+     */
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Order write-behind started: flush every {} ms, batch size {}",
+                intervalMillis, properties.getBatchSize());
+    }
+
+    @Override
+    public void onSaved(ChargingOrder order) {
+        pending.put(order.getOrderId(), order);
+        requestFlushIfFull();
+    }
+
+    @Override
+    public void onDeleted(String orderId) {
+        pending.put(orderId, TOMBSTONE);
+        requestFlushIfFull();
+    }
+
+    @Override
+    public ChargingOrder load(String orderId) {
+        // 尚未刷盘的变更比数据库更新
+        ChargingOrder pendingOrder = pending.get(orderId);
+        if (pendingOrder != null) {
+            return pendingOrder == TOMBSTONE ? null : pendingOrder;
+        }
+
+        List<ChargingOrder> orders = jdbcTemplate.query(SELECT_BY_ID, ChargingOrderRowMapper.INSTANCE, orderId);
+        return orders.isEmpty() ? null : orders.get(0);
+    }
+
+    /**
+     * 把当前所有待写订单按批次写入数据库
+     *
+     * @return 本次写入（含删除）的订单数
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            int batchSize = properties.getBatchSize();
+            int flushed = 0;
+            List<Map.Entry<String, ChargingOrder>> batch = new ArrayList<>(batchSize);
+            for (Map.Entry<String, ChargingOrder> entry : pending.entrySet()) {
+                batch.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+                if (batch.size() == batchSize) {
+                    flushed += writeBatch(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                flushed += writeBatch(batch);
+            }
+            return flushed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 待写订单数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 停止后台线程并排空全部待写订单
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(properties.getFlushInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+        }
+
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_DRAIN_ATTEMPTS) {
+                    log.error("Failed to drain {} pending orders on shutdown", pending.size(), e);
+                    return;
+                }
+                log.warn("Draining pending orders failed ({}/{}), retrying", attempt, MAX_DRAIN_ATTEMPTS, e);
+                Thread.sleep(properties.getFlushInterval().toMillis() * attempt);
+            }
+        }
+        log.info("Order write-behind drained and stopped");
+    }
+
+    private void requestFlushIfFull() {
+        if (flusher == null || pending.size() < properties.getBatchSize()
+                || !flushRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        } catch (RejectedExecutionException e) {
+            // 正在关闭，剩余订单由 shutdown 排空
+            flushRequested.set(false);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // 待写订单仍保留在队列中，下个周期重试
+            log.error("Failed to flush {} pending orders", pending.size(), e);
+        }
+    }
+
+    private int writeBatch(List<Map.Entry<String, ChargingOrder>> batch) {
+        List<ChargingOrder> upserts = new ArrayList<>(batch.size());
+        List<String> deletes = new ArrayList<>();
+        for (Map.Entry<String, ChargingOrder> entry : batch) {
+            if (entry.getValue() == TOMBSTONE) {
+                deletes.add(entry.getKey());
+            } else {
+                upserts.add(entry.getValue());
+            }
+        }
+
+        if (!upserts.isEmpty()) {
+            Object[] args = new Object[upserts.size() * ChargingOrderRowMapper.COLUMN_COUNT];
+            for (int i = 0; i < upserts.size(); i++) {
+                ChargingOrderRowMapper.bind(upserts.get(i), args, i * ChargingOrderRowMapper.COLUMN_COUNT);
+            }
+            jdbcTemplate.update(upsertSql(upserts.size()), args);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.update(deleteSql(deletes.size()), deletes.toArray());
+        }
+
+        // 只移除刷盘期间没有再次变更的订单，新快照留到下一批
+        for (Map.Entry<String, ChargingOrder> entry : batch) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        log.debug("Flushed {} upserts and {} deletes", upserts.size(), deletes.size());
+        return batch.size();
+    }
+
+    private static String upsertSql(int rows) {
+        StringBuilder row = new StringBuilder("(");
+        for (int i = 0; i < ChargingOrderRowMapper.COLUMN_COUNT; i++) {
+            row.append(i == 0 ? "?" : ", ?");
+        }
+        row.append(')');
+
+        StringBuilder sql = new StringBuilder(UPSERT_PREFIX.length() + UPSERT_SUFFIX.length() + rows * (row.length() + 2));
+        sql.append(UPSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.append(UPSERT_SUFFIX).toString();
+    }
+
+    private static String deleteSql(int rows) {
+        StringBuilder sql = new StringBuilder("DELETE FROM charging_order WHERE order_id IN (");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.charging.order.infrastructure.persistence.jdbc;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.infrastructure.persistence.OrderHistoryCursor;
+import com.charging.order.infrastructure.persistence.OrderHistoryPage;
+import com.charging.order.infrastructure.persistence.OrderHistoryQuery;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 订单历史查询（JDBC）
+ * JDBC Order History Repository
+ *
+ * 键集（seek）分页：以上一页最后一个订单的 (create_time, order_id) 为起点向前查找，
+ * 每页的代价只与页大小有关，与翻到第几页无关。
+ * 分页定位在子查询中只读取 idx_charging_order_user_history / idx_charging_order_pile_history
+ * 覆盖索引，外层再按主键取回本页订单（延迟关联）。
+ * 数据来自写后持久化的 charging_order 表，最近 flush-interval 内的变更可能尚未可见。
+ */
+@Repository
+@ConditionalOnProperty(prefix = "charging.persistence.jdbc", name = "enabled", havingValue = "true")
+public class JdbcOrderHistoryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcOrderHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 查询一页订单历史
+     */
+    public OrderHistoryPage findPage(OrderHistoryQuery query) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder seek = new StringBuilder("SELECT order_id AS page_id FROM charging_order WHERE ")
+                .append(query.getOwner() == OrderHistoryQuery.Owner.USER ? "user_id" : "charging_pile_id")
+                .append(" = ?");
+        args.add(query.getOwnerId());
+
+        if (query.getStates() != null && !query.getStates().isEmpty()) {
+            seek.append(" AND state IN (");
+            String separator = "";
+            for (OrderState state : query.getStates()) {
+                seek.append(separator).append('?');
+                args.add(state.name());
+                separator = ", ";
+            }
+            seek.append(')');
+        }
+        if (query.getCreatedFrom() != null) {
+            seek.append(" AND create_time >= ?");
+            args.add(Timestamp.valueOf(query.getCreatedFrom()));
+        }
+        if (query.getCreatedTo() != null) {
+            seek.append(" AND create_time < ?");
+            args.add(Timestamp.valueOf(query.getCreatedTo()));
+        }
+        OrderHistoryCursor after = query.getAfter();
+        if (after != null) {
+            // 展开的行比较，MySQL 能以此在索引上直接定位
+            seek.append(" AND (create_time < ? OR (create_time = ? AND order_id < ?))");
+            Timestamp afterTime = Timestamp.valueOf(after.getCreateTime());
+            args.add(afterTime);
+            args.add(afterTime);
+            args.add(after.getOrderId());
+        }
+        // 多取一条用于判断是否还有下一页
+        seek.append(" ORDER BY create_time DESC, order_id DESC LIMIT ?");
+        args.add(query.getLimit() + 1);
+
+        String sql = "SELECT " + ChargingOrderRowMapper.COLUMNS + " FROM charging_order o"
+                + " JOIN (" + seek + ") page ON o.order_id = page.page_id"
+                + " ORDER BY o.create_time DESC, o.order_id DESC";
+        List<ChargingOrder> orders = jdbcTemplate.query(sql, ChargingOrderRowMapper.INSTANCE, args.toArray());
+
+        String nextCursor = null;
+        if (orders.size() > query.getLimit()) {
+            orders = new ArrayList<>(orders.subList(0, query.getLimit()));
+            ChargingOrder last = orders.get(orders.size() - 1);
+            nextCursor = new OrderHistoryCursor(last.getCreateTime(), last.getOrderId()).encode();
+        }
+        return new OrderHistoryPage(orders, nextCursor);
+    }
+}
@@ -0,0 +1,141 @@
+package com.charging.order.infrastructure.settlement;
+
+import com.charging.order.domain.outbox.OutboxIntent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地模拟结算网关
+ * Fake Settlement Gateway
+ *
+ * 没有配置真实渠道时使用：每批模拟一次调用耗时，按失败率随机拒绝条目，也可以指定拒绝某些订单；
+ * 按幂等键去重，重复提交的条目直接按成功返回、不重复计入金额。用于本地运行、测试与压测。
+ */
+@Slf4j
+public class FakeSettlementGateway implements SettlementGateway {
+
+    private final Duration latency;
+
+    private final double failureRate;
+
+    /**
+     * 已受理的幂等键
+     */
+    private final Set<String> accepted = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 指定拒绝的订单
+     */
+    private final Set<String> declined = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder duplicates = new LongAdder();
+
+    private final LongAdder refundedFen = new LongAdder();
+
+    private final LongAdder deductedFen = new LongAdder();
+
+    public FakeSettlementGateway(Duration latency, double failureRate) {
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("failureRate must be between 0 and 1: " + failureRate);
+        }
+        this.latency = latency;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public List<OutboxIntent> refund(List<OutboxIntent> refunds) {
+        return submit(refunds, refundedFen);
+    }
+
+    @Override
+    public List<OutboxIntent> deduct(List<OutboxIntent> deductions) {
+        return submit(deductions, deductedFen);
+    }
+
+    /**
+     * 拒绝该订单之后的结算条目，直到 {@link #accept(String)}
+     */
+    public void decline(String orderId) {
+        declined.add(orderId);
+    }
+
+    /**
+     * 恢复受理该订单的结算条目
+     */
+    public void accept(String orderId) {
+        declined.remove(orderId);
+    }
+
+    /**
+     * 批量调用次数
+     */
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * 受理的结算条目数（不含重复提交）
+     */
+    public int getAcceptedCount() {
+        return accepted.size();
+    }
+
+    /**
+     * 按幂等键识别出的重复提交数
+     */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    /**
+     * 累计退款金额（分）
+     */
+    public long getRefundedFen() {
+        return refundedFen.sum();
+    }
+
+    /**
+     * 累计扣款金额（分）
+     */
+    public long getDeductedFen() {
+        return deductedFen.sum();
+    }
+
+    private List<OutboxIntent> submit(List<OutboxIntent> items, LongAdder total) {
+        calls.increment();
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return items;
+            }
+        }
+        List<OutboxIntent> rejected = Collections.emptyList();
+        for (OutboxIntent item : items) {
+            if (declined.contains(item.getOrderId())
+                    || (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate)) {
+                if (rejected.isEmpty()) {
+                    rejected = new ArrayList<>();
+                }
+                rejected.add(item);
+            } else if (accepted.add(item.getIdempotencyKey())) {
+                total.add(item.getAmount().getFen());
+            } else {
+                duplicates.increment();
+                log.debug("Fake settlement gateway ignored duplicate {}", item.getIdempotencyKey());
+            }
+        }
+        return rejected;
+    }
+}
@@ -0,0 +1,30 @@
+package com.charging.order.infrastructure.settlement;
+
+import com.charging.order.domain.outbox.OutboxIntent;
+
+import java.util.List;
+
+/**
+ * 批量结算网关
+ * Settlement Gateway
+ *
+ * 对接支付渠道的批量退款与批量扣款接口。条目使用与发件箱相同的意图与幂等键（orderId:类型:关单后的版本号），
+ * 同一订单经接口单笔结算与经批量结算产生同一个幂等键，渠道据此去重，不会重复退款或扣款。
+ * 超时等结果不明的情况按失败返回，订单保持 COMPLETED，下一轮以同一幂等键重新提交。
+ */
+public interface SettlementGateway {
+
+    /**
+     * 批量退款（先付模式退还差价）
+     *
+     * @return 失败的条目（其余视为成功）；抛出异常表示整批失败
+     */
+    List<OutboxIntent> refund(List<OutboxIntent> refunds);
+
+    /**
+     * 批量扣款（后付模式按订单金额扣款）
+     *
+     * @return 失败的条目（其余视为成功）；抛出异常表示整批失败
+     */
+    List<OutboxIntent> deduct(List<OutboxIntent> deductions);
+}
@@ -0,0 +1,305 @@
+package com.charging.order.infrastructure.timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 分层时间轮
+ * Hierarchical Timing Wheel
+ *
+ * levels 层、每层 wheelSize 个槽：第 0 层每槽一个 tick，第 L 层每槽 wheelSize^L 个 tick。
+ * 定时器按剩余 tick 数放入能容纳它的最低一层；高层槽位在低层转满一圈时整体下沉（cascade），
+ * 超出最高层跨度的定时器先放在最高层，下沉时重新计算位置。
+ *
+ * 槽内是侵入式双向链表，插入、取消都是 O(1)；推进一个 tick 的代价与到期 / 下沉的定时器数成正比，
+ * 与定时器总数无关。时间轮只由 ticker 线程修改：其他线程的插入与取消经无锁队列交给 ticker 线程，
+ * 取消本身是一次 CAS，立即生效。到期任务在 ticker 线程上执行，必须很快返回（例如只提交到执行器）。
+ */
+@Slf4j
+public final class HierarchicalTimingWheel {
+
+    private static final int MAX_ADDITIONS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+
+    private final int wheelBits;
+
+    private final int levels;
+
+    private final long mask;
+
+    private final Bucket[][] buckets;
+
+    private final Queue<Timeout> additions = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> cancellations = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong expired = new AtomicLong();
+
+    private final String threadName;
+
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * 已处理到的 tick（仅 ticker 线程读写）
+     */
+    private long currentTick;
+
+    private volatile boolean running;
+
+    private Thread ticker;
+
+    /**
+     * @param tick       每个 tick 的时长，即定时精度
+     * @param wheelSize  每层槽数（2 的幂）
+     * @param levels     层数
+     * @param threadName ticker 线程名
+     */
+    public HierarchicalTimingWheel(long tick, TimeUnit unit, int wheelSize, int levels, String threadName) {
+        if (tick <= 0 || wheelSize < 2 || Integer.bitCount(wheelSize) != 1 || levels < 1
+                || Integer.numberOfTrailingZeros(wheelSize) * levels > 62) {
+            throw new IllegalArgumentException("Invalid timing wheel: tick=" + tick + " " + unit
+                    + ", wheelSize=" + wheelSize + ", levels=" + levels);
+        }
+        this.tickNanos = unit.toNanos(tick);
+        this.wheelBits = Integer.numberOfTrailingZeros(wheelSize);
+        this.levels = levels;
+        this.mask = wheelSize - 1;
+        this.threadName = threadName;
+        this.buckets = new Bucket[levels][wheelSize];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                buckets[level][slot] = new Bucket();
+            }
+        }
+    }
+
+    /**
+     * 启动 ticker 线程
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        running = true;
+        ticker = new Thread(this::run, threadName);
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * 停止 ticker 线程，未到期的定时器被丢弃
+     */
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (ticker != null) {
+            LockSupport.unpark(ticker);
+            ticker.join(TimeUnit.SECONDS.toMillis(5));
+            ticker = null;
+        }
+    }
+
+    /**
+     * 安排一个定时任务（任意线程）
+     *
+     * @param task  到期时在 ticker 线程上执行的任务
+     * @param delay 延迟
+     * @return 可取消的定时器
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long deadlineNanos = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        // 向上取整，保证不早于 delay 到期
+        return scheduleAtTick(task, (deadlineNanos + tickNanos - 1) / tickNanos);
+    }
+
+    /**
+     * 按 tick 编号安排定时任务
+     */
+    Timeout scheduleAtTick(Runnable task, long deadlineTick) {
+        Timeout timeout = new Timeout(this, task, deadlineTick);
+        pending.incrementAndGet();
+        additions.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 尚未到期且未取消的定时器数
+     */
+    public long getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * 已到期执行的定时器数
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    /**
+     * 推进到 targetTick（仅 ticker 线程，或未启动 ticker 时由测试直接调用）
+     */
+    void advanceTo(long targetTick) {
+        while (currentTick < targetTick) {
+            transferAdditions();
+            removeCancelled();
+            currentTick++;
+            cascade();
+            expire(buckets[0][(int) (currentTick & mask)]);
+        }
+        transferAdditions();
+        removeCancelled();
+    }
+
+    private void run() {
+        while (running) {
+            long elapsedTicks = (System.nanoTime() - startNanos) / tickNanos;
+            try {
+                advanceTo(elapsedTicks);
+            } catch (RuntimeException e) {
+                log.error("Timing wheel {} failed to advance", threadName, e);
+            }
+            long nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            LockSupport.parkNanos(this, nextTickNanos - System.nanoTime());
+        }
+    }
+
+    /**
+     * currentTick 跨过高层槽边界时，把该槽的定时器下沉到低层（自顶向下，保证多层同时下沉时也能落到正确位置）
+     */
+    private void cascade() {
+        for (int level = levels - 1; level >= 1; level--) {
+            int shift = wheelBits * level;
+            if ((currentTick & ((1L << shift) - 1)) == 0) {
+                Bucket bucket = buckets[level][(int) ((currentTick >>> shift) & mask)];
+                Timeout timeout;
+                while ((timeout = bucket.poll()) != null) {
+                    place(timeout);
+                }
+            }
+        }
+    }
+
+    private void place(Timeout timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            fire(timeout);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            int spanBits = wheelBits * (level + 1);
+            if (delta < (1L << spanBits)) {
+                buckets[level][(int) ((timeout.deadlineTick >>> (wheelBits * level)) & mask)].add(timeout);
+                return;
+            }
+        }
+        // 超出最高层跨度：先放在最高层最远的槽，下沉时重新定位
+        int top = levels - 1;
+        long farthest = currentTick + (1L << (wheelBits * levels)) - 1;
+        buckets[top][(int) ((farthest >>> (wheelBits * top)) & mask)].add(timeout);
+    }
+
+    private void expire(Bucket bucket) {
+        Timeout timeout;
+        while ((timeout = bucket.poll()) != null) {
+            if (timeout.deadlineTick <= currentTick) {
+                fire(timeout);
+            } else {
+                // 只会发生在超出最高层跨度、被临时放置的定时器
+                place(timeout);
+            }
+        }
+    }
+
+    private void fire(Timeout timeout) {
+        if (!timeout.expire()) {
+            return;
+        }
+        pending.decrementAndGet();
+        expired.incrementAndGet();
+        try {
+            timeout.task.run();
+        } catch (RuntimeException e) {
+            log.error("Timer task failed on {}", threadName, e);
+        }
+    }
+
+    private void transferAdditions() {
+        for (int i = 0; i < MAX_ADDITIONS_PER_TICK; i++) {
+            Timeout timeout = additions.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (!timeout.isCancelled()) {
+                place(timeout);
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancellations.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    void onCancelled(Timeout timeout) {
+        pending.decrementAndGet();
+        cancellations.add(timeout);
+    }
+
+    /**
+     * 槽：定时器的侵入式双向链表（仅 ticker 线程访问）
+     */
+    static final class Bucket {
+
+        private Timeout head;
+
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        Timeout poll() {
+            Timeout timeout = head;
+            if (timeout != null) {
+                remove(timeout);
+            }
+            return timeout;
+        }
+    }
+}
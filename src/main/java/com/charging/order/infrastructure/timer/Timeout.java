@@ -0,0 +1,69 @@
+package com.charging.order.infrastructure.timer;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 时间轮中的一个定时器
+ * Timeout
+ *
+ * cancel 可以在任意线程调用；到期与取消以 CAS 互斥，二者只会有一个成功。
+ */
+public final class Timeout {
+
+    private static final int PENDING = 0;
+
+    private static final int CANCELLED = 1;
+
+    private static final int EXPIRED = 2;
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    private final HierarchicalTimingWheel wheel;
+
+    final Runnable task;
+
+    final long deadlineTick;
+
+    private volatile int state = PENDING;
+
+    /**
+     * 以下字段只由 ticker 线程访问
+     */
+    HierarchicalTimingWheel.Bucket bucket;
+
+    Timeout prev;
+
+    Timeout next;
+
+    Timeout(HierarchicalTimingWheel wheel, Runnable task, long deadlineTick) {
+        this.wheel = wheel;
+        this.task = task;
+        this.deadlineTick = deadlineTick;
+    }
+
+    /**
+     * 取消定时器
+     *
+     * @return false 如果已经到期或已被取消
+     */
+    public boolean cancel() {
+        if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+            return false;
+        }
+        wheel.onCancelled(this);
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    public boolean isExpired() {
+        return state == EXPIRED;
+    }
+
+    boolean expire() {
+        return STATE.compareAndSet(this, PENDING, EXPIRED);
+    }
+}
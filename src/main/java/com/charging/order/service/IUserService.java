@@ -7,7 +7,23 @@ public interface IUserService extends IService<SysUser> {
 
     boolean login(String username,String password);
 
+    /**
+     * 校验用户名与密码
+     *
+     * @return 用户ID，校验失败或账号停用时返回 null
+     */
+    Long authenticate(String username, String password);
+
     boolean register(SysUser user);
 
+    /**
+     * 修改密码，并失效该用户缓存的登录凭据
+     */
+    boolean updatePassword(String username, String password);
+
+    /**
+     * 启用（1）或停用（0）账号，并失效该用户缓存的登录凭据
+     */
+    boolean updateStatus(String username, Integer status);
 
 }
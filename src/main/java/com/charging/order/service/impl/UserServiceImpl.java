@@ -1,36 +1,107 @@
 package com.charging.order.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.charging.order.entity.SysUser;
+import com.charging.order.infrastructure.bloom.UsernameBloomFilter;
+import com.charging.order.infrastructure.cache.CredentialCache;
+import com.charging.order.infrastructure.cache.UserCredential;
 import com.charging.order.mapper.UserMapper;
 import com.charging.order.service.IUserService;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Resource;
+
 @Service
 public class UserServiceImpl extends ServiceImpl<UserMapper, SysUser> implements IUserService {
+
+    @Resource
+    private CredentialCache credentialCache;
+
+    @Resource
+    private UsernameBloomFilter usernameFilter;
+
     @Override
     public boolean login(String username, String password) {
-        LambdaQueryWrapper<SysUser> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(SysUser::getUsername,username);
+        return authenticate(username, password) != null;
+    }
 
-        SysUser user = this.getOne(wrapper);
+    @Override
+    public Long authenticate(String username, String password) {
+        if(username == null || password == null){
+            return null;
+        }
+        UserCredential credential = credentialCache.get(username, this::loadCredential);
 
-        if(user == null){
-            return false;
+        if(credential == null || !credential.isEnabled() || !credential.matches(password)){
+            return null;
         }
-        return user.getPassword().equals(password);
+        return credential.getUserId();
     }
 
     @Override
     public boolean register(SysUser user) {
+        if(user.getUsername() == null){
+            return false;
+        }
+        // 过滤器判定一定未占用时跳过 count 查询；重复以唯一键 uk_sys_user_username 为准
+        if(usernameFilter.mightExist(user.getUsername())){
+            LambdaQueryWrapper<SysUser> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(SysUser::getUsername, user.getUsername());
+
+            long count = this.count(wrapper);
+            if(count > 0){
+                return false;
+            }
+        }
+
+        boolean saved;
+        try {
+            saved = this.save(user);
+        } catch (DuplicateKeyException e) {
+            saved = false;
+        }
+        usernameFilter.add(user.getUsername());
+        credentialCache.invalidate(user.getUsername());
+        return saved;
+    }
+
+    @Override
+    public boolean updatePassword(String username, String password) {
+        LambdaUpdateWrapper<SysUser> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.eq(SysUser::getUsername, username)
+                .set(SysUser::getPassword, password);
+
+        boolean updated = this.update(wrapper);
+        credentialCache.invalidate(username);
+        return updated;
+    }
+
+    @Override
+    public boolean updateStatus(String username, Integer status) {
+        LambdaUpdateWrapper<SysUser> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.eq(SysUser::getUsername, username)
+                .set(SysUser::getStatus, status);
+
+        boolean updated = this.update(wrapper);
+        credentialCache.invalidate(username);
+        return updated;
+    }
+
+    /**
+     * 只查询登录需要的列
+     */
+    private UserCredential loadCredential(String username) {
         LambdaQueryWrapper<SysUser> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(SysUser::getUsername, user.getUsername());
+        wrapper.select(SysUser::getId, SysUser::getUsername, SysUser::getPassword, SysUser::getStatus)
+                .eq(SysUser::getUsername, username);
 
-        long count = this.count(wrapper);
-        if(count > 0){
-            return false;
+        SysUser user = this.getOne(wrapper);
+        if(user == null){
+            return null;
         }
-        return this.save(user);
+        return UserCredential.of(user.getId(), user.getUsername(), user.getPassword(), user.getStatus());
     }
 }
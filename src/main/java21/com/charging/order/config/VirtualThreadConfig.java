@@ -0,0 +1,39 @@
+package com.charging.order.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程执行模式（仅 -Pjava21 构建包含此类）
+ * Virtual Thread Config
+ *
+ * Tomcat 每个请求一个虚拟线程，请求中阻塞的 JDBC / Redis 调用只挂起虚拟线程，不占用载体线程；
+ * 应用任务执行器（@Async、MVC 异步请求）同样改为每任务一个虚拟线程。
+ * 设置 charging.virtual-threads.enabled=false 可在同一构建中退回平台线程池，便于对比。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "charging.virtual-threads", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Tomcat requests run on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
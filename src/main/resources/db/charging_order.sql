@@ -0,0 +1,24 @@
+-- 充电订单表（MySQL；测试中以 H2 MySQL 模式执行）
+-- 历史查询按 (create_time, order_id) 倒序键集分页：两个二级索引覆盖分页定位所需的全部列（含 state 过滤），
+-- 只有当前页的订单回表读取。已有的表可执行：
+--   ALTER TABLE charging_order
+--       ADD KEY idx_charging_order_user_history (user_id, create_time, order_id, state),
+--       ADD KEY idx_charging_order_pile_history (charging_pile_id, create_time, order_id, state);
+CREATE TABLE IF NOT EXISTS charging_order (
+    order_id         VARCHAR(64)    NOT NULL,
+    user_id          VARCHAR(64)    NOT NULL,
+    charging_pile_id VARCHAR(64)    NOT NULL,
+    state            VARCHAR(16)    NOT NULL,
+    payment_type     VARCHAR(16)    NOT NULL,
+    charging_amount  DECIMAL(12, 3),
+    order_amount     DECIMAL(12, 2),
+    prepaid_amount   DECIMAL(12, 2),
+    actual_amount    DECIMAL(12, 2),
+    refund_amount    DECIMAL(12, 2),
+    version          BIGINT         NOT NULL,
+    create_time      DATETIME(3)    NOT NULL,
+    update_time      DATETIME(3)    NOT NULL,
+    PRIMARY KEY (order_id),
+    KEY idx_charging_order_user_history (user_id, create_time, order_id, state),
+    KEY idx_charging_order_pile_history (charging_pile_id, create_time, order_id, state)
+);
@@ -0,0 +1,17 @@
+-- 用户表（MySQL）
+-- 用户名唯一键是判断重复注册的依据，注册时的布隆过滤器与 count 查询只是快速路径。已有的表可执行：
+--   ALTER TABLE sys_user ADD UNIQUE KEY uk_sys_user_username (username);
+CREATE TABLE IF NOT EXISTS sys_user (
+    id          BIGINT        NOT NULL AUTO_INCREMENT,
+    username    VARCHAR(64)   NOT NULL,
+    password    VARCHAR(128)  NOT NULL,
+    nickname    VARCHAR(64),
+    email       VARCHAR(128),
+    phone       VARCHAR(32),
+    avatar      VARCHAR(255),
+    status      TINYINT       NOT NULL DEFAULT 1,
+    create_time DATETIME,
+    update_time DATETIME,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_sys_user_username (username)
+);
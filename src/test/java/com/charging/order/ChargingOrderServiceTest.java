@@ -1,14 +1,21 @@
 package com.charging.order;
 
+import com.charging.order.app.exception.OrderVersionConflictException;
 import com.charging.order.app.service.ChargingOrderService;
 import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
 import com.charging.order.domain.model.OrderState;
 import com.charging.order.domain.model.PaymentType;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,9 +46,9 @@ class ChargingOrderServiceTest {
         assertEquals(PaymentType.PRE_PAID, order.getPaymentType());
 
         // 2. 支付（预付100元）
-        order = chargingOrderService.pay(order, new BigDecimal("100.00"));
+        order = chargingOrderService.pay(order, Money.of("100.00"));
         assertEquals(OrderState.PAID, order.getState());
-        assertEquals(new BigDecimal("100.00"), order.getPrepaidAmount());
+        assertEquals(Money.of("100.00"), order.getPrepaidAmount());
 
         // 3. 开始充电
         order = chargingOrderService.startCharging(order);
@@ -49,15 +56,15 @@ class ChargingOrderServiceTest {
 
         // 4. 完成充电（实际充了50.5度电，花费60元）
         order = chargingOrderService.finishCharging(order,
-                new BigDecimal("50.5"), new BigDecimal("60.00"));
+                Energy.of("50.5"), Money.of("60.00"));
         assertEquals(OrderState.COMPLETED, order.getState());
-        assertEquals(new BigDecimal("50.5"), order.getChargingAmount());
-        assertEquals(new BigDecimal("60.00"), order.getOrderAmount());
+        assertEquals(Energy.of("50.5"), order.getChargingAmount());
+        assertEquals(Money.of("60.00"), order.getOrderAmount());
 
         // 5. 结算退款（应该退40元）
         order = chargingOrderService.settle(order);
         assertEquals(OrderState.CLOSED, order.getState());
-        assertEquals(new BigDecimal("40.00"), order.getRefundAmount());
+        assertEquals(Money.of("40.00"), order.getRefundAmount());
     }
 
     /**
@@ -84,15 +91,15 @@ class ChargingOrderServiceTest {
 
         // 4. 完成充电（充了45.8度电，花费55元）
         order = chargingOrderService.finishCharging(order,
-                new BigDecimal("45.8"), new BigDecimal("55.00"));
+                Energy.of("45.8"), Money.of("55.00"));
         assertEquals(OrderState.COMPLETED, order.getState());
-        assertEquals(new BigDecimal("45.8"), order.getChargingAmount());
-        assertEquals(new BigDecimal("55.00"), order.getOrderAmount());
+        assertEquals(Energy.of("45.8"), order.getChargingAmount());
+        assertEquals(Money.of("55.00"), order.getOrderAmount());
 
         // 5. 扣款（实际扣款55元）
         order = chargingOrderService.deduct(order);
         assertEquals(OrderState.CLOSED, order.getState());
-        assertEquals(new BigDecimal("55.00"), order.getActualAmount());
+        assertEquals(Money.of("55.00"), order.getActualAmount());
     }
 
     /**
@@ -151,7 +158,112 @@ class ChargingOrderServiceTest {
 
         // 4. 尝试对后付订单调用先付方法 - 应该抛出异常
         assertThrows(IllegalStateException.class, () -> {
-            chargingOrderService.pay(postPaidOrder, new BigDecimal("100.00"));
+            chargingOrderService.pay(postPaidOrder, Money.of("100.00"));
         });
     }
+
+    /**
+     * 测试按订单ID执行迁移
+     * 
+     * 验证：迁移作用于仓储中的订单，写入成功后版本号加一
+     */
+    @Test
+    void testUpdateOrderByIdBumpsVersion() {
+        ChargingOrder order = chargingOrderService.createOrder(
+                "user901", "pile902", PaymentType.PRE_PAID);
+        assertEquals(0L, chargingOrderService.getOrder(order.getOrderId()).getVersion());
+
+        ChargingOrder paid = chargingOrderService.updateOrder(order.getOrderId(), null,
+                o -> chargingOrderService.pay(o, Money.of("100.00")));
+        assertEquals(OrderState.PAID, paid.getState());
+        assertEquals(1L, paid.getVersion());
+        assertEquals(OrderState.PAID, chargingOrderService.getOrder(order.getOrderId()).getState());
+    }
+
+    /**
+     * 测试期望版本不一致时拒绝迁移
+     */
+    @Test
+    void testStaleVersionIsRejected() {
+        ChargingOrder order = chargingOrderService.createOrder(
+                "user903", "pile904", PaymentType.POST_PAID);
+        chargingOrderService.updateOrder(order.getOrderId(), 0L, chargingOrderService::authorize);
+
+        assertThrows(OrderVersionConflictException.class, () ->
+                chargingOrderService.updateOrder(order.getOrderId(), 0L, chargingOrderService::startCharging));
+        assertEquals(OrderState.AUTHORIZED, chargingOrderService.getOrder(order.getOrderId()).getState());
+    }
+
+    /**
+     * 测试迁移返回的是副本：修改返回对象不会改动已提交的订单
+     */
+    @Test
+    void testUpdatedOrderIsACopy() {
+        ChargingOrder order = chargingOrderService.createOrder(
+                "user909", "pile910", PaymentType.POST_PAID);
+        ChargingOrder authorized = chargingOrderService.updateOrder(
+                order.getOrderId(), null, chargingOrderService::authorize);
+
+        authorized.setState(OrderState.CLOSED);
+        authorized.setOrderAmount(Money.of("1.00"));
+
+        ChargingOrder stored = chargingOrderService.getOrder(order.getOrderId());
+        assertEquals(OrderState.AUTHORIZED, stored.getState());
+        assertEquals(Money.ZERO, stored.getOrderAmount());
+        assertEquals(1, stored.getVersion());
+    }
+
+    /**
+     * 测试当前状态不接受的事件被拒绝
+     */
+    @Test
+    void testInvalidTransitionIsRejected() {
+        ChargingOrder order = chargingOrderService.createOrder(
+                "user905", "pile906", PaymentType.PRE_PAID);
+
+        assertThrows(IllegalStateException.class, () ->
+                chargingOrderService.updateOrder(order.getOrderId(), null, chargingOrderService::settle));
+        assertEquals(OrderState.CREATED, chargingOrderService.getOrder(order.getOrderId()).getState());
+    }
+
+    /**
+     * 测试并发迁移同一订单
+     * 
+     * 验证：多个请求同时开始充电，只有一个成功，其余被拒绝
+     */
+    @Test
+    void testConcurrentTransitionsOnlyOneSucceeds() throws InterruptedException {
+        ChargingOrder order = chargingOrderService.createOrder(
+                "user907", "pile908", PaymentType.POST_PAID);
+        String orderId = order.getOrderId();
+        chargingOrderService.updateOrder(orderId, null, chargingOrderService::authorize);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    chargingOrderService.updateOrder(orderId, null, chargingOrderService::startCharging);
+                    succeeded.incrementAndGet();
+                } catch (IllegalStateException | OrderVersionConflictException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, succeeded.get());
+        assertEquals(threads - 1, rejected.get());
+        ChargingOrder stored = chargingOrderService.getOrder(orderId);
+        assertEquals(OrderState.CHARGING, stored.getState());
+        assertEquals(2L, stored.getVersion());
+    }
 }
@@ -0,0 +1,98 @@
+package com.charging.order;
+
+import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.app.service.MeterReadingService;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 电表读数上报测试
+ * Meter Reading Service Test
+ */
+@SpringBootTest(properties = "charging.meter.flush-interval=10m")
+class MeterReadingServiceTest {
+
+    @Autowired
+    private ChargingOrderService chargingOrderService;
+
+    @Autowired
+    private MeterReadingService meterReadingService;
+
+    /**
+     * 一个间隔内的多次上报合并为一次写入，只保留最大读数
+     */
+    @Test
+    void testReadingsAreCoalesced() {
+        String orderId = chargingOrder("pile-meter-coalesced");
+        long version = chargingOrderService.getOrder(orderId).getVersion();
+
+        meterReadingService.submit(orderId, Energy.of("1.2"));
+        meterReadingService.submit(orderId, Energy.of("3.4"));
+        meterReadingService.submit(orderId, Energy.of("2.0"));
+        assertEquals(1, meterReadingService.getPendingCount());
+
+        meterReadingService.flush();
+
+        ChargingOrder order = chargingOrderService.getOrder(orderId);
+        assertEquals(Energy.of("3.4"), order.getChargingAmount());
+        assertEquals(OrderState.CHARGING, order.getState());
+        assertEquals(version + 1, order.getVersion());
+        assertEquals(0, meterReadingService.getPendingCount());
+    }
+
+    /**
+     * 读数只增不减，较小的读数不产生写入
+     */
+    @Test
+    void testReadingsAreMonotonic() {
+        String orderId = chargingOrder("pile-meter-monotonic");
+        meterReadingService.submit(orderId, Energy.of("5.0"));
+        meterReadingService.flush();
+        long version = chargingOrderService.getOrder(orderId).getVersion();
+
+        meterReadingService.submit(orderId, Energy.of("4.0"));
+        meterReadingService.flush();
+
+        ChargingOrder order = chargingOrderService.getOrder(orderId);
+        assertEquals(Energy.of("5.0"), order.getChargingAmount());
+        assertEquals(version, order.getVersion());
+    }
+
+    /**
+     * 非 CHARGING 状态的订单忽略读数
+     */
+    @Test
+    void testReadingsOutsideChargingAreIgnored() {
+        ChargingOrder order = chargingOrderService.createOrder("user-1", "pile-1", PaymentType.POST_PAID);
+        meterReadingService.submit(order.getOrderId(), Energy.of("1.0"));
+        meterReadingService.submit("missing-order", Energy.of("1.0"));
+        meterReadingService.flush();
+
+        ChargingOrder stored = chargingOrderService.getOrder(order.getOrderId());
+        assertEquals(Energy.ZERO, stored.getChargingAmount());
+        assertEquals(0, stored.getVersion());
+    }
+
+    @Test
+    void testNegativeReadingIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> meterReadingService.submit("order-1", Energy.of("-1")));
+    }
+
+    /**
+     * 在独立的充电桩上开始充电：用例共享同一个上下文，充电桩占用在用例之间保留
+     */
+    private String chargingOrder(String chargingPileId) {
+        ChargingOrder order = chargingOrderService.createOrder("user-1", chargingPileId, PaymentType.POST_PAID);
+        chargingOrderService.updateOrder(order.getOrderId(), null, chargingOrderService::authorize);
+        chargingOrderService.updateOrder(order.getOrderId(), null, chargingOrderService::startCharging);
+        return order.getOrderId();
+    }
+}
@@ -0,0 +1,73 @@
+package com.charging.order;
+
+import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.app.service.OrderTimeoutService;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单超时测试
+ * Order Timeout Service Test
+ */
+@SpringBootTest(properties = {
+        "charging.timeout.enabled=true",
+        "charging.timeout.tick=10ms",
+        "charging.timeout.rules.CREATED.timeout=300ms",
+        "charging.timeout.rules.CREATED.event=CANCEL_ORDER"
+})
+class OrderTimeoutServiceTest {
+
+    @Autowired
+    private ChargingOrderService chargingOrderService;
+
+    @Autowired
+    private OrderTimeoutService orderTimeoutService;
+
+    /**
+     * 停留在 CREATED 超时的订单经状态机取消
+     */
+    @Test
+    void testCreatedOrderIsCancelledOnTimeout() throws InterruptedException {
+        String orderId = chargingOrderService.createOrder("user-timeout", "pile-timeout", PaymentType.PRE_PAID)
+                .getOrderId();
+        assertEquals(OrderState.CREATED, chargingOrderService.getOrder(orderId).getState());
+
+        assertEquals(OrderState.CANCELLED, awaitState(orderId, OrderState.CANCELLED));
+    }
+
+    /**
+     * 超时前迁移到没有超时规则的状态，旧定时器被取消
+     */
+    @Test
+    void testTransitionDisarmsTimeout() throws InterruptedException {
+        long firedBefore = orderTimeoutService.getFiredCount();
+        String orderId = chargingOrderService.createOrder("user-timeout", "pile-timeout", PaymentType.PRE_PAID)
+                .getOrderId();
+        chargingOrderService.updateOrder(orderId, null,
+                order -> chargingOrderService.pay(order, Money.of("100.00")));
+
+        TimeUnit.MILLISECONDS.sleep(600);
+
+        assertEquals(OrderState.PAID, chargingOrderService.getOrder(orderId).getState());
+        assertEquals(firedBefore, orderTimeoutService.getFiredCount());
+    }
+
+    private OrderState awaitState(String orderId, OrderState expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ChargingOrder order;
+        do {
+            TimeUnit.MILLISECONDS.sleep(20);
+            order = chargingOrderService.getOrder(orderId);
+        } while (order.getState() != expected && System.nanoTime() < deadline);
+        return order.getState();
+    }
+}
@@ -0,0 +1,91 @@
+package com.charging.order.adapter.web;
+
+import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 批量迁移接口测试
+ * Charging Order Batch Controller Test
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChargingOrderBatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ChargingOrderService chargingOrderService;
+
+    /**
+     * 每条指令独立执行，失败的条目不影响其他条目
+     */
+    @Test
+    void testItemsSucceedOrFailIndependently() throws Exception {
+        ChargingOrder prePaid = chargingOrderService.createOrder("user-1", "pile-1", PaymentType.PRE_PAID);
+        ChargingOrder postPaid = chargingOrderService.createOrder("user-2", "pile-2", PaymentType.POST_PAID);
+
+        String body = "["
+                + "{\"orderId\":\"" + prePaid.getOrderId() + "\",\"event\":\"PAY\",\"prepaidAmount\":100.00},"
+                + "{\"orderId\":\"" + prePaid.getOrderId() + "\",\"event\":\"START_CHARGING\"},"
+                + "{\"orderId\":\"" + postPaid.getOrderId() + "\",\"event\":\"PAY\",\"prepaidAmount\":100.00},"
+                + "{\"orderId\":\"missing\",\"event\":\"CANCEL_ORDER\"},"
+                + "{\"orderId\":\"" + postPaid.getOrderId() + "\",\"event\":\"NO_SUCH_EVENT\"},"
+                + "{\"orderId\":\"" + postPaid.getOrderId() + "\",\"event\":\"AUTHORIZE\",\"version\":0}"
+                + "]";
+
+        mockMvc.perform(post("/api/orders/batch/transitions").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(6))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[0].order.state").value("PAID"))
+                .andExpect(jsonPath("$.results[1].order.state").value("CHARGING"))
+                .andExpect(jsonPath("$.results[2].error.code").value("INVALID_TRANSITION"))
+                .andExpect(jsonPath("$.results[3].error.code").value("ORDER_NOT_FOUND"))
+                .andExpect(jsonPath("$.results[4].error.code").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.results[5].order.state").value("AUTHORIZED"))
+                .andExpect(jsonPath("$.succeeded").value(3))
+                .andExpect(jsonPath("$.failed").value(3));
+
+        assertEquals(OrderState.CHARGING, chargingOrderService.getOrder(prePaid.getOrderId()).getState());
+        assertEquals(OrderState.AUTHORIZED, chargingOrderService.getOrder(postPaid.getOrderId()).getState());
+    }
+
+    /**
+     * 请求体不是数组时整体拒绝
+     */
+    @Test
+    void testNonArrayBodyIsRejected() throws Exception {
+        mockMvc.perform(post("/api/orders/batch/transitions").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+    }
+
+    /**
+     * 中途出现语法错误时保留已处理的结果并附加错误
+     */
+    @Test
+    void testTruncatedBodyKeepsProcessedResults() throws Exception {
+        ChargingOrder order = chargingOrderService.createOrder("user-3", "pile-3", PaymentType.POST_PAID);
+        String body = "[{\"orderId\":\"" + order.getOrderId() + "\",\"event\":\"AUTHORIZE\"},{\"orderId\":";
+
+        mockMvc.perform(post("/api/orders/batch/transitions").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(1))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.error.code").value("BAD_REQUEST"));
+    }
+}
@@ -0,0 +1,243 @@
+package com.charging.order.adapter.web;
+
+import com.charging.order.config.IdempotencyProperties;
+import com.charging.order.infrastructure.cache.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 幂等键过滤器测试
+ * Idempotency Filter Test
+ */
+class IdempotencyFilterTest {
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotencyProperties properties;
+
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        properties.setWaitTimeout(Duration.ofSeconds(5));
+        filter = new IdempotencyFilter(new IdempotencyStore(properties, (StringRedisTemplate) null, new ObjectMapper()),
+                properties, new ObjectMapper());
+    }
+
+    /**
+     * 重复请求回放第一次的响应，不再执行
+     */
+    @Test
+    void testRetryReplaysStoredResponse() throws Exception {
+        MockHttpServletResponse first = perform(request("key-1", "100.00"), okChain());
+        MockHttpServletResponse retry = perform(request("key-1", "100.00"), okChain());
+
+        assertEquals(1, executions.get());
+        assertEquals(200, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    /**
+     * 业务错误（4xx）同样被回放，避免重试时按新的状态重新判断
+     */
+    @Test
+    void testClientErrorIsReplayed() throws Exception {
+        perform(request("key-1", "100.00"), errorChain(409, ChargingOrderExceptionHandler.INVALID_TRANSITION));
+        MockHttpServletResponse retry = perform(request("key-1", "100.00"), okChain());
+
+        assertEquals(1, executions.get());
+        assertEquals(409, retry.getStatus());
+        assertTrue(retry.getContentAsString().contains(ChargingOrderExceptionHandler.INVALID_TRANSITION));
+
+        perform(request("key-2", "100.00"), errorChain(404, ChargingOrderExceptionHandler.ORDER_NOT_FOUND));
+        assertEquals(404, perform(request("key-2", "100.00"), okChain()).getStatus());
+        assertEquals(2, executions.get());
+    }
+
+    /**
+     * 并发竞争导致的 409 与限流类错误不缓存，重试重新执行
+     */
+    @Test
+    void testTransientErrorsAreNotStored() throws Exception {
+        perform(request("key-1", "100.00"), errorChain(409, ChargingOrderExceptionHandler.VERSION_CONFLICT));
+        MockHttpServletResponse retry = perform(request("key-1", "100.00"), okChain());
+        assertEquals(200, retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+
+        perform(request("key-2", "100.00"), errorChain(409, ChargingOrderExceptionHandler.PILE_OCCUPIED));
+        assertEquals(200, perform(request("key-2", "100.00"), okChain()).getStatus());
+
+        perform(request("key-3", "100.00"), errorChain(429, "TOO_MANY_REQUESTS"));
+        assertEquals(200, perform(request("key-3", "100.00"), okChain()).getStatus());
+
+        assertEquals(6, executions.get());
+    }
+
+    /**
+     * 服务端错误不缓存，重试重新执行
+     */
+    @Test
+    void testServerErrorIsNotStored() throws Exception {
+        FilterChain failing = (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(503);
+        };
+        perform(request("key-1", "100.00"), failing);
+        MockHttpServletResponse retry = perform(request("key-1", "100.00"), okChain());
+
+        assertEquals(2, executions.get());
+        assertEquals(200, retry.getStatus());
+    }
+
+    /**
+     * 同一个键用于不同的参数返回 422，不同的键互不影响
+     */
+    @Test
+    void testKeyReuseWithDifferentParametersIsRejected() throws Exception {
+        perform(request("key-1", "100.00"), okChain());
+        MockHttpServletResponse reused = perform(request("key-1", "50.00"), okChain());
+        perform(request("key-2", "50.00"), okChain());
+
+        assertEquals(422, reused.getStatus());
+        assertTrue(reused.getContentAsString().contains(IdempotencyFilter.IDEMPOTENCY_KEY_REUSED));
+        assertEquals(2, executions.get());
+    }
+
+    /**
+     * 没有幂等键或不是 POST 的请求直接放行
+     */
+    @Test
+    void testRequestsWithoutKeyAreNotCached() throws Exception {
+        perform(request(null, "100.00"), okChain());
+        perform(request(null, "100.00"), okChain());
+
+        assertEquals(2, executions.get());
+    }
+
+    /**
+     * 原请求执行中时，并发的重复请求等待并共享其结果
+     */
+    @Test
+    void testConcurrentDuplicatesWaitForOriginal() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (req, res) -> {
+            executions.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            res.getOutputStream().write("{\"state\":\"PAID\"}".getBytes(StandardCharsets.UTF_8));
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<MockHttpServletResponse> original = executor.submit(() -> perform(request("key-1", "100.00"), slow));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            @SuppressWarnings("unchecked")
+            Future<MockHttpServletResponse>[] duplicates = new Future[3];
+            for (int i = 0; i < duplicates.length; i++) {
+                duplicates[i] = executor.submit(() -> perform(request("key-1", "100.00"), slow));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals("{\"state\":\"PAID\"}", original.get(5, TimeUnit.SECONDS).getContentAsString());
+            for (Future<MockHttpServletResponse> duplicate : duplicates) {
+                MockHttpServletResponse response = duplicate.get(5, TimeUnit.SECONDS);
+                assertEquals(200, response.getStatus());
+                assertEquals("{\"state\":\"PAID\"}", response.getContentAsString());
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 等待超时的重复请求返回 409
+     */
+    @Test
+    void testDuplicateTimesOutWhileOriginalRuns() throws Exception {
+        properties.setWaitTimeout(Duration.ofMillis(50));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (req, res) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> original = executor.submit(() -> perform(request("key-1", "100.00"), slow));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            MockHttpServletResponse duplicate = perform(request("key-1", "100.00"), okChain());
+            release.countDown();
+            original.get(5, TimeUnit.SECONDS);
+
+            assertEquals(409, duplicate.getStatus());
+            assertTrue(duplicate.getContentAsString().contains(IdempotencyFilter.IDEMPOTENCY_IN_PROGRESS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FilterChain okChain() {
+        return (req, res) -> {
+            int execution = executions.incrementAndGet();
+            res.setContentType("application/json");
+            res.getOutputStream().write(("{\"execution\":" + execution + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private FilterChain errorChain(int status, String code) {
+        return (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(status);
+            res.getOutputStream().write(("{\"code\":\"" + code + "\"}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String idempotencyKey, String prepaidAmount) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders/order-1/pay");
+        request.addParameter("prepaidAmount", prepaidAmount);
+        if (idempotencyKey != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        }
+        return request;
+    }
+}
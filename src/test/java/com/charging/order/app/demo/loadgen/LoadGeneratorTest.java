@@ -0,0 +1,117 @@
+package com.charging.order.app.demo.loadgen;
+
+import com.charging.order.app.service.TransitionCommand;
+import com.charging.order.config.LoadGeneratorProperties;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 合成负载生成器测试
+ * Load Generator Test
+ */
+class LoadGeneratorTest {
+
+    /**
+     * 会话按合法顺序发送事件，失败会话的非法事件被记为拒绝，报告覆盖所有执行过的操作
+     */
+    @Test
+    void testMixedSessions() throws Exception {
+        LoadGeneratorProperties properties = new LoadGeneratorProperties();
+        properties.setPiles(4);
+        properties.setUsers(10);
+        properties.setDuration(Duration.ofMillis(300));
+        properties.setCancelRatio(0.2);
+        properties.setFailureRatio(0.2);
+        StateTrackingTarget target = new StateTrackingTarget();
+
+        LoadReport report = new LoadGenerator(properties, target).run();
+
+        assertEquals(0, report.getErroredSessions(), report.format());
+        assertTrue(report.getCompletedSessions() > 0);
+        assertTrue(report.getCancelledSessions() > 0);
+        assertTrue(report.getFailedSessions() > 0);
+
+        long sessions = report.getCompletedSessions() + report.getCancelledSessions() + report.getFailedSessions();
+        assertEquals(sessions, report.operation("CREATE").getCount());
+        assertEquals(report.getFailedSessions(), report.operation("START_CHARGING").getRejected());
+        assertEquals(report.getCancelledSessions() + report.getFailedSessions(),
+                report.operation("CANCEL_ORDER").getCount());
+        assertEquals(report.getCompletedSessions(),
+                report.operation("SETTLE").getCount() + report.operation("DEDUCT").getCount());
+        assertTrue(report.operation("PAY").getP99Micros() >= report.operation("PAY").getP50Micros());
+        assertTrue(report.format().contains("FINISH_CHARGING"));
+    }
+
+    /**
+     * 按订单状态校验事件顺序的压测对象
+     */
+    private static final class StateTrackingTarget implements LoadTarget {
+
+        private static final Money MAX_AMOUNT = Money.of("100.00");
+
+        private final AtomicLong ids = new AtomicLong();
+
+        private final Map<String, OrderState> states = new ConcurrentHashMap<>();
+
+        private final Map<String, PaymentType> paymentTypes = new ConcurrentHashMap<>();
+
+        @Override
+        public String createOrder(String userId, String chargingPileId, PaymentType paymentType) {
+            String orderId = "order-" + ids.incrementAndGet();
+            states.put(orderId, OrderState.CREATED);
+            paymentTypes.put(orderId, paymentType);
+            return orderId;
+        }
+
+        @Override
+        public void execute(TransitionCommand command) {
+            String orderId = command.getOrderId();
+            boolean prePaid = paymentTypes.get(orderId) == PaymentType.PRE_PAID;
+            OrderState state = states.get(orderId);
+            OrderState next = next(state, command.getEvent(), prePaid);
+            if (next == null) {
+                throw new IllegalStateException("Order " + orderId + " cannot handle " + command.getEvent());
+            }
+            // 参数错误记为意外错误，会话计入 erroredSessions
+            if (command.getEvent() == OrderEvent.PAY && command.getPrepaidAmount() == null) {
+                throw new IllegalArgumentException("Missing prepaidAmount");
+            }
+            if (command.getEvent() == OrderEvent.FINISH_CHARGING
+                    && (command.getChargingAmount() == null || command.getOrderAmount().compareTo(MAX_AMOUNT) > 0)) {
+                throw new IllegalArgumentException("Invalid charging amounts");
+            }
+            states.put(orderId, next);
+        }
+
+        private static OrderState next(OrderState state, OrderEvent event, boolean prePaid) {
+            switch (event) {
+                case PAY:
+                    return prePaid && state == OrderState.CREATED ? OrderState.PAID : null;
+                case AUTHORIZE:
+                    return !prePaid && state == OrderState.CREATED ? OrderState.AUTHORIZED : null;
+                case START_CHARGING:
+                    return state == OrderState.PAID || state == OrderState.AUTHORIZED ? OrderState.CHARGING : null;
+                case FINISH_CHARGING:
+                    return state == OrderState.CHARGING ? OrderState.COMPLETED : null;
+                case SETTLE:
+                    return prePaid && state == OrderState.COMPLETED ? OrderState.CLOSED : null;
+                case DEDUCT:
+                    return !prePaid && state == OrderState.COMPLETED ? OrderState.CLOSED : null;
+                case CANCEL_ORDER:
+                    return state == OrderState.CREATED ? OrderState.CANCELLED : null;
+                default:
+                    return null;
+            }
+        }
+    }
+}
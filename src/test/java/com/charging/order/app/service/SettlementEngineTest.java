@@ -0,0 +1,278 @@
+package com.charging.order.app.service;
+
+import com.charging.order.config.SettlementProperties;
+import com.charging.order.config.StateMachineProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.outbox.IntentRecorder;
+import com.charging.order.domain.outbox.IntentType;
+import com.charging.order.domain.outbox.OutboxIntent;
+import com.charging.order.domain.statemachine.TransitionEngineType;
+import com.charging.order.domain.strategy.PaymentStrategyFactory;
+import com.charging.order.domain.strategy.PostPaidStrategy;
+import com.charging.order.domain.strategy.PrePaidStrategy;
+import com.charging.order.infrastructure.id.OrderIdGenerator;
+import com.charging.order.infrastructure.metrics.OrderMetrics;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import com.charging.order.infrastructure.persistence.OrderChangeListener;
+import com.charging.order.infrastructure.settlement.FakeSettlementGateway;
+import com.charging.order.infrastructure.settlement.SettlementGateway;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量结算引擎测试
+ * Settlement Engine Test
+ *
+ * 手工装配服务与仓储；使用预编译迁移表引擎，不在 COLA 的全局注册表中重复注册状态机。
+ * 仓储上挂一个监听器收集随写入提交的发件箱意图。
+ */
+class SettlementEngineTest {
+
+    private final List<OutboxIntent> committedIntents = Collections.synchronizedList(new ArrayList<>());
+
+    private ChargingOrderService chargingOrderService;
+
+    private ChargingOrderRepository orderRepository;
+
+    private FakeSettlementGateway gateway;
+
+    private SettlementEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        StateMachineProperties stateMachineProperties = new StateMachineProperties();
+        for (PaymentType paymentType : PaymentType.values()) {
+            stateMachineProperties.getEngines().put(paymentType, TransitionEngineType.TABLE);
+        }
+        PaymentStrategyFactory strategyFactory = new PaymentStrategyFactory(
+                Arrays.asList(new PrePaidStrategy(), new PostPaidStrategy()), stateMachineProperties);
+        orderRepository = new ChargingOrderRepository(Collections.singletonList(new OrderChangeListener() {
+            @Override
+            public void onSaved(ChargingOrder order) {
+            }
+
+            @Override
+            public void onUpdated(ChargingOrder previous, ChargingOrder updated, OrderEvent event) {
+                committedIntents.addAll(IntentRecorder.staged());
+            }
+
+            @Override
+            public void onDeleted(String orderId) {
+            }
+        }), null);
+        chargingOrderService = new ChargingOrderService(strategyFactory, orderRepository, new OrderIdGenerator(0),
+                new OrderMetrics(new SimpleMeterRegistry()));
+        gateway = new FakeSettlementGateway(Duration.ZERO, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    /**
+     * 按支付类型分批退款、扣款后经状态机关单；未完成的订单不受影响，关单不再产生退款 / 扣款意图
+     */
+    @Test
+    void testCompletedOrdersAreSettledInBatchesAndClosed() {
+        engine = new SettlementEngine(properties(3), chargingOrderService, orderRepository, gateway);
+        List<String> prePaid = new ArrayList<>();
+        List<String> postPaid = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            prePaid.add(completed(PaymentType.PRE_PAID, "100.00", "60.00"));
+            postPaid.add(completed(PaymentType.POST_PAID, null, "25.50"));
+        }
+        String charging = chargingOrderService.createOrder("user-x", "pile-x", PaymentType.POST_PAID).getOrderId();
+        committedIntents.clear();
+
+        SettlementReport report = engine.runOnce();
+
+        assertEquals(5, report.getRefunded());
+        assertEquals(5, report.getDeducted());
+        assertEquals(0, report.getFailed());
+        assertEquals(4, report.getGatewayCalls());
+        assertEquals(5 * 4000, gateway.getRefundedFen());
+        assertEquals(5 * 2550, gateway.getDeductedFen());
+        for (String orderId : prePaid) {
+            ChargingOrder order = chargingOrderService.getOrder(orderId);
+            assertEquals(OrderState.CLOSED, order.getState());
+            assertEquals(Money.of("40.00"), order.getRefundAmount());
+        }
+        for (String orderId : postPaid) {
+            assertEquals(OrderState.CLOSED, chargingOrderService.getOrder(orderId).getState());
+        }
+        assertEquals(OrderState.CREATED, chargingOrderService.getOrder(charging).getState());
+        assertTrue(committedIntents.isEmpty(), "settled orders must not be refunded again: " + committedIntents);
+        assertEquals(0, engine.runOnce().getSettled());
+    }
+
+    /**
+     * 网关拒绝的订单保持 COMPLETED，下一轮重新提交；同批其他订单照常关单
+     */
+    @Test
+    void testRejectedOrdersStayCompletedUntilTheNextRun() {
+        engine = new SettlementEngine(properties(10), chargingOrderService, orderRepository, gateway);
+        String declined = completed(PaymentType.POST_PAID, null, "30.00");
+        String accepted = completed(PaymentType.POST_PAID, null, "10.00");
+        gateway.decline(declined);
+
+        SettlementReport first = engine.runOnce();
+        assertEquals(1, first.getDeducted());
+        assertEquals(1, first.getFailed());
+        assertEquals(OrderState.COMPLETED, chargingOrderService.getOrder(declined).getState());
+        assertEquals(OrderState.CLOSED, chargingOrderService.getOrder(accepted).getState());
+
+        gateway.accept(declined);
+        SettlementReport second = engine.runOnce();
+        assertEquals(1, second.getDeducted());
+        assertEquals(OrderState.CLOSED, chargingOrderService.getOrder(declined).getState());
+        assertEquals(4000, gateway.getDeductedFen());
+        assertEquals(0, gateway.getDuplicateCount());
+    }
+
+    /**
+     * 结算期间订单经接口单笔结算：引擎不再关单，两条路径的幂等键相同，渠道只退款一次
+     */
+    @Test
+    void testConcurrentManualSettlementSharesTheIdempotencyKey() {
+        String orderId = completed(PaymentType.PRE_PAID, "100.00", "70.00");
+        committedIntents.clear();
+        SettlementGateway racing = new SettlementGateway() {
+            @Override
+            public List<OutboxIntent> refund(List<OutboxIntent> refunds) {
+                List<OutboxIntent> rejected = gateway.refund(refunds);
+                chargingOrderService.updateOrder(orderId, null, chargingOrderService::settle);
+                return rejected;
+            }
+
+            @Override
+            public List<OutboxIntent> deduct(List<OutboxIntent> deductions) {
+                return gateway.deduct(deductions);
+            }
+        };
+        engine = new SettlementEngine(properties(10), chargingOrderService, orderRepository, racing);
+
+        SettlementReport report = engine.runOnce();
+
+        assertEquals(1, report.getSkipped());
+        assertEquals(0, report.getRefunded());
+        assertEquals(OrderState.CLOSED, chargingOrderService.getOrder(orderId).getState());
+        assertEquals(1, committedIntents.size());
+        OutboxIntent manual = committedIntents.get(0);
+        assertEquals(IntentType.REFUND, manual.getType());
+
+        // 发件箱随后投递接口结算记录的退款，渠道按幂等键识别为重复
+        gateway.refund(Collections.singletonList(manual.committed(
+                chargingOrderService.getOrder(orderId).getVersion())));
+        assertEquals(1, gateway.getDuplicateCount());
+        assertEquals(3000, gateway.getRefundedFen());
+    }
+
+    /**
+     * 网关受理后订单被其他写入改了版本号、关单冲突：下一轮以同一幂等键重新提交，渠道不会再退一次款
+     */
+    @Test
+    void testRetryAfterCloseConflictReusesTheIdempotencyKey() {
+        String orderId = completed(PaymentType.PRE_PAID, "100.00", "70.00");
+        AtomicBoolean touch = new AtomicBoolean(true);
+        SettlementGateway racing = new SettlementGateway() {
+            @Override
+            public List<OutboxIntent> refund(List<OutboxIntent> refunds) {
+                List<OutboxIntent> rejected = gateway.refund(refunds);
+                if (touch.getAndSet(false)) {
+                    chargingOrderService.updateOrder(orderId, null, order -> {
+                        order.setUpdateTime(LocalDateTime.now());
+                        return order;
+                    });
+                }
+                return rejected;
+            }
+
+            @Override
+            public List<OutboxIntent> deduct(List<OutboxIntent> deductions) {
+                return gateway.deduct(deductions);
+            }
+        };
+        engine = new SettlementEngine(properties(10), chargingOrderService, orderRepository, racing);
+
+        assertEquals(1, engine.runOnce().getSkipped());
+        assertEquals(OrderState.COMPLETED, chargingOrderService.getOrder(orderId).getState());
+
+        SettlementReport retry = engine.runOnce();
+        assertEquals(1, retry.getRefunded());
+        assertEquals(OrderState.CLOSED, chargingOrderService.getOrder(orderId).getState());
+        assertEquals(1, gateway.getDuplicateCount());
+        assertEquals(3000, gateway.getRefundedFen());
+    }
+
+    /**
+     * 待结算订单达到阈值时不等间隔提前结算
+     */
+    @Test
+    void testThresholdTriggersARunBeforeTheInterval() throws InterruptedException {
+        SettlementProperties properties = properties(10);
+        properties.setCheckInterval(Duration.ofMillis(20));
+        properties.setTriggerThreshold(3);
+        engine = new SettlementEngine(properties, chargingOrderService, orderRepository, gateway);
+        engine.start();
+
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            orderIds.add(completed(PaymentType.POST_PAID, null, "5.00"));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (orderRepository.countByState(OrderState.COMPLETED) > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        for (String orderId : orderIds) {
+            assertEquals(OrderState.CLOSED, chargingOrderService.getOrder(orderId).getState());
+        }
+        assertNotNull(engine.getLastReport());
+    }
+
+    private static SettlementProperties properties(int batchSize) {
+        SettlementProperties properties = new SettlementProperties();
+        properties.setEnabled(true);
+        properties.setBatchSize(batchSize);
+        properties.setInterval(Duration.ofHours(1));
+        return properties;
+    }
+
+    /**
+     * 创建一笔已完成充电的订单
+     */
+    private String completed(PaymentType paymentType, String prepaid, String orderAmount) {
+        String orderId = chargingOrderService.createOrder("user-1", "pile-1", paymentType)
+                .getOrderId();
+        if (paymentType == PaymentType.PRE_PAID) {
+            chargingOrderService.updateOrder(orderId, null, order -> chargingOrderService.pay(order, Money.of(prepaid)));
+        } else {
+            chargingOrderService.updateOrder(orderId, null, chargingOrderService::authorize);
+        }
+        chargingOrderService.updateOrder(orderId, null, chargingOrderService::startCharging);
+        chargingOrderService.updateOrder(orderId, null, order ->
+                chargingOrderService.finishCharging(order, Energy.of("10"), Money.of(orderAmount)));
+        return orderId;
+    }
+}
@@ -0,0 +1,204 @@
+package com.charging.order.app.service;
+
+import com.charging.order.config.StateMachineProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.statemachine.TransitionEngineType;
+import com.charging.order.domain.strategy.PaymentStrategyFactory;
+import com.charging.order.domain.strategy.PostPaidStrategy;
+import com.charging.order.domain.strategy.PrePaidStrategy;
+import com.charging.order.infrastructure.id.OrderIdGenerator;
+import com.charging.order.infrastructure.metrics.OrderMetrics;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分片单写执行器测试
+ * Sharded Order Executor Test
+ *
+ * 手工装配服务；使用预编译迁移表引擎，不在 COLA 的全局注册表中重复注册状态机。
+ */
+class ShardedOrderExecutorTest {
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private ChargingOrderService chargingOrderService;
+
+    private ShardedOrderExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        StateMachineProperties properties = new StateMachineProperties();
+        for (PaymentType paymentType : PaymentType.values()) {
+            properties.getEngines().put(paymentType, TransitionEngineType.TABLE);
+        }
+        PaymentStrategyFactory strategyFactory =
+                new PaymentStrategyFactory(Arrays.asList(new PrePaidStrategy(), new PostPaidStrategy()), properties);
+        chargingOrderService = new ChargingOrderService(strategyFactory, new ChargingOrderRepository(),
+                new OrderIdGenerator(0), new OrderMetrics(new SimpleMeterRegistry()));
+        executor = new ShardedOrderExecutor(chargingOrderService, 4, QUEUE_CAPACITY, 64);
+        executor.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown();
+    }
+
+    /**
+     * 不等待结果连续提交的迁移按提交顺序执行
+     */
+    @Test
+    void testTransitionsOfOneOrderRunInSubmissionOrder() {
+        String orderId = chargingOrderService.createOrder("user-1", "pile-1", PaymentType.PRE_PAID).getOrderId();
+
+        CompletableFuture<ChargingOrder> paid = executor.submit(orderId, null,
+                order -> chargingOrderService.pay(order, Money.of("100.00")));
+        CompletableFuture<ChargingOrder> charging = executor.submit(orderId, null, chargingOrderService::startCharging);
+        TransitionCommand finish = new TransitionCommand();
+        finish.setOrderId(orderId);
+        finish.setEvent(OrderEvent.FINISH_CHARGING);
+        finish.setChargingAmount(Energy.of("10"));
+        finish.setOrderAmount(Money.of("20.00"));
+        CompletableFuture<ChargingOrder> completed = executor.submit(finish);
+
+        assertEquals(OrderState.PAID, paid.join().getState());
+        assertEquals(OrderState.CHARGING, charging.join().getState());
+        assertEquals(OrderState.COMPLETED, completed.join().getState());
+        assertEquals(3, completed.join().getVersion());
+    }
+
+    /**
+     * 多线程并发写同一批订单：每次写入恰好生效一次，没有版本冲突
+     * 每个线程最多有 inFlight 次写入未完成，全部落在同一分片上也不超过队列容量，因此不应有拒绝
+     */
+    @Test
+    void testConcurrentWritersNeverConflict() throws Exception {
+        int orders = 8;
+        int threads = 8;
+        int writesPerThread = 2_000;
+        int inFlight = 64;
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            orderIds.add(chargingOrderService.createOrder("user-" + i, "pile-" + i, PaymentType.POST_PAID).getOrderId());
+        }
+
+        assertTrue(threads * inFlight <= QUEUE_CAPACITY, "in-flight writes must fit in one shard queue");
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(callers.submit(() -> {
+                    start.await();
+                    Deque<CompletableFuture<ChargingOrder>> pending = new ArrayDeque<>();
+                    for (int i = 0; i < writesPerThread; i++) {
+                        if (pending.size() == inFlight) {
+                            pending.poll().join();
+                        }
+                        pending.add(executor.submit(orderIds.get(i % orders), null, order -> {
+                            order.setChargingAmount(order.getChargingAmount().add(Energy.ofWh(1)));
+                            return order;
+                        }));
+                    }
+                    pending.forEach(CompletableFuture::join);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        long expected = (long) threads * writesPerThread / orders;
+        for (String orderId : orderIds) {
+            ChargingOrder order = chargingOrderService.getOrder(orderId);
+            assertEquals(expected, order.getChargingAmount().getWh());
+            assertEquals(expected, order.getVersion());
+        }
+        assertEquals((long) threads * writesPerThread, executor.getExecutedCount());
+        assertEquals(0, executor.getRejectedCount());
+    }
+
+    /**
+     * 服务抛出的异常原样传给 future
+     */
+    @Test
+    void testFailuresCompleteTheFuture() {
+        String orderId = chargingOrderService.createOrder("user-1", "pile-1", PaymentType.POST_PAID).getOrderId();
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> executor.submit(orderId, null, chargingOrderService::settle).join());
+        assertTrue(e.getCause() instanceof IllegalStateException);
+
+        TransitionCommand missing = new TransitionCommand();
+        missing.setEvent(OrderEvent.CANCEL_ORDER);
+        e = assertThrows(CompletionException.class, () -> executor.submit(missing).join());
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    /**
+     * 分片队列满时立即拒绝，不阻塞调用方；停止后拒绝新的提交
+     */
+    @Test
+    void testFullQueueAndShutdownReject() throws Exception {
+        executor.shutdown();
+        executor = new ShardedOrderExecutor(chargingOrderService, 1, 2, 64);
+        executor.start();
+        String orderId = chargingOrderService.createOrder("user-1", "pile-1", PaymentType.POST_PAID).getOrderId();
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ChargingOrder> blocker = executor.submit(orderId, null, order -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ChargingOrder> queued1 = executor.submit(orderId, null, order -> null);
+        CompletableFuture<ChargingOrder> queued2 = executor.submit(orderId, null, order -> null);
+        CompletableFuture<ChargingOrder> overflow = executor.submit(orderId, null, order -> null);
+
+        CompletionException e = assertThrows(CompletionException.class, overflow::join);
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertEquals(1, executor.getRejectedCount());
+
+        release.countDown();
+        blocker.join();
+        queued1.join();
+        queued2.join();
+
+        executor.shutdown();
+        assertTrue(executor.submit(orderId, null, order -> null).isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,38 @@
+package com.charging.order.domain.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 定点电量测试
+ * Energy Test
+ */
+class EnergyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testParseAndFormat() {
+        assertEquals(50500, Energy.of("50.5").getWh());
+        assertEquals(1, Energy.of("0.001").getWh());
+        assertEquals("50.5", Energy.of("50.500").toString());
+        assertEquals("100", Energy.of("100").toString());
+        assertThrows(IllegalArgumentException.class, () -> Energy.of("0.0001"));
+    }
+
+    @Test
+    void testMaxAndAdd() {
+        assertEquals(Energy.of("3.4"), Energy.max(Energy.of("1.2"), Energy.of("3.4")));
+        assertEquals(Energy.of("4.6"), Energy.of("1.2").add(Energy.of("3.4")));
+        assertThrows(ArithmeticException.class, () -> Energy.ofWh(Long.MAX_VALUE).add(Energy.ofWh(1)));
+    }
+
+    @Test
+    void testJsonIsCompatibleWithDecimals() throws Exception {
+        assertEquals("50.5", objectMapper.writeValueAsString(Energy.of("50.500")));
+        assertEquals(Energy.of("50.5"), objectMapper.readValue("50.5", Energy.class));
+        assertEquals(Energy.of("50.5"), objectMapper.readValue("\"50.5\"", Energy.class));
+    }
+}
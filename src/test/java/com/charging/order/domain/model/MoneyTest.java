@@ -0,0 +1,57 @@
+package com.charging.order.domain.model;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 定点金额测试
+ * Money Test
+ */
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testParseAndFormat() {
+        assertEquals(6000, Money.of("60.00").getFen());
+        assertEquals(10000, Money.of("100").getFen());
+        assertEquals(50, Money.of("0.5").getFen());
+        assertEquals(-5, Money.of("-0.05").getFen());
+        assertEquals("60.00", Money.of("60").toString());
+        assertEquals("-0.05", Money.ofFen(-5).toString());
+        assertEquals(new BigDecimal("60.00"), Money.of("60").toBigDecimal());
+    }
+
+    @Test
+    void testRejectsInexactAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of("0.001"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of("1e30"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of("abc"));
+    }
+
+    @Test
+    void testArithmeticIsExact() {
+        assertEquals(Money.of("40.00"), Money.of("100.00").subtract(Money.of("60.00")));
+        assertEquals(Money.of("0.30"), Money.of("0.10").add(Money.of("0.20")));
+        assertSame(Money.ZERO, Money.of("1.00").subtract(Money.of("1")));
+        assertThrows(ArithmeticException.class, () -> Money.ofFen(Long.MAX_VALUE).add(Money.ofFen(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofFen(Long.MIN_VALUE).subtract(Money.ofFen(1)));
+    }
+
+    /**
+     * JSON 与原 BigDecimal 字段兼容：写出十进制数，读入数值或字符串
+     */
+    @Test
+    void testJsonIsCompatibleWithDecimals() throws Exception {
+        assertEquals("60.00", objectMapper.writeValueAsString(Money.of("60")));
+        assertEquals(Money.of("60.00"), objectMapper.readValue("60", Money.class));
+        assertEquals(Money.of("60.50"), objectMapper.readValue("60.5", Money.class));
+        assertEquals(Money.of("60.50"), objectMapper.readValue("\"60.50\"", Money.class));
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue("60.505", Money.class));
+    }
+}
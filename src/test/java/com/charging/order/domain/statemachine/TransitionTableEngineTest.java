@@ -0,0 +1,139 @@
+package com.charging.order.domain.statemachine;
+
+import com.alibaba.cola.statemachine.StateMachine;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.strategy.PaymentStrategy;
+import com.charging.order.domain.strategy.PostPaidStrategy;
+import com.charging.order.domain.strategy.PrePaidStrategy;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 迁移表引擎测试
+ * Transition Table Engine Test
+ *
+ * 对每个 (状态, 事件) 组合验证迁移表与 COLA 状态机的行为一致
+ */
+@SpringBootTest
+class TransitionTableEngineTest {
+
+    @Autowired
+    private PrePaidStrategy prePaidStrategy;
+
+    @Autowired
+    private PostPaidStrategy postPaidStrategy;
+
+    /**
+     * 使用真实策略定义，比较两种引擎对所有组合的迁移结果
+     */
+    @Test
+    void testParityWithColaForAllStrategies() {
+        assertParity(prePaidStrategy);
+        assertParity(postPaidStrategy);
+    }
+
+    /**
+     * 替换为记录型动作，验证动作的执行次数与参数也一致
+     */
+    @Test
+    void testActionParity() {
+        for (PaymentStrategy strategy : new PaymentStrategy[]{prePaidStrategy, postPaidStrategy}) {
+            List<String> colaCalls = new ArrayList<>();
+            List<String> tableCalls = new ArrayList<>();
+
+            StateMachine<OrderState, OrderEvent, ChargingOrder> cola = ColaTransitionEngine.buildStateMachine(
+                    uniqueMachineId(strategy), recording(strategy.getTransitions(), colaCalls, true));
+            TransitionTableEngine table = TransitionTableEngine.compile(
+                    strategy.getMachineId(), recording(strategy.getTransitions(), tableCalls, true));
+
+            for (OrderState state : OrderState.values()) {
+                for (OrderEvent event : OrderEvent.values()) {
+                    assertEquals(cola.fireEvent(state, event, newOrder(state)),
+                            table.fireEvent(state, event, newOrder(state)),
+                            strategy.getMachineId() + " " + state + " on " + event);
+                }
+            }
+            assertEquals(colaCalls, tableCalls);
+            assertEquals(strategy.getTransitions().size(), tableCalls.size());
+        }
+    }
+
+    /**
+     * 条件不满足时两种引擎都应原样返回源状态且不执行动作
+     */
+    @Test
+    void testUnsatisfiedConditionParity() {
+        List<String> colaCalls = new ArrayList<>();
+        List<String> tableCalls = new ArrayList<>();
+
+        StateMachine<OrderState, OrderEvent, ChargingOrder> cola = ColaTransitionEngine.buildStateMachine(
+                uniqueMachineId(prePaidStrategy), recording(prePaidStrategy.getTransitions(), colaCalls, false));
+        TransitionTableEngine table = TransitionTableEngine.compile(
+                prePaidStrategy.getMachineId(), recording(prePaidStrategy.getTransitions(), tableCalls, false));
+
+        for (TransitionDefinition transition : prePaidStrategy.getTransitions()) {
+            OrderState from = transition.getFrom();
+            assertEquals(from, cola.fireEvent(from, transition.getEvent(), newOrder(from)));
+            assertEquals(from, table.fireEvent(from, transition.getEvent(), newOrder(from)));
+        }
+        assertTrue(colaCalls.isEmpty());
+        assertTrue(tableCalls.isEmpty());
+    }
+
+    /**
+     * 同一 (状态, 事件) 定义多条迁移时拒绝编译
+     */
+    @Test
+    void testRejectsDuplicateTransitions() {
+        List<TransitionDefinition> transitions = new ArrayList<>(prePaidStrategy.getTransitions());
+        transitions.add(prePaidStrategy.getTransitions().get(0));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TransitionTableEngine.compile("DUPLICATED", transitions));
+    }
+
+    private void assertParity(PaymentStrategy strategy) {
+        StateMachine<OrderState, OrderEvent, ChargingOrder> cola = strategy.buildStateMachine();
+        TransitionTableEngine table = TransitionTableEngine.compile(strategy);
+
+        for (OrderState state : OrderState.values()) {
+            for (OrderEvent event : OrderEvent.values()) {
+                assertEquals(cola.fireEvent(state, event, newOrder(state)),
+                        table.fireEvent(state, event, newOrder(state)),
+                        strategy.getMachineId() + " " + state + " on " + event);
+            }
+        }
+    }
+
+    private static List<TransitionDefinition> recording(List<TransitionDefinition> transitions,
+                                                        List<String> calls, boolean satisfied) {
+        List<TransitionDefinition> recorded = new ArrayList<>();
+        for (TransitionDefinition transition : transitions) {
+            recorded.add(new TransitionDefinition(transition.getFrom(), transition.getTo(), transition.getEvent(),
+                    order -> satisfied,
+                    (from, to, event, order) -> calls.add(from + "->" + to + ":" + event + ":" + order.getOrderId())));
+        }
+        return recorded;
+    }
+
+    private static String uniqueMachineId(PaymentStrategy strategy) {
+        // COLA 按 machineId 全局注册，测试中需要避开策略自身的 ID
+        return strategy.getMachineId() + "_PARITY_" + UUID.randomUUID();
+    }
+
+    private static ChargingOrder newOrder(OrderState state) {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId("parity-" + state);
+        order.setState(state);
+        return order;
+    }
+}
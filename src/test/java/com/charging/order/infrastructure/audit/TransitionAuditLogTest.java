@@ -0,0 +1,89 @@
+package com.charging.order.infrastructure.audit;
+
+import com.charging.order.config.AuditLogProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单迁移审计日志测试（不启动写出线程，直接调用 drain）
+ * Transition Audit Log Test
+ */
+class TransitionAuditLogTest {
+
+    /**
+     * 创建、迁移、删除入队；非迁移写入不记录
+     */
+    @Test
+    void testRecordsTransitionsOnly() {
+        TransitionAuditLog auditLog = new TransitionAuditLog(new AuditLogProperties());
+        ChargingOrder created = order(OrderState.CREATED, 0);
+        ChargingOrder paid = order(OrderState.PAID, 1);
+        paid.setPrepaidAmount(Money.of("100.00"));
+
+        auditLog.onSaved(created);
+        auditLog.onUpdated(created, paid, OrderEvent.PAY);
+        auditLog.onUpdated(paid, order(OrderState.PAID, 2), null);
+        auditLog.onDeleted("order-1");
+
+        assertEquals(3, auditLog.getPublishedCount());
+        assertEquals(3, auditLog.getPendingCount());
+        assertEquals(3, auditLog.drain());
+        assertEquals(3, auditLog.getWrittenCount());
+        assertEquals(0, auditLog.getPendingCount());
+        assertEquals(0, auditLog.getDroppedCount());
+    }
+
+    /**
+     * 队列满时丢弃新记录并计数，不阻塞调用方
+     */
+    @Test
+    void testDropsWhenBufferFull() {
+        AuditLogProperties properties = new AuditLogProperties();
+        properties.setBufferSize(4);
+        properties.setBatchSize(2);
+        TransitionAuditLog auditLog = new TransitionAuditLog(properties);
+        ChargingOrder previous = order(OrderState.CREATED, 0);
+
+        for (int i = 1; i <= 10; i++) {
+            auditLog.onUpdated(previous, order(OrderState.PAID, i), OrderEvent.PAY);
+        }
+
+        assertEquals(4, auditLog.getPublishedCount());
+        assertEquals(6, auditLog.getDroppedCount());
+        assertEquals(4, auditLog.drain());
+        assertEquals(4, auditLog.getHighWaterMark());
+
+        auditLog.onDeleted("order-1");
+        assertEquals(1, auditLog.drain());
+        assertEquals(5, auditLog.getWrittenCount());
+    }
+
+    @Test
+    void testRecordFormat() {
+        ChargingOrder created = order(OrderState.CREATED, 0);
+        ChargingOrder paid = order(OrderState.PAID, 1);
+        paid.setPrepaidAmount(Money.of("100.00"));
+
+        String line = TransitionAuditRecord.transition(created, paid, OrderEvent.PAY).toString();
+
+        assertTrue(line.contains(" kind=TRANSITION orderId=order-1 type=PRE_PAID event=PAY from=CREATED to=PAID version=1"),
+                line);
+        assertTrue(line.contains(" prepaidAmount=100.00"), line);
+        assertFalse(line.contains("refundAmount"), line);
+    }
+
+    private static ChargingOrder order(OrderState state, long version) {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId("order-1");
+        order.setPaymentType(PaymentType.PRE_PAID);
+        order.setState(state);
+        order.setVersion(version);
+        return order;
+    }
+}
@@ -0,0 +1,122 @@
+package com.charging.order.infrastructure.auth;
+
+import com.charging.order.config.AuthTokenProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 无状态登录令牌测试
+ * Session Token Service Test
+ */
+class SessionTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T08:00:00Z");
+
+    private AuthTokenProperties properties;
+
+    private TokenRevocationList revocationList;
+
+    private SessionTokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuthTokenProperties();
+        properties.setSecret("0123456789abcdef0123456789abcdef");
+        properties.setTtl(Duration.ofHours(2));
+        revocationList = new TokenRevocationList(properties, null, null, clockAt(NOW));
+        tokenService = new SessionTokenService(properties, revocationList, clockAt(NOW));
+    }
+
+    /**
+     * 签发的令牌定长、可以校验出用户ID
+     */
+    @Test
+    void testIssueAndVerify() {
+        SessionToken token = tokenService.issue(42L);
+
+        assertEquals(SessionTokenService.TOKEN_LENGTH, token.getToken().length());
+        assertEquals(NOW.getEpochSecond() + 7200, token.getExpiresAt());
+        assertEquals(42L, tokenService.verify(token.getToken()));
+        assertNotEquals(token.getToken(), tokenService.issue(42L).getToken());
+    }
+
+    /**
+     * 篡改任一字符、截断或换密钥后校验失败
+     */
+    @Test
+    void testTamperedTokenIsRejected() {
+        String token = tokenService.issue(42L).getToken();
+
+        for (int i = 0; i < token.length(); i++) {
+            char replacement = token.charAt(i) == 'A' ? 'B' : 'A';
+            String tampered = token.substring(0, i) + replacement + token.substring(i + 1);
+            assertEquals(SessionTokenService.INVALID, tokenService.verify(tampered), "position " + i);
+        }
+        assertEquals(SessionTokenService.INVALID, tokenService.verify(token.substring(1)));
+        assertEquals(SessionTokenService.INVALID, tokenService.verify(token.replace(token.charAt(10), '*')));
+        assertEquals(SessionTokenService.INVALID, tokenService.verify(null));
+
+        properties.setSecret("another-secret-another-secret-xx");
+        SessionTokenService other = new SessionTokenService(properties, revocationList, clockAt(NOW));
+        assertEquals(SessionTokenService.INVALID, other.verify(token));
+    }
+
+    /**
+     * 过期后校验失败
+     */
+    @Test
+    void testExpiredTokenIsRejected() {
+        String token = tokenService.issue(42L).getToken();
+
+        SessionTokenService later = new SessionTokenService(properties, revocationList,
+                clockAt(NOW.plus(Duration.ofHours(2)).minusSeconds(1)));
+        assertEquals(42L, later.verify(token));
+
+        SessionTokenService expired = new SessionTokenService(properties, revocationList,
+                clockAt(NOW.plus(Duration.ofHours(2))));
+        assertEquals(SessionTokenService.INVALID, expired.verify(token));
+    }
+
+    /**
+     * 吊销后校验失败，记录在令牌过期后被清理
+     */
+    @Test
+    void testRevokedTokenIsRejected() {
+        String token = tokenService.issue(42L).getToken();
+        String other = tokenService.issue(42L).getToken();
+
+        assertTrue(tokenService.revoke(token));
+        assertEquals(SessionTokenService.INVALID, tokenService.verify(token));
+        assertEquals(42L, tokenService.verify(other));
+        assertEquals(1, revocationList.size());
+
+        revocationList.purgeExpired();
+        assertEquals(1, revocationList.size());
+        TokenRevocationList afterExpiry = new TokenRevocationList(properties, null, null,
+                clockAt(NOW.plus(Duration.ofHours(3))));
+        afterExpiry.revoke(1L, NOW.plus(Duration.ofHours(2)).getEpochSecond());
+        afterExpiry.purgeExpired();
+        assertEquals(0, afterExpiry.size());
+    }
+
+    /**
+     * 密钥过短时拒绝启动
+     */
+    @Test
+    void testShortSecretIsRejected() {
+        properties.setSecret("too-short");
+        assertThrows(IllegalArgumentException.class,
+                () -> new SessionTokenService(properties, revocationList, clockAt(NOW)));
+    }
+
+    private static Clock clockAt(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+}
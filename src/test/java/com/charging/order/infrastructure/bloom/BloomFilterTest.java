@@ -0,0 +1,88 @@
+package com.charging.order.infrastructure.bloom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并发布隆过滤器测试
+ * Bloom Filter Test
+ */
+class BloomFilterTest {
+
+    /**
+     * 加入过的元素一定命中，未加入元素的误判率接近目标值
+     */
+    @Test
+    void testNoFalseNegativesAndBoundedFalsePositives() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("user-" + i);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("user-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    /**
+     * 并发加入不丢位
+     */
+    @Test
+    void testConcurrentPuts() throws Exception {
+        BloomFilter filter = new BloomFilter(80_000, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        filter.put("user-" + thread + "-" + i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int t = 0; t < 8; t++) {
+            for (int i = 0; i < 10_000; i++) {
+                assertTrue(filter.mightContain("user-" + t + "-" + i));
+            }
+        }
+    }
+
+    /**
+     * 位数与哈希个数按预计元素数和误判率计算
+     */
+    @Test
+    void testSizing() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+
+        assertEquals(0, filter.getBitCount() % 64);
+        assertTrue(filter.getBitCount() >= 9_585_058L);
+        assertEquals(7, filter.getHashCount());
+        assertEquals(filter.getHashCount(), filter.positions("alice").length);
+        assertTrue(filter.put("alice"));
+        assertFalse(filter.put("alice"));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1.0));
+    }
+}
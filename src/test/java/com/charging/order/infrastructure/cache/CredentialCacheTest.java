@@ -0,0 +1,112 @@
+package com.charging.order.infrastructure.cache;
+
+import com.charging.order.config.CredentialCacheProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 登录凭据缓存测试（仅本地近端缓存）
+ * Credential Cache Test
+ */
+class CredentialCacheTest {
+
+    private CredentialCache credentialCache;
+
+    @BeforeEach
+    void setUp() {
+        credentialCache = new CredentialCache(new CredentialCacheProperties(), (StringRedisTemplate) null,
+                new ObjectMapper());
+    }
+
+    /**
+     * 同一用户的并发未命中只回源一次，之后由缓存命中
+     */
+    @Test
+    void testConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<UserCredential>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> credentialCache.get("alice", username -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return UserCredential.of(1L, username, "secret", 1);
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<UserCredential> result : results) {
+                assertTrue(result.get(5, TimeUnit.SECONDS).matches("secret"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+
+        credentialCache.get("alice", username -> {
+            throw new AssertionError("should not load");
+        });
+        assertEquals(1, credentialCache.getLoadCount());
+        assertTrue(credentialCache.getStats().hitCount() > 0);
+    }
+
+    /**
+     * 失效后重新回源，修改后的密码立即生效
+     */
+    @Test
+    void testInvalidateReloads() {
+        credentialCache.get("bob", username -> UserCredential.of(2L, username, "old", 1));
+        credentialCache.invalidate("bob");
+
+        UserCredential credential = credentialCache.get("bob", username -> UserCredential.of(2L, username, "new", 1));
+        assertTrue(credential.matches("new"));
+        assertFalse(credential.matches("old"));
+    }
+
+    /**
+     * 不存在的用户不缓存，注册后可以立即查到
+     */
+    @Test
+    void testMissingUserIsNotCached() {
+        assertNull(credentialCache.get("carol", username -> null));
+
+        UserCredential credential = credentialCache.get("carol", username -> UserCredential.of(3L, username, "pw", 1));
+        assertNotNull(credential);
+        assertEquals(2, credentialCache.getLoadCount());
+    }
+
+    /**
+     * 缓存中只保存摘要，停用账号不可登录
+     */
+    @Test
+    void testCredentialHoldsDigestOnly() {
+        UserCredential credential = UserCredential.of(4L, "dave", "pw", 0);
+
+        assertNotEquals("pw", credential.getPasswordDigest());
+        assertTrue(credential.matches("pw"));
+        assertFalse(credential.matches("PW"));
+        assertFalse(credential.matches(null));
+        assertFalse(credential.isEnabled());
+        assertTrue(UserCredential.of(4L, "dave", "pw", null).isEnabled());
+    }
+}
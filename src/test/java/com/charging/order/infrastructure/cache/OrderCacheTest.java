@@ -0,0 +1,123 @@
+package com.charging.order.infrastructure.cache;
+
+import com.charging.order.config.OrderCacheProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单两级读缓存测试（仅本地近端缓存）
+ * Order Cache Test
+ */
+class OrderCacheTest {
+
+    private OrderCache orderCache;
+
+    @BeforeEach
+    void setUp() {
+        orderCache = new OrderCache(new OrderCacheProperties(), (StringRedisTemplate) null, new ObjectMapper());
+    }
+
+    /**
+     * 同一订单的并发未命中只回源一次
+     */
+    @Test
+    void testConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ChargingOrder>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> orderCache.get("order-1", id -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return newOrder(id, OrderState.CHARGING);
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<ChargingOrder> result : results) {
+                assertEquals("order-1", result.get(5, TimeUnit.SECONDS).getOrderId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * 订单变更刷新缓存，后续读取不再回源
+     */
+    @Test
+    void testSavedOrderIsServedFromCache() {
+        orderCache.onSaved(newOrder("order-2", OrderState.PAID));
+
+        ChargingOrder order = orderCache.get("order-2", id -> {
+            throw new AssertionError("should not load");
+        });
+        assertEquals(OrderState.PAID, order.getState());
+    }
+
+    /**
+     * 进入终态的订单被驱逐，再次读取时回源
+     */
+    @Test
+    void testTerminalOrderIsEvicted() {
+        orderCache.onSaved(newOrder("order-3", OrderState.COMPLETED));
+        orderCache.onSaved(newOrder("order-3", OrderState.CLOSED));
+
+        AtomicInteger loads = new AtomicInteger();
+        ChargingOrder order = orderCache.get("order-3", id -> {
+            loads.incrementAndGet();
+            return newOrder(id, OrderState.CLOSED);
+        });
+        assertEquals(OrderState.CLOSED, order.getState());
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * 不存在的订单不被缓存
+     */
+    @Test
+    void testMissingOrderIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        assertNull(orderCache.get("missing", id -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(orderCache.get("missing", id -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertEquals(2, loads.get());
+    }
+
+    private static ChargingOrder newOrder(String orderId, OrderState state) {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId(orderId);
+        order.setPaymentType(PaymentType.PRE_PAID);
+        order.setState(state);
+        return order;
+    }
+}
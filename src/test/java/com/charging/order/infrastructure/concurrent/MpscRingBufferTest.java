@@ -0,0 +1,96 @@
+package com.charging.order.infrastructure.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 有界无锁环形队列测试
+ * MPSC Ring Buffer Test
+ */
+class MpscRingBufferTest {
+
+    /**
+     * 容量向上取整为 2 的幂，队列满时 offer 返回 false
+     */
+    @Test
+    void testRejectsWhenFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, buffer.drain(drained::add, 10));
+        assertEquals(Arrays.asList(1, 2, 3, 4), drained);
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    /**
+     * 多个生产者并发写入：每个元素恰好被消费一次，同一生产者的元素保持顺序
+     */
+    @Test
+    void testConcurrentProducersSingleConsumer() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                executor.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < perProducer; i++) {
+                        long[] element = {producer, i};
+                        while (!buffer.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+
+            long[] next = new long[producers];
+            int consumed = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (consumed < producers * perProducer) {
+                long[] element = buffer.poll();
+                if (element == null) {
+                    assertTrue(System.nanoTime() < deadline, "Consumer timed out");
+                    Thread.yield();
+                    continue;
+                }
+                int producer = (int) element[0];
+                assertEquals(next[producer], element[1]);
+                next[producer]++;
+                consumed++;
+            }
+            assertNull(buffer.poll());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(1));
+    }
+}
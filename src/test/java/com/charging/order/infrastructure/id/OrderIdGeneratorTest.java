@@ -0,0 +1,126 @@
+package com.charging.order.infrastructure.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单ID生成器测试
+ * Order ID Generator Test
+ */
+class OrderIdGeneratorTest {
+
+    private static final long NOW = OrderIdGenerator.EPOCH_MILLIS + 1_000_000L;
+
+    /**
+     * 多线程并发生成：无重复，每个线程内严格递增
+     */
+    @Test
+    void testConcurrentIdsAreUniqueAndIncreasing() throws Exception {
+        OrderIdGenerator generator = new OrderIdGenerator(7);
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            Set<Long> all = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue(i == 0 || ids[i] > ids[i - 1]);
+                    assertTrue(all.add(ids[i]), "Duplicate id " + ids[i]);
+                }
+            }
+            assertEquals(threads * perThread, all.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 时钟回拨时ID仍然递增，不会与回拨前的ID重复
+     */
+    @Test
+    void testClockRollbackKeepsIdsIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        OrderIdGenerator generator = new OrderIdGenerator(1, clock::get);
+
+        long beforeRollback = generator.nextId();
+        clock.set(NOW - 5_000);
+        long duringRollback = generator.nextId();
+        clock.set(NOW + 1);
+        long afterRecovery = generator.nextId();
+
+        assertTrue(duringRollback > beforeRollback);
+        assertTrue(afterRecovery > duringRollback);
+        assertEquals(NOW, OrderIdGenerator.timestampOf(duringRollback));
+        assertEquals(NOW + 1, OrderIdGenerator.timestampOf(afterRecovery));
+    }
+
+    /**
+     * 同一毫秒内序列号用尽时借用下一毫秒
+     */
+    @Test
+    void testSequenceOverflowBorrowsNextMillisecond() {
+        OrderIdGenerator generator = new OrderIdGenerator(1, () -> NOW);
+        int perMillisecond = 1 << OrderIdGenerator.SEQUENCE_BITS;
+
+        long last = 0;
+        for (int i = 0; i < perMillisecond + 1; i++) {
+            long id = generator.nextId();
+            assertTrue(id > last);
+            last = id;
+        }
+        assertEquals(NOW + 1, OrderIdGenerator.timestampOf(last));
+    }
+
+    /**
+     * 字符串形式定长，字典序与数值顺序一致，可以解析回原值
+     */
+    @Test
+    void testStringFormIsSortableAndReversible() {
+        OrderIdGenerator generator = new OrderIdGenerator(OrderIdGenerator.MAX_NODE_ID);
+        String previous = generator.nextIdString();
+        for (int i = 0; i < 10_000; i++) {
+            String next = generator.nextIdString();
+            assertEquals(13, next.length());
+            assertTrue(next.compareTo(previous) > 0);
+            previous = next;
+        }
+
+        long id = generator.nextId();
+        assertEquals(id, OrderIdGenerator.decode(OrderIdGenerator.encode(id)));
+        assertEquals(Long.MAX_VALUE, OrderIdGenerator.decode(OrderIdGenerator.encode(Long.MAX_VALUE)));
+        assertThrows(IllegalArgumentException.class, () -> OrderIdGenerator.decode("not-an-id"));
+        assertThrows(IllegalArgumentException.class, () -> OrderIdGenerator.decode("0000000000I00"));
+    }
+
+    @Test
+    void testRejectsInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new OrderIdGenerator(OrderIdGenerator.MAX_NODE_ID + 1));
+    }
+}
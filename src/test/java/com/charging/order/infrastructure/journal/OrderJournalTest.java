@@ -0,0 +1,253 @@
+package com.charging.order.infrastructure.journal;
+
+import com.charging.order.config.JournalProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import com.charging.order.infrastructure.persistence.OrderChangeListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存映射订单事件日志测试
+ * Order Journal Test
+ */
+class OrderJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private JournalProperties properties;
+
+    private OrderJournal journal;
+
+    private ChargingOrderRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new JournalProperties();
+        properties.setDirectory(directory.toString());
+        // 小段便于覆盖滚动；刷盘和快照在测试中显式触发
+        properties.setSegmentSize(DataSize.ofKilobytes(8));
+        properties.setForceInterval(Duration.ofMinutes(10));
+        properties.setSnapshotInterval(Duration.ofMinutes(10));
+        journal = openJournal();
+        repository = new ChargingOrderRepository(Collections.singletonList(journal), null);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        journal.close();
+    }
+
+    /**
+     * 创建、迁移、删除在重启后按提交顺序重放
+     */
+    @Test
+    void testReplayRebuildsRepository() throws Exception {
+        repository.save(newOrder("order-1"));
+        repository.save(newOrder("order-2"));
+        transition("order-1", OrderEvent.PAY, OrderState.PAID, order -> order.setPrepaidAmount(Money.of("100.00")));
+        transition("order-1", OrderEvent.START_CHARGING, OrderState.CHARGING, order -> { });
+        repository.delete("order-2");
+
+        Map<String, ChargingOrder> replayed = restart().replay();
+
+        assertEquals(1, replayed.size());
+        ChargingOrder order = replayed.get("order-1");
+        assertEquals(repository.findById("order-1"), order);
+        assertEquals(OrderState.CHARGING, order.getState());
+        assertEquals(2, order.getVersion());
+        assertEquals(Money.of("100.00"), order.getPrepaidAmount());
+    }
+
+    /**
+     * 写满的段自动滚动，跨段重放结果不变
+     */
+    @Test
+    void testReplaySpansSegments() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            repository.save(newOrder("order-" + i));
+        }
+        assertTrue(segmentCount() > 1);
+
+        assertEquals(200, restart().replay().size());
+    }
+
+    /**
+     * 快照后删除旧段，重放 = 快照 + 快照之后的日志段
+     */
+    @Test
+    void testSnapshotTruncatesJournal() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            repository.save(newOrder("order-" + i));
+        }
+        OrderJournalRecovery recovery = new OrderJournalRecovery(journal, repository, properties);
+        assertEquals(200, recovery.snapshot());
+        assertEquals(1, segmentCount());
+
+        transition("order-7", OrderEvent.PAY, OrderState.PAID, order -> order.setPrepaidAmount(Money.of("50.00")));
+        repository.delete("order-8");
+
+        Map<String, ChargingOrder> replayed = restart().replay();
+        assertEquals(199, replayed.size());
+        assertEquals(OrderState.PAID, replayed.get("order-7").getState());
+        assertEquals(1, replayed.get("order-7").getVersion());
+    }
+
+    /**
+     * 超长记录被拒绝，写入失败且不影响之后的记录
+     */
+    @Test
+    void testOversizedRecordIsRejected() throws Exception {
+        ChargingOrder oversized = newOrder("order-1");
+        oversized.setUserId(String.join("", Collections.nCopies(5000, "u")));
+        assertThrows(IllegalArgumentException.class, () -> repository.save(oversized));
+        assertNull(repository.findById("order-1"));
+
+        repository.save(newOrder("order-2"));
+
+        assertEquals(Collections.singleton("order-2"), restart().replay().keySet());
+    }
+
+    /**
+     * 已追加的写入被后面的监听器拒绝时追加撤销记录，重放得到写入前的订单
+     */
+    @Test
+    void testRejectedWritesAreRolledBackOnReplay() throws Exception {
+        AtomicBoolean reject = new AtomicBoolean();
+        repository = new ChargingOrderRepository(Arrays.asList(journal, new OrderChangeListener() {
+            @Override
+            public void onSaved(ChargingOrder order) {
+                if (reject.get()) {
+                    throw new IllegalStateException("rejected");
+                }
+            }
+
+            @Override
+            public void onDeleted(String orderId) {
+            }
+        }), null);
+        repository.save(newOrder("order-1"));
+
+        reject.set(true);
+        assertThrows(IllegalStateException.class, () -> repository.save(newOrder("order-2")));
+        assertThrows(IllegalStateException.class, () -> transition("order-1", OrderEvent.PAY, OrderState.PAID,
+                order -> order.setPrepaidAmount(Money.of("100.00"))));
+        reject.set(false);
+        transition("order-1", OrderEvent.PAY, OrderState.PAID, order -> order.setPrepaidAmount(Money.of("80.00")));
+
+        Map<String, ChargingOrder> replayed = restart().replay();
+        assertEquals(Collections.singleton("order-1"), replayed.keySet());
+        assertEquals(repository.findById("order-1"), replayed.get("order-1"));
+        assertEquals(Money.of("80.00"), replayed.get("order-1").getPrepaidAmount());
+    }
+
+    /**
+     * 快照同样拒绝超长记录，旧日志段保留
+     */
+    @Test
+    void testOversizedSnapshotRecordIsRejected() throws Exception {
+        repository.save(newOrder("order-1"));
+        long segments = segmentCount();
+        ChargingOrder oversized = newOrder("order-2");
+        oversized.setChargingPileId(String.join("", Collections.nCopies(5000, "p")));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> journal.writeSnapshot(journal.roll(), Arrays.asList(repository.findById("order-1"), oversized)));
+
+        assertTrue(segmentCount() > segments);
+        assertEquals(Collections.singleton("order-1"), restart().replay().keySet());
+    }
+
+    /**
+     * 段尾被截断或损坏的记录被忽略，之前的记录正常重放
+     */
+    @Test
+    void testCorruptTailIsIgnored() throws Exception {
+        repository.save(newOrder("order-1"));
+        repository.save(newOrder("order-2"));
+        journal.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".seg")).findFirst().orElseThrow(AssertionError::new);
+        }
+        // 把第二条记录的内容改坏
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 0);
+            header.flip();
+            long second = 8 + header.getInt();
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), second + 12);
+        }
+
+        journal = openJournal();
+        Map<String, ChargingOrder> replayed = journal.replay();
+        assertEquals(Collections.singleton("order-1"), replayed.keySet());
+    }
+
+    private OrderJournal restart() throws Exception {
+        journal.close();
+        journal = openJournal();
+        return journal;
+    }
+
+    private OrderJournal openJournal() throws IOException {
+        OrderJournal opened = new OrderJournal(properties);
+        opened.open();
+        return opened;
+    }
+
+    private void transition(String orderId, OrderEvent event, OrderState to,
+                            Consumer<ChargingOrder> change) {
+        ChargingOrder updated = repository.findById(orderId).copy();
+        updated.setState(to);
+        change.accept(updated);
+        assertTrue(repository.compareAndSet(updated, updated.getVersion(), event));
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private static ChargingOrder newOrder(String orderId) {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId(orderId);
+        order.setUserId("user-1");
+        order.setChargingPileId("pile-1");
+        order.setPaymentType(PaymentType.PRE_PAID);
+        order.setState(OrderState.CREATED);
+        order.setChargingAmount(Energy.ZERO);
+        order.setOrderAmount(Money.ZERO);
+        order.setCreateTime(LocalDateTime.now());
+        order.setUpdateTime(order.getCreateTime());
+        return order;
+    }
+}
@@ -0,0 +1,67 @@
+package com.charging.order.infrastructure.metrics;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单指标测试
+ * Order Metrics Test
+ */
+class OrderMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * 所有组合在构造时注册，记录落到对应标签的计量器上
+     */
+    @Test
+    void testMetersArePreRegistered() {
+        OrderMetrics metrics = new OrderMetrics(registry);
+
+        int combinations = PaymentType.values().length * OrderEvent.values().length;
+        assertEquals(combinations, registry.find("charging.order.transition").timers().size());
+        assertEquals(combinations, registry.find("charging.order.transition.rejected").counters().size());
+
+        metrics.recordTransition(PaymentType.PRE_PAID, OrderEvent.PAY, TimeUnit.MICROSECONDS.toNanos(5));
+        metrics.recordRejected(PaymentType.POST_PAID, OrderEvent.CANCEL_ORDER);
+        metrics.recordPaymentTypeMismatch(PaymentType.PRE_PAID);
+
+        assertEquals(1, registry.get("charging.order.transition")
+                .tag("event", "PAY").tag("payment_type", "PRE_PAID").timer().count());
+        assertEquals(0, registry.get("charging.order.transition")
+                .tag("event", "PAY").tag("payment_type", "POST_PAID").timer().count());
+        assertEquals(1.0, registry.get("charging.order.transition.rejected")
+                .tag("event", "CANCEL_ORDER").tag("payment_type", "POST_PAID").counter().count());
+        assertEquals(1.0, registry.get("charging.order.payment.type.mismatch")
+                .tag("expected", "PRE_PAID").counter().count());
+    }
+
+    /**
+     * 状态计量读取仓储的状态索引
+     */
+    @Test
+    void testStateGaugesFollowRepository() {
+        ChargingOrderRepository repository = new ChargingOrderRepository();
+        new OrderStateGauges(repository).bindTo(registry);
+
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId("order-1");
+        order.setUserId("user-1");
+        order.setChargingPileId("pile-1");
+        order.setPaymentType(PaymentType.PRE_PAID);
+        order.setState(OrderState.CREATED);
+        repository.save(order);
+
+        assertEquals(1.0, registry.get("charging.order.orders").tag("state", "CREATED").gauge().value());
+        assertEquals(0.0, registry.get("charging.order.orders").tag("state", "CHARGING").gauge().value());
+    }
+}
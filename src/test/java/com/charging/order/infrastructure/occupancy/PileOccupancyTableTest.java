@@ -0,0 +1,240 @@
+package com.charging.order.infrastructure.occupancy;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderEvent;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import com.charging.order.infrastructure.persistence.OrderChangeListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 充电桩占用表测试
+ * Pile Occupancy Table Test
+ */
+class PileOccupancyTableTest {
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+    private final PileOccupancyTable table =
+            new PileOccupancyTable(beanFactory.getBeanProvider(ChargingOrderRepository.class));
+
+    private final ChargingOrderRepository repository =
+            new ChargingOrderRepository(Collections.singletonList(table), null);
+
+    /**
+     * 充电桩被占用时，另一笔订单进入 CHARGING 的写入失败且仓储不变；占用者结束充电后可以开始
+     */
+    @Test
+    void testSecondOrderOnOccupiedPileIsRejected() {
+        repository.save(order("order-1", "pile-1", OrderState.PAID));
+        repository.save(order("order-2", "pile-1", OrderState.PAID));
+
+        assertTrue(transition("order-1", OrderState.CHARGING));
+        PileOccupiedException e = assertThrows(PileOccupiedException.class,
+                () -> transition("order-2", OrderState.CHARGING));
+        assertTrue(e.getMessage().contains("order-1"));
+        assertEquals(OrderState.PAID, repository.findById("order-2").getState());
+        assertEquals(0, repository.findById("order-2").getVersion());
+        assertEquals("order-1", table.get("pile-1").getOrderId());
+
+        assertTrue(transition("order-1", OrderState.COMPLETED));
+        assertFalse(table.get("pile-1").isOccupied());
+        assertTrue(transition("order-2", OrderState.CHARGING));
+        assertEquals("order-2", table.get("pile-1").getOrderId());
+        assertEquals(1, table.getOccupiedCount());
+    }
+
+    /**
+     * 不进出 CHARGING 的写入、非占用者的释放都不改变占用
+     */
+    @Test
+    void testOnlyChargingTransitionsTouchTheSlot() {
+        repository.save(order("order-1", "pile-1", OrderState.PAID));
+        repository.save(order("order-2", "pile-1", OrderState.CREATED));
+        assertTrue(transition("order-1", OrderState.CHARGING));
+
+        ChargingOrder reading = repository.findById("order-1").copy();
+        assertTrue(repository.compareAndSet(reading, reading.getVersion()));
+        assertTrue(transition("order-2", OrderState.CANCELLED));
+        assertFalse(table.release("pile-1", "order-2"));
+
+        assertEquals("order-1", table.get("pile-1").getOrderId());
+        assertEquals(1, table.getOccupiedCount());
+
+        repository.delete("order-1");
+        assertFalse(table.get("pile-1").isOccupied());
+        assertEquals(0, table.getOccupiedCount());
+    }
+
+    /**
+     * 大量订单并发在同一批充电桩上开始充电：每个充电桩恰好一笔订单成功
+     */
+    @Test
+    void testConcurrentStartsClaimEachPileOnce() throws Exception {
+        int piles = 200;
+        int ordersPerPile = 20;
+        List<String> orderIds = new ArrayList<>();
+        for (int pile = 0; pile < piles; pile++) {
+            for (int i = 0; i < ordersPerPile; i++) {
+                String orderId = "order-" + pile + "-" + i;
+                repository.save(order(orderId, "pile-" + pile, OrderState.PAID));
+                orderIds.add(orderId);
+            }
+        }
+        Collections.shuffle(orderIds);
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = offset; i < orderIds.size(); i += threads) {
+                        try {
+                            if (transition(orderIds.get(i), OrderState.CHARGING)) {
+                                started.incrementAndGet();
+                            }
+                        } catch (PileOccupiedException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(piles, started.get());
+        assertEquals(piles * (ordersPerPile - 1), rejected.get());
+        assertEquals(piles, repository.countByState(OrderState.CHARGING));
+        assertEquals(piles, table.getOccupiedCount());
+        for (int pile = 0; pile < piles; pile++) {
+            List<ChargingOrder> active = repository.findActiveByChargingPileId("pile-" + pile);
+            long charging = active.stream().filter(order -> order.getState() == OrderState.CHARGING).count();
+            assertEquals(1, charging);
+        }
+        assertEquals(10, table.summary(10).getOccupied().size());
+    }
+
+    /**
+     * 启动时按已恢复的 CHARGING 订单重建占用
+     */
+    @Test
+    void testRebuildFromRestoredOrders() {
+        beanFactory.registerSingleton("chargingOrderRepository", repository);
+        repository.restore(Arrays.asList(
+                order("order-1", "pile-1", OrderState.CHARGING),
+                order("order-2", "pile-2", OrderState.COMPLETED)));
+
+        table.rebuild();
+
+        assertEquals("order-1", table.get("pile-1").getOrderId());
+        assertFalse(table.get("pile-2").isOccupied());
+        assertThrows(PileOccupiedException.class, () -> table.claim("pile-1", "order-3"));
+    }
+
+    /**
+     * 排在后面的监听器拒绝写入时，占用随写入一起撤销：进入 CHARGING 的占用被释放，离开 CHARGING 的释放被恢复
+     */
+    @Test
+    void testSlotFollowsWriteRejectedByLaterListener() {
+        AtomicBoolean reject = new AtomicBoolean();
+        ChargingOrderRepository guarded = new ChargingOrderRepository(Arrays.asList(table, new OrderChangeListener() {
+            @Override
+            public void onSaved(ChargingOrder order) {
+                if (reject.get()) {
+                    throw new IllegalStateException("journal full");
+                }
+            }
+
+            @Override
+            public void onDeleted(String orderId) {
+            }
+        }), null);
+        guarded.save(order("order-1", "pile-1", OrderState.PAID));
+
+        reject.set(true);
+        ChargingOrder charging = guarded.findById("order-1").copy();
+        charging.setState(OrderState.CHARGING);
+        assertThrows(IllegalStateException.class, () -> guarded.compareAndSet(charging, 0, OrderEvent.START_CHARGING));
+        assertEquals(OrderState.PAID, guarded.findById("order-1").getState());
+        assertFalse(table.get("pile-1").isOccupied());
+        assertEquals(0, table.getOccupiedCount());
+
+        reject.set(false);
+        assertTrue(guarded.compareAndSet(charging.copy(), 0, OrderEvent.START_CHARGING));
+        reject.set(true);
+        ChargingOrder completed = guarded.findById("order-1").copy();
+        completed.setState(OrderState.COMPLETED);
+        assertThrows(IllegalStateException.class, () -> guarded.compareAndSet(completed, 1));
+        assertEquals(OrderState.CHARGING, guarded.findById("order-1").getState());
+        assertEquals("order-1", table.get("pile-1").getOrderId());
+        assertThrows(PileOccupiedException.class, () -> table.claim("pile-1", "order-2"));
+    }
+
+    /**
+     * 内存未命中时回源加载的 CHARGING 订单占用其充电桩
+     */
+    @Test
+    void testLoadedChargingOrderClaimsThePile() {
+        ChargingOrderRepository loading = new ChargingOrderRepository(Collections.singletonList(table),
+                orderId -> order(orderId, "pile-9", OrderState.CHARGING));
+
+        assertNotNull(loading.findById("order-9"));
+
+        assertEquals("order-9", table.get("pile-9").getOrderId());
+        loading.save(order("order-10", "pile-9", OrderState.PAID));
+        ChargingOrder charging = loading.findById("order-10").copy();
+        charging.setState(OrderState.CHARGING);
+        assertThrows(PileOccupiedException.class,
+                () -> loading.compareAndSet(charging, 0, OrderEvent.START_CHARGING));
+    }
+
+    /**
+     * 把订单迁移到目标状态
+     *
+     * @return true 如果写入成功
+     */
+    private boolean transition(String orderId, OrderState state) {
+        ChargingOrder current = repository.findById(orderId);
+        ChargingOrder updated = current.copy();
+        updated.setState(state);
+        OrderEvent event = state == OrderState.CHARGING ? OrderEvent.START_CHARGING : null;
+        return repository.compareAndSet(updated, current.getVersion(), event);
+    }
+
+    private static ChargingOrder order(String orderId, String pileId, OrderState state) {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId(orderId);
+        order.setUserId("user-1");
+        order.setChargingPileId(pileId);
+        order.setState(state);
+        order.setPaymentType(PaymentType.PRE_PAID);
+        return order;
+    }
+}
@@ -0,0 +1,303 @@
+package com.charging.order.infrastructure.outbox;
+
+import com.charging.order.app.service.ChargingOrderService;
+import com.charging.order.config.OutboxProperties;
+import com.charging.order.config.StateMachineProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.domain.outbox.IntentType;
+import com.charging.order.domain.outbox.OutboxIntent;
+import com.charging.order.domain.statemachine.TransitionEngineType;
+import com.charging.order.domain.strategy.PaymentStrategyFactory;
+import com.charging.order.domain.strategy.PostPaidStrategy;
+import com.charging.order.domain.strategy.PrePaidStrategy;
+import com.charging.order.infrastructure.id.OrderIdGenerator;
+import com.charging.order.infrastructure.metrics.OrderMetrics;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单发件箱测试
+ * Order Outbox Test
+ *
+ * 手工装配服务与仓储；使用预编译迁移表引擎，不在 COLA 的全局注册表中重复注册状态机。
+ */
+class OrderOutboxTest {
+
+    private OrderOutbox outbox;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (outbox != null) {
+            outbox.shutdown();
+        }
+    }
+
+    /**
+     * 只有提交成功的迁移产生意图；非法迁移、版本冲突后重试前的那次尝试不产生意图
+     */
+    @Test
+    void testIntentsAreRecordedOnlyWithCommittedTransitions() {
+        RecordingSink sink = new RecordingSink(intent -> false);
+        ChargingOrderService service = start(sink, 1, 10);
+
+        String orderId = service.createOrder("user-1", "pile-1", PaymentType.PRE_PAID).getOrderId();
+        assertThrows(IllegalStateException.class, () -> service.updateOrder(orderId, null, service::startCharging));
+        AtomicInteger attempts = new AtomicInteger();
+        service.updateOrder(orderId, null, order -> {
+            ChargingOrder paid = service.pay(order, Money.of("100.00"));
+            if (attempts.incrementAndGet() == 1) {
+                // 另一个线程抢先提交，本次尝试比较并替换失败
+                CompletableFuture.runAsync(() -> service.updateOrder(orderId, null, concurrent -> {
+                    concurrent.setUpdateTime(LocalDateTime.now());
+                    return concurrent;
+                })).join();
+            }
+            return paid;
+        });
+        service.updateOrder(orderId, null, service::startCharging);
+
+        await(() -> outbox.getDeliveredCount() == 2);
+        assertEquals(2, attempts.get());
+        List<OutboxIntent> delivered = sink.delivered();
+        assertEquals(IntentType.CAPTURE_PREPAYMENT, delivered.get(0).getType());
+        assertEquals(Money.of("100.00"), delivered.get(0).getAmount());
+        assertEquals(orderId + ":CAPTURE_PREPAYMENT:2", delivered.get(0).getIdempotencyKey());
+        assertEquals(IntentType.START_PILE, delivered.get(1).getType());
+        assertEquals("pile-1", delivered.get(1).getChargingPileId());
+        assertEquals(2, outbox.getRecordedCount());
+        assertEquals(0, outbox.getPendingCount());
+    }
+
+    /**
+     * 失败的意图退避重试，同一订单之后的意图等它成功后才投递，其他订单不受影响
+     */
+    @Test
+    void testRetryKeepsPerOrderOrderWithoutBlockingOthers() {
+        RecordingSink sink = new RecordingSink(new FailFirst(IntentType.AUTHORIZE_PAYMENT, 3));
+        ChargingOrderService service = start(sink, 10, 10);
+
+        String slow = service.createOrder("user-1", "pile-1", PaymentType.POST_PAID).getOrderId();
+        String fast = service.createOrder("user-2", "pile-2", PaymentType.PRE_PAID).getOrderId();
+        service.updateOrder(slow, null, service::authorize);
+        service.updateOrder(slow, null, service::startCharging);
+        service.updateOrder(fast, null, order -> service.pay(order, Money.of("50.00")));
+        service.updateOrder(fast, null, service::startCharging);
+
+        await(() -> outbox.getDeliveredCount() == 4);
+        List<OutboxIntent> delivered = sink.delivered();
+        List<IntentType> slowTypes = new ArrayList<>();
+        for (OutboxIntent intent : delivered) {
+            if (intent.getOrderId().equals(slow)) {
+                slowTypes.add(intent.getType());
+            }
+        }
+        assertEquals(Arrays.asList(IntentType.AUTHORIZE_PAYMENT, IntentType.START_PILE), slowTypes);
+        assertEquals(fast, delivered.get(0).getOrderId());
+        assertEquals(3, outbox.getRetriedCount());
+        assertEquals(0, outbox.getDeadLetteredCount());
+    }
+
+    /**
+     * 用完重试次数的意图计为死信，同一订单之后的意图继续投递；投递端抛异常视为整批失败
+     */
+    @Test
+    void testExhaustedIntentIsDeadLetteredAndLaterIntentsProceed() {
+        RecordingSink sink = new RecordingSink(intent -> {
+            if (intent.getType() == IntentType.AUTHORIZE_PAYMENT) {
+                throw new IllegalStateException("gateway down");
+            }
+            return false;
+        });
+        ChargingOrderService service = start(sink, 3, 10);
+
+        String orderId = service.createOrder("user-1", "pile-1", PaymentType.POST_PAID).getOrderId();
+        service.updateOrder(orderId, null, service::authorize);
+        service.updateOrder(orderId, null, service::startCharging);
+        service.updateOrder(orderId, null,
+                order -> service.finishCharging(order, Energy.of("10"), Money.of("20.00")));
+        service.updateOrder(orderId, null, service::deduct);
+
+        await(() -> outbox.getDeliveredCount() == 2);
+        assertEquals(1, outbox.getDeadLetteredCount());
+        assertEquals(2, outbox.getRetriedCount());
+        List<OutboxIntent> delivered = sink.delivered();
+        assertEquals(IntentType.START_PILE, delivered.get(0).getType());
+        assertEquals(IntentType.DEDUCT, delivered.get(1).getType());
+        assertEquals(Money.of("20.00"), delivered.get(1).getAmount());
+    }
+
+    /**
+     * 积压的不同订单的意图合并成批调用投递端
+     */
+    @Test
+    void testIntentsOfDifferentOrdersAreBatched() {
+        RecordingSink sink = new RecordingSink(intent -> false);
+        sink.latencyMillis = 50;
+        ChargingOrderService service = start(sink, 1, 10);
+
+        int orders = 40;
+        for (int i = 0; i < orders; i++) {
+            String orderId = service.createOrder("user-" + i, "pile-" + i, PaymentType.POST_PAID).getOrderId();
+            service.updateOrder(orderId, null, service::authorize);
+        }
+
+        await(() -> outbox.getDeliveredCount() == orders);
+        assertTrue(sink.calls.get() < orders, "expected batched calls, got " + sink.calls.get());
+        assertTrue(sink.largestBatch > 1);
+    }
+
+    /**
+     * 每个意图类型必须恰好有一个投递端
+     */
+    @Test
+    void testEveryIntentTypeNeedsExactlyOneSink() {
+        OutboxProperties properties = new OutboxProperties();
+        RecordingSink partial = new RecordingSink(intent -> false) {
+            @Override
+            public Set<IntentType> getTypes() {
+                return EnumSet.of(IntentType.REFUND);
+            }
+        };
+        assertThrows(IllegalStateException.class,
+                () -> new OrderOutbox(properties, Collections.singletonList(partial)));
+        assertThrows(IllegalStateException.class, () -> new OrderOutbox(properties,
+                Arrays.asList(new StubGateway(Duration.ZERO, 0), partial)));
+    }
+
+    private ChargingOrderService start(OutboxSink sink, int maxAttempts, long backoffMillis) {
+        OutboxProperties properties = new OutboxProperties();
+        properties.setLanes(2);
+        properties.setMaxAttempts(maxAttempts);
+        properties.setInitialBackoff(Duration.ofMillis(backoffMillis));
+        properties.setMaxBackoff(Duration.ofMillis(backoffMillis * 4));
+        outbox = new OrderOutbox(properties, Collections.singletonList(sink));
+        outbox.start();
+
+        StateMachineProperties stateMachineProperties = new StateMachineProperties();
+        for (PaymentType paymentType : PaymentType.values()) {
+            stateMachineProperties.getEngines().put(paymentType, TransitionEngineType.TABLE);
+        }
+        PaymentStrategyFactory strategyFactory = new PaymentStrategyFactory(
+                Arrays.asList(new PrePaidStrategy(), new PostPaidStrategy()), stateMachineProperties);
+        ChargingOrderRepository repository = new ChargingOrderRepository(Collections.singletonList(outbox), null);
+        return new ChargingOrderService(strategyFactory, repository, new OrderIdGenerator(0),
+                new OrderMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 5 seconds");
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+
+    /**
+     * 记录成功投递的意图；failure 返回 true 的意图按失败返回
+     */
+    private static class RecordingSink implements OutboxSink {
+
+        private final Predicate<OutboxIntent> failure;
+
+        private final List<OutboxIntent> delivered = new ArrayList<>();
+
+        private volatile long latencyMillis;
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private volatile int largestBatch;
+
+        RecordingSink(Predicate<OutboxIntent> failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public Set<IntentType> getTypes() {
+            return EnumSet.allOf(IntentType.class);
+        }
+
+        @Override
+        public List<OutboxIntent> dispatch(List<OutboxIntent> intents) {
+            calls.incrementAndGet();
+            synchronized (delivered) {
+                largestBatch = Math.max(largestBatch, intents.size());
+            }
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<OutboxIntent> failed = new ArrayList<>();
+            for (OutboxIntent intent : intents) {
+                if (failure.test(intent)) {
+                    failed.add(intent);
+                } else {
+                    synchronized (delivered) {
+                        delivered.add(intent);
+                    }
+                }
+            }
+            return failed;
+        }
+
+        List<OutboxIntent> delivered() {
+            synchronized (delivered) {
+                return new ArrayList<>(delivered);
+            }
+        }
+    }
+
+    /**
+     * 指定类型的意图前若干次失败
+     */
+    private static final class FailFirst implements Predicate<OutboxIntent> {
+
+        private final IntentType type;
+
+        private int remaining;
+
+        private FailFirst(IntentType type, int times) {
+            this.type = type;
+            this.remaining = times;
+        }
+
+        @Override
+        public synchronized boolean test(OutboxIntent intent) {
+            if (intent.getType() == type && remaining > 0) {
+                remaining--;
+                return true;
+            }
+            return false;
+        }
+    }
+}
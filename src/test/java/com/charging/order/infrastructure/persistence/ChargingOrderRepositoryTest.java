@@ -0,0 +1,157 @@
+package com.charging.order.infrastructure.persistence;
+
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单仓储二级索引测试
+ * Charging Order Repository Index Test
+ */
+class ChargingOrderRepositoryTest {
+
+    private final ChargingOrderRepository repository = new ChargingOrderRepository();
+
+    /**
+     * 保存、迁移、删除后按用户 / 桩 / 状态查询的结果与存储一致；终结的订单退出用户和桩的索引
+     */
+    @Test
+    void testIndexesFollowWrites() {
+        repository.save(order("order-1", "user-1", "pile-1", OrderState.CREATED));
+        repository.save(order("order-2", "user-1", "pile-2", OrderState.CREATED));
+        repository.save(order("order-3", "user-2", "pile-3", OrderState.CREATED));
+
+        assertEquals(2, repository.findActiveByUserId("user-1").size());
+        assertEquals(1, repository.findActiveByChargingPileId("pile-1").size());
+        assertEquals(3, repository.countByState(OrderState.CREATED));
+
+        ChargingOrder charging = repository.findById("order-1").copy();
+        charging.setState(OrderState.CHARGING);
+        assertTrue(repository.compareAndSet(charging, 0));
+
+        assertEquals(2, repository.countByState(OrderState.CREATED));
+        assertEquals(Collections.singletonList(charging), repository.findByState(OrderState.CHARGING, 10));
+
+        ChargingOrder cancelled = repository.findById("order-2").copy();
+        cancelled.setState(OrderState.CANCELLED);
+        assertTrue(repository.compareAndSet(cancelled, 0));
+
+        assertEquals(Collections.singletonList(charging), repository.findActiveByUserId("user-1"));
+        assertTrue(repository.findActiveByChargingPileId("pile-2").isEmpty());
+        assertEquals(1, repository.countByState(OrderState.CANCELLED));
+
+        repository.delete("order-1");
+        repository.delete("order-2");
+        assertTrue(repository.findActiveByUserId("user-1").isEmpty());
+        assertTrue(repository.findActiveByChargingPileId("pile-1").isEmpty());
+        assertEquals(0, repository.countByState(OrderState.CHARGING));
+        assertEquals(0, repository.countByState(OrderState.CANCELLED));
+        assertEquals(1, repository.countByState(OrderState.CREATED));
+    }
+
+    /**
+     * 恢复的订单同样进入索引，旧版本不会覆盖新版本的索引位置
+     */
+    @Test
+    void testRestoreIndexesNewerVersion() {
+        ChargingOrder paid = order("order-1", "user-1", "pile-1", OrderState.PAID);
+        paid.setVersion(2);
+        repository.restore(Collections.singletonList(paid));
+        repository.restore(Collections.singletonList(order("order-1", "user-1", "pile-1", OrderState.CREATED)));
+
+        assertEquals(1, repository.countByState(OrderState.PAID));
+        assertEquals(0, repository.countByState(OrderState.CREATED));
+        assertEquals(1, repository.findActiveByUserId("user-1").size());
+    }
+
+    @Test
+    void testFindByStateRespectsLimit() {
+        for (int i = 0; i < 10; i++) {
+            repository.save(order("order-" + i, "user-" + i, "pile-" + i, OrderState.CHARGING));
+        }
+
+        assertEquals(3, repository.findByState(OrderState.CHARGING, 3).size());
+        assertEquals(10, repository.countByState(OrderState.CHARGING));
+    }
+
+    /**
+     * 同一用户的多个订单并发迁移直至终结：索引最终为空，状态计数与存储一致
+     */
+    @Test
+    void testConcurrentTransitionsKeepIndexesConsistent() throws Exception {
+        int orders = 200;
+        for (int i = 0; i < orders; i++) {
+            repository.save(order("order-" + i, "user-1", "pile-" + (i % 4), OrderState.CREATED));
+        }
+        OrderState[] path = {OrderState.PAID, OrderState.CHARGING, OrderState.COMPLETED, OrderState.CLOSED};
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < orders; i++) {
+                        for (OrderState next : path) {
+                            advance("order-" + i, next);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(repository.findActiveByUserId("user-1").isEmpty());
+        for (int p = 0; p < 4; p++) {
+            assertTrue(repository.findActiveByChargingPileId("pile-" + p).isEmpty());
+        }
+        assertEquals(orders, repository.countByState(OrderState.CLOSED));
+        for (OrderState state : path) {
+            if (state != OrderState.CLOSED) {
+                assertEquals(0, repository.countByState(state), state.name());
+            }
+        }
+        assertEquals(0, repository.countByState(OrderState.CREATED));
+    }
+
+    /**
+     * 订单尚未到达 next 时迁移过去；CAS 失败说明其他线程已经向前推进
+     */
+    private void advance(String orderId, OrderState next) {
+        ChargingOrder current = repository.findById(orderId);
+        if (current.getState().ordinal() >= next.ordinal()) {
+            return;
+        }
+        ChargingOrder updated = current.copy();
+        updated.setState(next);
+        repository.compareAndSet(updated, current.getVersion());
+    }
+
+    private static ChargingOrder order(String orderId, String userId, String chargingPileId, OrderState state) {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId(orderId);
+        order.setUserId(userId);
+        order.setChargingPileId(chargingPileId);
+        order.setPaymentType(PaymentType.PRE_PAID);
+        order.setState(state);
+        return order;
+    }
+}
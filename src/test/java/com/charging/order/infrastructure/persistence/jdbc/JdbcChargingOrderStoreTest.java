@@ -0,0 +1,151 @@
+package com.charging.order.infrastructure.persistence.jdbc;
+
+import com.charging.order.config.JdbcPersistenceProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Energy;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单 JDBC 写后持久化测试
+ * JDBC Write-Behind Order Store Test
+ *
+ * 使用 H2 的 MySQL 兼容模式执行与生产相同的 DDL 和 upsert 语句
+ */
+class JdbcChargingOrderStoreTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcChargingOrderStore store;
+
+    private ChargingOrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:orders_" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("db/charging_order.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // 刷盘间隔设得足够长，测试中由 flush()/shutdown() 显式触发
+        JdbcPersistenceProperties properties = new JdbcPersistenceProperties();
+        properties.setFlushInterval(Duration.ofMinutes(10));
+        properties.setBatchSize(4);
+        store = new JdbcChargingOrderStore(jdbcTemplate, properties);
+        store.start();
+        repository = new ChargingOrderRepository(Collections.singletonList(store), store);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        store.shutdown();
+    }
+
+    /**
+     * 迁移只进入内存，刷盘时同一订单的多次变更合并为一次写入
+     */
+    @Test
+    void testTransitionsAreCoalescedUntilFlush() {
+        ChargingOrder order = newOrder("order-1");
+        repository.save(order);
+        for (OrderState state : new OrderState[]{OrderState.PAID, OrderState.CHARGING, OrderState.COMPLETED}) {
+            ChargingOrder updated = repository.findById("order-1").copy();
+            updated.setState(state);
+            assertTrue(repository.compareAndSet(updated, updated.getVersion()));
+        }
+
+        assertEquals(0, countRows());
+        assertEquals(1, store.getPendingCount());
+
+        assertEquals(1, store.flush());
+        assertEquals(1, countRows());
+        assertEquals("COMPLETED", jdbcTemplate.queryForObject(
+                "SELECT state FROM charging_order WHERE order_id = ?", String.class, "order-1"));
+        assertEquals(3L, jdbcTemplate.queryForObject(
+                "SELECT version FROM charging_order WHERE order_id = ?", Long.class, "order-1"));
+    }
+
+    /**
+     * 关闭时排空全部待写订单（多于一个批次）
+     */
+    @Test
+    void testShutdownDrainsPendingWrites() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            repository.save(newOrder("order-" + i));
+        }
+
+        store.shutdown();
+
+        assertEquals(10, countRows());
+        assertEquals(0, store.getPendingCount());
+    }
+
+    /**
+     * 重启后（新的内存仓储）从数据库回源加载订单
+     */
+    @Test
+    void testLoadsFromDatabaseAfterRestart() {
+        repository.save(newOrder("order-restart"));
+        store.flush();
+
+        ChargingOrderRepository restarted = new ChargingOrderRepository(Collections.singletonList(store), store);
+        ChargingOrder loaded = restarted.findById("order-restart");
+
+        assertNotNull(loaded);
+        assertEquals(OrderState.CREATED, loaded.getState());
+        assertEquals(PaymentType.PRE_PAID, loaded.getPaymentType());
+        assertEquals(Money.of("100.00"), loaded.getPrepaidAmount());
+    }
+
+    /**
+     * 删除在刷盘后同步到数据库，未刷盘前回源也不会读到已删除的订单
+     */
+    @Test
+    void testDeleteIsWrittenBehind() {
+        repository.save(newOrder("order-delete"));
+        store.flush();
+
+        repository.delete("order-delete");
+        assertNull(store.load("order-delete"));
+        assertEquals(1, countRows());
+
+        store.flush();
+        assertEquals(0, countRows());
+    }
+
+    private int countRows() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM charging_order", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private static ChargingOrder newOrder(String orderId) {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId(orderId);
+        order.setUserId("user-1");
+        order.setChargingPileId("pile-1");
+        order.setPaymentType(PaymentType.PRE_PAID);
+        order.setState(OrderState.CREATED);
+        order.setChargingAmount(Energy.ZERO);
+        order.setOrderAmount(Money.ZERO);
+        order.setPrepaidAmount(Money.of("100.00"));
+        order.setCreateTime(LocalDateTime.now());
+        order.setUpdateTime(order.getCreateTime());
+        return order;
+    }
+}
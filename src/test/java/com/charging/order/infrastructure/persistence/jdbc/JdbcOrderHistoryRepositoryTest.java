@@ -0,0 +1,170 @@
+package com.charging.order.infrastructure.persistence.jdbc;
+
+import com.charging.order.config.JdbcPersistenceProperties;
+import com.charging.order.domain.model.ChargingOrder;
+import com.charging.order.domain.model.Money;
+import com.charging.order.domain.model.OrderState;
+import com.charging.order.domain.model.PaymentType;
+import com.charging.order.infrastructure.persistence.ChargingOrderRepository;
+import com.charging.order.infrastructure.persistence.OrderHistoryCursor;
+import com.charging.order.infrastructure.persistence.OrderHistoryPage;
+import com.charging.order.infrastructure.persistence.OrderHistoryQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单历史键集分页测试（H2 MySQL 兼容模式）
+ * JDBC Order History Repository Test
+ */
+class JdbcOrderHistoryRepositoryTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private JdbcChargingOrderStore store;
+
+    private ChargingOrderRepository repository;
+
+    private JdbcOrderHistoryRepository historyRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:history_" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("db/charging_order.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        JdbcPersistenceProperties properties = new JdbcPersistenceProperties();
+        properties.setFlushInterval(Duration.ofMinutes(10));
+        store = new JdbcChargingOrderStore(jdbcTemplate, properties);
+        store.start();
+        repository = new ChargingOrderRepository(Collections.singletonList(store), store);
+        historyRepository = new JdbcOrderHistoryRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        store.shutdown();
+    }
+
+    /**
+     * 逐页翻完全部订单：按 (createTime, orderId) 倒序，不重复不遗漏，同一创建时间的订单按 orderId 区分
+     */
+    @Test
+    void testPagesThroughAllOrdersInOrder() {
+        // 25 个订单，每两个共享同一创建时间
+        for (int i = 0; i < 25; i++) {
+            repository.save(newOrder(String.format("order-%02d", i), "user-1", "pile-" + (i % 3),
+                    BASE_TIME.plusMinutes(i / 2), OrderState.CLOSED));
+        }
+        repository.save(newOrder("order-other", "user-2", "pile-0", BASE_TIME, OrderState.CLOSED));
+        store.flush();
+
+        List<ChargingOrder> all = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderHistoryPage page = historyRepository.findPage(query(OrderHistoryQuery.Owner.USER, "user-1", cursor, 10));
+            pageSizes.add(page.getOrders().size());
+            all.addAll(page.getOrders());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(Arrays.asList(10, 10, 5), pageSizes);
+        assertEquals(25, all.size());
+        assertEquals(25, new HashSet<>(ids(all)).size());
+        for (int i = 1; i < all.size(); i++) {
+            ChargingOrder previous = all.get(i - 1);
+            ChargingOrder current = all.get(i);
+            int byTime = previous.getCreateTime().compareTo(current.getCreateTime());
+            assertTrue(byTime > 0 || byTime == 0 && previous.getOrderId().compareTo(current.getOrderId()) > 0);
+        }
+        assertEquals("order-24", all.get(0).getOrderId());
+        assertEquals("order-00", all.get(24).getOrderId());
+    }
+
+    /**
+     * 状态与创建时间范围过滤，按充电桩查询
+     */
+    @Test
+    void testFiltersByStateAndCreateTime() {
+        for (int i = 0; i < 12; i++) {
+            OrderState state = i % 4 == 0 ? OrderState.CANCELLED : OrderState.CLOSED;
+            repository.save(newOrder("order-" + i, "user-" + i, "pile-1", BASE_TIME.plusHours(i), state));
+        }
+        store.flush();
+
+        OrderHistoryQuery cancelled = query(OrderHistoryQuery.Owner.PILE, "pile-1", null, 10);
+        cancelled.setStates(EnumSet.of(OrderState.CANCELLED));
+        assertEquals(set("order-0", "order-4", "order-8"), new HashSet<>(ids(historyRepository.findPage(cancelled).getOrders())));
+
+        OrderHistoryQuery range = query(OrderHistoryQuery.Owner.PILE, "pile-1", null, 10);
+        range.setCreatedFrom(BASE_TIME.plusHours(3));
+        range.setCreatedTo(BASE_TIME.plusHours(6));
+        OrderHistoryPage page = historyRepository.findPage(range);
+        assertEquals(Arrays.asList("order-5", "order-4", "order-3"), ids(page.getOrders()));
+        assertNull(page.getNextCursor());
+
+        assertTrue(historyRepository.findPage(query(OrderHistoryQuery.Owner.USER, "nobody", null, 10))
+                .getOrders().isEmpty());
+    }
+
+    @Test
+    void testCursorRoundTrip() {
+        OrderHistoryCursor cursor = new OrderHistoryCursor(BASE_TIME.plusNanos(123_000_000), "order|1");
+        assertEquals(cursor, OrderHistoryCursor.decode(cursor.encode()));
+        assertThrows(IllegalArgumentException.class, () -> OrderHistoryCursor.decode("not a cursor"));
+    }
+
+    private static OrderHistoryQuery query(OrderHistoryQuery.Owner owner, String ownerId, String cursor, int limit) {
+        OrderHistoryQuery query = new OrderHistoryQuery();
+        query.setOwner(owner);
+        query.setOwnerId(ownerId);
+        query.setAfter(cursor == null ? null : OrderHistoryCursor.decode(cursor));
+        query.setLimit(limit);
+        return query;
+    }
+
+    private static List<String> ids(List<ChargingOrder> orders) {
+        List<String> ids = new ArrayList<>();
+        for (ChargingOrder order : orders) {
+            ids.add(order.getOrderId());
+        }
+        return ids;
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    private static ChargingOrder newOrder(String orderId, String userId, String chargingPileId,
+                                          LocalDateTime createTime, OrderState state) {
+        ChargingOrder order = new ChargingOrder();
+        order.setOrderId(orderId);
+        order.setUserId(userId);
+        order.setChargingPileId(chargingPileId);
+        order.setPaymentType(PaymentType.PRE_PAID);
+        order.setState(state);
+        order.setPrepaidAmount(Money.of("100.00"));
+        order.setCreateTime(createTime);
+        order.setUpdateTime(createTime);
+        return order;
+    }
+}
@@ -0,0 +1,133 @@
+package com.charging.order.infrastructure.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分层时间轮测试
+ * 大部分用例不启动 ticker 线程，直接调用 advanceTo 推进，结果是确定的
+ * Hierarchical Timing Wheel Test
+ */
+class HierarchicalTimingWheelTest {
+
+    /**
+     * 小轮子（4 槽 x 3 层，跨度 64 tick）上的定时器在各层之间下沉，恰好在到期 tick 执行
+     */
+    @Test
+    void testTimersFireAtTheirTickAcrossLevels() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, TimeUnit.MILLISECONDS, 4, 3, "test-wheel");
+        List<long[]> fired = new ArrayList<>();
+        long[] now = new long[1];
+        long[] deadlines = {1, 3, 4, 5, 16, 17, 21, 63, 64, 65, 200, 1000};
+        for (long deadline : deadlines) {
+            wheel.scheduleAtTick(() -> fired.add(new long[]{deadline, now[0]}), deadline);
+        }
+        assertEquals(deadlines.length, wheel.getPendingCount());
+
+        for (long tick = 1; tick <= 1000; tick++) {
+            now[0] = tick;
+            wheel.advanceTo(tick);
+        }
+
+        assertEquals(deadlines.length, fired.size());
+        for (int i = 0; i < deadlines.length; i++) {
+            assertEquals(deadlines[i], fired.get(i)[0]);
+            assertEquals(deadlines[i], fired.get(i)[1], "Timer " + deadlines[i] + " fired at wrong tick");
+        }
+        assertEquals(0, wheel.getPendingCount());
+        assertEquals(deadlines.length, wheel.getExpiredCount());
+    }
+
+    /**
+     * 在任意时刻安排的定时器都不会早于也不会晚于到期 tick
+     */
+    @Test
+    void testTimersScheduledWhileRunning() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, TimeUnit.MILLISECONDS, 8, 2, "test-wheel");
+        List<Long> lateOrEarly = new ArrayList<>();
+        long[] now = new long[1];
+        int scheduled = 0;
+        for (long tick = 1; tick <= 500; tick++) {
+            if (tick % 7 == 0) {
+                long deadline = tick + (tick * 31) % 150;
+                wheel.scheduleAtTick(() -> {
+                    if (now[0] != deadline) {
+                        lateOrEarly.add(deadline);
+                    }
+                }, deadline);
+                scheduled++;
+            }
+            now[0] = tick;
+            wheel.advanceTo(tick);
+        }
+        for (long tick = 501; tick <= 700; tick++) {
+            now[0] = tick;
+            wheel.advanceTo(tick);
+        }
+
+        assertTrue(lateOrEarly.isEmpty(), "Mistimed timers: " + lateOrEarly);
+        assertEquals(scheduled, wheel.getExpiredCount());
+    }
+
+    /**
+     * 取消的定时器不执行，取消与到期只有一个成功
+     */
+    @Test
+    void testCancelledTimersDoNotFire() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, TimeUnit.MILLISECONDS, 4, 2, "test-wheel");
+        List<String> fired = new ArrayList<>();
+        Timeout beforePlacement = wheel.scheduleAtTick(() -> fired.add("a"), 5);
+        assertTrue(beforePlacement.cancel());
+        wheel.advanceTo(1);
+
+        Timeout afterPlacement = wheel.scheduleAtTick(() -> fired.add("b"), 10);
+        Timeout kept = wheel.scheduleAtTick(() -> fired.add("c"), 10);
+        wheel.advanceTo(2);
+        assertTrue(afterPlacement.cancel());
+        assertFalse(afterPlacement.cancel());
+        assertEquals(1, wheel.getPendingCount());
+
+        wheel.advanceTo(20);
+        assertEquals(1, fired.size());
+        assertEquals("c", fired.get(0));
+        assertTrue(kept.isExpired());
+        assertFalse(kept.cancel());
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    /**
+     * 启动 ticker 线程后按实际时间到期
+     */
+    @Test
+    void testTickerThreadFiresTimers() throws Exception {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(5, TimeUnit.MILLISECONDS, 64, 3, "test-wheel");
+        wheel.start();
+        try {
+            CountDownLatch latch = new CountDownLatch(3);
+            long start = System.nanoTime();
+            wheel.schedule(latch::countDown, 20, TimeUnit.MILLISECONDS);
+            wheel.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+            wheel.schedule(latch::countDown, 400, TimeUnit.MILLISECONDS);
+            wheel.schedule(() -> fail("Cancelled timer fired"), 30, TimeUnit.MILLISECONDS).cancel();
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(400));
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    void testRejectsInvalidGeometry() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HierarchicalTimingWheel(1, TimeUnit.MILLISECONDS, 6, 2, "test-wheel"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HierarchicalTimingWheel(0, TimeUnit.MILLISECONDS, 8, 2, "test-wheel"));
+    }
+}